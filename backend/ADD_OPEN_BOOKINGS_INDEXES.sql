@@ -0,0 +1,16 @@
+-- Partial indexes over the bookings that are never archived (PostgreSQL)
+-- The admin lists (GET /bookings/admin/hotel/{hotelId} and /bookings/admin/status/{status})
+-- read open bookings of any age with a query of their own, apart from the one bounded by
+-- check-in date. That query cannot be narrowed to a few partitions, so these indexes keep
+-- only the pending, confirmed and checked-in rows: each probe reads the open bookings and
+-- none of the completed and cancelled history. PARTITION_BOOKINGS.sql creates them too.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_open_hotel ON bookings (hotel_id, created_at)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN');
+CREATE INDEX IF NOT EXISTS idx_bookings_open_status ON bookings (status, created_at)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN');
+
+ANALYZE bookings;
+
+-- Verify
+-- \d bookings
@@ -0,0 +1,15 @@
+-- Store prices and amounts as exact decimals
+-- Hibernate's ddl-auto=update does not change the type of existing columns, so databases
+-- created before prices became fixed-point still hold them as DOUBLE PRECISION. Values are
+-- rounded to cents on the way over (the application rounds to the currency's minor unit).
+
+ALTER TABLE hotels ALTER COLUMN price_per_night TYPE NUMERIC(19, 4) USING round(price_per_night::numeric, 2);
+ALTER TABLE rooms ALTER COLUMN price_per_night TYPE NUMERIC(19, 4) USING round(price_per_night::numeric, 2);
+ALTER TABLE bookings ALTER COLUMN total_price TYPE NUMERIC(19, 4) USING round(total_price::numeric, 2);
+ALTER TABLE payments ALTER COLUMN amount TYPE NUMERIC(19, 4) USING round(amount::numeric, 2);
+ALTER TABLE hotel_search_view ALTER COLUMN price_per_night TYPE NUMERIC(19, 4) USING round(price_per_night::numeric, 2);
+ALTER TABLE hotel_search_view ALTER COLUMN min_room_price TYPE NUMERIC(19, 4) USING round(min_room_price::numeric, 2);
+ALTER TABLE room_rate_calendars ALTER COLUMN base_price TYPE NUMERIC(19, 4) USING round(base_price::numeric, 2);
+
+-- Verify the change
+\d bookings;
@@ -0,0 +1,43 @@
+-- Hotel search read model
+-- One flattened row per hotel (core fields, first image, amenities, cheapest available room)
+-- maintained by the application whenever a hotel, room or booking changes inventory.
+-- Hibernate creates the table with ddl-auto=update; this script adds the PostgreSQL-specific
+-- indexes and can be used to create the table by hand.
+
+CREATE TABLE IF NOT EXISTS hotel_search_view (
+    hotel_id          VARCHAR(255) PRIMARY KEY,
+    name              VARCHAR(255) NOT NULL,
+    city              VARCHAR(255) NOT NULL,
+    country           VARCHAR(255) NOT NULL,
+    search_text       VARCHAR(1000) NOT NULL,
+    latitude          DOUBLE PRECISION,
+    longitude         DOUBLE PRECISION,
+    price_per_night   NUMERIC(19, 4) NOT NULL,
+    min_room_price    NUMERIC(19, 4),
+    available_rooms   INTEGER NOT NULL,
+    guest_rating      DOUBLE PRECISION,
+    total_reviews     INTEGER,
+    star_rating       INTEGER,
+    thumbnail_url     VARCHAR(255),
+    amenities         VARCHAR(255)[],
+    featured          BOOLEAN NOT NULL DEFAULT FALSE,
+    available         BOOLEAN NOT NULL DEFAULT TRUE,
+    status            VARCHAR(20),
+    refreshed_at      TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_hotel_search_view_city ON hotel_search_view (city);
+CREATE INDEX IF NOT EXISTS idx_hotel_search_view_price ON hotel_search_view (price_per_night);
+
+-- Substring location search (search_text LIKE '%term%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_hotel_search_view_text_trgm
+    ON hotel_search_view USING GIN (search_text gin_trgm_ops);
+
+-- Amenity containment filters (amenities @> ARRAY['Pool'])
+CREATE INDEX IF NOT EXISTS idx_hotel_search_view_amenities
+    ON hotel_search_view USING GIN (amenities);
+
+-- Backfill happens automatically on startup (HotelSearchViewInitializer) whenever the
+-- row count differs from the hotels table. To force a rebuild, truncate and restart:
+-- TRUNCATE hotel_search_view;
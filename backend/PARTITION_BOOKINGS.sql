@@ -0,0 +1,89 @@
+-- Partition bookings by check-in month (PostgreSQL 12+)
+-- Hibernate's ddl-auto=update cannot turn an existing table into a partitioned one, so this
+-- script rebuilds bookings as a range-partitioned table with one partition per check-in
+-- month. Queries that bound check_in_date (the calendar, the admin lists, the archive job)
+-- then only read the partitions of the months they ask for, and the old months emptied by
+-- the archive job (see bookings.archive in application.yml) can be dropped outright.
+--
+-- Run once, with the application stopped. Afterwards set bookings.partitions.enabled=true so
+-- the application keeps creating the partitions of the coming months
+-- (ensure_booking_partitions below). Nothing references bookings by foreign key
+-- (payments.booking_id is a plain column), so the table can be swapped in place.
+
+BEGIN;
+
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_unpartitioned RENAME CONSTRAINT bookings_pkey TO bookings_unpartitioned_pkey;
+
+-- Same columns, defaults and NOT NULLs; the partition key has to be part of the primary key
+CREATE TABLE bookings (LIKE bookings_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (check_in_date);
+ALTER TABLE bookings ADD CONSTRAINT bookings_pkey PRIMARY KEY (id, check_in_date);
+
+-- Catches check-in dates without a monthly partition yet, so no booking is ever rejected
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Creates the monthly partitions from first_month up to months_ahead months from today.
+-- Rows of a new month already in the default partition are moved into it.
+CREATE OR REPLACE FUNCTION ensure_booking_partitions(months_ahead INTEGER, first_month DATE DEFAULT CURRENT_DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE := date_trunc('month', first_month);
+    last_month DATE := date_trunc('month', CURRENT_DATE + make_interval(months => months_ahead));
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        partition_name := 'bookings_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                           partition_name);
+            EXECUTE format('WITH moved AS (DELETE FROM bookings_default WHERE check_in_date >= %L '
+                           'AND check_in_date < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                           month_start, month_start + INTERVAL '1 month', partition_name);
+            EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, month_start, month_start + INTERVAL '1 month');
+            created := created + 1;
+        END IF;
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_booking_partitions(12, COALESCE((SELECT MIN(check_in_date) FROM bookings_unpartitioned), CURRENT_DATE));
+
+INSERT INTO bookings SELECT * FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+-- Indexes of the Booking entity, created on every partition
+CREATE INDEX idx_bookings_cart ON bookings (cart_id);
+CREATE INDEX idx_bookings_hotel_check_in ON bookings (hotel_id, check_in_date);
+CREATE INDEX idx_bookings_hotel_check_out ON bookings (hotel_id, check_out_date);
+CREATE INDEX idx_bookings_hotel_change_seq ON bookings (hotel_id, change_seq);
+CREATE INDEX idx_bookings_user_change_seq ON bookings (user_id, change_seq);
+CREATE INDEX idx_bookings_status_check_in ON bookings (status, check_in_date);
+-- Open bookings of any age, for the admin lists (see ADD_OPEN_BOOKINGS_INDEXES.sql)
+CREATE INDEX idx_bookings_open_hotel ON bookings (hotel_id, created_at)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN');
+CREATE INDEX idx_bookings_open_status ON bookings (status, created_at)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN');
+-- Lookups by id alone (GET /bookings/{id}, payments) probe one index per partition
+CREATE INDEX idx_bookings_id ON bookings (id);
+
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_hotel FOREIGN KEY (hotel_id) REFERENCES hotels (id);
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_room FOREIGN KEY (room_id) REFERENCES rooms (id);
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_room_instance FOREIGN KEY (room_instance_id) REFERENCES room_instances (id);
+
+COMMIT;
+
+ANALYZE bookings;
+
+-- Verify
+-- \d+ bookings
+-- EXPLAIN SELECT * FROM bookings WHERE check_in_date >= CURRENT_DATE - 30;  -- recent partitions only
+
+-- Maintenance: once the archive job has emptied a month, drop its partition
+-- DROP TABLE bookings_2024_01;
@@ -0,0 +1,46 @@
+package com.hotelbooker.analytics.controller;
+
+import com.hotelbooker.analytics.dto.HotelKpiDto;
+import com.hotelbooker.analytics.service.AnalyticsService;
+import com.hotelbooker.common.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final AnalyticsService analyticsService;
+    
+    /**
+     * Occupancy, ADR and RevPAR of a hotel for the nights from startDate up to endDate
+     */
+    @GetMapping("/hotels/{hotelId}/kpis")
+    public ResponseEntity<ApiResponse<HotelKpiDto>> getHotelKpis(
+            @PathVariable String hotelId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        HotelKpiDto kpis = analyticsService.getHotelKpis(hotelId, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(kpis));
+    }
+    
+    /**
+     * The same figures for each night of the range (up to a year)
+     */
+    @GetMapping("/hotels/{hotelId}/nights")
+    public ResponseEntity<ApiResponse<List<HotelKpiDto>>> getNightlyKpis(
+            @PathVariable String hotelId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        List<HotelKpiDto> nights = analyticsService.getNightlyKpis(hotelId, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(nights));
+    }
+}
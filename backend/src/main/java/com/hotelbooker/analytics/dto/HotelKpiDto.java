@@ -0,0 +1,28 @@
+package com.hotelbooker.analytics.dto;
+
+import com.hotelbooker.common.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelKpiDto {
+    private String hotelId;
+    private LocalDate startDate;
+    private LocalDate endDate;           // Exclusive: the last night is the one before
+    private long nights;
+    private long roomNightsAvailable;    // Current room count times nights
+    private long roomsSold;              // Room nights sold
+    private Money revenue;
+    private long arrivals;
+    private long cancellations;          // Cancelled bookings that were to arrive in the range
+    private Double occupancyPercent;     // Null for hotels without rooms
+    private Money adr;                   // Average daily rate: revenue per room night sold
+    private Money revpar;                // Revenue per available room night
+}
@@ -0,0 +1,65 @@
+package com.hotelbooker.analytics.entity;
+
+import com.hotelbooker.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Rollup of one hotel's bookings for one night: rooms sold and their revenue, plus the
+ * bookings arriving that night and those cancelled. See
+ * {@link com.hotelbooker.analytics.rollup.HotelStatsStore}.
+ */
+@Entity
+@Table(name = "hotel_night_stats", indexes = {
+        @Index(name = "idx_hotel_night_stats_night", columnList = "night"),
+        @Index(name = "idx_hotel_night_stats_updated", columnList = "updated_at")
+})
+@IdClass(HotelNightStats.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotelNightStats {
+    
+    @Id
+    @Column(name = "hotel_id")
+    private String hotelId;
+    
+    @Id
+    @Column(name = "night")
+    private LocalDate night;
+    
+    @Column(nullable = false)
+    private int roomsSold;
+    
+    // Share of each stay's total price earned on this night
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money revenue;
+    
+    @Column(nullable = false)
+    private int arrivals;
+    
+    // Cancelled bookings that were to arrive this night
+    @Column(nullable = false)
+    private int cancellations;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Instances recounting the same night concurrently fail instead of overwriting each other
+    @Version
+    private Long version;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String hotelId;
+        private LocalDate night;
+    }
+}
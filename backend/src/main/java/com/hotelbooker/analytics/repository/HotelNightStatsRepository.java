@@ -0,0 +1,19 @@
+package com.hotelbooker.analytics.repository;
+
+import com.hotelbooker.analytics.entity.HotelNightStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HotelNightStatsRepository extends JpaRepository<HotelNightStats, HotelNightStats.Key> {
+    
+    List<HotelNightStats> findByHotelIdAndNightBetween(String hotelId, LocalDate firstNight, LocalDate lastNight);
+    
+    List<HotelNightStats> findByNightBetween(LocalDate firstNight, LocalDate lastNight);
+    
+    List<HotelNightStats> findByUpdatedAtAfter(LocalDateTime updatedAt);
+}
@@ -0,0 +1,48 @@
+package com.hotelbooker.analytics.rollup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The nights of one hotel waiting to be recounted, as disjoint ranges of epoch days, so stays
+ * months apart are recounted on their own rather than with every night between them. Not
+ * thread-safe; the store only changes it inside its map's compute.
+ */
+final class DirtyNights {
+    
+    // First epoch day -> last-plus-one epoch day, ranges neither overlapping nor touching
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    
+    /**
+     * Mark the nights from {@code fromDay} up to {@code toDay} (exclusive), joining the ranges
+     * they overlap or touch
+     */
+    DirtyNights add(long fromDay, long toDay) {
+        if (toDay <= fromDay) {
+            return this;
+        }
+        Map.Entry<Long, Long> before = ranges.floorEntry(fromDay);
+        if (before != null && before.getValue() >= fromDay) {
+            fromDay = before.getKey();
+            toDay = Math.max(toDay, before.getValue());
+        }
+        Map.Entry<Long, Long> next;
+        while ((next = ranges.ceilingEntry(fromDay)) != null && next.getKey() <= toDay) {
+            toDay = Math.max(toDay, next.getValue());
+            ranges.remove(next.getKey());
+        }
+        ranges.put(fromDay, toDay);
+        return this;
+    }
+    
+    /**
+     * The marked ranges in order, each as its first and last-plus-one epoch day
+     */
+    List<long[]> ranges() {
+        List<long[]> marked = new ArrayList<>(ranges.size());
+        ranges.forEach((fromDay, toDay) -> marked.add(new long[]{fromDay, toDay}));
+        return marked;
+    }
+}
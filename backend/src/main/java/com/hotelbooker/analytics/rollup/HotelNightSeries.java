@@ -0,0 +1,89 @@
+package com.hotelbooker.analytics.rollup;
+
+import com.hotelbooker.analytics.entity.HotelNightStats;
+
+import java.util.Collection;
+
+/**
+ * One hotel's nightly figures for a window of days starting at {@code startDay} (epoch day),
+ * kept only as prefix sums so any range inside the window totals in O(1). Instances are
+ * immutable and replaced as a whole.
+ */
+final class HotelNightSeries {
+    
+    private final long startDay;
+    private final long[] roomsSold;
+    private final long[] revenue;
+    private final long[] arrivals;
+    private final long[] cancellations;
+    
+    private HotelNightSeries(long startDay, int days) {
+        this.startDay = startDay;
+        this.roomsSold = new long[days + 1];
+        this.revenue = new long[days + 1];
+        this.arrivals = new long[days + 1];
+        this.cancellations = new long[days + 1];
+    }
+    
+    static HotelNightSeries empty(long startDay, int days) {
+        return new HotelNightSeries(startDay, days);
+    }
+    
+    /**
+     * A series for {@code days} nights from {@code startDay}, keeping the nights of this one
+     * that overlap it and replacing the given nights
+     */
+    HotelNightSeries with(long startDay, int days, Collection<HotelNightStats> nights) {
+        HotelNightSeries series = new HotelNightSeries(startDay, days);
+        for (int i = 0; i < days; i++) {
+            NightTotals night = totals(startDay + i, startDay + i + 1);
+            if (night != null) {
+                series.set(i, night.roomsSold(), night.revenue(), night.arrivals(), night.cancellations());
+            }
+        }
+        for (HotelNightStats night : nights) {
+            long index = night.getNight().toEpochDay() - startDay;
+            if (index >= 0 && index < days) {
+                series.set((int) index, night.getRoomsSold(), night.getRevenue().minorUnits(),
+                        night.getArrivals(), night.getCancellations());
+            }
+        }
+        // The arrays hold single nights until here
+        for (int i = 0; i < days; i++) {
+            series.roomsSold[i + 1] += series.roomsSold[i];
+            series.revenue[i + 1] += series.revenue[i];
+            series.arrivals[i + 1] += series.arrivals[i];
+            series.cancellations[i + 1] += series.cancellations[i];
+        }
+        return series;
+    }
+    
+    private void set(int index, long sold, long earned, long arriving, long cancelled) {
+        roomsSold[index + 1] = sold;
+        revenue[index + 1] = earned;
+        arrivals[index + 1] = arriving;
+        cancellations[index + 1] = cancelled;
+    }
+    
+    /**
+     * Totals of the nights from {@code fromDay} up to {@code toDay} (exclusive), or null when
+     * the range leaves the window
+     */
+    NightTotals totals(long fromDay, long toDay) {
+        if (!covers(fromDay, toDay)) {
+            return null;
+        }
+        int f = (int) (fromDay - startDay);
+        int t = (int) (toDay - startDay);
+        return new NightTotals(roomsSold[t] - roomsSold[f], revenue[t] - revenue[f],
+                arrivals[t] - arrivals[f], cancellations[t] - cancellations[f]);
+    }
+    
+    boolean covers(long fromDay, long toDay) {
+        return fromDay >= startDay && toDay <= startDay + days() && fromDay <= toDay;
+    }
+    
+    int days() {
+        return roomsSold.length - 1;
+    }
+}
@@ -0,0 +1,299 @@
+package com.hotelbooker.analytics.rollup;
+
+import com.hotelbooker.analytics.entity.HotelNightStats;
+import com.hotelbooker.analytics.repository.HotelNightStatsRepository;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.entity.ArchivedBooking;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
+import com.hotelbooker.booking.repository.ArchivedBookingRepository;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-hotel, per-night booking figures (rooms sold, revenue, arrivals, cancellations) for
+ * occupancy, ADR and RevPAR.
+ * <p>
+ * Nights are rolled up into hotel_night_stats, and the last {@code analytics.history-days}
+ * and next {@code analytics.future-days} nights of every hotel are held as prefix sums, so a
+ * range totals in O(1). A booking change marks the nights of its stay; every
+ * {@code analytics.refresh-interval-ms} each run of marked nights is recounted from the
+ * bookings overlapping it, archived ones included. Rollup rows written since the last refresh, including those of other
+ * instances, are then loaded into memory. Ranges outside the window are summed from the
+ * rollup rows.
+ */
+@Component
+@Slf4j
+public class HotelStatsStore {
+    
+    // Rollup rows committed late by a slow transaction are still picked up
+    private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(1);
+    
+    private final HotelNightStatsRepository statsRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final HotelRepository hotelRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int historyDays;
+    private final int days;
+    
+    // A live or archived booking, as far as the rollup is concerned
+    private record Stay(LocalDate checkIn, LocalDate checkOut, int rooms, Money totalPrice, Booking.BookingStatus status) {
+    }
+    
+    private final Map<String, HotelNightSeries> seriesByHotel = new ConcurrentHashMap<>();
+    // Hotel -> the nights to recount
+    private final Map<String, DirtyNights> dirty = new ConcurrentHashMap<>();
+    private volatile long startDay;
+    private LocalDateTime loadedUpTo;
+    
+    public HotelStatsStore(
+            HotelNightStatsRepository statsRepository,
+            BookingRepository bookingRepository,
+            ArchivedBookingRepository archivedBookingRepository,
+            HotelRepository hotelRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${analytics.history-days:400}") int historyDays,
+            @Value("${analytics.future-days:365}") int futureDays
+    ) {
+        this.statsRepository = statsRepository;
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.hotelRepository = hotelRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.historyDays = Math.max(historyDays, 1);
+        this.days = this.historyDays + Math.max(futureDays, 1);
+        this.startDay = LocalDate.now().toEpochDay() - this.historyDays;
+    }
+    
+    /**
+     * Figures of a hotel for the nights from {@code startDate} up to {@code endDate} (exclusive)
+     */
+    public NightTotals totals(String hotelId, LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        HotelNightSeries series = seriesByHotel.get(hotelId);
+        if (covered(series, from, to)) {
+            return series != null ? series.totals(from, to) : NightTotals.ZERO;
+        }
+        return stored(hotelId, startDate, endDate).values().stream()
+                .reduce(NightTotals.ZERO, NightTotals::plus);
+    }
+    
+    /**
+     * Figures of a hotel for each night from {@code startDate} up to {@code endDate} (exclusive)
+     */
+    public List<NightTotals> nightly(String hotelId, LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        HotelNightSeries series = seriesByHotel.get(hotelId);
+        List<NightTotals> nights = new ArrayList<>();
+        if (covered(series, from, to)) {
+            for (long day = from; day < to; day++) {
+                nights.add(series != null ? series.totals(day, day + 1) : NightTotals.ZERO);
+            }
+        } else {
+            Map<LocalDate, NightTotals> stored = stored(hotelId, startDate, endDate);
+            for (LocalDate night = startDate; night.isBefore(endDate); night = night.plusDays(1)) {
+                nights.add(stored.getOrDefault(night, NightTotals.ZERO));
+            }
+        }
+        return nights;
+    }
+    
+    /**
+     * Whether memory answers for the range: from the hotel's series, or as nothing booked when
+     * the hotel has none; a series not yet moved by a roll leaves it to the rollup rows
+     */
+    private boolean covered(HotelNightSeries series, long fromDay, long toDay) {
+        if (series != null) {
+            return series.covers(fromDay, toDay);
+        }
+        long start = startDay;
+        return fromDay >= start && toDay <= start + days;
+    }
+    
+    private Map<LocalDate, NightTotals> stored(String hotelId, LocalDate startDate, LocalDate endDate) {
+        return statsRepository.findByHotelIdAndNightBetween(hotelId, startDate, endDate.minusDays(1)).stream()
+                .collect(Collectors.toMap(HotelNightStats::getNight, night -> new NightTotals(night.getRoomsSold(),
+                        night.getRevenue().minorUnits(), night.getArrivals(), night.getCancellations())));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        loadedUpTo = LocalDateTime.now();
+        startDay = LocalDate.now().toEpochDay() - historyDays;
+        List<HotelNightStats> nights = statsRepository.findByNightBetween(
+                LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(startDay + days - 1));
+        apply(nights);
+        if (nights.isEmpty() && statsRepository.count() == 0) {
+            // First start: roll up the bookings already in the window
+            for (Hotel hotel : hotelRepository.findAll()) {
+                markDirty(hotel.getId(), startDay, startDay + days);
+            }
+        }
+        log.info("Loaded night stats for {} hotels, {} to recount", seriesByHotel.size(), dirty.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        for (BookingDto booking : event.bookings()) {
+            markDirty(booking.getHotelId(), booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+        }
+    }
+    
+    private void markDirty(String hotelId, long fromDay, long toDay) {
+        dirty.compute(hotelId, (id, nights) -> (nights != null ? nights : new DirtyNights()).add(fromDay, toDay));
+    }
+    
+    /**
+     * Recount the marked nights, then load every rollup row written since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${analytics.refresh-interval-ms:5000}",
+            initialDelayString = "${analytics.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        for (String hotelId : List.copyOf(dirty.keySet())) {
+            DirtyNights nights = dirty.remove(hotelId);
+            if (nights == null) {
+                continue;
+            }
+            for (long[] range : nights.ranges()) {
+                try {
+                    recount(hotelId, range[0], range[1]);
+                } catch (RuntimeException e) {
+                    // Retry on the next refresh
+                    markDirty(hotelId, range[0], range[1]);
+                    log.warn("Could not roll up night stats of hotel {}: {}", hotelId, e.getMessage());
+                }
+            }
+        }
+        if (loadedUpTo == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        apply(statsRepository.findByUpdatedAtAfter(loadedUpTo.minus(RELOAD_OVERLAP)));
+        loadedUpTo = now;
+    }
+    
+    /**
+     * Move every window to end {@code analytics.future-days} from today
+     */
+    @Scheduled(cron = "${analytics.roll-cron:0 10 0 * * *}")
+    public synchronized void roll() {
+        long oldEnd = startDay + days;
+        long newStart = LocalDate.now().toEpochDay() - historyDays;
+        if (newStart == startDay) {
+            return;
+        }
+        List<HotelNightStats> entering = statsRepository.findByNightBetween(
+                LocalDate.ofEpochDay(Math.max(oldEnd, newStart)), LocalDate.ofEpochDay(newStart + days - 1));
+        for (String hotelId : List.copyOf(seriesByHotel.keySet())) {
+            seriesByHotel.computeIfPresent(hotelId, (id, series) -> series.with(newStart, days, List.of()));
+        }
+        startDay = newStart;
+        apply(entering);
+    }
+    
+    private void apply(Collection<HotelNightStats> nights) {
+        long start = startDay;
+        nights.stream()
+                .collect(Collectors.groupingBy(HotelNightStats::getHotelId))
+                .forEach((hotelId, changed) -> seriesByHotel.compute(hotelId, (id, series) ->
+                        (series != null ? series : HotelNightSeries.empty(start, days)).with(start, days, changed)));
+    }
+    
+    private void recount(String hotelId, long fromDay, long toDay) {
+        int length = Math.toIntExact(toDay - fromDay);
+        int[] roomsSold = new int[length];
+        long[] revenue = new long[length];
+        int[] arrivals = new int[length];
+        int[] cancellations = new int[length];
+        LocalDate firstNight = LocalDate.ofEpochDay(fromDay);
+        LocalDate lastNight = LocalDate.ofEpochDay(toDay - 1);
+        LocalDate endNight = LocalDate.ofEpochDay(toDay);
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            // By id: a booking archived between the two reads is seen in both
+            Map<String, Stay> stays = new HashMap<>();
+            for (Booking booking : bookingRepository.findStaysByHotelId(hotelId, firstNight, endNight)) {
+                stays.put(booking.getId(), new Stay(booking.getCheckInDate(), booking.getCheckOutDate(),
+                        booking.getNumberOfRooms(), booking.getTotalPrice(), booking.getStatus()));
+            }
+            for (ArchivedBooking booking : archivedBookingRepository.findStaysByHotelId(hotelId, firstNight, endNight)) {
+                stays.putIfAbsent(booking.getId(), new Stay(booking.getCheckInDate(), booking.getCheckOutDate(),
+                        booking.getNumberOfRooms(), booking.getTotalPrice(), booking.getStatus()));
+            }
+            for (Stay stay : stays.values()) {
+                long checkIn = stay.checkIn().toEpochDay();
+                long checkOut = stay.checkOut().toEpochDay();
+                boolean cancelled = stay.status() == Booking.BookingStatus.CANCELLED;
+                if (checkIn >= fromDay && checkIn < toDay) {
+                    if (cancelled) {
+                        cancellations[(int) (checkIn - fromDay)]++;
+                    } else {
+                        arrivals[(int) (checkIn - fromDay)]++;
+                    }
+                }
+                if (cancelled || checkOut <= checkIn) {
+                    continue;
+                }
+                // Spread the price over the nights; the first night takes the remainder
+                long total = stay.totalPrice().minorUnits();
+                long perNight = total / (checkOut - checkIn);
+                for (long day = Math.max(checkIn, fromDay); day < Math.min(checkOut, toDay); day++) {
+                    int index = (int) (day - fromDay);
+                    roomsSold[index] += stay.rooms();
+                    revenue[index] += day == checkIn ? total - perNight * (checkOut - checkIn - 1) : perNight;
+                }
+            }
+            
+            Map<LocalDate, HotelNightStats> existing = statsRepository
+                    .findByHotelIdAndNightBetween(hotelId, firstNight, lastNight).stream()
+                    .collect(Collectors.toMap(HotelNightStats::getNight, Function.identity()));
+            LocalDateTime now = LocalDateTime.now();
+            List<HotelNightStats> changed = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                LocalDate night = firstNight.plusDays(i);
+                HotelNightStats stats = existing.get(night);
+                if (stats == null) {
+                    if (roomsSold[i] == 0 && arrivals[i] == 0 && cancellations[i] == 0) {
+                        continue;
+                    }
+                    stats = HotelNightStats.builder().hotelId(hotelId).night(night).build();
+                } else if (stats.getRoomsSold() == roomsSold[i] && stats.getRevenue().minorUnits() == revenue[i]
+                        && stats.getArrivals() == arrivals[i] && stats.getCancellations() == cancellations[i]) {
+                    continue;
+                }
+                stats.setRoomsSold(roomsSold[i]);
+                stats.setRevenue(Money.ofMinor(revenue[i]));
+                stats.setArrivals(arrivals[i]);
+                stats.setCancellations(cancellations[i]);
+                stats.setUpdatedAt(now);
+                changed.add(stats);
+            }
+            statsRepository.saveAll(changed);
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package com.hotelbooker.analytics.rollup;
+
+/**
+ * Figures of a hotel summed over a range of nights; revenue in minor units
+ */
+public record NightTotals(long roomsSold, long revenue, long arrivals, long cancellations) {
+    
+    public static final NightTotals ZERO = new NightTotals(0, 0, 0, 0);
+    
+    public NightTotals plus(NightTotals other) {
+        return new NightTotals(roomsSold + other.roomsSold, revenue + other.revenue,
+                arrivals + other.arrivals, cancellations + other.cancellations);
+    }
+}
@@ -0,0 +1,89 @@
+package com.hotelbooker.analytics.service;
+
+import com.hotelbooker.analytics.dto.HotelKpiDto;
+import com.hotelbooker.analytics.rollup.HotelStatsStore;
+import com.hotelbooker.analytics.rollup.NightTotals;
+import com.hotelbooker.common.exception.ResourceNotFoundException;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.repository.HotelInventory;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+    
+    private static final int MAX_SERIES_NIGHTS = 366;
+    
+    private final HotelStatsStore hotelStatsStore;
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    
+    /**
+     * Occupancy, ADR and RevPAR of a hotel over the nights from startDate up to endDate
+     */
+    public HotelKpiDto getHotelKpis(String hotelId, LocalDate startDate, LocalDate endDate) {
+        validateRange(startDate, endDate);
+        long rooms = totalRooms(hotelId);
+        return kpis(hotelId, startDate, endDate, rooms, hotelStatsStore.totals(hotelId, startDate, endDate));
+    }
+    
+    /**
+     * The same figures night by night, for charts
+     */
+    public List<HotelKpiDto> getNightlyKpis(String hotelId, LocalDate startDate, LocalDate endDate) {
+        validateRange(startDate, endDate);
+        if (ChronoUnit.DAYS.between(startDate, endDate) > MAX_SERIES_NIGHTS) {
+            throw new IllegalArgumentException("At most " + MAX_SERIES_NIGHTS + " nights per series");
+        }
+        long rooms = totalRooms(hotelId);
+        List<NightTotals> totals = hotelStatsStore.nightly(hotelId, startDate, endDate);
+        List<HotelKpiDto> nights = new ArrayList<>();
+        for (int i = 0; i < totals.size(); i++) {
+            LocalDate night = startDate.plusDays(i);
+            nights.add(kpis(hotelId, night, night.plusDays(1), rooms, totals.get(i)));
+        }
+        return nights;
+    }
+    
+    private HotelKpiDto kpis(String hotelId, LocalDate startDate, LocalDate endDate, long rooms, NightTotals totals) {
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        long available = rooms * nights;
+        return HotelKpiDto.builder()
+                .hotelId(hotelId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .nights(nights)
+                .roomNightsAvailable(available)
+                .roomsSold(totals.roomsSold())
+                .revenue(Money.ofMinor(totals.revenue()))
+                .arrivals(totals.arrivals())
+                .cancellations(totals.cancellations())
+                .occupancyPercent(available > 0 ? 100.0 * totals.roomsSold() / available : null)
+                .adr(Money.ofMinor(totals.roomsSold() > 0 ? Money.divideHalfUp(totals.revenue(), totals.roomsSold()) : 0))
+                .revpar(Money.ofMinor(available > 0 ? Money.divideHalfUp(totals.revenue(), available) : 0))
+                .build();
+    }
+    
+    private long totalRooms(String hotelId) {
+        if (!hotelRepository.existsById(hotelId)) {
+            throw new ResourceNotFoundException("Hotel not found with id: " + hotelId);
+        }
+        return roomRepository.sumInventory(hotelId)
+                .map(HotelInventory::totalRooms)
+                .orElse(0L);
+    }
+    
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+    }
+}
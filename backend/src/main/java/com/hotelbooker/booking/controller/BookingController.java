@@ -1,16 +1,39 @@
 package com.hotelbooker.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooker.booking.dto.BookingChangesDto;
 import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.dto.BookingImportResult;
+import com.hotelbooker.booking.dto.BookingImportSummary;
+import com.hotelbooker.booking.dto.BulkBookingRequest;
+import com.hotelbooker.booking.dto.BulkBookingResult;
+import com.hotelbooker.booking.dto.CartBookingDto;
 import com.hotelbooker.booking.dto.CreateBookingRequest;
-
+import com.hotelbooker.booking.dto.CreateCartBookingRequest;
+import com.hotelbooker.booking.service.BookingImportReader;
+import com.hotelbooker.booking.service.BookingImportService;
 import com.hotelbooker.booking.service.BookingService;
 import com.hotelbooker.common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/bookings")
@@ -18,6 +41,8 @@ import java.util.List;
 public class BookingController {
     
     private final BookingService bookingService;
+    private final BookingImportService bookingImportService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<ApiResponse<BookingDto>> createBooking(
@@ -27,12 +52,68 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.success("Booking created successfully", booking));
     }
     
+    @PostMapping("/cart")
+    public ResponseEntity<ApiResponse<CartBookingDto>> createCartBooking(
+            @Valid @RequestBody CreateCartBookingRequest request
+    ) {
+        CartBookingDto cart = bookingService.createCartBooking(request);
+        return ResponseEntity.ok(ApiResponse.success("Bookings created successfully", cart));
+    }
+    
+    /**
+     * Bulk import of CSV or NDJSON reservations, for admins; answers with one NDJSON result line
+     * per row (flushed chunk by chunk as rows are processed) and a final {@code {"summary": ...}} line
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importBookings(
+            HttpServletRequest request,
+            Authentication authentication
+    ) throws IOException {
+        BufferedReader body = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        BookingImportReader reader = request.getContentType().startsWith("text/csv")
+                ? BookingImportReader.csv(body, objectMapper)
+                : BookingImportReader.ndjson(body, objectMapper);
+        String email = authentication.getName();
+        
+        StreamingResponseBody stream = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            BookingImportSummary summary = bookingImportService.importBookings(reader, email, results -> {
+                try {
+                    for (BookingImportResult result : results) {
+                        writer.write(objectMapper.writeValueAsString(result));
+                        writer.write('\n');
+                    }
+                    // Let the client see each chunk's outcome while the next one is processed
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+            writer.write('\n');
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+    
     @GetMapping
     public ResponseEntity<ApiResponse<List<BookingDto>>> getUserBookings() {
         List<BookingDto> bookings = bookingService.getUserBookings();
         return ResponseEntity.ok(ApiResponse.success(bookings));
     }
     
+    /**
+     * The user's bookings changed since a token from the previous call (0 for everything)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<BookingChangesDto>> getBookingChanges(
+            @RequestParam(defaultValue = "0") long since
+    ) {
+        BookingChangesDto changes = bookingService.getBookingChanges(since);
+        return ResponseEntity.ok(ApiResponse.success(changes));
+    }
+    
     @GetMapping("/{bookingId}")
     public ResponseEntity<ApiResponse<BookingDto>> getBookingById(
             @PathVariable String bookingId
@@ -70,6 +151,16 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.success(bookings));
     }
     
+    @GetMapping("/admin/hotel/{hotelId}/history")
+    public ResponseEntity<ApiResponse<List<BookingDto>>> getBookingHistory(
+            @PathVariable String hotelId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        List<BookingDto> bookings = bookingService.getBookingHistory(hotelId, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(bookings));
+    }
+    
     @GetMapping("/admin/status/{status}")
     public ResponseEntity<ApiResponse<List<BookingDto>>> getBookingsByStatus(
             @PathVariable String status
@@ -99,6 +190,22 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.success("Guest checked in successfully", booking));
     }
     
+    @PostMapping("/admin/check-in")
+    public ResponseEntity<ApiResponse<BulkBookingResult>> checkInBookings(
+            @Valid @RequestBody BulkBookingRequest request
+    ) {
+        BulkBookingResult result = bookingService.checkInBookings(request.getBookingIds());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+    
+    @PostMapping("/admin/check-out")
+    public ResponseEntity<ApiResponse<BulkBookingResult>> checkOutBookings(
+            @Valid @RequestBody BulkBookingRequest request
+    ) {
+        BulkBookingResult result = bookingService.checkOutBookings(request.getBookingIds());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+    
     @PostMapping("/admin/{bookingId}/check-out")
     public ResponseEntity<ApiResponse<BookingDto>> checkOutBooking(
             @PathVariable String bookingId
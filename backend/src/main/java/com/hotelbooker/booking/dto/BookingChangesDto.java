@@ -0,0 +1,20 @@
+package com.hotelbooker.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingChangesDto {
+    private long token;                    // Pass as "since" on the next call
+    private boolean hasMore;               // Call again right away for the rest
+    private boolean reset;                 // Token too old: drop the local copy, this feed starts over
+    private List<BookingDto> bookings;
+    private List<String> removedBookingIds;
+}
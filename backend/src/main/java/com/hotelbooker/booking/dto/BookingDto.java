@@ -1,5 +1,7 @@
 package com.hotelbooker.booking.dto;
 
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.common.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +16,7 @@ import java.time.LocalDate;
 public class BookingDto {
     private String id;
     private String userId;
+    private String cartId;  // Set when booked together with other rooms
     private String hotelId;
     private String hotelName;
     private String roomId;
@@ -25,10 +28,38 @@ public class BookingDto {
     private Integer numberOfGuests;
     private Integer numberOfRooms;
     private Integer numberOfNights;
-    private Double totalPrice;
+    private Money totalPrice;
     private String status;
     private String specialRequests;
     private String guestName;
     private String guestEmail;
     private String guestPhone;
+    
+    /**
+     * The booking with its hotel, room type and room number; call with the booking's session open
+     */
+    public static BookingDto from(Booking booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .userId(booking.getUser() != null ? booking.getUser().getId() : null)
+                .cartId(booking.getCartId())
+                .hotelId(booking.getHotel().getId())
+                .hotelName(booking.getHotel().getName())
+                .roomId(booking.getRoom().getId())
+                .roomType(booking.getRoom().getRoomType())
+                .roomNumber(booking.getRoomInstance() != null ? booking.getRoomInstance().getRoomNumber() : null)
+                .roomInstanceId(booking.getRoomInstance() != null ? booking.getRoomInstance().getId() : null)
+                .checkInDate(booking.getCheckInDate())
+                .checkOutDate(booking.getCheckOutDate())
+                .numberOfGuests(booking.getNumberOfGuests())
+                .numberOfRooms(booking.getNumberOfRooms())
+                .numberOfNights(booking.getNumberOfNights())
+                .totalPrice(booking.getTotalPrice())
+                .status(booking.getStatus().name())
+                .specialRequests(booking.getSpecialRequests())
+                .guestName(booking.getGuestName())
+                .guestEmail(booking.getGuestEmail())
+                .guestPhone(booking.getGuestPhone())
+                .build();
+    }
 }
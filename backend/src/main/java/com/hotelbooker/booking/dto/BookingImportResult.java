@@ -0,0 +1,24 @@
+package com.hotelbooker.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hotelbooker.common.money.Money;
+
+/**
+ * Outcome of one imported row, streamed back as one NDJSON line
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookingImportResult(long row, Status status, String bookingId, Money totalPrice, String error) {
+    
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+    
+    public static BookingImportResult created(long row, String bookingId, Money totalPrice) {
+        return new BookingImportResult(row, Status.CREATED, bookingId, totalPrice, null);
+    }
+    
+    public static BookingImportResult rejected(long row, String error) {
+        return new BookingImportResult(row, Status.REJECTED, null, null, error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.hotelbooker.booking.dto;
+
+/**
+ * Last line of an import's result stream
+ */
+public record BookingImportSummary(long rows, long created, long rejected, long elapsedMs, double rowsPerSecond) {
+}
@@ -0,0 +1,15 @@
+package com.hotelbooker.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkBookingRequest {
+    
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = 200, message = "At most 200 bookings per request")
+    private List<String> bookingIds;
+}
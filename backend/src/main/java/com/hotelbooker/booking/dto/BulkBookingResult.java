@@ -0,0 +1,18 @@
+package com.hotelbooker.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingResult {
+    private List<BookingDto> updated;
+    private Map<String, String> failed;  // Booking id -> why it was left unchanged
+}
@@ -0,0 +1,19 @@
+package com.hotelbooker.booking.dto;
+
+import com.hotelbooker.common.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBookingDto {
+    private String cartId;
+    private List<BookingDto> bookings;
+    private Money totalPrice;  // What a single payment intent for the cart must charge
+}
@@ -0,0 +1,101 @@
+package com.hotelbooker.booking.entity;
+
+import com.hotelbooker.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A completed or cancelled stay moved out of bookings by
+ * {@link com.hotelbooker.booking.service.BookingArchiveService}: the booking's own id and
+ * fields, with the hotel name and room type copied in, and no foreign keys.
+ */
+@Entity
+@Table(name = "booking_archive", indexes = {
+        @Index(name = "idx_booking_archive_user", columnList = "user_id, created_at"),
+        @Index(name = "idx_booking_archive_hotel_check_in", columnList = "hotel_id, check_in_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedBooking implements Persistable<String> {
+    
+    @Id
+    private String id;
+    
+    @Column(name = "user_id")
+    private String userId;
+    
+    @Column(name = "hotel_id", nullable = false)
+    private String hotelId;
+    
+    @Column(nullable = false)
+    private String hotelName;
+    
+    @Column(nullable = false)
+    private String roomId;
+    
+    @Column(nullable = false)
+    private String roomType;
+    
+    private String roomInstanceId;
+    
+    private String cartId;
+    
+    @Column(name = "check_in_date", nullable = false)
+    private LocalDate checkInDate;
+    
+    @Column(nullable = false)
+    private LocalDate checkOutDate;
+    
+    @Column(nullable = false)
+    private Integer numberOfGuests;
+    
+    @Column(nullable = false)
+    private Integer numberOfRooms;
+    
+    @Column(nullable = false)
+    private Integer numberOfNights;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money totalPrice;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Booking.BookingStatus status;
+    
+    private String specialRequests;
+    
+    private String guestName;
+    private String guestEmail;
+    private String guestPhone;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // The id is the booking's, so saving would otherwise look the row up before inserting it
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private boolean newRow = true;
+    
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        newRow = false;
+    }
+}
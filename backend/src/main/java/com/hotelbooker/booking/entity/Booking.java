@@ -2,21 +2,33 @@ package com.hotelbooker.booking.entity;
 
 import com.hotelbooker.auth.entity.User;
 import com.hotelbooker.common.entity.BaseEntity;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.common.sync.ChangeSequenceListener;
+import com.hotelbooker.common.sync.ChangeTracked;
 import com.hotelbooker.hotel.entity.Hotel;
 import com.hotelbooker.hotel.entity.Room;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_cart", columnList = "cart_id"),
+        @Index(name = "idx_bookings_hotel_check_in", columnList = "hotel_id, check_in_date"),
+        @Index(name = "idx_bookings_hotel_check_out", columnList = "hotel_id, check_out_date"),
+        @Index(name = "idx_bookings_hotel_change_seq", columnList = "hotel_id, change_seq"),
+        @Index(name = "idx_bookings_user_change_seq", columnList = "user_id, change_seq"),
+        @Index(name = "idx_bookings_status_check_in", columnList = "status, check_in_date")
+})
+@EntityListeners(ChangeSequenceListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Booking extends BaseEntity {
+public class Booking extends BaseEntity implements ChangeTracked {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = true)  // Nullable for walk-in/admin bookings
@@ -34,6 +46,7 @@ public class Booking extends BaseEntity {
     @JoinColumn(name = "room_instance_id")
     private com.hotelbooker.hotel.entity.RoomInstance roomInstance;
     
+    // Partition key of the bookings table on PostgreSQL (PARTITION_BOOKINGS.sql)
     @Column(nullable = false)
     private LocalDate checkInDate;
     
@@ -49,8 +62,12 @@ public class Booking extends BaseEntity {
     @Column(nullable = false)
     private Integer numberOfNights;
     
-    @Column(nullable = false)
-    private Double totalPrice;
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money totalPrice;
+    
+    // Shared by the bookings of one cart, which are created and paid for together
+    @Column(name = "cart_id")
+    private String cartId;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -62,6 +79,11 @@ public class Booking extends BaseEntity {
     private String guestEmail;
     private String guestPhone;
     
+    // Delta-sync position, renewed on every write; rows from before change tracking start at 0
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
     public enum BookingStatus {
         PENDING,
         CONFIRMED,
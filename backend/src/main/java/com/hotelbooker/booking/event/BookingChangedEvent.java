@@ -0,0 +1,18 @@
+package com.hotelbooker.booking.event;
+
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.entity.Booking;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever bookings are created or change status or room, carrying a snapshot of
+ * each taken inside the transaction so listeners can update their views without reloading.
+ */
+public record BookingChangedEvent(List<BookingDto> bookings) {
+    
+    public static BookingChangedEvent of(Collection<Booking> bookings) {
+        return new BookingChangedEvent(bookings.stream().map(BookingDto::from).toList());
+    }
+}
@@ -0,0 +1,28 @@
+package com.hotelbooker.booking.repository;
+
+import com.hotelbooker.booking.entity.ArchivedBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, String> {
+    
+    List<ArchivedBooking> findByUserIdOrderByCreatedAtDesc(String userId);
+    
+    List<ArchivedBooking> findByHotelIdAndCheckInDateBetweenOrderByCheckInDate(
+            String hotelId, LocalDate startDate, LocalDate endDate);
+    
+    // Analytics: archived stays overlapping [startDate, endDate), cancelled ones included
+    @Query("SELECT a FROM ArchivedBooking a WHERE a.hotelId = :hotelId " +
+            "AND a.checkInDate < :endDate AND a.checkOutDate > :startDate")
+    List<ArchivedBooking> findStaysByHotelId(
+            @Param("hotelId") String hotelId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
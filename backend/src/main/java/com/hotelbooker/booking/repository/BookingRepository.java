@@ -1,6 +1,7 @@
 package com.hotelbooker.booking.repository;
 
 import com.hotelbooker.booking.entity.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +13,8 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
     
     List<Booking> findByUserIdOrderByCreatedAtDesc(String userId);
     
+    List<Booking> findByCartId(String cartId);
+    
     List<Booking> findByUserIdAndStatusOrderByCheckInDateDesc(String userId, Booking.BookingStatus status);
     
     List<Booking> findByUserIdAndCheckInDateAfterOrderByCheckInDate(String userId, LocalDate date);
@@ -41,10 +44,120 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
         @org.springframework.data.repository.query.Param("checkOutDate") LocalDate checkOutDate
     );
     
-    // Admin queries
-    List<Booking> findByHotelIdOrderByCreatedAtDesc(String hotelId);
+    // Stays already placed on an instance of the given room types, for the assignment engine's occupancy index
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b WHERE b.roomInstance.roomType.id IN :roomTypeIds " +
+        "AND b.status != 'CANCELLED' " +
+        "AND b.checkInDate < :endDate AND b.checkOutDate > :startDate"
+    )
+    List<Booking> findAssignedByRoomTypeIdsAndDateRange(
+        @org.springframework.data.repository.query.Param("roomTypeIds") java.util.Collection<String> roomTypeIds,
+        @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+        @org.springframework.data.repository.query.Param("endDate") LocalDate endDate
+    );
+    
+    // Front-desk board: stays touching [startDate, endDate] with what the board shows fetched along
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b JOIN FETCH b.hotel JOIN FETCH b.room LEFT JOIN FETCH b.roomInstance " +
+        "WHERE b.status != 'CANCELLED' " +
+        "AND b.checkInDate <= :endDate AND b.checkOutDate >= :startDate"
+    )
+    List<Booking> findForBoard(
+        @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+        @org.springframework.data.repository.query.Param("endDate") LocalDate endDate
+    );
+    
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b JOIN FETCH b.hotel JOIN FETCH b.room LEFT JOIN FETCH b.roomInstance " +
+        "WHERE b.hotel.id = :hotelId AND b.status != 'CANCELLED' " +
+        "AND b.checkInDate <= :date AND b.checkOutDate >= :date"
+    )
+    List<Booking> findForBoard(
+        @org.springframework.data.repository.query.Param("hotelId") String hotelId,
+        @org.springframework.data.repository.query.Param("date") LocalDate date
+    );
+    
+    // Delta sync: bookings written at or after a change sequence number, oldest change first
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b JOIN FETCH b.hotel JOIN FETCH b.room LEFT JOIN FETCH b.roomInstance " +
+        "WHERE b.hotel.id = :hotelId AND b.changeSeq >= :since ORDER BY b.changeSeq"
+    )
+    List<Booking> findChangedByHotelId(
+        @org.springframework.data.repository.query.Param("hotelId") String hotelId,
+        @org.springframework.data.repository.query.Param("since") long since,
+        Pageable page
+    );
+    
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b JOIN FETCH b.hotel JOIN FETCH b.room LEFT JOIN FETCH b.roomInstance " +
+        "WHERE b.user.id = :userId AND b.changeSeq >= :since ORDER BY b.changeSeq"
+    )
+    List<Booking> findChangedByUserId(
+        @org.springframework.data.repository.query.Param("userId") String userId,
+        @org.springframework.data.repository.query.Param("since") long since,
+        Pageable page
+    );
+    
+    // Analytics: bookings staying or arriving between two dates, cancelled ones included
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b WHERE b.hotel.id = :hotelId " +
+        "AND b.checkInDate < :endDate AND b.checkOutDate > :startDate"
+    )
+    List<Booking> findStaysByHotelId(
+        @org.springframework.data.repository.query.Param("hotelId") String hotelId,
+        @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+        @org.springframework.data.repository.query.Param("endDate") LocalDate endDate
+    );
+    
+    // Completed and cancelled stays that arrived before a date, oldest first, for the archive job
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b JOIN FETCH b.hotel JOIN FETCH b.room LEFT JOIN FETCH b.roomInstance " +
+        "WHERE b.checkInDate < :before AND b.status IN :statuses ORDER BY b.checkInDate"
+    )
+    List<Booking> findArchivable(
+        @org.springframework.data.repository.query.Param("before") LocalDate before,
+        @org.springframework.data.repository.query.Param("statuses") java.util.Collection<Booking.BookingStatus> statuses,
+        Pageable page
+    );
+    
+    // Admin queries: bookings arriving since a date, which PostgreSQL reads from the recent
+    // partitions only, and bookings in a status that is never archived, whatever their age.
+    // The open statuses are literals so the planner can use the partial indexes of
+    // ADD_OPEN_BOOKINGS_INDEXES.sql, which hold only those rows.
+    String OPEN_STATUSES = "(com.hotelbooker.booking.entity.Booking$BookingStatus.PENDING, " +
+        "com.hotelbooker.booking.entity.Booking$BookingStatus.CONFIRMED, " +
+        "com.hotelbooker.booking.entity.Booking$BookingStatus.CHECKED_IN)";
+    
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b WHERE b.hotel.id = :hotelId AND b.checkInDate >= :since ORDER BY b.createdAt DESC"
+    )
+    List<Booking> findRecentByHotelId(
+        @org.springframework.data.repository.query.Param("hotelId") String hotelId,
+        @org.springframework.data.repository.query.Param("since") LocalDate since
+    );
+    
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b WHERE b.hotel.id = :hotelId AND b.status IN " + OPEN_STATUSES +
+        " ORDER BY b.createdAt DESC"
+    )
+    List<Booking> findOpenByHotelId(@org.springframework.data.repository.query.Param("hotelId") String hotelId);
+    
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b WHERE b.status = :status AND b.checkInDate >= :since ORDER BY b.createdAt DESC"
+    )
+    List<Booking> findRecentByStatus(
+        @org.springframework.data.repository.query.Param("status") Booking.BookingStatus status,
+        @org.springframework.data.repository.query.Param("since") LocalDate since
+    );
+    
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT b FROM Booking b WHERE b.status = :status AND b.status IN " + OPEN_STATUSES +
+        " ORDER BY b.createdAt DESC"
+    )
+    List<Booking> findOpenByStatus(@org.springframework.data.repository.query.Param("status") Booking.BookingStatus status);
     
-    List<Booking> findByStatusOrderByCreatedAtDesc(Booking.BookingStatus status);
+    List<Booking> findByHotelIdAndCheckInDateBetweenOrderByCheckInDate(
+            String hotelId, LocalDate startDate, LocalDate endDate);
     
     @org.springframework.data.jpa.repository.Query(
         "SELECT b FROM Booking b WHERE b.checkInDate = :date ORDER BY b.createdAt DESC"
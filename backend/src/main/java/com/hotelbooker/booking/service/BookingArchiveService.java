@@ -0,0 +1,197 @@
+package com.hotelbooker.booking.service;
+
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.entity.ArchivedBooking;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.repository.ArchivedBookingRepository;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.common.sync.SyncTombstone;
+import com.hotelbooker.common.sync.SyncTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Moves completed and cancelled stays that arrived more than {@code bookings.archive.after-days}
+ * ago out of bookings into booking_archive, and reads them back for history requests.
+ * <p>
+ * The job moves {@code bookings.archive.batch-size} bookings per transaction, inserting their
+ * archive rows and deleting them from bookings together, so a stay is always in exactly one
+ * of the two tables. Archiving is not a change to the booking, so no event is published, but
+ * the delta-sync feeds only read bookings: each archived stay gets a tombstone, and sync
+ * clients drop it from their copy as they would a deleted booking. Bookings still pending,
+ * confirmed or checked in stay where they are whatever their age.
+ */
+@Service
+@Slf4j
+public class BookingArchiveService {
+    
+    public static final Set<Booking.BookingStatus> ARCHIVABLE =
+            Set.of(Booking.BookingStatus.COMPLETED, Booking.BookingStatus.CANCELLED);
+    
+    public static final Set<Booking.BookingStatus> OPEN =
+            Set.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.CHECKED_IN);
+    
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archiveRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int afterDays;
+    private final int batchSize;
+    
+    public BookingArchiveService(
+            BookingRepository bookingRepository,
+            ArchivedBookingRepository archiveRepository,
+            SyncTombstoneRepository tombstoneRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${bookings.archive.after-days:365}") int afterDays,
+            @Value("${bookings.archive.batch-size:500}") int batchSize
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.afterDays = afterDays;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+    
+    /**
+     * First check-in date still kept in bookings; listings from this date on need not read the archive
+     */
+    public LocalDate hotSince() {
+        return LocalDate.now().minusDays(afterDays);
+    }
+    
+    /**
+     * Archive every completed or cancelled stay that arrived before {@link #hotSince()}
+     *
+     * @return the number of bookings moved
+     */
+    @Scheduled(cron = "${bookings.archive.cron:0 0 4 * * *}")
+    public int archive() {
+        LocalDate before = hotSince();
+        int moved = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> archiveBatch(before));
+                moved += batch;
+            } while (batch == batchSize);
+        } catch (DataAccessException e) {
+            // Most likely another instance archiving the same bookings; the next run picks up the rest
+            log.warn("Booking archive stopped after {} bookings: {}", moved, e.getMessage());
+        }
+        if (moved > 0) {
+            log.info("Archived {} bookings that arrived before {}", moved, before);
+        }
+        return moved;
+    }
+    
+    private int archiveBatch(LocalDate before) {
+        List<Booking> bookings = bookingRepository.findArchivable(before, ARCHIVABLE, PageRequest.of(0, batchSize));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        archiveRepository.saveAll(bookings.stream().map(booking -> toArchive(booking, now)).toList());
+        tombstoneRepository.saveAll(bookings.stream().map(BookingArchiveService::toTombstone).toList());
+        bookingRepository.deleteAllByIdInBatch(bookings.stream().map(Booking::getId).toList());
+        return bookings.size();
+    }
+    
+    public Optional<BookingDto> findById(String bookingId) {
+        return archiveRepository.findById(bookingId).map(BookingArchiveService::toDto);
+    }
+    
+    /**
+     * A user's archived bookings, newest first
+     */
+    public List<BookingDto> findByUser(String userId) {
+        return archiveRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(BookingArchiveService::toDto)
+                .toList();
+    }
+    
+    /**
+     * A hotel's archived bookings arriving from {@code startDate} to {@code endDate}, by check-in date;
+     * nothing is read when the range lies wholly within the bookings still kept
+     */
+    public List<BookingDto> findByHotel(String hotelId, LocalDate startDate, LocalDate endDate) {
+        if (!startDate.isBefore(hotSince())) {
+            return List.of();
+        }
+        return archiveRepository.findByHotelIdAndCheckInDateBetweenOrderByCheckInDate(hotelId, startDate, endDate)
+                .stream()
+                .map(BookingArchiveService::toDto)
+                .toList();
+    }
+    
+    private static ArchivedBooking toArchive(Booking booking, LocalDateTime archivedAt) {
+        return ArchivedBooking.builder()
+                .id(booking.getId())
+                .userId(booking.getUser() != null ? booking.getUser().getId() : null)
+                .hotelId(booking.getHotel().getId())
+                .hotelName(booking.getHotel().getName())
+                .roomId(booking.getRoom().getId())
+                .roomType(booking.getRoom().getRoomType())
+                .roomInstanceId(booking.getRoomInstance() != null ? booking.getRoomInstance().getId() : null)
+                .cartId(booking.getCartId())
+                .checkInDate(booking.getCheckInDate())
+                .checkOutDate(booking.getCheckOutDate())
+                .numberOfGuests(booking.getNumberOfGuests())
+                .numberOfRooms(booking.getNumberOfRooms())
+                .numberOfNights(booking.getNumberOfNights())
+                .totalPrice(booking.getTotalPrice())
+                .status(booking.getStatus())
+                .specialRequests(booking.getSpecialRequests())
+                .guestName(booking.getGuestName())
+                .guestEmail(booking.getGuestEmail())
+                .guestPhone(booking.getGuestPhone())
+                .createdAt(booking.getCreatedAt())
+                .archivedAt(archivedAt)
+                .build();
+    }
+    
+    private static SyncTombstone toTombstone(Booking booking) {
+        return SyncTombstone.builder()
+                .entityType(SyncTombstone.EntityType.BOOKING)
+                .entityId(booking.getId())
+                .hotelId(booking.getHotel().getId())
+                .userId(booking.getUser() != null ? booking.getUser().getId() : null)
+                .build();
+    }
+    
+    private static BookingDto toDto(ArchivedBooking booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .userId(booking.getUserId())
+                .cartId(booking.getCartId())
+                .hotelId(booking.getHotelId())
+                .hotelName(booking.getHotelName())
+                .roomId(booking.getRoomId())
+                .roomType(booking.getRoomType())
+                .roomInstanceId(booking.getRoomInstanceId())
+                .checkInDate(booking.getCheckInDate())
+                .checkOutDate(booking.getCheckOutDate())
+                .numberOfGuests(booking.getNumberOfGuests())
+                .numberOfRooms(booking.getNumberOfRooms())
+                .numberOfNights(booking.getNumberOfNights())
+                .totalPrice(booking.getTotalPrice())
+                .status(booking.getStatus().name())
+                .specialRequests(booking.getSpecialRequests())
+                .guestName(booking.getGuestName())
+                .guestEmail(booking.getGuestEmail())
+                .guestPhone(booking.getGuestPhone())
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.hotelbooker.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooker.booking.dto.BookingImportRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads bulk import rows one line at a time, so memory does not grow with the input.
+ *
+ * CSV input starts with a header naming the {@link BookingImportRow} fields (in any order);
+ * fields may be double-quoted, with {@code ""} for a quote. NDJSON input has one JSON object
+ * per line. Blank lines are skipped.
+ */
+public class BookingImportReader {
+    
+    /**
+     * A parsed row, or the reason its line could not be parsed
+     */
+    public record Line(long row, BookingImportRow value, String error) {
+    }
+    
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final boolean csv;
+    private List<String> header;
+    private long row;
+    
+    private BookingImportReader(BufferedReader reader, ObjectMapper objectMapper, boolean csv) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.csv = csv;
+    }
+    
+    public static BookingImportReader csv(BufferedReader reader, ObjectMapper objectMapper) {
+        return new BookingImportReader(reader, objectMapper, true);
+    }
+    
+    public static BookingImportReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new BookingImportReader(reader, objectMapper, false);
+    }
+    
+    /**
+     * @return the next row, or null at the end of the input
+     */
+    public Line next() {
+        String text = nextLine();
+        if (text != null && csv && header == null) {
+            header = splitCsv(text).stream().map(String::trim).toList();
+            text = nextLine();
+        }
+        if (text == null) {
+            return null;
+        }
+        row++;
+        try {
+            BookingImportRow value = csv
+                    ? objectMapper.convertValue(toFields(splitCsv(text)), BookingImportRow.class)
+                    : objectMapper.readValue(text, BookingImportRow.class);
+            return new Line(row, value, null);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Line(row, null, "Unreadable row: " + rootMessage(e));
+        }
+    }
+    
+    private String nextLine() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private Map<String, String> toFields(List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                fields.put(header.get(i), value);
+            }
+        }
+        return fields;
+    }
+    
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    private static String rootMessage(Exception e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage();
+        int newline = message != null ? message.indexOf('\n') : -1;
+        return newline > 0 ? message.substring(0, newline) : message;
+    }
+}
@@ -0,0 +1,276 @@
+package com.hotelbooker.booking.service;
+
+import com.hotelbooker.auth.entity.User;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.BookingImportResult;
+import com.hotelbooker.booking.dto.BookingImportRow;
+import com.hotelbooker.booking.dto.BookingImportSummary;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.calendar.assignment.RoomAssignmentService;
+import com.hotelbooker.common.exception.ResourceNotFoundException;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.event.HotelBookedEvent;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.RoomInventoryRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk booking import for group and tour operators.
+ *
+ * Rows are read and processed {@code bookings.import.chunk-size} at a time: a chunk is
+ * validated in parallel, its rooms are loaded with one query and reserved with one batched
+ * conditional update per room (row by row only for rooms that cannot cover the whole chunk),
+ * and its bookings are inserted as one JDBC batch in the chunk's own transaction. Each row
+ * succeeds or fails on its own; results are handed to the caller in row order as chunks finish.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingImportService {
+    
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final RoomInventoryRepository roomInventoryRepository;
+    private final RoomAssignmentService roomAssignmentService;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${bookings.import.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${bookings.import.max-rows:50000}")
+    private long maxRows;
+    
+    /**
+     * Import every row of {@code reader} as a booking of the user with {@code email}, handing
+     * {@code results} the outcomes of each chunk in row order once the chunk is done
+     */
+    public BookingImportSummary importBookings(BookingImportReader reader, String email,
+                                               Consumer<List<BookingImportResult>> results) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        long start = System.nanoTime();
+        long rows = 0;
+        long created = 0;
+        
+        List<BookingImportReader.Line> chunk = new ArrayList<>(chunkSize);
+        BookingImportReader.Line line;
+        while ((line = reader.next()) != null) {
+            if (++rows > maxRows) {
+                results.accept(List.of(BookingImportResult.rejected(line.row(), "Imports are limited to " + maxRows + " rows")));
+                rows--;
+                break;
+            }
+            chunk.add(line);
+            if (chunk.size() == chunkSize) {
+                created += importChunk(chunk, user, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(chunk, user, results);
+        }
+        
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = elapsedNanos > 0 ? rows / (elapsedNanos / 1_000_000_000.0) : 0;
+        DistributionSummary.builder("bookings.import.throughput")
+                .description("Rows per second of bulk booking imports")
+                .baseUnit("rows/s")
+                .register(meterRegistry)
+                .record(rowsPerSecond);
+        log.info("Imported {} of {} booking rows in {} ms ({} rows/s)",
+                created, rows, elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new BookingImportSummary(rows, created, rows - created, elapsedNanos / 1_000_000,
+                Math.round(rowsPerSecond * 10) / 10.0);
+    }
+    
+    private long importChunk(List<BookingImportReader.Line> chunk, User user, Consumer<List<BookingImportResult>> results) {
+        Map<Long, BookingImportResult> outcomes = new HashMap<>();
+        List<BookingImportReader.Line> valid = new ArrayList<>();
+        // Validation is CPU-only, so it runs on all cores
+        List<BookingImportResult> invalid = chunk.parallelStream()
+                .map(line -> {
+                    String error = validate(line);
+                    return error != null ? BookingImportResult.rejected(line.row(), error) : null;
+                })
+                .toList();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (invalid.get(i) != null) {
+                outcomes.put(chunk.get(i).row(), invalid.get(i));
+            } else {
+                valid.add(chunk.get(i));
+            }
+        }
+        
+        if (!valid.isEmpty()) {
+            try {
+                outcomes.putAll(transactionTemplate.execute(status -> book(valid, user)));
+            } catch (RuntimeException e) {
+                log.warn("Booking import chunk failed: {}", e.getMessage());
+                valid.forEach(line -> outcomes.put(line.row(),
+                        BookingImportResult.rejected(line.row(), "Import failed: " + e.getMessage())));
+            }
+        }
+        
+        long created = 0;
+        List<BookingImportResult> ordered = new ArrayList<>(chunk.size());
+        for (BookingImportReader.Line line : chunk) {
+            BookingImportResult result = outcomes.get(line.row());
+            if (result.status() == BookingImportResult.Status.CREATED) {
+                created++;
+            }
+            ordered.add(result);
+        }
+        results.accept(ordered);
+        count("created", created);
+        count("rejected", chunk.size() - created);
+        return created;
+    }
+    
+    private String validate(BookingImportReader.Line line) {
+        if (line.error() != null) {
+            return line.error();
+        }
+        BookingImportRow row = line.value();
+        Set<ConstraintViolation<BookingImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!row.getCheckOutDate().isAfter(row.getCheckInDate())) {
+            return "Check-out date must be after check-in date";
+        }
+        return null;
+    }
+    
+    private Map<Long, BookingImportResult> book(List<BookingImportReader.Line> lines, User user) {
+        Map<Long, BookingImportResult> outcomes = new HashMap<>();
+        Map<String, Room> rooms = roomRepository.findAllById(
+                        lines.stream().map(line -> line.value().getRoomId()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        
+        // Rows grouped by room, in room id order (the lock order of the inventory updates)
+        Map<String, List<BookingImportReader.Line>> byRoom = new TreeMap<>();
+        for (BookingImportReader.Line line : lines) {
+            BookingImportRow row = line.value();
+            Room room = rooms.get(row.getRoomId());
+            if (room == null) {
+                outcomes.put(line.row(), BookingImportResult.rejected(line.row(), "Room not found"));
+            } else if (row.getHotelId() != null && !row.getHotelId().equals(room.getHotel().getId())) {
+                outcomes.put(line.row(), BookingImportResult.rejected(line.row(), "Room does not belong to hotel"));
+            } else {
+                byRoom.computeIfAbsent(row.getRoomId(), id -> new ArrayList<>()).add(line);
+            }
+        }
+        
+        List<BookingImportReader.Line> reserved = reserve(byRoom, outcomes);
+        
+        List<Booking> bookings = new ArrayList<>(reserved.size());
+        Set<Hotel> hotels = new LinkedHashSet<>();
+        for (BookingImportReader.Line line : reserved) {
+            BookingImportRow row = line.value();
+            Room room = rooms.get(row.getRoomId());
+            Booking booking = bookingService.buildBooking(user, room.getHotel(), room, row.getCheckInDate(),
+                    row.getCheckOutDate(), row.getNumberOfGuests(), row.getNumberOfRooms());
+            booking.setSpecialRequests(row.getSpecialRequests());
+            booking.setGuestName(row.getGuestName());
+            booking.setGuestEmail(row.getGuestEmail());
+            booking.setGuestPhone(row.getGuestPhone());
+            bookings.add(booking);
+            hotels.add(room.getHotel());
+        }
+        bookings = bookingRepository.saveAll(bookings);
+        roomAssignmentService.assign(bookings);
+        eventPublisher.publishEvent(BookingChangedEvent.of(bookings));
+        
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            long row = reserved.get(i).row();
+            outcomes.put(row, BookingImportResult.created(row, booking.getId(), booking.getTotalPrice()));
+        }
+        for (Hotel hotel : hotels) {
+            eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotel.getId()));
+        }
+        for (Booking booking : bookings) {
+            Hotel hotel = booking.getHotel();
+            eventPublisher.publishEvent(new HotelBookedEvent(hotel.getId(), hotel.getCity(), hotel.getCountry()));
+        }
+        return outcomes;
+    }
+    
+    /**
+     * Reserve each room's rows with one update for the room's total; rooms that cannot cover
+     * their total are retried row by row (in file order) so the rows that fit still get booked
+     */
+    private List<BookingImportReader.Line> reserve(Map<String, List<BookingImportReader.Line>> byRoom,
+                                                   Map<Long, BookingImportResult> outcomes) {
+        Map<String, Integer> totals = new HashMap<>();
+        byRoom.forEach((roomId, lines) -> totals.put(roomId,
+                lines.stream().mapToInt(line -> line.value().getNumberOfRooms()).sum()));
+        Set<String> shortRooms = new HashSet<>(roomInventoryRepository.reserve(totals));
+        
+        List<BookingImportReader.Line> reserved = new ArrayList<>();
+        List<BookingImportReader.Line> retried = new ArrayList<>();
+        byRoom.forEach((roomId, lines) -> (shortRooms.contains(roomId) ? retried : reserved).addAll(lines));
+        
+        boolean[] taken = roomInventoryRepository.reserveEach(retried.stream()
+                .map(line -> (Map.Entry<String, Integer>) new AbstractMap.SimpleEntry<>(
+                        line.value().getRoomId(), line.value().getNumberOfRooms()))
+                .toList());
+        for (int i = 0; i < retried.size(); i++) {
+            BookingImportReader.Line line = retried.get(i);
+            if (taken[i]) {
+                reserved.add(line);
+            } else {
+                outcomes.put(line.row(), BookingImportResult.rejected(line.row(), "Not enough rooms available"));
+            }
+        }
+        reserved.sort(Comparator.comparingLong(BookingImportReader.Line::row));
+        return reserved;
+    }
+    
+    private void count(String outcome, long rows) {
+        if (rows > 0) {
+            Counter.builder("bookings.import.rows")
+                    .description("Rows of bulk booking imports by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(rows);
+        }
+    }
+}
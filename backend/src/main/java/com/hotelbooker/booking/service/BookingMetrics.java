@@ -0,0 +1,34 @@
+package com.hotelbooker.booking.service;
+
+import com.hotelbooker.common.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outcome counters for booking lifecycle operations ({@code bookings.outcomes}).
+ * Tags are limited to the operation and a fixed outcome vocabulary.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingMetrics {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public void success(String operation) {
+        counter(operation, "success").increment();
+    }
+    
+    public void failure(String operation, Throwable error) {
+        counter(operation, error instanceof ResourceNotFoundException ? "not_found" : "rejected").increment();
+    }
+    
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder("bookings.outcomes")
+                .description("Booking operations by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
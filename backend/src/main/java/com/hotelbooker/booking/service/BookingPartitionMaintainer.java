@@ -0,0 +1,48 @@
+package com.hotelbooker.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the monthly partitions of the bookings table created {@code bookings.partitions.months-ahead}
+ * months ahead, through the ensure_booking_partitions function of PARTITION_BOOKINGS.sql. Only
+ * enabled once that script has been run; a check-in month without its partition yet lands in
+ * the default partition and is moved out when the partition is created.
+ */
+@Component
+@ConditionalOnProperty(name = "bookings.partitions.enabled", havingValue = "true")
+@Slf4j
+public class BookingPartitionMaintainer {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    
+    public BookingPartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${bookings.partitions.months-ahead:12}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${bookings.partitions.cron:0 15 0 1 * *}")
+    public void ensurePartitions() {
+        try {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT ensure_booking_partitions(?)", Integer.class, monthsAhead);
+            if (created != null && created > 0) {
+                log.info("Created {} monthly booking partitions", created);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not create booking partitions: {}", e.getMessage());
+        }
+    }
+}
@@ -2,16 +2,33 @@ package com.hotelbooker.booking.service;
 
 import com.hotelbooker.auth.entity.User;
 import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.BookingChangesDto;
 import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.dto.BulkBookingResult;
+import com.hotelbooker.booking.dto.CartBookingDto;
 import com.hotelbooker.booking.dto.CreateBookingRequest;
+import com.hotelbooker.booking.dto.CreateCartBookingRequest;
 import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
 import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.calendar.assignment.RoomAssignmentService;
 import com.hotelbooker.common.exception.ResourceNotFoundException;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.common.sync.ChangeFeed;
+import com.hotelbooker.common.sync.ChangeTracked;
+import com.hotelbooker.common.sync.SyncTombstone;
+import com.hotelbooker.common.sync.SyncTombstoneRepository;
 import com.hotelbooker.hotel.entity.Hotel;
 import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.event.HotelBookedEvent;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
 import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomInventoryRepository;
 import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.pricing.engine.StayRequest;
+import com.hotelbooker.pricing.rates.RateCalendarStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -19,7 +36,17 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,75 +56,217 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
+    private final RoomInventoryRepository roomInventoryRepository;
     private final UserRepository userRepository;
+    private final BookingMetrics bookingMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RateCalendarStore rateCalendarStore;
+    private final RoomAssignmentService roomAssignmentService;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final ChangeFeed changeFeed;
+    private final BookingArchiveService bookingArchiveService;
     
     @Transactional
     public BookingDto createBooking(CreateBookingRequest request) {
+        try {
+            BookingDto booking = doCreateBooking(request);
+            bookingMetrics.success("create");
+            return booking;
+        } catch (RuntimeException e) {
+            bookingMetrics.failure("create", e);
+            throw e;
+        }
+    }
+    
+    private BookingDto doCreateBooking(CreateBookingRequest request) {
         User user = getCurrentUser();
         
         Hotel hotel = hotelRepository.findById(request.getHotelId())
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel not found"));
         
-        Room room = roomRepository.findById(request.getRoomId())
-                .orElseThrow(() -> new ResourceNotFoundException("Room not found"));
-        
         // Validate dates
         if (request.getCheckOutDate().isBefore(request.getCheckInDate())) {
             throw new RuntimeException("Check-out date must be after check-in date");
         }
         
-        // Check room availability
-        if (room.getAvailableRooms() < request.getNumberOfRooms()) {
-            throw new RuntimeException("Not enough rooms available");
+        // Take the rooms first (atomically), then load the room with its new availability
+        reserveRooms(Map.of(request.getRoomId(), request.getNumberOfRooms()));
+        Room room = roomRepository.findById(request.getRoomId())
+                .orElseThrow(() -> new ResourceNotFoundException("Room not found"));
+        
+        Booking booking = buildBooking(user, hotel, room, request.getCheckInDate(), request.getCheckOutDate(),
+                request.getNumberOfGuests(), request.getNumberOfRooms());
+        booking.setSpecialRequests(request.getSpecialRequests());
+        booking.setGuestName(request.getGuestName());
+        booking.setGuestEmail(request.getGuestEmail());
+        booking.setGuestPhone(request.getGuestPhone());
+        
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(room.getHotel().getId()));
+        
+        booking = bookingRepository.save(booking);
+        roomAssignmentService.assign(List.of(booking));
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(booking)));
+        eventPublisher.publishEvent(new HotelBookedEvent(hotel.getId(), hotel.getCity(), hotel.getCountry()));
+        return BookingDto.from(booking);
+    }
+    
+    /**
+     * Book every item of a cart in one transaction: inventory is reserved with one batched
+     * conditional update and the bookings are inserted in one batch, so either all items are
+     * booked or, when any room type is short, none is
+     */
+    @Transactional
+    public CartBookingDto createCartBooking(CreateCartBookingRequest request) {
+        try {
+            CartBookingDto cart = doCreateCartBooking(request);
+            bookingMetrics.success("create_cart");
+            return cart;
+        } catch (RuntimeException e) {
+            bookingMetrics.failure("create_cart", e);
+            throw e;
+        }
+    }
+    
+    private CartBookingDto doCreateCartBooking(CreateCartBookingRequest request) {
+        User user = getCurrentUser();
+        
+        Map<String, Integer> roomCounts = new HashMap<>();
+        for (CreateCartBookingRequest.Item item : request.getItems()) {
+            if (item.getCheckOutDate().isBefore(item.getCheckInDate())) {
+                throw new RuntimeException("Check-out date must be after check-in date");
+            }
+            roomCounts.merge(item.getRoomId(), item.getNumberOfRooms(), Integer::sum);
         }
         
-        // Calculate nights and total price
-        long nights = ChronoUnit.DAYS.between(request.getCheckInDate(), request.getCheckOutDate());
-        double totalPrice = room.getPricePerNight() * nights * request.getNumberOfRooms();
+        reserveRooms(roomCounts);
+        Map<String, Room> rooms = roomRepository.findAllById(roomCounts.keySet()).stream()
+                .collect(Collectors.toMap(Room::getId, room -> room));
         
-        Booking booking = Booking.builder()
+        String cartId = UUID.randomUUID().toString();
+        List<Booking> bookings = new ArrayList<>();
+        for (CreateCartBookingRequest.Item item : request.getItems()) {
+            Room room = rooms.get(item.getRoomId());
+            Booking booking = buildBooking(user, room.getHotel(), room, item.getCheckInDate(), item.getCheckOutDate(),
+                    item.getNumberOfGuests(), item.getNumberOfRooms());
+            booking.setCartId(cartId);
+            booking.setSpecialRequests(request.getSpecialRequests());
+            booking.setGuestName(request.getGuestName());
+            booking.setGuestEmail(request.getGuestEmail());
+            booking.setGuestPhone(request.getGuestPhone());
+            bookings.add(booking);
+        }
+        bookings = bookingRepository.saveAll(bookings);
+        roomAssignmentService.assign(bookings);
+        eventPublisher.publishEvent(BookingChangedEvent.of(bookings));
+        
+        Set<Hotel> hotels = new LinkedHashSet<>();
+        bookings.forEach(booking -> hotels.add(booking.getHotel()));
+        for (Hotel hotel : hotels) {
+            eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotel.getId()));
+            eventPublisher.publishEvent(new HotelBookedEvent(hotel.getId(), hotel.getCity(), hotel.getCountry()));
+        }
+        
+        List<BookingDto> bookingDtos = bookings.stream().map(BookingDto::from).collect(Collectors.toList());
+        return CartBookingDto.builder()
+                .cartId(cartId)
+                .bookings(bookingDtos)
+                .totalPrice(bookingDtos.stream().map(BookingDto::getTotalPrice).reduce(Money::plus).orElseThrow())
+                .build();
+    }
+    
+    /**
+     * Atomically take rooms of each room type; fails (rolling back the caller) when any is short
+     */
+    private void reserveRooms(Map<String, Integer> roomCounts) {
+        List<String> failed = roomInventoryRepository.reserve(roomCounts);
+        if (failed.isEmpty()) {
+            return;
+        }
+        if (!roomRepository.existsById(failed.get(0))) {
+            throw new ResourceNotFoundException("Room not found");
+        }
+        throw new RuntimeException("Not enough rooms available");
+    }
+    
+    /**
+     * A pending booking priced night by night through the hotel's pricing rules
+     */
+    Booking buildBooking(User user, Hotel hotel, Room room, LocalDate checkIn, LocalDate checkOut,
+                         int guests, int numberOfRooms) {
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+        StayRequest stay = StayRequest.of(room.getRoomType(), checkIn, checkOut, numberOfRooms, guests, LocalDate.now());
+        Money totalPrice = rateCalendarStore.quote(room, stay).total();
+        
+        return Booking.builder()
                 .user(user)
                 .hotel(hotel)
                 .room(room)
-                .checkInDate(request.getCheckInDate())
-                .checkOutDate(request.getCheckOutDate())
-                .numberOfGuests(request.getNumberOfGuests())
-                .numberOfRooms(request.getNumberOfRooms())
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .numberOfGuests(guests)
+                .numberOfRooms(numberOfRooms)
                 .numberOfNights((int) nights)
                 .totalPrice(totalPrice)
                 .status(Booking.BookingStatus.PENDING)
-                .specialRequests(request.getSpecialRequests())
-                .guestName(request.getGuestName())
-                .guestEmail(request.getGuestEmail())
-                .guestPhone(request.getGuestPhone())
                 .build();
-        
-        // Update room availability
-        room.setAvailableRooms(room.getAvailableRooms() - request.getNumberOfRooms());
-        roomRepository.save(room);
-        
-        booking = bookingRepository.save(booking);
-        return mapToDto(booking);
     }
     
+    /**
+     * The current user's bookings newest first, followed by their archived ones
+     */
+    @Transactional(readOnly = true)
     public List<BookingDto> getUserBookings() {
         User user = getCurrentUser();
-        return bookingRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
+        List<BookingDto> bookings = bookingRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
                 .stream()
-                .map(this::mapToDto)
+                .map(BookingDto::from)
                 .collect(Collectors.toList());
+        bookings.addAll(bookingArchiveService.findByUser(user.getId()));
+        return bookings;
     }
     
+    /**
+     * The current user's bookings changed or removed since a delta-sync token
+     */
+    public BookingChangesDto getBookingChanges(long since) {
+        User user = getCurrentUser();
+        long start = changeFeed.start(since);
+        List<ChangeTracked> fetched = new ArrayList<>();
+        fetched.addAll(bookingRepository.findChangedByUserId(user.getId(), start, changeFeed.fetch()));
+        fetched.addAll(tombstoneRepository.findChangedBookingsByUserId(user.getId(), start, changeFeed.fetch()));
+        ChangeFeed.Page page = changeFeed.page(since, start, fetched);
+        
+        List<BookingDto> bookings = new ArrayList<>();
+        List<String> removedBookingIds = new ArrayList<>();
+        for (ChangeTracked change : page.changes()) {
+            if (change instanceof Booking booking) {
+                bookings.add(BookingDto.from(booking));
+            } else if (change instanceof SyncTombstone tombstone) {
+                removedBookingIds.add(tombstone.getEntityId());
+            }
+        }
+        return BookingChangesDto.builder()
+                .token(page.token())
+                .hasMore(page.hasMore())
+                .reset(page.reset())
+                .bookings(bookings)
+                .removedBookingIds(removedBookingIds)
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
     public BookingDto getBookingById(String bookingId) {
         User user = getCurrentUser();
-        Booking booking = bookingRepository.findById(bookingId)
+        BookingDto booking = bookingRepository.findById(bookingId)
+                .map(BookingDto::from)
+                .or(() -> bookingArchiveService.findById(bookingId))
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
         
-        if (!booking.getUser().getId().equals(user.getId())) {
+        if (!user.getId().equals(booking.getUserId())) {
             throw new RuntimeException("Unauthorized access to booking");
         }
         
-        return mapToDto(booking);
+        return booking;
     }
     
     public List<BookingDto> getUpcomingBookings() {
@@ -105,12 +274,23 @@ public class BookingService {
         return bookingRepository.findByUserIdAndCheckInDateAfterOrderByCheckInDate(
                         user.getId(), LocalDate.now())
                 .stream()
-                .map(this::mapToDto)
+                .map(BookingDto::from)
                 .collect(Collectors.toList());
     }
     
     @Transactional
     public BookingDto cancelBooking(String bookingId) {
+        try {
+            BookingDto booking = doCancelBooking(bookingId);
+            bookingMetrics.success("cancel");
+            return booking;
+        } catch (RuntimeException e) {
+            bookingMetrics.failure("cancel", e);
+            throw e;
+        }
+    }
+    
+    private BookingDto doCancelBooking(String bookingId) {
         User user = getCurrentUser();
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
@@ -126,12 +306,16 @@ public class BookingService {
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         
         // Restore room availability
-        Room room = booking.getRoom();
-        room.setAvailableRooms(room.getAvailableRooms() + booking.getNumberOfRooms());
-        roomRepository.save(room);
+        releaseRooms(booking);
         
         booking = bookingRepository.save(booking);
-        return mapToDto(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(booking)));
+        return BookingDto.from(booking);
+    }
+    
+    private void releaseRooms(Booking booking) {
+        roomInventoryRepository.release(Map.of(booking.getRoom().getId(), booking.getNumberOfRooms()));
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(booking.getHotel().getId()));
     }
     
     private User getCurrentUser() {
@@ -141,50 +325,61 @@ public class BookingService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
     
-    private BookingDto mapToDto(Booking booking) {
-        return BookingDto.builder()
-                .id(booking.getId())
-                .userId(booking.getUser() != null ? booking.getUser().getId() : null)
-                .hotelId(booking.getHotel().getId())
-                .hotelName(booking.getHotel().getName())
-                .roomId(booking.getRoom().getId())
-                .roomType(booking.getRoom().getRoomType())
-                .checkInDate(booking.getCheckInDate())
-                .checkOutDate(booking.getCheckOutDate())
-                .numberOfGuests(booking.getNumberOfGuests())
-                .numberOfRooms(booking.getNumberOfRooms())
-                .numberOfNights(booking.getNumberOfNights())
-                .totalPrice(booking.getTotalPrice())
-                .status(booking.getStatus().name())
-                .specialRequests(booking.getSpecialRequests())
-                .guestName(booking.getGuestName())
-                .guestEmail(booking.getGuestEmail())
-                .guestPhone(booking.getGuestPhone())
-                .build();
-    }
-    
     // Admin methods
     public List<BookingDto> getAllBookings() {
         return bookingRepository.findAll()
                 .stream()
-                .map(this::mapToDto)
+                .map(BookingDto::from)
                 .collect(Collectors.toList());
     }
     
+    // Open bookings, and closed ones arriving since the archive cutoff; older ones through getBookingHistory
+    @Transactional(readOnly = true)
     public List<BookingDto> getBookingsByHotel(String hotelId) {
-        return bookingRepository.findByHotelIdOrderByCreatedAtDesc(hotelId)
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return newestFirst(bookingRepository.findOpenByHotelId(hotelId),
+                bookingRepository.findRecentByHotelId(hotelId, bookingArchiveService.hotSince()));
     }
     
+    @Transactional(readOnly = true)
     public List<BookingDto> getBookingsByStatus(Booking.BookingStatus status) {
-        return bookingRepository.findByStatusOrderByCreatedAtDesc(status)
-                .stream()
-                .map(this::mapToDto)
+        // Open bookings are never archived, so all of them are listed; closed ones only while recent
+        List<Booking> bookings = BookingArchiveService.OPEN.contains(status)
+                ? bookingRepository.findOpenByStatus(status)
+                : bookingRepository.findRecentByStatus(status, bookingArchiveService.hotSince());
+        return bookings.stream()
+                .map(BookingDto::from)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * The open and recent bookings as one list, each booking once, most recently created first
+     */
+    private static List<BookingDto> newestFirst(List<Booking> open, List<Booking> recent) {
+        Map<String, Booking> byId = new LinkedHashMap<>();
+        open.forEach(booking -> byId.put(booking.getId(), booking));
+        recent.forEach(booking -> byId.putIfAbsent(booking.getId(), booking));
+        return byId.values().stream()
+                .sorted(Comparator.comparing(Booking::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(BookingDto::from)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * A hotel's bookings arriving from {@code startDate} to {@code endDate}, archived ones
+     * included, by check-in date
+     */
+    @Transactional(readOnly = true)
+    public List<BookingDto> getBookingHistory(String hotelId, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        List<BookingDto> bookings = new ArrayList<>(bookingArchiveService.findByHotel(hotelId, startDate, endDate));
+        bookingRepository.findByHotelIdAndCheckInDateBetweenOrderByCheckInDate(hotelId, startDate, endDate)
+                .forEach(booking -> bookings.add(BookingDto.from(booking)));
+        bookings.sort(Comparator.comparing(BookingDto::getCheckInDate));
+        return bookings;
+    }
+    
     @Transactional
     public BookingDto updateBookingStatus(String bookingId, Booking.BookingStatus newStatus) {
         Booking booking = bookingRepository.findById(bookingId)
@@ -200,13 +395,12 @@ public class BookingService {
         // Handle room availability changes
         if (newStatus == Booking.BookingStatus.CANCELLED && oldStatus != Booking.BookingStatus.CANCELLED) {
             // Restore room availability
-            Room room = booking.getRoom();
-            room.setAvailableRooms(room.getAvailableRooms() + booking.getNumberOfRooms());
-            roomRepository.save(room);
+            releaseRooms(booking);
         }
         
         booking = bookingRepository.save(booking);
-        return mapToDto(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(booking)));
+        return BookingDto.from(booking);
     }
     
     @Transactional
@@ -214,38 +408,102 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
         
+        checkIn(booking, LocalDate.now());
+        booking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(booking)));
+        return BookingDto.from(booking);
+    }
+    
+    @Transactional
+    public BookingDto checkOutBooking(String bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+        
+        checkOut(booking);
+        
+        // Restore room availability
+        releaseRooms(booking);
+        
+        booking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(booking)));
+        return BookingDto.from(booking);
+    }
+    
+    /**
+     * Check in every booking that can be; the status updates are flushed as one JDBC batch
+     */
+    @Transactional
+    public BulkBookingResult checkInBookings(List<String> bookingIds) {
+        LocalDate today = LocalDate.now();
+        return updateAll(bookingIds, booking -> checkIn(booking, today), false);
+    }
+    
+    /**
+     * Check out every booking that can be, releasing their rooms with one batched update
+     */
+    @Transactional
+    public BulkBookingResult checkOutBookings(List<String> bookingIds) {
+        return updateAll(bookingIds, this::checkOut, true);
+    }
+    
+    private BulkBookingResult updateAll(List<String> bookingIds, Consumer<Booking> update, boolean releaseRooms) {
+        Map<String, Booking> bookings = bookingRepository.findAllById(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        
+        List<Booking> updated = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (String bookingId : new LinkedHashSet<>(bookingIds)) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                failed.put(bookingId, "Booking not found");
+                continue;
+            }
+            try {
+                update.accept(booking);
+                updated.add(booking);
+            } catch (RuntimeException e) {
+                failed.put(bookingId, e.getMessage());
+            }
+        }
+        
+        if (!updated.isEmpty()) {
+            if (releaseRooms) {
+                Map<String, Integer> roomCounts = new HashMap<>();
+                Set<String> hotelIds = new LinkedHashSet<>();
+                for (Booking booking : updated) {
+                    roomCounts.merge(booking.getRoom().getId(), booking.getNumberOfRooms(), Integer::sum);
+                    hotelIds.add(booking.getHotel().getId());
+                }
+                roomInventoryRepository.release(roomCounts);
+                hotelIds.forEach(hotelId -> eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotelId)));
+            }
+            eventPublisher.publishEvent(BookingChangedEvent.of(updated));
+        }
+        
+        return BulkBookingResult.builder()
+                .updated(updated.stream().map(BookingDto::from).collect(Collectors.toList()))
+                .failed(failed)
+                .build();
+    }
+    
+    private void checkIn(Booking booking, LocalDate today) {
         if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
             throw new RuntimeException("Only confirmed bookings can be checked in");
         }
         
-        LocalDate today = LocalDate.now();
         if (booking.getCheckInDate().isAfter(today)) {
             throw new RuntimeException("Check-in date has not arrived yet");
         }
         
         booking.setStatus(Booking.BookingStatus.CHECKED_IN);
-        booking = bookingRepository.save(booking);
-        return mapToDto(booking);
     }
     
-    @Transactional
-    public BookingDto checkOutBooking(String bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
-        
+    private void checkOut(Booking booking) {
         if (booking.getStatus() != Booking.BookingStatus.CHECKED_IN) {
             throw new RuntimeException("Only checked-in bookings can be checked out");
         }
         
         booking.setStatus(Booking.BookingStatus.COMPLETED);
-        
-        // Restore room availability
-        Room room = booking.getRoom();
-        room.setAvailableRooms(room.getAvailableRooms() + booking.getNumberOfRooms());
-        roomRepository.save(room);
-        
-        booking = bookingRepository.save(booking);
-        return mapToDto(booking);
     }
     
     private void validateStatusTransition(Booking.BookingStatus from, Booking.BookingStatus to) {
@@ -0,0 +1,110 @@
+package com.hotelbooker.calendar.assignment;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Occupancy of a set of room instances over a date window: per instance, its stays keyed by
+ * check-in date. Built once from the instances and bookings of the window, then used to place
+ * bookings without querying room by room.
+ *
+ * Placement is best-fit interval scheduling: of the free instances of the room type, a stay
+ * goes to the one where it leaves the fewest idle nights to the neighbouring stays, so stays
+ * are packed back to back and short unsellable gaps are avoided. A side with no stay within
+ * {@code openNights} counts as {@code openNights}, which makes an empty instance the last resort.
+ */
+final class OccupancyIndex {
+    
+    private final long openNights;
+    private final Map<String, List<String>> instancesByRoomType = new HashMap<>();
+    private final Map<String, TreeMap<LocalDate, LocalDate>> stays = new HashMap<>();
+    
+    OccupancyIndex(long openNights) {
+        this.openNights = openNights;
+    }
+    
+    /**
+     * Make an instance available for placement; instances are tried in the order they are added
+     */
+    void addInstance(String roomTypeId, String instanceId) {
+        instancesByRoomType.computeIfAbsent(roomTypeId, id -> new ArrayList<>()).add(instanceId);
+        stays.computeIfAbsent(instanceId, id -> new TreeMap<>());
+    }
+    
+    /**
+     * Record a stay on an instance, whether or not the instance is available for placement
+     */
+    void occupy(String instanceId, LocalDate checkIn, LocalDate checkOut) {
+        if (checkOut.isAfter(checkIn)) {
+            stays.computeIfAbsent(instanceId, id -> new TreeMap<>())
+                    .merge(checkIn, checkOut, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+    
+    /**
+     * Place a stay on the best-fitting free instance of the room type and record it there
+     *
+     * @return the instance id, or null when every instance of the room type is taken
+     */
+    String place(String roomTypeId, LocalDate checkIn, LocalDate checkOut) {
+        String best = null;
+        long bestIdle = Long.MAX_VALUE;
+        for (String instanceId : instancesByRoomType.getOrDefault(roomTypeId, List.of())) {
+            long idle = idleNightsAround(stays.get(instanceId), checkIn, checkOut);
+            if (idle < bestIdle) {
+                best = instanceId;
+                bestIdle = idle;
+            }
+        }
+        if (best != null) {
+            occupy(best, checkIn, checkOut);
+        }
+        return best;
+    }
+    
+    /**
+     * Idle nights between consecutive stays of every instance, counted within [start, end)
+     */
+    long gapNights(LocalDate start, LocalDate end) {
+        long gaps = 0;
+        for (TreeMap<LocalDate, LocalDate> instanceStays : stays.values()) {
+            LocalDate previousCheckOut = null;
+            for (Map.Entry<LocalDate, LocalDate> stay : instanceStays.entrySet()) {
+                if (previousCheckOut != null && previousCheckOut.isBefore(stay.getKey())) {
+                    LocalDate from = previousCheckOut.isAfter(start) ? previousCheckOut : start;
+                    LocalDate to = stay.getKey().isBefore(end) ? stay.getKey() : end;
+                    gaps += Math.max(0, ChronoUnit.DAYS.between(from, to));
+                }
+                if (previousCheckOut == null || stay.getValue().isAfter(previousCheckOut)) {
+                    previousCheckOut = stay.getValue();
+                }
+            }
+        }
+        return gaps;
+    }
+    
+    /**
+     * Idle nights the stay would leave before and after it on an instance, or
+     * {@link Long#MAX_VALUE} when it overlaps a stay there
+     */
+    private long idleNightsAround(TreeMap<LocalDate, LocalDate> instanceStays, LocalDate checkIn, LocalDate checkOut) {
+        Map.Entry<LocalDate, LocalDate> previous = instanceStays.floorEntry(checkIn);
+        if (previous != null && previous.getValue().isAfter(checkIn)) {
+            return Long.MAX_VALUE;
+        }
+        Map.Entry<LocalDate, LocalDate> next = instanceStays.higherEntry(checkIn);
+        if (next != null && next.getKey().isBefore(checkOut)) {
+            return Long.MAX_VALUE;
+        }
+        long before = previous == null ? openNights
+                : Math.min(openNights, ChronoUnit.DAYS.between(previous.getValue(), checkIn));
+        long after = next == null ? openNights
+                : Math.min(openNights, ChronoUnit.DAYS.between(checkOut, next.getKey()));
+        return before + after;
+    }
+}
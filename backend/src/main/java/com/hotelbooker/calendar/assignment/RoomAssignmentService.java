@@ -0,0 +1,218 @@
+package com.hotelbooker.calendar.assignment;
+
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.calendar.dto.RoomAssignmentResult;
+import com.hotelbooker.hotel.entity.RoomInstance;
+import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places room-type bookings onto physical room instances so the calendar can show them.
+ *
+ * New bookings are placed incrementally as they are created; {@link #reoptimize} re-plans a
+ * hotel's upcoming stays in a date window to close the gaps left by cancellations and early
+ * placements. Both load the instances and the stays around the dates with one query each into
+ * an {@link OccupancyIndex} and place bookings best-fit from there. A booking holds a single
+ * instance, so only single-room bookings are placed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAssignmentService {
+    
+    private static final Comparator<Booking> BY_STAY = Comparator
+            .comparing(Booking::getCheckInDate)
+            .thenComparing(Booking::getCheckOutDate, Comparator.reverseOrder());
+    
+    private final RoomInstanceRepository roomInstanceRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // Neighbouring stays further away than this do not affect placement
+    @Value("${bookings.assignment.horizon-days:30}")
+    private int horizonDays;
+    
+    /**
+     * Place new bookings on free instances of their room types. Runs in the transaction that
+     * reserved the bookings' inventory, whose row locks on the room types serialise concurrent
+     * placements onto the same instances until commit.
+     */
+    @Transactional
+    public void assign(Collection<Booking> bookings) {
+        List<Booking> pending = bookings.stream()
+                .filter(booking -> booking.getRoomInstance() == null && isPlaceable(booking))
+                .sorted(BY_STAY)
+                .toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        Set<String> roomTypeIds = pending.stream().map(booking -> booking.getRoom().getId()).collect(Collectors.toSet());
+        LocalDate from = pending.get(0).getCheckInDate().minusDays(horizonDays);
+        LocalDate to = pending.stream().map(Booking::getCheckOutDate).max(LocalDate::compareTo).orElseThrow()
+                .plusDays(horizonDays);
+        
+        OccupancyIndex index = new OccupancyIndex(horizonDays);
+        Map<String, RoomInstance> instances = addInstances(index,
+                roomInstanceRepository.findByRoomTypeIdInOrderByFloorAndRoomNumber(roomTypeIds));
+        for (Booking stay : bookingRepository.findAssignedByRoomTypeIdsAndDateRange(roomTypeIds, from, to)) {
+            index.occupy(stay.getRoomInstance().getId(), stay.getCheckInDate(), stay.getCheckOutDate());
+        }
+        
+        int unassigned = 0;
+        for (Booking booking : pending) {
+            String instanceId = index.place(booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate());
+            if (instanceId != null) {
+                booking.setRoomInstance(instances.get(instanceId));
+            } else {
+                unassigned++;
+            }
+        }
+        count("assigned", pending.size() - unassigned);
+        count("unassigned", unassigned);
+    }
+    
+    /**
+     * Re-plan the instances of a hotel's upcoming single-room stays that fall within
+     * [startDate, endDate). Stays already under way, checked in, or reaching outside the window
+     * keep their instance. The new plan is applied only when it places more bookings than the
+     * current one, or as many with fewer idle nights between stays.
+     */
+    @Transactional
+    public RoomAssignmentResult reoptimize(String hotelId, LocalDate startDate, LocalDate endDate) {
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        // Hold off new bookings of the hotel while its stays are moved around
+        roomRepository.lockByHotelId(hotelId);
+        
+        List<RoomInstance> hotelInstances = roomInstanceRepository.findByHotelIdOrderByFloorAndRoomNumber(hotelId);
+        List<Booking> stays = bookingRepository.findByHotelIdAndDateRange(
+                        hotelId, startDate.minusDays(horizonDays), endDate.plusDays(horizonDays))
+                .stream()
+                .filter(booking -> booking.getStatus() != Booking.BookingStatus.CANCELLED)
+                .toList();
+        LocalDate today = LocalDate.now();
+        List<Booking> movable = stays.stream()
+                .filter(booking -> isMovable(booking, startDate, endDate, today))
+                .sorted(BY_STAY)
+                .toList();
+        Set<String> movableIds = movable.stream().map(Booking::getId).collect(Collectors.toSet());
+        
+        OccupancyIndex current = new OccupancyIndex(horizonDays);
+        OccupancyIndex planned = new OccupancyIndex(horizonDays);
+        Map<String, RoomInstance> instances = addInstances(planned, hotelInstances);
+        for (Booking stay : stays) {
+            if (stay.getRoomInstance() != null) {
+                current.occupy(stay.getRoomInstance().getId(), stay.getCheckInDate(), stay.getCheckOutDate());
+                if (!movableIds.contains(stay.getId())) {
+                    planned.occupy(stay.getRoomInstance().getId(), stay.getCheckInDate(), stay.getCheckOutDate());
+                }
+            }
+        }
+        
+        Map<String, String> plan = new HashMap<>();
+        for (Booking booking : movable) {
+            plan.put(booking.getId(), planned.place(booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate()));
+        }
+        
+        long unassignedBefore = movable.stream().filter(booking -> booking.getRoomInstance() == null).count();
+        long unassignedAfter = plan.values().stream().filter(Objects::isNull).count();
+        long gapsBefore = current.gapNights(startDate, endDate);
+        long gapsAfter = planned.gapNights(startDate, endDate);
+        boolean apply = unassignedAfter < unassignedBefore
+                || (unassignedAfter == unassignedBefore && gapsAfter < gapsBefore);
+        
+        List<Booking> moved = new ArrayList<>();
+        if (apply) {
+            for (Booking booking : movable) {
+                String instanceId = plan.get(booking.getId());
+                String currentId = booking.getRoomInstance() != null ? booking.getRoomInstance().getId() : null;
+                if (!Objects.equals(instanceId, currentId)) {
+                    booking.setRoomInstance(instanceId != null ? instances.get(instanceId) : null);
+                    moved.add(booking);
+                }
+            }
+        }
+        if (!moved.isEmpty()) {
+            eventPublisher.publishEvent(BookingChangedEvent.of(moved));
+        }
+        log.info("Room assignment for hotel {} from {} to {}: {} bookings, {} moved, gap nights {} -> {}{}",
+                hotelId, startDate, endDate, movable.size(), moved.size(), gapsBefore, gapsAfter, apply ? "" : " (kept)");
+        
+        return RoomAssignmentResult.builder()
+                .hotelId(hotelId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .bookings(movable.size())
+                .moved(moved.size())
+                .unassigned((int) (apply ? unassignedAfter : unassignedBefore))
+                .gapNightsBefore(gapsBefore)
+                .gapNightsAfter(apply ? gapsAfter : gapsBefore)
+                .applied(apply)
+                .build();
+    }
+    
+    private boolean isPlaceable(Booking booking) {
+        return booking.getNumberOfRooms() == 1
+                && booking.getCheckOutDate().isAfter(booking.getCheckInDate())
+                && (booking.getStatus() == Booking.BookingStatus.PENDING
+                    || booking.getStatus() == Booking.BookingStatus.CONFIRMED);
+    }
+    
+    private boolean isMovable(Booking booking, LocalDate startDate, LocalDate endDate, LocalDate today) {
+        return isPlaceable(booking)
+                && booking.getCheckInDate().isAfter(today)
+                && !booking.getCheckInDate().isBefore(startDate)
+                && !booking.getCheckOutDate().isAfter(endDate);
+    }
+    
+    /**
+     * Register the in-service instances for placement, in floor and room number order
+     */
+    private static Map<String, RoomInstance> addInstances(OccupancyIndex index, List<RoomInstance> instances) {
+        List<RoomInstance> inService = new ArrayList<>();
+        for (RoomInstance instance : instances) {
+            if (instance.getStatus() != RoomInstance.RoomStatus.MAINTENANCE
+                    && instance.getStatus() != RoomInstance.RoomStatus.BLOCKED) {
+                index.addInstance(instance.getRoomType().getId(), instance.getId());
+                inService.add(instance);
+            }
+        }
+        return inService.stream().collect(Collectors.toMap(RoomInstance::getId, Function.identity()));
+    }
+    
+    private void count(String outcome, long bookings) {
+        if (bookings > 0) {
+            Counter.builder("bookings.assignment")
+                    .description("Bookings placed on a room instance, by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(bookings);
+        }
+    }
+}
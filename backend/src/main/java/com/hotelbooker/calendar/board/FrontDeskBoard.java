@@ -0,0 +1,160 @@
+package com.hotelbooker.calendar.board;
+
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.calendar.dto.FrontDeskBoardDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Arrivals, departures and in-house guests per hotel for today and tomorrow.
+ *
+ * Both days are built for every hotel with one query at midnight (and on startup), then kept
+ * current from {@link BookingChangedEvent}s, so front desks polling their board never hit the
+ * bookings table. Boards for other days are read from the database on request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FrontDeskBoard {
+    
+    private static final Comparator<BookingDto> BY_ROOM = Comparator
+            .comparing(BookingDto::getRoomNumber, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(BookingDto::getGuestName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(BookingDto::getId);
+    
+    private final BookingRepository bookingRepository;
+    
+    // date -> hotel id -> board; only the prebuilt days are present
+    private volatile Map<LocalDate, Map<String, DayBoard>> days = Map.of();
+    private final List<BookingDto> changedDuringBuild = new ArrayList<>();
+    private boolean building;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${calendar.board.build-cron:0 0 0 * * *}")
+    public void rebuild() {
+        synchronized (this) {
+            building = true;
+            changedDuringBuild.clear();
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate tomorrow = today.plusDays(1);
+            Map<LocalDate, Map<String, DayBoard>> rebuilt = new HashMap<>();
+            rebuilt.put(today, new ConcurrentHashMap<>());
+            rebuilt.put(tomorrow, new ConcurrentHashMap<>());
+            
+            List<Booking> bookings = bookingRepository.findForBoard(today, tomorrow);
+            for (Booking booking : bookings) {
+                apply(rebuilt, BookingDto.from(booking));
+            }
+            
+            synchronized (this) {
+                // Changes committed while the query ran may be missing from its result
+                changedDuringBuild.forEach(booking -> apply(rebuilt, booking));
+                days = rebuilt;
+            }
+            log.info("Built front-desk boards for {} and {} from {} bookings", today, tomorrow, bookings.size());
+        } finally {
+            synchronized (this) {
+                building = false;
+                changedDuringBuild.clear();
+            }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        if (building) {
+            changedDuringBuild.addAll(event.bookings());
+        }
+        event.bookings().forEach(booking -> apply(days, booking));
+    }
+    
+    public FrontDeskBoardDto board(String hotelId, LocalDate date) {
+        Map<String, DayBoard> hotels = days.get(date);
+        DayBoard board;
+        if (hotels != null) {
+            board = hotels.getOrDefault(hotelId, new DayBoard(date));
+        } else {
+            board = new DayBoard(date);
+            bookingRepository.findForBoard(hotelId, date)
+                    .forEach(booking -> board.apply(BookingDto.from(booking)));
+        }
+        return FrontDeskBoardDto.builder()
+                .hotelId(hotelId)
+                .date(date)
+                .arrivals(sorted(board.arrivals.values()))
+                .departures(sorted(board.departures.values()))
+                .inHouse(sorted(board.inHouse.values()))
+                .build();
+    }
+    
+    private static void apply(Map<LocalDate, Map<String, DayBoard>> days, BookingDto booking) {
+        days.forEach((date, hotels) -> {
+            boolean onDay = !booking.getCheckInDate().isAfter(date) && !booking.getCheckOutDate().isBefore(date);
+            DayBoard board = onDay
+                    ? hotels.computeIfAbsent(booking.getHotelId(), id -> new DayBoard(date))
+                    : hotels.get(booking.getHotelId());
+            if (board != null) {
+                board.apply(booking);
+            }
+        });
+    }
+    
+    private static List<BookingDto> sorted(Collection<BookingDto> bookings) {
+        return bookings.stream().sorted(BY_ROOM).toList();
+    }
+    
+    /**
+     * One hotel's board for one day, keyed by booking id
+     */
+    private static final class DayBoard {
+        
+        private final LocalDate date;
+        private final Map<String, BookingDto> arrivals = new ConcurrentHashMap<>();
+        private final Map<String, BookingDto> departures = new ConcurrentHashMap<>();
+        private final Map<String, BookingDto> inHouse = new ConcurrentHashMap<>();
+        
+        DayBoard(LocalDate date) {
+            this.date = date;
+        }
+        
+        void apply(BookingDto booking) {
+            arrivals.remove(booking.getId());
+            departures.remove(booking.getId());
+            inHouse.remove(booking.getId());
+            
+            String status = booking.getStatus();
+            if (Booking.BookingStatus.CANCELLED.name().equals(status)) {
+                return;
+            }
+            if (booking.getCheckInDate().isEqual(date)) {
+                arrivals.put(booking.getId(), booking);
+            }
+            if (booking.getCheckOutDate().isEqual(date)) {
+                departures.put(booking.getId(), booking);
+            }
+            if (Booking.BookingStatus.CHECKED_IN.name().equals(status)
+                    && !booking.getCheckInDate().isAfter(date) && !booking.getCheckOutDate().isBefore(date)) {
+                inHouse.put(booking.getId(), booking);
+            }
+        }
+    }
+}
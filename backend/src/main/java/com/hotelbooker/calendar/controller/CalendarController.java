@@ -1,14 +1,25 @@
 package com.hotelbooker.calendar.controller;
 
 import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.calendar.assignment.RoomAssignmentService;
+import com.hotelbooker.calendar.board.FrontDeskBoard;
+import com.hotelbooker.calendar.dto.BulkRoomStatusRequest;
+import com.hotelbooker.calendar.dto.BulkRoomStatusResult;
+import com.hotelbooker.calendar.dto.CalendarChangesDto;
+import com.hotelbooker.calendar.dto.FrontDeskBoardDto;
 import com.hotelbooker.calendar.dto.QuickBookingRequest;
+import com.hotelbooker.calendar.dto.RoomAssignmentResult;
 import com.hotelbooker.calendar.dto.RoomInstanceDto;
 import com.hotelbooker.calendar.service.CalendarService;
+import com.hotelbooker.calendar.stream.CalendarBroadcastHub;
 import com.hotelbooker.common.dto.ApiResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,6 +31,9 @@ import java.util.Map;
 public class CalendarController {
     
     private final CalendarService calendarService;
+    private final RoomAssignmentService roomAssignmentService;
+    private final FrontDeskBoard frontDeskBoard;
+    private final CalendarBroadcastHub calendarBroadcastHub;
     
     /**
      * Get all room instances for a hotel
@@ -47,6 +61,38 @@ public class CalendarController {
         return ResponseEntity.ok(ApiResponse.success(bookings));
     }
     
+    /**
+     * Rooms and bookings changed since a token from the previous call (0 for everything)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<CalendarChangesDto>> getChanges(
+            @RequestParam String hotelId,
+            @RequestParam(defaultValue = "0") long since
+    ) {
+        CalendarChangesDto changes = calendarService.getChanges(hotelId, since);
+        return ResponseEntity.ok(ApiResponse.success(changes));
+    }
+    
+    /**
+     * Live booking and room changes of a hotel, as "bookings" and "rooms" server-sent events
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam String hotelId) {
+        return calendarBroadcastHub.subscribe(hotelId);
+    }
+    
+    /**
+     * Arrivals, departures and in-house guests of a hotel for a day (today by default)
+     */
+    @GetMapping("/board")
+    public ResponseEntity<ApiResponse<FrontDeskBoardDto>> getBoard(
+            @RequestParam String hotelId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        FrontDeskBoardDto board = frontDeskBoard.board(hotelId, date != null ? date : LocalDate.now());
+        return ResponseEntity.ok(ApiResponse.success(board));
+    }
+    
     /**
      * Check room availability
      */
@@ -85,4 +131,28 @@ public class CalendarController {
         RoomInstanceDto room = calendarService.updateRoomStatus(roomInstanceId, status);
         return ResponseEntity.ok(ApiResponse.success(room));
     }
+    
+    /**
+     * Update the status of many rooms at once
+     */
+    @PutMapping("/rooms/status")
+    public ResponseEntity<ApiResponse<BulkRoomStatusResult>> updateRoomStatuses(
+            @Valid @RequestBody BulkRoomStatusRequest request
+    ) {
+        BulkRoomStatusResult result = calendarService.updateRoomStatuses(request.getStatuses());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+    
+    /**
+     * Re-plan room assignments of a hotel's upcoming stays to close calendar gaps
+     */
+    @PostMapping("/assignments/optimize")
+    public ResponseEntity<ApiResponse<RoomAssignmentResult>> optimizeAssignments(
+            @RequestParam String hotelId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        RoomAssignmentResult result = roomAssignmentService.reoptimize(hotelId, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
 }
@@ -0,0 +1,18 @@
+package com.hotelbooker.calendar.dto;
+
+import com.hotelbooker.hotel.entity.RoomInstance.RoomStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class BulkRoomStatusRequest {
+    
+    // Room instance id -> new status
+    @NotEmpty(message = "At least one room is required")
+    @Size(max = 1000, message = "At most 1000 rooms per request")
+    private Map<String, @NotNull(message = "Status is required") RoomStatus> statuses;
+}
@@ -0,0 +1,18 @@
+package com.hotelbooker.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRoomStatusResult {
+    private List<RoomInstanceDto> updated;
+    private Map<String, String> failed;  // Room instance id -> why it was left unchanged
+}
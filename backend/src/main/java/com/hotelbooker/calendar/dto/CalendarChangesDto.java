@@ -0,0 +1,23 @@
+package com.hotelbooker.calendar.dto;
+
+import com.hotelbooker.booking.dto.BookingDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarChangesDto {
+    private long token;                    // Pass as "since" on the next call
+    private boolean hasMore;               // Call again right away for the rest
+    private boolean reset;                 // Token too old: drop the local copy, this feed starts over
+    private List<RoomInstanceDto> rooms;
+    private List<BookingDto> bookings;     // Including cancelled ones
+    private List<String> removedRoomIds;
+    private List<String> removedBookingIds;
+}
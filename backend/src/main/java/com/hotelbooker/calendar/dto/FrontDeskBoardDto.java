@@ -0,0 +1,22 @@
+package com.hotelbooker.calendar.dto;
+
+import com.hotelbooker.booking.dto.BookingDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FrontDeskBoardDto {
+    private String hotelId;
+    private LocalDate date;
+    private List<BookingDto> arrivals;    // checking in on the date
+    private List<BookingDto> departures;  // checking out on the date
+    private List<BookingDto> inHouse;     // checked in and staying over the date
+}
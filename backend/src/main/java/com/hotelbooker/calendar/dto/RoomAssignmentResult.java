@@ -0,0 +1,24 @@
+package com.hotelbooker.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAssignmentResult {
+    private String hotelId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int bookings;          // movable bookings in the window
+    private int moved;
+    private int unassigned;
+    private long gapNightsBefore;  // idle nights between stays, within the window
+    private long gapNightsAfter;
+    private boolean applied;       // false when the new plan was no better and was discarded
+}
@@ -1,5 +1,6 @@
 package com.hotelbooker.calendar.dto;
 
+import com.hotelbooker.common.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class RoomInstanceDto {
     private String id;
+    private String hotelId;
     private String roomTypeId;
     private String roomNumber;
     private Integer floor;
@@ -19,7 +21,7 @@ public class RoomInstanceDto {
     
     // Room type details
     private String roomTypeName;
-    private Double pricePerNight;
+    private Money pricePerNight;
     private Integer maxGuests;
     private String bedType;
 }
@@ -0,0 +1,11 @@
+package com.hotelbooker.calendar.event;
+
+import com.hotelbooker.calendar.dto.RoomInstanceDto;
+
+import java.util.List;
+
+/**
+ * Published whenever room instances change status, once per batch of changed rooms.
+ */
+public record RoomStatusChangedEvent(List<RoomInstanceDto> rooms) {
+}
@@ -2,20 +2,39 @@ package com.hotelbooker.calendar.service;
 
 import com.hotelbooker.booking.dto.BookingDto;
 import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
 import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.calendar.dto.BulkRoomStatusResult;
+import com.hotelbooker.calendar.dto.CalendarChangesDto;
 import com.hotelbooker.calendar.dto.QuickBookingRequest;
 import com.hotelbooker.calendar.dto.RoomInstanceDto;
+import com.hotelbooker.calendar.event.RoomStatusChangedEvent;
 import com.hotelbooker.common.exception.ResourceNotFoundException;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.common.sync.ChangeFeed;
+import com.hotelbooker.common.sync.ChangeSequence;
+import com.hotelbooker.common.sync.ChangeTracked;
+import com.hotelbooker.common.sync.SyncTombstone;
+import com.hotelbooker.common.sync.SyncTombstoneRepository;
 import com.hotelbooker.hotel.entity.Room;
 import com.hotelbooker.hotel.entity.RoomInstance;
 import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.pricing.engine.StayRequest;
+import com.hotelbooker.pricing.rates.RateCalendarStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +43,10 @@ public class CalendarService {
     
     private final RoomInstanceRepository roomInstanceRepository;
     private final BookingRepository bookingRepository;
+    private final RateCalendarStore rateCalendarStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final ChangeFeed changeFeed;
     
     /**
      * Get all room instances for a hotel
@@ -48,10 +71,44 @@ public class CalendarService {
         );
         
         return bookings.stream()
-                .map(this::mapToBookingDto)
+                .map(BookingDto::from)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Rooms and bookings of a hotel changed or removed since a delta-sync token
+     */
+    public CalendarChangesDto getChanges(String hotelId, long since) {
+        long start = changeFeed.start(since);
+        List<ChangeTracked> fetched = new ArrayList<>();
+        fetched.addAll(roomInstanceRepository.findChangedByHotelId(hotelId, start, changeFeed.fetch()));
+        fetched.addAll(bookingRepository.findChangedByHotelId(hotelId, start, changeFeed.fetch()));
+        fetched.addAll(tombstoneRepository.findChangedByHotelId(hotelId, start, changeFeed.fetch()));
+        ChangeFeed.Page page = changeFeed.page(since, start, fetched);
+        
+        CalendarChangesDto changes = CalendarChangesDto.builder()
+                .token(page.token())
+                .hasMore(page.hasMore())
+                .reset(page.reset())
+                .rooms(new ArrayList<>())
+                .bookings(new ArrayList<>())
+                .removedRoomIds(new ArrayList<>())
+                .removedBookingIds(new ArrayList<>())
+                .build();
+        for (ChangeTracked change : page.changes()) {
+            if (change instanceof RoomInstance room) {
+                changes.getRooms().add(mapToRoomInstanceDto(room));
+            } else if (change instanceof Booking booking) {
+                changes.getBookings().add(BookingDto.from(booking));
+            } else if (change instanceof SyncTombstone tombstone) {
+                (tombstone.getEntityType() == SyncTombstone.EntityType.BOOKING
+                        ? changes.getRemovedBookingIds()
+                        : changes.getRemovedRoomIds()).add(tombstone.getEntityId());
+            }
+        }
+        return changes;
+    }
+    
     /**
      * Check if a specific room instance is available for date range
      */
@@ -96,7 +153,9 @@ public class CalendarService {
         // Calculate nights and total price
         long nights = ChronoUnit.DAYS.between(request.getCheckInDate(), request.getCheckOutDate());
         Room roomType = roomInstance.getRoomType();
-        double totalPrice = roomType.getPricePerNight() * nights;
+        StayRequest stay = StayRequest.of(roomType.getRoomType(), request.getCheckInDate(), request.getCheckOutDate(),
+                1, request.getNumberOfGuests(), LocalDate.now());
+        Money totalPrice = rateCalendarStore.quote(roomType, stay).total();
         
         // Create booking
         Booking booking = Booking.builder()
@@ -122,7 +181,8 @@ public class CalendarService {
         roomInstance.setStatus(RoomInstance.RoomStatus.OCCUPIED);
         roomInstanceRepository.save(roomInstance);
         
-        return mapToBookingDto(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(booking)));
+        return BookingDto.from(booking);
     }
     
     /**
@@ -136,7 +196,53 @@ public class CalendarService {
         roomInstance.setStatus(RoomInstance.RoomStatus.valueOf(status));
         roomInstance = roomInstanceRepository.save(roomInstance);
         
-        return mapToRoomInstanceDto(roomInstance);
+        RoomInstanceDto room = mapToRoomInstanceDto(roomInstance);
+        eventPublisher.publishEvent(new RoomStatusChangedEvent(List.of(room)));
+        return room;
+    }
+    
+    /**
+     * Change the status of many rooms at once, e.g. at housekeeping turnover: the rooms are
+     * locked and checked in one query, then written with one UPDATE per new status. Unlike
+     * single updates, each change must be a valid transition; the rest are reported as failed
+     */
+    @Transactional
+    public BulkRoomStatusResult updateRoomStatuses(Map<String, RoomInstance.RoomStatus> statuses) {
+        Map<String, RoomInstance> rooms = roomInstanceRepository.lockAllById(statuses.keySet()).stream()
+                .collect(Collectors.toMap(RoomInstance::getId, Function.identity()));
+        
+        List<RoomInstanceDto> updated = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        Map<RoomInstance.RoomStatus, List<String>> idsByStatus = new EnumMap<>(RoomInstance.RoomStatus.class);
+        statuses.forEach((roomInstanceId, status) -> {
+            RoomInstance roomInstance = rooms.get(roomInstanceId);
+            if (roomInstance == null) {
+                failed.put(roomInstanceId, "Room not found");
+                return;
+            }
+            try {
+                validateStatusTransition(roomInstance.getStatus(), status);
+            } catch (IllegalArgumentException e) {
+                failed.put(roomInstanceId, e.getMessage());
+                return;
+            }
+            RoomInstanceDto room = mapToRoomInstanceDto(roomInstance);
+            room.setStatus(status.name());
+            updated.add(room);
+            idsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(roomInstanceId);
+        });
+        
+        LocalDateTime now = LocalDateTime.now();
+        idsByStatus.forEach((status, ids) ->
+                roomInstanceRepository.updateStatus(ids, status, ChangeSequence.next(), now));
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new RoomStatusChangedEvent(updated));
+        }
+        
+        return BulkRoomStatusResult.builder()
+                .updated(updated)
+                .failed(failed)
+                .build();
     }
     
     /**
@@ -161,12 +267,34 @@ public class CalendarService {
         return mapToRoomInstanceDto(roomInstance);
     }
     
+    private void validateStatusTransition(RoomInstance.RoomStatus from, RoomInstance.RoomStatus to) {
+        if (from == to) {
+            throw new IllegalArgumentException("Room is already " + from.name().toLowerCase());
+        }
+        switch (from) {
+            case OCCUPIED:
+                if (to != RoomInstance.RoomStatus.AVAILABLE && to != RoomInstance.RoomStatus.MAINTENANCE) {
+                    throw new IllegalArgumentException("Occupied rooms can only be made available or put under maintenance");
+                }
+                break;
+            case MAINTENANCE:
+            case BLOCKED:
+                if (to == RoomInstance.RoomStatus.OCCUPIED) {
+                    throw new IllegalArgumentException("Rooms must be made available before they are occupied");
+                }
+                break;
+            case AVAILABLE:
+                break;
+        }
+    }
+    
     // Mapping methods
     private RoomInstanceDto mapToRoomInstanceDto(RoomInstance roomInstance) {
         Room roomType = roomInstance.getRoomType();
         
         return RoomInstanceDto.builder()
                 .id(roomInstance.getId())
+                .hotelId(roomType.getHotel().getId())
                 .roomTypeId(roomType.getId())
                 .roomNumber(roomInstance.getRoomNumber())
                 .floor(roomInstance.getFloor())
@@ -178,28 +306,4 @@ public class CalendarService {
                 .bedType(roomType.getBedType())
                 .build();
     }
-    
-    private BookingDto mapToBookingDto(Booking booking) {
-        return BookingDto.builder()
-                .id(booking.getId())
-                .userId(booking.getUser() != null ? booking.getUser().getId() : null)
-                .hotelId(booking.getHotel().getId())
-                .hotelName(booking.getHotel().getName())
-                .roomId(booking.getRoom().getId())
-                .roomType(booking.getRoom().getRoomType())
-                .roomNumber(booking.getRoomInstance() != null ? booking.getRoomInstance().getRoomNumber() : null)
-                .roomInstanceId(booking.getRoomInstance() != null ? booking.getRoomInstance().getId() : null)
-                .checkInDate(booking.getCheckInDate())
-                .checkOutDate(booking.getCheckOutDate())
-                .numberOfGuests(booking.getNumberOfGuests())
-                .numberOfRooms(booking.getNumberOfRooms())
-                .numberOfNights(booking.getNumberOfNights())
-                .totalPrice(booking.getTotalPrice())
-                .status(booking.getStatus().name())
-                .guestName(booking.getGuestName())
-                .guestEmail(booking.getGuestEmail())
-                .guestPhone(booking.getGuestPhone())
-                .specialRequests(booking.getSpecialRequests())
-                .build();
-    }
 }
@@ -0,0 +1,225 @@
+package com.hotelbooker.calendar.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans calendar events out to the staff browsers watching each hotel over Server-Sent Events.
+ *
+ * Each subscriber has a queue of {@code calendar.stream.buffer-size} events, drained onto its
+ * connection by a small pool of sender threads, so a slow browser never holds up a booking or
+ * the other subscribers. A subscriber whose queue is full is disconnected; its browser
+ * reconnects and reloads the visible range. A write still blocked after
+ * {@code calendar.stream.send-timeout} is interrupted and its subscriber disconnected the same
+ * way, so a stalled connection gives its sender thread back. Events are formatted once for
+ * every subscriber and handed to the {@link CalendarEventRelay} for the subscribers of other
+ * instances.
+ */
+@Component
+@Slf4j
+public class CalendarBroadcastHub {
+    
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final CalendarEventRelay relay;
+    private final ExecutorService senders;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Counter dropped;
+    
+    private static final class Subscriber {
+        private final String hotelId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // The sender thread writing to the emitter and when it started, guarded by the subscriber
+        private Thread writer;
+        private long writingSince;
+        
+        Subscriber(String hotelId, SseEmitter emitter, int bufferSize) {
+            this.hotelId = hotelId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+    
+    public CalendarBroadcastHub(
+            CalendarEventRelay relay,
+            MeterRegistry meterRegistry,
+            @Value("${calendar.stream.buffer-size:256}") int bufferSize,
+            @Value("${calendar.stream.sender-threads:4}") int senderThreads,
+            @Value("${calendar.stream.timeout:30m}") Duration timeout,
+            @Value("${calendar.stream.send-timeout:10s}") Duration sendTimeout
+    ) {
+        this.relay = relay;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "calendar-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = Counter.builder("calendar.stream.dropped")
+                .description("Calendar subscribers disconnected for falling behind or stalling")
+                .register(meterRegistry);
+        Gauge.builder("calendar.stream.subscribers", subscribers,
+                        hotels -> hotels.values().stream().mapToInt(Set::size).sum())
+                .description("Open calendar event streams")
+                .register(meterRegistry);
+        relay.onEvent(this::deliver);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+    
+    public SseEmitter subscribe(String hotelId) {
+        return subscribe(hotelId, new SseEmitter(timeoutMillis));
+    }
+    
+    SseEmitter subscribe(String hotelId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(hotelId, emitter, bufferSize);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.computeIfAbsent(hotelId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        // Commits the response so the browser sees the stream open right away
+        offer(subscriber, SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+    
+    /**
+     * Deliver an event to this instance's subscribers and relay it to the other instances
+     */
+    public void publish(CalendarEvent event) {
+        deliver(event);
+        relay.publish(event);
+    }
+    
+    void deliver(CalendarEvent event) {
+        Set<Subscriber> watching = subscribers.get(event.hotelId());
+        if (watching == null || watching.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+                .name(event.name())
+                .data(event.data())
+                .build();
+        watching.forEach(subscriber -> offer(subscriber, message));
+    }
+    
+    int subscribers(String hotelId) {
+        return subscribers.getOrDefault(hotelId, Set.of()).size();
+    }
+    
+    /**
+     * Keep idle connections open through proxies, and find the ones that are gone
+     */
+    @Scheduled(fixedDelayString = "${calendar.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscribers.values().forEach(watching -> watching.forEach(subscriber -> offer(subscriber, ping)));
+    }
+    
+    /**
+     * Disconnect the subscribers whose current write has been stuck longer than the send timeout
+     */
+    @Scheduled(fixedDelayString = "${calendar.stream.stall-check-ms:1000}")
+    public void closeStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(watching -> watching.forEach(subscriber -> {
+            synchronized (subscriber) {
+                if (subscriber.writer == null || now - subscriber.writingSince < sendTimeoutNanos) {
+                    return;
+                }
+                dropped.increment();
+                log.debug("Disconnecting stalled calendar subscriber of hotel {}", subscriber.hotelId);
+                close(subscriber);
+                // Blocking servlet writes give up with an IOException when their thread is interrupted
+                subscriber.writer.interrupt();
+                subscriber.writer = null;
+            }
+            senders.execute(subscriber.emitter::complete);
+        }));
+    }
+    
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(message)) {
+            dropped.increment();
+            log.debug("Disconnecting slow calendar subscriber of hotel {}", subscriber.hotelId);
+            close(subscriber);
+            // The emitter is locked while a sender is stuck writing to it, so never complete it here
+            senders.execute(subscriber.emitter::complete);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            while (!subscriber.closed && (message = subscriber.queue.poll()) != null) {
+                synchronized (subscriber) {
+                    subscriber.writer = Thread.currentThread();
+                    subscriber.writingSince = System.nanoTime();
+                }
+                try {
+                    subscriber.emitter.send(message);
+                } finally {
+                    synchronized (subscriber) {
+                        subscriber.writer = null;
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The browser went away; the emitter's error callback may not have fired yet
+            close(subscriber);
+        } finally {
+            // Only set by closeStalled while this thread was the writer, so never carried to the next task
+            Thread.interrupted();
+            subscriber.draining.set(false);
+        }
+        // An event offered after the last poll but before the flag was cleared
+        if (!subscriber.closed && !subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.queue.clear();
+        subscribers.computeIfPresent(subscriber.hotelId, (id, watching) -> {
+            watching.remove(subscriber);
+            return watching.isEmpty() ? null : watching;
+        });
+    }
+}
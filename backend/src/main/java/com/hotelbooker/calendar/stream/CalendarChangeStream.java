@@ -0,0 +1,65 @@
+package com.hotelbooker.calendar.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.event.BookingChangedEvent;
+import com.hotelbooker.calendar.dto.RoomInstanceDto;
+import com.hotelbooker.calendar.event.RoomStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns committed booking and room changes into compact per-hotel calendar events: one
+ * {@code bookings} or {@code rooms} event per hotel per change, listing just the fields the
+ * calendar grid draws.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalendarChangeStream {
+    
+    private final CalendarBroadcastHub hub;
+    private final ObjectMapper objectMapper;
+    
+    record BookingChange(String id, String roomId, String roomInstanceId, String roomNumber,
+                         LocalDate checkInDate, LocalDate checkOutDate, String status, String guestName) {
+    }
+    
+    record RoomChange(String id, String roomNumber, String status) {
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        publish("bookings", event.bookings(), BookingDto::getHotelId, booking -> new BookingChange(
+                booking.getId(), booking.getRoomId(), booking.getRoomInstanceId(), booking.getRoomNumber(),
+                booking.getCheckInDate(), booking.getCheckOutDate(), booking.getStatus(), booking.getGuestName()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomStatusChanged(RoomStatusChangedEvent event) {
+        publish("rooms", event.rooms(), RoomInstanceDto::getHotelId,
+                room -> new RoomChange(room.getId(), room.getRoomNumber(), room.getStatus()));
+    }
+    
+    private <T> void publish(String name, List<T> changes, Function<T, String> hotelId, Function<T, Object> delta) {
+        Map<String, List<Object>> byHotel = changes.stream()
+                .filter(change -> hotelId.apply(change) != null)
+                .collect(Collectors.groupingBy(hotelId, LinkedHashMap::new,
+                        Collectors.mapping(delta, Collectors.toList())));
+        byHotel.forEach((id, deltas) -> {
+            try {
+                hub.publish(new CalendarEvent(id, name, objectMapper.writeValueAsString(deltas)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize calendar changes", e);
+            }
+        });
+    }
+}
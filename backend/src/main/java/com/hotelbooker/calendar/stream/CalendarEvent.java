@@ -0,0 +1,8 @@
+package com.hotelbooker.calendar.stream;
+
+/**
+ * One server-sent event for the calendars of a hotel: the event name and its JSON data,
+ * serialized once for all subscribers and nodes.
+ */
+public record CalendarEvent(String hotelId, String name, String data) {
+}
@@ -0,0 +1,20 @@
+package com.hotelbooker.calendar.stream;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries calendar events between application instances, so staff connected to any
+ * instance see changes made through the others.
+ */
+public interface CalendarEventRelay {
+    
+    /**
+     * Send an event already delivered locally to the other instances
+     */
+    void publish(CalendarEvent event);
+    
+    /**
+     * Deliver events published by other instances to {@code listener}
+     */
+    void onEvent(Consumer<CalendarEvent> listener);
+}
@@ -0,0 +1,22 @@
+package com.hotelbooker.calendar.stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link CalendarEventRelay} for a single instance: there is no one else to tell.
+ */
+@Component
+@ConditionalOnProperty(name = "calendar.stream.relay", havingValue = "local", matchIfMissing = true)
+public class LocalCalendarEventRelay implements CalendarEventRelay {
+    
+    @Override
+    public void publish(CalendarEvent event) {
+    }
+    
+    @Override
+    public void onEvent(Consumer<CalendarEvent> listener) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.hotelbooker.calendar.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * {@link CalendarEventRelay} over Redis pub/sub.
+ *
+ * Every instance publishes the events it delivered locally to one channel, tagged with its
+ * own id, and delivers the events of the other instances to its subscribers. Pub/sub keeps
+ * nothing, so a subscriber on another instance misses events sent while Redis is down; after
+ * a failure, publishing is skipped for {@code calendar.stream.redis-retry} so bookings do not
+ * wait on an unreachable Redis.
+ */
+@Component
+@ConditionalOnProperty(name = "calendar.stream.relay", havingValue = "redis")
+@Slf4j
+public class RedisCalendarEventRelay implements CalendarEventRelay {
+    
+    static final String CHANNEL = "calendar-events";
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer container;
+    private final long retryNanos;
+    private volatile long redisRetryAt;
+    private volatile Consumer<CalendarEvent> listener = event -> {
+    };
+    
+    private record Envelope(String origin, CalendarEvent event) {
+    }
+    
+    public RedisCalendarEventRelay(
+            StringRedisTemplate redis,
+            RedisConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            @Value("${calendar.stream.redis-retry:30s}") Duration redisRetry
+    ) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.retryNanos = redisRetry.toNanos();
+        this.redisRetryAt = System.nanoTime();
+        this.container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> receive(message.getBody()), new ChannelTopic(CHANNEL));
+    }
+    
+    @PostConstruct
+    public void start() {
+        container.afterPropertiesSet();
+        container.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws Exception {
+        container.destroy();
+    }
+    
+    @Override
+    public void publish(CalendarEvent event) {
+        if (System.nanoTime() - redisRetryAt < 0) {
+            return;
+        }
+        try {
+            redis.convertAndSend(CHANNEL, objectMapper.writeValueAsString(new Envelope(instanceId, event)));
+        } catch (DataAccessException e) {
+            redisRetryAt = System.nanoTime() + retryNanos;
+            log.warn("Redis unavailable, calendar events stay on this instance for {} s: {}",
+                    retryNanos / 1_000_000_000, e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize calendar event", e);
+        }
+    }
+    
+    @Override
+    public void onEvent(Consumer<CalendarEvent> listener) {
+        this.listener = listener;
+    }
+    
+    private void receive(byte[] body) {
+        try {
+            Envelope envelope = objectMapper.readValue(body, Envelope.class);
+            if (!instanceId.equals(envelope.origin())) {
+                listener.accept(envelope.event());
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable calendar event: {}", e.getMessage());
+        }
+    }
+}
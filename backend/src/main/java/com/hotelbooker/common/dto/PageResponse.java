@@ -0,0 +1,20 @@
+package com.hotelbooker.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    private long total;
+    private Integer page;
+    private Integer size;
+    private String nextCursor; // Null on the last page
+}
@@ -0,0 +1,269 @@
+package com.hotelbooker.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooker.common.dto.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Makes retried POSTs safe for clients that send an {@value #HEADER} header.
+ *
+ * The first request with a key executes and, when it succeeds, its response is stored and
+ * replayed (with {@value #REPLAYED_HEADER}) to every retry for {@code idempotency.ttl}.
+ * A duplicate arriving while the first one is still running waits for its result instead of
+ * executing again. Failed requests release their key, so the retry runs normally. Keys are
+ * scoped to the caller and the endpoint; reusing one with a different body is rejected.
+ * Bodies are buffered to be fingerprinted, so ones larger than {@code idempotency.max-body-size}
+ * are rejected with 413.
+ *
+ * Runs after Spring Security so the authenticated user is known, and only for the
+ * endpoints in {@code idempotency.paths}.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    
+    @Value("${idempotency.paths:/bookings,/bookings/cart,/payments/create-intent}")
+    private List<String> paths;
+    
+    @Value("${idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+    
+    @Value("${idempotency.max-body-size:64KB}")
+    private DataSize maxBodySize;
+    
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(urlPathHelper.getPathWithinApplication(request));
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "invalid",
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        
+        String path = urlPathHelper.getPathWithinApplication(request);
+        int limit = (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 1);
+        byte[] body = request.getContentLengthLong() > limit
+                ? null
+                : request.getInputStream().readNBytes(limit + 1);
+        if (body == null || body.length > limit) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "too_large",
+                    "Request body must not exceed " + limit + " bytes with " + HEADER);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String key = caller() + ":" + path + ":" + idempotencyKey;
+        String fingerprint = fingerprint(path, cachedRequest.body);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        
+        while (true) {
+            String owner = UUID.randomUUID().toString();
+            Optional<IdempotencyRecord> existing = store.claim(key, fingerprint, owner);
+            if (existing.isEmpty()) {
+                execute(cachedRequest, response, filterChain, key, fingerprint, owner);
+                return;
+            }
+            IdempotencyRecord record = existing.get();
+            if (!record.fingerprint().equals(fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "mismatch",
+                        HEADER + " was already used for a different request");
+                return;
+            }
+            if (!record.isInFlight()) {
+                replay(record.response(), response);
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                reject(response, HttpStatus.CONFLICT, "in_progress",
+                        "A request with this " + HEADER + " is still being processed");
+                return;
+            }
+            try {
+                store.await(key, Duration.ofNanos(remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for an in-flight duplicate", e);
+            }
+        }
+    }
+    
+    private void execute(
+            CachedBodyRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain,
+            String key,
+            String fingerprint,
+            String owner
+    ) throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, captured);
+            // Only successes are kept: a failed attempt created nothing, so its retry may run again
+            if (captured.getStatus() / 100 == 2) {
+                store.complete(key, owner, new IdempotencyRecord(fingerprint, new StoredResponse(
+                        captured.getStatus(), captured.getContentType(), captured.getContentAsByteArray())));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(key, owner);
+            }
+            count(stored ? "executed" : "failed");
+            captured.copyBodyToResponse();
+        }
+    }
+    
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        count("replayed");
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, String outcome, String message) throws IOException {
+        count(outcome);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+    
+    private void count(String outcome) {
+        meterRegistry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+    
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? "anonymous"
+                : authentication.getName();
+    }
+    
+    private static String fingerprint(String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Serves the body read up front, so it can be fingerprinted and still be read by the controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Everything is already in memory: report it available and read at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+                
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hotelbooker.common.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * What is known about an idempotency key: a fingerprint of the request that first used it and,
+ * once that request has finished, its response ({@code null} while it is still in flight).
+ * An in-flight record also names the execution that claimed the key ({@code owner}), so that
+ * execution can only complete or release its own claim.
+ */
+public record IdempotencyRecord(String fingerprint, String owner, StoredResponse response) {
+    
+    public IdempotencyRecord(String fingerprint, StoredResponse response) {
+        this(fingerprint, null, response);
+    }
+    
+    public static IdempotencyRecord inFlight(String fingerprint, String owner) {
+        return new IdempotencyRecord(fingerprint, owner, null);
+    }
+    
+    @JsonIgnore
+    public boolean isInFlight() {
+        return response == null;
+    }
+}
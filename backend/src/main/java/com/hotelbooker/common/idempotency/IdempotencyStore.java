@@ -0,0 +1,40 @@
+package com.hotelbooker.common.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency keys with the response of the request that first used them.
+ *
+ * A key is claimed before the request executes and either completed with its response
+ * (kept for {@code idempotency.ttl}) or released when the request failed, so a retry
+ * executes it again.
+ */
+public interface IdempotencyStore {
+    
+    /**
+     * Claim a key for a new execution, identified by {@code owner} (unique per execution).
+     *
+     * @return empty when the caller now owns the key, otherwise the key's current record
+     */
+    Optional<IdempotencyRecord> claim(String key, String fingerprint, String owner);
+    
+    /**
+     * Store the response of the owner's execution and wake up waiting duplicates; does nothing
+     * once the owner's claim has expired and the key was claimed again
+     */
+    void complete(String key, String owner, IdempotencyRecord record);
+    
+    /**
+     * Give up the owner's claim without a response, so the next request with the key executes;
+     * a later execution's claim is left alone
+     */
+    void release(String key, String owner);
+    
+    /**
+     * Wait up to {@code timeout} for an in-flight key to be completed or released.
+     *
+     * @return the key's record afterwards, empty when it was released or has expired
+     */
+    Optional<IdempotencyRecord> await(String key, Duration timeout) throws InterruptedException;
+}
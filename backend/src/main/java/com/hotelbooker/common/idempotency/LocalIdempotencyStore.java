@@ -0,0 +1,129 @@
+package com.hotelbooker.common.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process {@link IdempotencyStore}, used on its own with {@code idempotency.store=local}
+ * (single instance, tests) and as the fallback of {@link RedisIdempotencyStore}.
+ *
+ * Duplicates of an in-flight request block on the owner's future instead of polling.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "local", matchIfMissing = true)
+public class LocalIdempotencyStore implements IdempotencyStore {
+    
+    // Expired entries are swept every this many claims
+    private static final int SWEEP_INTERVAL = 1024;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger claims = new AtomicInteger();
+    private final long ttlNanos;
+    private final long lockTtlNanos;
+    
+    public LocalIdempotencyStore(
+            @Value("${idempotency.ttl:24h}") Duration ttl,
+            @Value("${idempotency.lock-ttl:60s}") Duration lockTtl
+    ) {
+        this.ttlNanos = ttl.toNanos();
+        this.lockTtlNanos = lockTtl.toNanos();
+    }
+    
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint, String owner) {
+        if (claims.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweep();
+        }
+        Entry claimed = new Entry(fingerprint, owner, System.nanoTime() + lockTtlNanos);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, claimed);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            if (!existing.isExpired()) {
+                return Optional.of(existing.record());
+            }
+            if (entries.replace(key, existing, claimed)) {
+                existing.result.complete(null);
+                return Optional.empty();
+            }
+        }
+    }
+    
+    @Override
+    public void complete(String key, String owner, IdempotencyRecord record) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.owner.equals(owner) && entry.result.complete(record.response())) {
+            entry.expiresAtNanos = System.nanoTime() + ttlNanos;
+        }
+    }
+    
+    @Override
+    public void release(String key, String owner) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.owner.equals(owner) && entry.result.getNow(null) == null
+                && entries.remove(key, entry)) {
+            entry.result.complete(null);
+        }
+    }
+    
+    @Override
+    public Optional<IdempotencyRecord> await(String key, Duration timeout) throws InterruptedException {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        try {
+            entry.result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Still in flight; the caller decides whether to keep waiting
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+        Entry current = entries.get(key);
+        return current == null || current.isExpired() ? Optional.empty() : Optional.of(current.record());
+    }
+    
+    private void sweep() {
+        entries.entrySet().removeIf(e -> {
+            if (!e.getValue().isExpired()) {
+                return false;
+            }
+            e.getValue().result.complete(null);
+            return true;
+        });
+    }
+    
+    private static final class Entry {
+        final String fingerprint;
+        final String owner;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        volatile long expiresAtNanos;
+        
+        Entry(String fingerprint, String owner, long expiresAtNanos) {
+            this.fingerprint = fingerprint;
+            this.owner = owner;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+        
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+        
+        IdempotencyRecord record() {
+            StoredResponse response = result.getNow(null);
+            return new IdempotencyRecord(fingerprint, response == null ? owner : null, response);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.hotelbooker.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link IdempotencyStore} shared by all instances through Redis.
+ *
+ * A claim is a {@code SET NX} of an in-flight record that expires after
+ * {@code idempotency.lock-ttl}, so a crashed owner does not hold its key forever;
+ * duplicates on other instances poll until the record is completed or removed. Completing and
+ * releasing only act on the owner's own in-flight record, so an owner whose claim expired can
+ * neither overwrite the response of the request that claimed the key after it nor drop that
+ * request's claim.
+ * While Redis is unreachable, keys are kept in a {@link LocalIdempotencyStore}
+ * and Redis is retried after {@code idempotency.redis-retry}.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "redis")
+@Slf4j
+public class RedisIdempotencyStore implements IdempotencyStore {
+    
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final long POLL_MILLIS = 25;
+    
+    private static final RedisScript<Long> COMPLETE = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end return 0",
+            Long.class);
+    
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('DEL', KEYS[1]) return 1 end return 0",
+            Long.class);
+    
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final LocalIdempotencyStore fallback;
+    private final Duration ttl;
+    private final Duration lockTtl;
+    private final long retryNanos;
+    private volatile long redisRetryAt;
+    
+    public RedisIdempotencyStore(
+            StringRedisTemplate redis,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.ttl:24h}") Duration ttl,
+            @Value("${idempotency.lock-ttl:60s}") Duration lockTtl,
+            @Value("${idempotency.redis-retry:30s}") Duration redisRetry
+    ) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.fallback = new LocalIdempotencyStore(ttl, lockTtl);
+        this.ttl = ttl;
+        this.lockTtl = lockTtl;
+        this.retryNanos = redisRetry.toNanos();
+        this.redisRetryAt = System.nanoTime();
+    }
+    
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint, String owner) {
+        if (!redisAvailable()) {
+            return fallback.claim(key, fingerprint, owner);
+        }
+        try {
+            String inFlight = write(IdempotencyRecord.inFlight(fingerprint, owner));
+            while (true) {
+                if (Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(KEY_PREFIX + key, inFlight, lockTtl))) {
+                    return Optional.empty();
+                }
+                Optional<IdempotencyRecord> existing = read(key);
+                if (existing.isPresent()) {
+                    return existing;
+                }
+                // Expired or released between the two calls: try to claim again
+            }
+        } catch (DataAccessException e) {
+            redisFailed(e);
+            return fallback.claim(key, fingerprint, owner);
+        }
+    }
+    
+    @Override
+    public void complete(String key, String owner, IdempotencyRecord record) {
+        fallback.complete(key, owner, record);
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            String inFlight = write(IdempotencyRecord.inFlight(record.fingerprint(), owner));
+            Long completed = redis.execute(COMPLETE, List.of(KEY_PREFIX + key),
+                    inFlight, write(record), String.valueOf(ttl.toMillis()));
+            if (!Long.valueOf(1).equals(completed)) {
+                log.warn("Idempotency key {} was no longer claimed when its request completed", key);
+            }
+        } catch (DataAccessException e) {
+            redisFailed(e);
+        }
+    }
+    
+    @Override
+    public void release(String key, String owner) {
+        fallback.release(key, owner);
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            // Only the owner's in-flight record; after the claim expired the key may belong to a retry
+            String current = redis.opsForValue().get(KEY_PREFIX + key);
+            if (current == null) {
+                return;
+            }
+            IdempotencyRecord claim = parse(key, current);
+            if (claim.isInFlight() && owner.equals(claim.owner())) {
+                redis.execute(RELEASE, List.of(KEY_PREFIX + key), current);
+            }
+        } catch (DataAccessException e) {
+            redisFailed(e);
+        }
+    }
+    
+    @Override
+    public Optional<IdempotencyRecord> await(String key, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (redisAvailable()) {
+            try {
+                Optional<IdempotencyRecord> record = read(key);
+                if (record.isEmpty() || !record.get().isInFlight() || System.nanoTime() - deadline >= 0) {
+                    return record;
+                }
+            } catch (DataAccessException e) {
+                redisFailed(e);
+                break;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        return fallback.await(key, Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+    
+    private Optional<IdempotencyRecord> read(String key) {
+        String value = redis.opsForValue().get(KEY_PREFIX + key);
+        return value == null ? Optional.empty() : Optional.of(parse(key, value));
+    }
+    
+    private IdempotencyRecord parse(String key, String value) {
+        try {
+            return objectMapper.readValue(value, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable idempotency record for key " + key, e);
+        }
+    }
+    
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotency record", e);
+        }
+    }
+    
+    private boolean redisAvailable() {
+        return System.nanoTime() - redisRetryAt >= 0;
+    }
+    
+    private void redisFailed(DataAccessException e) {
+        log.warn("Redis unavailable for idempotency keys, using the local store for {}s: {}",
+                Duration.ofNanos(retryNanos).toSeconds(), e.getMessage());
+        redisRetryAt = System.nanoTime() + retryNanos;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hotelbooker.common.idempotency;
+
+/**
+ * The response of the first execution of an idempotent request, replayed verbatim to retries
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,47 @@
+package com.hotelbooker.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * Hit/miss counters for in-process caches, published under the standard
+ * {@code cache.gets} meter so hit ratios can be derived per cache name.
+ */
+public class CacheMetrics {
+    
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    
+    public CacheMetrics(MeterRegistry meterRegistry, String cacheName, Supplier<Number> size) {
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", cacheName)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", cacheName)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", size)
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+    
+    public void hit() {
+        hits.increment();
+    }
+    
+    public void miss() {
+        misses.increment();
+    }
+    
+    public void eviction() {
+        evictions.increment();
+    }
+}
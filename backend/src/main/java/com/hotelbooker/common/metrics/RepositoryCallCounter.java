@@ -0,0 +1,14 @@
+package com.hotelbooker.common.metrics;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+/**
+ * Counts Spring Data repository invocations into the current request context
+ */
+public class RepositoryCallCounter implements RepositoryMethodInvocationListener {
+    
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation repositoryMethodInvocation) {
+        RequestMetricsContext.recordRepositoryCall();
+    }
+}
@@ -0,0 +1,77 @@
+package com.hotelbooker.common.metrics;
+
+/**
+ * Per-request counters bound to the request thread by {@link RequestMetricsFilter}.
+ * Data-access hooks increment the current context; outside an HTTP request
+ * (schedulers, startup) there is no context and increments are ignored.
+ */
+public final class RequestMetricsContext {
+    
+    private static final ThreadLocal<RequestMetricsContext> CURRENT = new ThreadLocal<>();
+    
+    private int repositoryCalls;
+    private int sqlStatements;
+    private int entitiesLoaded;
+    private long jdbcNanos;
+    
+    private RequestMetricsContext() {
+    }
+    
+    public static RequestMetricsContext open() {
+        RequestMetricsContext context = new RequestMetricsContext();
+        CURRENT.set(context);
+        return context;
+    }
+    
+    public static RequestMetricsContext current() {
+        return CURRENT.get();
+    }
+    
+    public static void close() {
+        CURRENT.remove();
+    }
+    
+    public static void recordRepositoryCall() {
+        RequestMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.repositoryCalls++;
+        }
+    }
+    
+    public static void recordSqlStatement() {
+        RequestMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.sqlStatements++;
+        }
+    }
+    
+    public static void recordEntityLoaded() {
+        RequestMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.entitiesLoaded++;
+        }
+    }
+    
+    public static void recordJdbcTime(long nanos) {
+        RequestMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.jdbcNanos += nanos;
+        }
+    }
+    
+    public int getRepositoryCalls() {
+        return repositoryCalls;
+    }
+    
+    public int getSqlStatements() {
+        return sqlStatements;
+    }
+    
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+    
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+}
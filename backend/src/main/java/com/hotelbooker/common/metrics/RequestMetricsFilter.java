@@ -0,0 +1,135 @@
+package com.hotelbooker.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link RequestMetricsContext} around each request and records the
+ * per-request data-access counts, tagged by URI template to keep cardinality low.
+ *
+ * Requests issuing more SQL statements than {@code sql.budget.max-statements}
+ * are logged with their endpoint; with {@code sql.budget.fail-on-exceed} (tests)
+ * they fail instead. {@code sql.budget.expose-header} (dev) adds an
+ * {@value #SQL_STATS_HEADER} response header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    public static final String SQL_STATS_HEADER = "X-SQL-Stats";
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${sql.budget.max-statements:25}")
+    private int maxStatements;
+    
+    @Value("${sql.budget.expose-header:false}")
+    private boolean exposeHeader;
+    
+    @Value("${sql.budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+    
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        // The header has to be set before the body is committed, so buffer the
+        // response - except for streamed responses, which must not be buffered
+        ContentCachingResponseWrapper bufferedResponse = exposeHeader && !isStreaming(request)
+                ? new ContentCachingResponseWrapper(response)
+                : null;
+        
+        RequestMetricsContext context = RequestMetricsContext.open();
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            RequestMetricsContext.close();
+            String uri = uriTemplate(request);
+            record(request.getMethod(), uri, context);
+            
+            if (bufferedResponse != null) {
+                bufferedResponse.setHeader(SQL_STATS_HEADER, String.format("statements=%d; entities=%d; time=%.1fms",
+                        context.getSqlStatements(), context.getEntitiesLoaded(), context.getJdbcNanos() / 1_000_000.0));
+                bufferedResponse.copyBodyToResponse();
+            }
+        }
+        
+        if (context.getSqlStatements() > maxStatements) {
+            String message = String.format("SQL statement budget exceeded: %s %s issued %d statements (budget %d)",
+                    request.getMethod(), uriTemplate(request), context.getSqlStatements(), maxStatements);
+            if (failOnExceed) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+    
+    private void record(String method, String uri, RequestMetricsContext context) {
+        DistributionSummary.builder("http.server.requests.repository.calls")
+                .description("Spring Data repository invocations per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(context.getRepositoryCalls());
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements issued per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(context.getSqlStatements());
+        DistributionSummary.builder("http.server.requests.sql.entities")
+                .description("Entities loaded from the database per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(context.getEntitiesLoaded());
+        Timer.builder("http.server.requests.sql.time")
+                .description("JDBC execution time per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(context.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Event streams, and NDJSON results streamed back for CSV/NDJSON uploads
+     */
+    private static boolean isStreaming(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        String contentType = request.getContentType();
+        return accept != null && (accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                || accept.contains(MediaType.APPLICATION_NDJSON_VALUE))
+                || contentType != null && (contentType.startsWith("text/csv")
+                || contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+    }
+    
+    static String uriTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,16 @@
+package com.hotelbooker.common.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector that counts every SQL statement prepared
+ * within the current request. The SQL itself is passed through unchanged.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    
+    @Override
+    public String inspect(String sql) {
+        RequestMetricsContext.recordSqlStatement();
+        return sql;
+    }
+}
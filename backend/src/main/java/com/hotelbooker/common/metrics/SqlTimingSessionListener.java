@@ -0,0 +1,42 @@
+package com.hotelbooker.common.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Accumulates JDBC execution time into the current request context.
+ * Hibernate creates one instance per session (hibernate.session.events.auto).
+ */
+public class SqlTimingSessionListener extends BaseSessionEventListener {
+    
+    // nanoTime can be any value, negative included, so "not started" needs its own sentinel
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    
+    private long executeStart = NOT_STARTED;
+    private long batchStart = NOT_STARTED;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        if (executeStart != NOT_STARTED) {
+            RequestMetricsContext.recordJdbcTime(System.nanoTime() - executeStart);
+            executeStart = NOT_STARTED;
+        }
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        if (batchStart != NOT_STARTED) {
+            RequestMetricsContext.recordJdbcTime(System.nanoTime() - batchStart);
+            batchStart = NOT_STARTED;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.hotelbooker.common.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+
+/**
+ * An amount of money as a whole number of minor units (cents for USD) plus an
+ * ISO 4217 currency code. Conversions from decimals round half-up to the
+ * currency's minor unit; arithmetic on the value is exact.
+ * <p>
+ * In JSON a money value is the plain decimal amount ({@code 19.99}), so API
+ * shapes are unchanged; amounts read from JSON or the database are in
+ * {@link #DEFAULT_CURRENCY}, the currency the catalogue is priced in.
+ * <p>
+ * Hot paths that cannot afford an object per step work on raw minor units
+ * with the static helpers ({@link #applyBasisPoints}, {@link #divideHalfUp}).
+ */
+public record Money(long minorUnits, String currency) implements Comparable<Money> {
+    
+    public static final String DEFAULT_CURRENCY = "USD";
+    
+    public Money {
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        currency = currency.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+    
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+    
+    public static Money of(BigDecimal amount, String currency) {
+        Money zero = new Money(0, currency);
+        return new Money(amount.setScale(zero.fractionDigits(), RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                zero.currency());
+    }
+    
+    /**
+     * From a decimal written as a double; uses the shortest decimal that
+     * round-trips, so 19.99 becomes 1999 cents rather than 1998
+     */
+    public static Money of(double amount, String currency) {
+        return of(BigDecimal.valueOf(amount), currency);
+    }
+    
+    public static Money of(double amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+    
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+    
+    public static Money zero(String currency) {
+        return new Money(0, currency);
+    }
+    
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+    
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+    
+    /**
+     * The same decimal amount labelled with another currency code, rounded half-up to that
+     * currency's minor unit; no exchange rate is applied, so only use it to attach a known currency
+     */
+    public Money withCurrency(String otherCurrency) {
+        return of(toDecimal(), otherCurrency);
+    }
+    
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits());
+    }
+    
+    /**
+     * Approximate value for ranking and display math only, never for totals
+     */
+    public double doubleValue() {
+        return toDecimal().doubleValue();
+    }
+    
+    public int fractionDigits() {
+        int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+        return Math.max(digits, 0);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString() + " " + currency;
+    }
+    
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+    
+    /**
+     * {@code minorUnits * basisPoints / 10000}, rounded half-up (away from zero)
+     */
+    public static long applyBasisPoints(long minorUnits, long basisPoints) {
+        return divideHalfUp(Math.multiplyExact(minorUnits, basisPoints), 10_000L);
+    }
+    
+    /**
+     * Integer division rounded half-up (away from zero) for a positive divisor
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,97 @@
+package com.hotelbooker.common.sync;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pages delta-sync feeds ({@code GET /calendar/changes}, {@code GET /bookings/changes}).
+ *
+ * A client passes the token of its last page and gets the rows whose change sequence number is
+ * at or above it. A transaction may commit a little after a later one, so the token never
+ * moves past {@code sync.settle} ago: the newest changes are sent again on the next call rather
+ * than risk skipping one still being committed. Clients apply rows by id, so repeats are
+ * harmless. A token older than the tombstones still kept restarts the feed from the beginning
+ * with {@code reset} set, telling the client to drop its copy.
+ */
+@Component
+@Slf4j
+public class ChangeFeed {
+    
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final Duration settle;
+    private final Duration tombstoneRetention;
+    private final int pageSize;
+    
+    public record Page(List<ChangeTracked> changes, long token, boolean hasMore, boolean reset) {
+    }
+    
+    public ChangeFeed(
+            SyncTombstoneRepository tombstoneRepository,
+            @Value("${sync.settle:10s}") Duration settle,
+            @Value("${sync.tombstone-retention:30d}") Duration tombstoneRetention,
+            @Value("${sync.page-size:500}") int pageSize
+    ) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.settle = settle;
+        this.tombstoneRetention = tombstoneRetention;
+        this.pageSize = pageSize;
+    }
+    
+    /**
+     * Where to read a feed from for the given token
+     */
+    public long start(long since) {
+        return since < ChangeSequence.at(Instant.now().minus(tombstoneRetention)) ? 0 : since;
+    }
+    
+    /**
+     * Rows to fetch from each source of a feed: one more than a page, to tell whether more follow
+     */
+    public Pageable fetch() {
+        return PageRequest.of(0, pageSize + 1);
+    }
+    
+    /**
+     * Cut the rows fetched from all sources of a feed, starting at {@code start}, into a page
+     */
+    public Page page(long since, long start, List<? extends ChangeTracked> fetched) {
+        List<ChangeTracked> changes = fetched.stream()
+                .sorted(Comparator.comparingLong(ChangeTracked::getChangeSeq))
+                .map(ChangeTracked.class::cast)
+                .toList();
+        long settled = ChangeSequence.at(Instant.now().minus(settle));
+        boolean reset = start != since;
+        if (changes.size() <= pageSize) {
+            return new Page(changes, Math.max(start, settled), false, reset);
+        }
+        // Rows sharing the first left-out number go to the next page together
+        long boundary = changes.get(pageSize).getChangeSeq();
+        List<ChangeTracked> page = changes.stream()
+                .filter(change -> change.getChangeSeq() < boundary)
+                .toList();
+        if (boundary <= settled) {
+            return new Page(page, boundary, true, reset);
+        }
+        // The rest is too recent to move the token past; the client picks it up on its next poll
+        return new Page(page, Math.max(start, settled), false, reset);
+    }
+    
+    @Scheduled(cron = "${sync.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = tombstoneRepository.deleteOlderThan(ChangeSequence.at(Instant.now().minus(tombstoneRetention)));
+        if (purged > 0) {
+            log.info("Purged {} sync tombstones", purged);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.hotelbooker.common.sync;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change sequence numbers for delta sync.
+ *
+ * A number is the time of the change in microseconds since the epoch, moved past the last
+ * number handed out so numbers strictly increase within an instance. Numbers of different
+ * instances are ordered by their clocks, which is why a {@link ChangeFeed} token trails the
+ * newest change by {@code sync.settle}.
+ */
+public final class ChangeSequence {
+    
+    private static final AtomicLong last = new AtomicLong();
+    
+    private ChangeSequence() {
+    }
+    
+    public static long next() {
+        long now = at(Instant.now());
+        return last.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+    
+    /**
+     * The lowest number a change made at or after the given time can get
+     */
+    public static long at(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+}
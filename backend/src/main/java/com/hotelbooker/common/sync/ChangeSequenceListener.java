@@ -0,0 +1,17 @@
+package com.hotelbooker.common.sync;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Gives a {@link ChangeTracked} entity a new change sequence number whenever it is inserted or
+ * updated. Bulk SQL updates bypass this and must set {@code change_seq} themselves.
+ */
+public class ChangeSequenceListener {
+    
+    @PrePersist
+    @PreUpdate
+    public void stamp(ChangeTracked entity) {
+        entity.setChangeSeq(ChangeSequence.next());
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotelbooker.common.sync;
+
+/**
+ * An entity served by a delta-sync feed; {@link ChangeSequenceListener} stamps it on every write
+ */
+public interface ChangeTracked {
+    
+    long getChangeSeq();
+    
+    void setChangeSeq(long changeSeq);
+}
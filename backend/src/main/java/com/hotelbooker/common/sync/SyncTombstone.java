@@ -0,0 +1,45 @@
+package com.hotelbooker.common.sync;
+
+import com.hotelbooker.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Marks a synced row that was deleted, so delta-sync clients drop their copy of it. Kept for
+ * {@code sync.tombstone-retention}; clients further behind start over.
+ */
+@Entity
+@Table(name = "sync_tombstones", indexes = {
+        @Index(name = "idx_sync_tombstones_hotel", columnList = "hotel_id, change_seq"),
+        @Index(name = "idx_sync_tombstones_user", columnList = "user_id, change_seq")
+})
+@EntityListeners(ChangeSequenceListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncTombstone extends BaseEntity implements ChangeTracked {
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityType entityType;
+    
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+    
+    @Column(name = "hotel_id", nullable = false)
+    private String hotelId;
+    
+    // Owner of a deleted booking, for the guest's own feed
+    @Column(name = "user_id")
+    private String userId;
+    
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
+    public enum EntityType {
+        BOOKING,
+        ROOM_INSTANCE
+    }
+}
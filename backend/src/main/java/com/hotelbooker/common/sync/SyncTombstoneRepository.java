@@ -0,0 +1,33 @@
+package com.hotelbooker.common.sync;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, String> {
+    
+    @Query("SELECT t FROM SyncTombstone t WHERE t.hotelId = :hotelId AND t.changeSeq >= :since ORDER BY t.changeSeq")
+    List<SyncTombstone> findChangedByHotelId(
+            @Param("hotelId") String hotelId,
+            @Param("since") long since,
+            Pageable page
+    );
+    
+    @Query("SELECT t FROM SyncTombstone t WHERE t.userId = :userId AND t.entityType = 'BOOKING' " +
+            "AND t.changeSeq >= :since ORDER BY t.changeSeq")
+    List<SyncTombstone> findChangedBookingsByUserId(
+            @Param("userId") String userId,
+            @Param("since") long since,
+            Pageable page
+    );
+    
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.changeSeq < :before")
+    int deleteOlderThan(@Param("before") long before);
+}
@@ -0,0 +1,34 @@
+package com.hotelbooker.config;
+
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.HotelSearchViewRepository;
+import com.hotelbooker.hotel.service.HotelSearchViewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the hotel search read model when it is empty or out of step with the
+ * hotels table (first deploy, hotels inserted by SQL scripts, ...)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelSearchViewInitializer implements CommandLineRunner {
+    
+    private final HotelRepository hotelRepository;
+    private final HotelSearchViewRepository hotelSearchViewRepository;
+    private final HotelSearchViewService hotelSearchViewService;
+    
+    @Override
+    public void run(String... args) {
+        long hotels = hotelRepository.count();
+        long rows = hotelSearchViewRepository.count();
+        
+        if (hotels != rows) {
+            log.info("Hotel search view has {} rows for {} hotels, rebuilding", rows, hotels);
+            hotelSearchViewService.rebuildAll();
+        }
+    }
+}
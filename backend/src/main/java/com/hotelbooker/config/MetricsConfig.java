@@ -0,0 +1,50 @@
+package com.hotelbooker.config;
+
+import com.hotelbooker.common.metrics.EntityLoadCountingIntegrator;
+import com.hotelbooker.common.metrics.RepositoryCallCounter;
+import com.hotelbooker.common.metrics.SqlStatementCounter;
+import com.hotelbooker.common.metrics.SqlTimingSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * Attach the per-request repository call counter to every Spring Data repository
+     */
+    @Bean
+    public static BeanPostProcessor repositoryCallCounterPostProcessor() {
+        RepositoryCallCounter counter = new RepositoryCallCounter();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(counter));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    /**
+     * Hook Hibernate so every request knows how many statements it issued,
+     * how many entities it loaded and how long JDBC took
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingSessionListener.class.getName());
+            properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new EntityLoadCountingIntegrator()));
+        };
+    }
+}
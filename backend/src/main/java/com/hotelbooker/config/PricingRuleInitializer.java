@@ -0,0 +1,53 @@
+package com.hotelbooker.config;
+
+import com.hotelbooker.pricing.entity.PricingRule;
+import com.hotelbooker.pricing.repository.PricingRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Seeds the shared multi-room discount and large-party surcharge that search
+ * pricing used to hard-code, so they can be edited like any other rule.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PricingRuleInitializer implements CommandLineRunner {
+    
+    private final PricingRuleRepository pricingRuleRepository;
+    
+    @Override
+    public void run(String... args) {
+        if (pricingRuleRepository.count() > 0) {
+            log.info("ℹ️  Pricing rules already exist");
+            return;
+        }
+        
+        PricingRule multiRoom = PricingRule.builder()
+                .name("Multi-room discount")
+                .description("5% off every room when booking more than one")
+                .ruleType(PricingRule.RuleType.PARTY_SIZE)
+                .adjustmentType(PricingRule.AdjustmentType.PERCENTAGE)
+                .adjustmentValue(-5.0)
+                .minRooms(2)
+                .priority(100)
+                .build();
+        
+        PricingRule largeParty = PricingRule.builder()
+                .name("Large party surcharge")
+                .description("10% more for more than 2 guests")
+                .ruleType(PricingRule.RuleType.PARTY_SIZE)
+                .adjustmentType(PricingRule.AdjustmentType.PERCENTAGE)
+                .adjustmentValue(10.0)
+                .minGuests(3)
+                .priority(100)
+                .build();
+        
+        pricingRuleRepository.saveAll(List.of(multiRoom, largeParty));
+        log.info("✅ Created default pricing rules");
+    }
+}
@@ -4,6 +4,7 @@ import com.hotelbooker.auth.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -41,6 +42,9 @@ public class SecurityConfig {
                         .requestMatchers("/bookings/admin/**").permitAll()  // Allow admin booking endpoints
                         .requestMatchers("/pricing-rules/**").permitAll()  // Allow pricing rules endpoints
                         .requestMatchers("/admin/**", "/api/v1/admin/**").permitAll()  // Allow admin dashboard
+                        .requestMatchers("/actuator/health/**", "/actuator/info", "/actuator/prometheus").permitAll()  // Health checks & scraping
+                        .requestMatchers(HttpMethod.POST, "/bookings/import").hasRole("ADMIN")  // Bulk imports of up to 50k rows
+                        .requestMatchers("/analytics/**").hasRole("ADMIN")  // Hotel revenue and occupancy
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -1,14 +1,25 @@
 package com.hotelbooker.hotel.controller;
 
 import com.hotelbooker.common.dto.ApiResponse;
+import com.hotelbooker.common.dto.PageResponse;
+import com.hotelbooker.hotel.dto.AutocompleteSuggestionDto;
+import com.hotelbooker.hotel.dto.FacetedSearchResponse;
+import com.hotelbooker.hotel.dto.HotelClusterDto;
 import com.hotelbooker.hotel.dto.HotelDto;
 import com.hotelbooker.hotel.dto.HotelSearchRequest;
+import com.hotelbooker.hotel.dto.HotelSummaryDto;
 import com.hotelbooker.hotel.dto.RoomDto;
+import com.hotelbooker.hotel.popularity.PopularItem;
+import com.hotelbooker.hotel.search.DestinationAutocomplete;
+import com.hotelbooker.hotel.search.HotelClusterIndex;
+import com.hotelbooker.hotel.service.HotelSearchViewService;
 import com.hotelbooker.hotel.service.HotelService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +28,9 @@ import java.util.List;
 public class HotelController {
     
     private final HotelService hotelService;
+    private final HotelSearchViewService hotelSearchViewService;
+    private final HotelClusterIndex hotelClusterIndex;
+    private final DestinationAutocomplete destinationAutocomplete;
     
     @GetMapping
     public ResponseEntity<ApiResponse<List<HotelDto>>> getAllHotels() {
@@ -32,6 +46,51 @@ public class HotelController {
         return ResponseEntity.ok(ApiResponse.success(hotels));
     }
     
+    @PostMapping("/search/page")
+    public ResponseEntity<ApiResponse<PageResponse<HotelDto>>> searchHotelsPage(
+            @RequestBody HotelSearchRequest request
+    ) {
+        PageResponse<HotelDto> page = hotelService.searchHotelsPage(request);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+    
+    @PostMapping("/search/summary")
+    public ResponseEntity<ApiResponse<List<HotelSummaryDto>>> searchHotelSummaries(
+            @RequestBody HotelSearchRequest request
+    ) {
+        List<HotelSummaryDto> hotels = hotelSearchViewService.search(request);
+        return ResponseEntity.ok(ApiResponse.success(hotels));
+    }
+    
+    @PostMapping("/search/facets")
+    public ResponseEntity<ApiResponse<FacetedSearchResponse>> searchHotelsWithFacets(
+            @RequestBody HotelSearchRequest request
+    ) {
+        FacetedSearchResponse response = hotelSearchViewService.searchWithFacets(request);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiResponse<List<AutocompleteSuggestionDto>>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<AutocompleteSuggestionDto> suggestions = destinationAutocomplete.suggest(q, Math.min(limit, 20));
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+    
+    @GetMapping("/clusters")
+    public ResponseEntity<ApiResponse<List<HotelClusterDto>>> getHotelClusters(
+            @RequestParam double north,
+            @RequestParam double south,
+            @RequestParam double east,
+            @RequestParam double west,
+            @RequestParam int zoom
+    ) {
+        List<HotelClusterDto> clusters = hotelClusterIndex.clusters(south, west, north, east, zoom);
+        return ResponseEntity.ok(ApiResponse.success(clusters));
+    }
+    
     @GetMapping("/{hotelId}")
     public ResponseEntity<ApiResponse<HotelDto>> getHotelById(
             @PathVariable String hotelId
@@ -42,10 +101,14 @@ public class HotelController {
     
     @GetMapping("/{hotelId}/rooms")
     public ResponseEntity<ApiResponse<List<RoomDto>>> getHotelRooms(
-            @PathVariable String hotelId
+            @PathVariable String hotelId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutDate,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) Integer rooms
     ) {
-        List<RoomDto> rooms = hotelService.getHotelRooms(hotelId);
-        return ResponseEntity.ok(ApiResponse.success(rooms));
+        List<RoomDto> hotelRooms = hotelService.getHotelRooms(hotelId, checkInDate, checkOutDate, guests, rooms);
+        return ResponseEntity.ok(ApiResponse.success(hotelRooms));
     }
     
     @GetMapping("/featured")
@@ -60,6 +123,15 @@ public class HotelController {
         return ResponseEntity.ok(ApiResponse.success(destinations));
     }
     
+    @GetMapping("/destinations/trending")
+    public ResponseEntity<ApiResponse<List<PopularItem>>> getTrendingDestinations(
+            @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<PopularItem> destinations = hotelService.getTrendingDestinations(region, Math.min(limit, 20));
+        return ResponseEntity.ok(ApiResponse.success(destinations));
+    }
+    
     // Admin endpoints
     @PostMapping
     public ResponseEntity<ApiResponse<HotelDto>> createHotel(
@@ -0,0 +1,19 @@
+package com.hotelbooker.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestionDto {
+    private String text;
+    private String type; // CITY, COUNTRY, HOTEL
+    private String hotelId; // Only for HOTEL suggestions
+    private String city;
+    private String country;
+    private Integer hotelCount; // Hotels behind a CITY or COUNTRY suggestion
+}
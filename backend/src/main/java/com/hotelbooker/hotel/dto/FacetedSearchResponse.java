@@ -0,0 +1,23 @@
+package com.hotelbooker.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResponse {
+    private List<HotelSummaryDto> hotels;
+    private Integer total;
+    
+    // Facet counts over the matching hotels, e.g. "Pool" -> 124
+    private Map<String, Integer> amenities;
+    private Map<Integer, Integer> starRatings;
+    private Map<String, Integer> cities;
+}
@@ -0,0 +1,24 @@
+package com.hotelbooker.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelClusterDto {
+    private String geohash;
+    private Double latitude;  // Centroid of the hotels in the cell
+    private Double longitude;
+    private Integer count;
+    private Double minPrice;
+    
+    // Representative hotel (best rated in the cell)
+    private String hotelId;
+    private String hotelName;
+    private Double hotelLatitude;
+    private Double hotelLongitude;
+}
@@ -1,5 +1,6 @@
 package com.hotelbooker.hotel.dto;
 
+import com.hotelbooker.common.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,7 +21,7 @@ public class HotelDto {
     private String country;
     private Double latitude;
     private Double longitude;
-    private Double pricePerNight;
+    private Money pricePerNight;
     private Double guestRating;
     private Integer totalReviews;
     private Integer starRating;
@@ -29,6 +30,7 @@ public class HotelDto {
     private boolean featured;
     private boolean available;
     private String status; // ACTIVE, MAINTENANCE, INACTIVE
+    private Double distanceKm; // Only set by geo searches
     
     // Contact Information (Optional)
     private String phoneNumber;
@@ -1,7 +1,12 @@
 package com.hotelbooker.hotel.dto;
 
+import com.hotelbooker.hotel.search.FacetQuery;
 import lombok.Data;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
 @Data
 public class HotelSearchRequest {
     private String location;
@@ -13,4 +18,66 @@ public class HotelSearchRequest {
     private Double maxPrice;
     private Integer minStarRating;
     private Double minGuestRating;
+    
+    // Proximity search: hotels within radiusKm of (latitude, longitude), nearest first
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+    
+    // Viewport search: hotels inside the map bounds, nearest to the viewport centre
+    // (or to latitude/longitude when given) first
+    private Double north;
+    private Double south;
+    private Double east;
+    private Double west;
+    
+    // Facet filters: all of amenities, at least one of anyAmenities, any of the
+    // star ratings and any of the cities
+    private List<String> amenities;
+    private List<String> anyAmenities;
+    private List<Integer> starRatings;
+    private List<String> cities;
+    
+    // Sorting and paging: PRICE, PRICE_DESC, GUEST_RATING, STAR_RATING, DISTANCE or
+    // POPULARITY; page is zero-based, cursor is the nextCursor of the previous page
+    private String sort;
+    private Integer page;
+    private Integer limit;
+    private String cursor;
+    
+    public boolean hasRadius() {
+        return latitude != null && longitude != null && radiusKm != null;
+    }
+    
+    public boolean hasBounds() {
+        return north != null && south != null && east != null && west != null;
+    }
+    
+    public boolean isPaged() {
+        return sort != null || page != null || limit != null || cursor != null;
+    }
+    
+    // Stay dates accept plain dates or ISO date-times; unparseable values count as absent
+    public LocalDate checkIn() {
+        return parseDate(checkInDate);
+    }
+    
+    public LocalDate checkOut() {
+        return parseDate(checkOutDate);
+    }
+    
+    public FacetQuery toFacetQuery() {
+        return new FacetQuery(amenities, anyAmenities, starRatings, cities);
+    }
+    
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.hotelbooker.hotel.dto;
+
+import com.hotelbooker.common.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lean search/list representation of a hotel served from the search read model
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelSummaryDto {
+    private String id;
+    private String name;
+    private String city;
+    private String country;
+    private Double latitude;
+    private Double longitude;
+    private Money pricePerNight;
+    private Money minRoomPrice;
+    private Double guestRating;
+    private Integer totalReviews;
+    private Integer starRating;
+    private String thumbnailUrl;
+    private List<String> amenities;
+    private boolean available;
+}
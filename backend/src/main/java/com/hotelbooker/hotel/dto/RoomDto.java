@@ -1,5 +1,6 @@
 package com.hotelbooker.hotel.dto;
 
+import com.hotelbooker.common.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,7 +17,7 @@ public class RoomDto {
     private String hotelId;
     private String roomType;
     private String description;
-    private Double pricePerNight;
+    private Money pricePerNight;
     private Integer maxGuests;
     private Integer totalRooms;
     private Integer availableRooms;
@@ -26,4 +27,8 @@ public class RoomDto {
     private String bedType;
     private boolean hasBreakfast;
     private boolean freeCancellation;
+    
+    // Exact stay price for all requested rooms, only when stay dates were given
+    private Money totalPrice;
+    private Integer nights;
 }
@@ -1,8 +1,11 @@
 package com.hotelbooker.hotel.entity;
 
 import com.hotelbooker.common.entity.BaseEntity;
+import com.hotelbooker.common.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,8 +37,8 @@ public class Hotel extends BaseEntity {
     private Double latitude;
     private Double longitude;
     
-    @Column(nullable = false)
-    private Double pricePerNight;
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money pricePerNight;
     
     @Column(nullable = false)
     private Double guestRating = 0.0;
@@ -47,11 +50,13 @@ public class Hotel extends BaseEntity {
     private Integer starRating;
     
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)  // Load for all hotels of the same query at once
     @CollectionTable(name = "hotel_images", joinColumns = @JoinColumn(name = "hotel_id"))
     @Column(name = "image_url")
     private List<String> images = new ArrayList<>();
     
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "hotel_amenities", joinColumns = @JoinColumn(name = "hotel_id"))
     @Column(name = "amenity")
     private List<String> amenities = new ArrayList<>();
@@ -0,0 +1,77 @@
+package com.hotelbooker.hotel.entity;
+
+import com.hotelbooker.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flattened, denormalized projection of a hotel and its rooms used to serve
+ * search/list pages from a single indexed query. Maintained incrementally by
+ * {@link com.hotelbooker.hotel.service.HotelSearchViewService}.
+ */
+@Entity
+@Table(name = "hotel_search_view", indexes = {
+        @Index(name = "idx_hotel_search_view_city", columnList = "city"),
+        @Index(name = "idx_hotel_search_view_price", columnList = "price_per_night")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotelSearchView {
+    
+    @Id
+    @Column(name = "hotel_id")
+    private String hotelId;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(nullable = false)
+    private String city;
+    
+    @Column(nullable = false)
+    private String country;
+    
+    // Lower-cased "name city country" used for location matching
+    @Column(nullable = false, length = 1000)
+    private String searchText;
+    
+    private Double latitude;
+    private Double longitude;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money pricePerNight;
+    
+    // Cheapest room type that still has inventory, null when sold out
+    @Column(precision = 19, scale = 4)
+    private Money minRoomPrice;
+    
+    @Column(nullable = false)
+    private Integer availableRooms;
+    
+    private Double guestRating;
+    private Integer totalReviews;
+    private Integer starRating;
+    
+    private String thumbnailUrl;
+    
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "amenities")
+    private String[] amenities;
+    
+    private boolean featured;
+    private boolean available;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Hotel.HotelStatus status;
+    
+    @Column(nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,29 @@
+package com.hotelbooker.hotel.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serialized popularity sketches, persisted periodically so decayed counts
+ * survive restarts. See {@link com.hotelbooker.hotel.popularity.PopularityTracker}.
+ */
+@Entity
+@Table(name = "popularity_snapshots")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PopularitySnapshot {
+    
+    @Id
+    private String name;
+    
+    @Column(nullable = false, length = 1_000_000)
+    private byte[] data;
+    
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -1,8 +1,11 @@
 package com.hotelbooker.hotel.entity;
 
 import com.hotelbooker.common.entity.BaseEntity;
+import com.hotelbooker.common.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,8 +29,8 @@ public class Room extends BaseEntity {
     @Column(length = 1000)
     private String description;
     
-    @Column(nullable = false)
-    private Double pricePerNight;
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money pricePerNight;
     
     @Column(nullable = false)
     private Integer maxGuests;
@@ -41,11 +44,13 @@ public class Room extends BaseEntity {
     private Double size; // in square meters
     
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "room_images", joinColumns = @JoinColumn(name = "room_id"))
     @Column(name = "image_url")
     private List<String> images = new ArrayList<>();
     
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "room_amenities", joinColumns = @JoinColumn(name = "room_id"))
     @Column(name = "amenity")
     private List<String> amenities = new ArrayList<>();
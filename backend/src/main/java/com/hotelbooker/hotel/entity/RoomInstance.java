@@ -1,17 +1,23 @@
 package com.hotelbooker.hotel.entity;
 
 import com.hotelbooker.common.entity.BaseEntity;
+import com.hotelbooker.common.sync.ChangeSequenceListener;
+import com.hotelbooker.common.sync.ChangeTracked;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "room_instances")
+@Table(name = "room_instances", indexes = {
+        @Index(name = "idx_room_instances_change_seq", columnList = "change_seq")
+})
+@EntityListeners(ChangeSequenceListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class RoomInstance extends BaseEntity {
+public class RoomInstance extends BaseEntity implements ChangeTracked {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_type_id", nullable = false)
@@ -30,6 +36,11 @@ public class RoomInstance extends BaseEntity {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
+    // Delta-sync position, renewed on every write; rows from before change tracking start at 0
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    
     public enum RoomStatus {
         AVAILABLE,
         OCCUPIED,
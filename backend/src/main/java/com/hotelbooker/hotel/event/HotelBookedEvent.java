@@ -0,0 +1,8 @@
+package com.hotelbooker.hotel.event;
+
+/**
+ * Published for every booking created in a hotel; counted towards the hotel's and its
+ * destination's popularity once the booking has committed.
+ */
+public record HotelBookedEvent(String hotelId, String city, String country) {
+}
@@ -0,0 +1,8 @@
+package com.hotelbooker.hotel.event;
+
+/**
+ * Published whenever a hotel, one of its rooms or its room inventory changes,
+ * so derived read models can refresh just that hotel.
+ */
+public record HotelCatalogChangedEvent(String hotelId) {
+}
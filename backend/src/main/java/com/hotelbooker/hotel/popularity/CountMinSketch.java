@@ -0,0 +1,85 @@
+package com.hotelbooker.hotel.popularity;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over weighted string keys. Estimates never undercount and
+ * overcount by at most ~e/width of the total weight with high probability.
+ *
+ * Designed for a single writer (the popularity drainer); readers on request
+ * threads see each cell atomically without locking.
+ */
+final class CountMinSketch {
+    
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray cells; // double bits
+    
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.cells = new AtomicLongArray(depth * width);
+    }
+    
+    void add(String key, double weight) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + Math.floorMod(h1 + row * h2, width);
+            cells.set(index, Double.doubleToRawLongBits(Double.longBitsToDouble(cells.get(index)) + weight));
+        }
+    }
+    
+    double estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + Math.floorMod(h1 + row * h2, width);
+            min = Math.min(min, Double.longBitsToDouble(cells.get(index)));
+        }
+        return min;
+    }
+    
+    void scale(double factor) {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, Double.doubleToRawLongBits(Double.longBitsToDouble(cells.get(i)) * factor));
+        }
+    }
+    
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        for (int i = 0; i < cells.length(); i++) {
+            out.writeDouble(Double.longBitsToDouble(cells.get(i)));
+        }
+    }
+    
+    void readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != depth || in.readInt() != width) {
+            throw new IOException("Sketch dimensions changed");
+        }
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, Double.doubleToRawLongBits(in.readDouble()));
+        }
+    }
+    
+    // 64-bit FNV-1a with a final avalanche; the two halves seed the row hashes
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash | 1L << 32; // keep the row step non-zero
+    }
+}
@@ -0,0 +1,7 @@
+package com.hotelbooker.hotel.popularity;
+
+/**
+ * A destination or hotel with its decayed popularity score
+ */
+public record PopularItem(String name, double score) {
+}
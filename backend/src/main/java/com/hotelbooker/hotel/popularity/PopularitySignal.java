@@ -0,0 +1,20 @@
+package com.hotelbooker.hotel.popularity;
+
+/**
+ * User interactions that make a hotel or destination popular, with their weight
+ */
+public enum PopularitySignal {
+    SEARCH(1.0),
+    VIEW(3.0),
+    BOOKING(20.0);
+    
+    private final double weight;
+    
+    PopularitySignal(double weight) {
+        this.weight = weight;
+    }
+    
+    public double weight() {
+        return weight;
+    }
+}
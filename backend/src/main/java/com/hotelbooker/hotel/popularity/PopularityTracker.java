@@ -0,0 +1,274 @@
+package com.hotelbooker.hotel.popularity;
+
+import com.hotelbooker.hotel.entity.PopularitySnapshot;
+import com.hotelbooker.hotel.event.HotelBookedEvent;
+import com.hotelbooker.hotel.repository.PopularitySnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming popularity of hotels and destinations.
+ *
+ * Request threads only enqueue interactions (lock-free). A scheduled drainer is
+ * the single writer of a count-min sketch (per hotel and per city scores) and of
+ * Space-Saving heavy hitters per region (country) and globally, and publishes an
+ * immutable top-destinations view after each drain. Counts use forward
+ * exponential decay, so a week-old booking weighs half as much as today's with
+ * the default half-life. State is snapshotted to the database periodically,
+ * one row per instance ({@code popularity.instance-id}), since each instance
+ * only counts the interactions it served.
+ */
+@Component
+@Slf4j
+public class PopularityTracker {
+    
+    public static final String GLOBAL = "global";
+    
+    private static final String SNAPSHOT_PREFIX = "popularity:";
+    private static final int MAX_PENDING = 100_000;
+    private static final int DESTINATIONS_PER_REGION = 64;
+    private static final int PUBLISHED_DESTINATIONS = 20;
+    
+    private final PopularitySnapshotRepository snapshotRepository;
+    private final String snapshotName;
+    private final double decayPerSecond;
+    private final Counter dropped;
+    
+    private final ConcurrentLinkedQueue<Interaction> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    
+    // Written by the drainer only
+    private final CountMinSketch sketch = new CountMinSketch(4, 4096);
+    private final Map<String, SpaceSaving> destinationsByRegion = new HashMap<>();
+    // Normalized city -> display name as first seen
+    private final Map<String, String> cityLabels = new HashMap<>();
+    private volatile long landmark = Instant.now().getEpochSecond();
+    private volatile Map<String, List<PopularItem>> topDestinations = Map.of();
+    
+    private record Interaction(PopularitySignal signal, String hotelId, String city, String country, long epochSecond) {
+    }
+    
+    public PopularityTracker(
+            PopularitySnapshotRepository snapshotRepository,
+            MeterRegistry meterRegistry,
+            @Value("${popularity.half-life:7d}") Duration halfLife,
+            @Value("${popularity.instance-id:local}") String instanceId
+    ) {
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotName = SNAPSHOT_PREFIX + instanceId;
+        this.decayPerSecond = Math.log(2) / halfLife.toSeconds();
+        this.dropped = Counter.builder("popularity.interactions.dropped")
+                .description("Interactions dropped because the popularity queue was full")
+                .register(meterRegistry);
+    }
+    
+    public void record(PopularitySignal signal, String hotelId, String city, String country) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.offer(new Interaction(signal, hotelId, city, country, Instant.now().getEpochSecond()));
+    }
+    
+    // After commit, so bookings that roll back never count
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelBooked(HotelBookedEvent event) {
+        record(PopularitySignal.BOOKING, event.hotelId(), event.city(), event.country());
+    }
+    
+    public double hotelScore(String hotelId) {
+        return decayed(sketch.estimate(hotelKey(hotelId)));
+    }
+    
+    /**
+     * Score decayed to the given time instead of now, so scores read at different
+     * times for the same instant compare equal until new interactions arrive
+     */
+    public double hotelScore(String hotelId, long epochSecond) {
+        return decayed(sketch.estimate(hotelKey(hotelId)), epochSecond);
+    }
+    
+    public double destinationScore(String city) {
+        return decayed(sketch.estimate(cityKey(city)));
+    }
+    
+    /**
+     * Most popular destinations of a region (country), or of all regions for {@link #GLOBAL}
+     */
+    public List<PopularItem> topDestinations(String region, int limit) {
+        List<PopularItem> items = topDestinations.getOrDefault(regionKey(region), List.of());
+        return items.size() <= limit ? items : items.subList(0, limit);
+    }
+    
+    @Scheduled(fixedDelayString = "${popularity.drain-interval-ms:1000}")
+    public synchronized void drain() {
+        int drained = 0;
+        Interaction interaction;
+        while ((interaction = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            apply(interaction);
+            drained++;
+        }
+        if (drained > 0) {
+            publish();
+        }
+    }
+    
+    private void apply(Interaction interaction) {
+        // Rescale before the forward-decay multiplier gets large
+        if (decayPerSecond * (interaction.epochSecond() - landmark) > 20) {
+            rescale(interaction.epochSecond());
+        }
+        double weight = interaction.signal().weight()
+                * Math.exp(decayPerSecond * (interaction.epochSecond() - landmark));
+        
+        if (interaction.hotelId() != null) {
+            sketch.add(hotelKey(interaction.hotelId()), weight);
+        }
+        if (interaction.city() != null && !interaction.city().isBlank()) {
+            String city = normalize(interaction.city());
+            cityLabels.putIfAbsent(city, interaction.city().trim());
+            sketch.add(cityKey(city), weight);
+            destinationsByRegion.computeIfAbsent(GLOBAL, r -> new SpaceSaving(DESTINATIONS_PER_REGION)).add(city, weight);
+            if (interaction.country() != null && !interaction.country().isBlank()) {
+                destinationsByRegion.computeIfAbsent(regionKey(interaction.country()),
+                        r -> new SpaceSaving(DESTINATIONS_PER_REGION)).add(city, weight);
+            }
+        }
+    }
+    
+    private void rescale(long now) {
+        double factor = Math.exp(-decayPerSecond * (now - landmark));
+        sketch.scale(factor);
+        destinationsByRegion.values().forEach(s -> s.scale(factor));
+        landmark = now;
+    }
+    
+    private void publish() {
+        Map<String, List<PopularItem>> published = new HashMap<>();
+        destinationsByRegion.forEach((region, heavyHitters) -> published.put(region, heavyHitters
+                .top(PUBLISHED_DESTINATIONS)
+                .stream()
+                .map(item -> new PopularItem(cityLabels.getOrDefault(item.key(), item.key()), decayed(item.count())))
+                .toList()));
+        topDestinations = Map.copyOf(published);
+    }
+    
+    private double decayed(double forwardCount) {
+        return decayed(forwardCount, Instant.now().getEpochSecond());
+    }
+    
+    private double decayed(double forwardCount, long epochSecond) {
+        return forwardCount * Math.exp(-decayPerSecond * (epochSecond - landmark));
+    }
+    
+    @Scheduled(fixedDelayString = "${popularity.snapshot-interval-ms:300000}",
+            initialDelayString = "${popularity.snapshot-interval-ms:300000}")
+    public synchronized void snapshot() {
+        drain();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(landmark);
+            sketch.writeTo(out);
+            out.writeInt(destinationsByRegion.size());
+            for (Map.Entry<String, SpaceSaving> region : destinationsByRegion.entrySet()) {
+                out.writeUTF(region.getKey());
+                region.getValue().writeTo(out);
+            }
+            // Labels are only needed for cities still tracked as heavy hitters
+            Set<String> tracked = new HashSet<>();
+            destinationsByRegion.values().forEach(heavyHitters -> tracked.addAll(heavyHitters.keys()));
+            cityLabels.keySet().retainAll(tracked);
+            out.writeInt(cityLabels.size());
+            for (Map.Entry<String, String> label : cityLabels.entrySet()) {
+                out.writeUTF(label.getKey());
+                out.writeUTF(label.getValue());
+            }
+            out.flush();
+            
+            snapshotRepository.save(PopularitySnapshot.builder()
+                    .name(snapshotName)
+                    .data(bytes.toByteArray())
+                    .takenAt(LocalDateTime.now())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not snapshot popularity counters: {}", e.getMessage());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void restore() {
+        snapshotRepository.findById(snapshotName).ifPresent(snapshot -> {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot.getData()))) {
+                landmark = in.readLong();
+                sketch.readFrom(in);
+                destinationsByRegion.clear();
+                int regions = in.readInt();
+                for (int i = 0; i < regions; i++) {
+                    String region = in.readUTF();
+                    SpaceSaving heavyHitters = new SpaceSaving(DESTINATIONS_PER_REGION);
+                    heavyHitters.readFrom(in);
+                    destinationsByRegion.put(region, heavyHitters);
+                }
+                cityLabels.clear();
+                int labels = in.readInt();
+                for (int i = 0; i < labels; i++) {
+                    cityLabels.put(in.readUTF(), in.readUTF());
+                }
+                publish();
+                log.info("Restored popularity counters from snapshot taken at {}", snapshot.getTakenAt());
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable popularity snapshot: {}", e.getMessage());
+            }
+        });
+    }
+    
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+    
+    private static String hotelKey(String hotelId) {
+        return "h:" + hotelId;
+    }
+    
+    private static String cityKey(String city) {
+        return "c:" + normalize(city);
+    }
+    
+    private static String regionKey(String region) {
+        return region == null ? GLOBAL : normalize(region);
+    }
+    
+    // One form of a city or region for the sketch and the heavy hitters alike
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
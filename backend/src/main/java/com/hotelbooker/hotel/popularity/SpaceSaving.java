@@ -0,0 +1,89 @@
+package com.hotelbooker.hotel.popularity;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy hitters: tracks at most {@code capacity} items and, when
+ * full, replaces the smallest counter, inheriting its count as the new item's
+ * error bound. Any item heavier than total/capacity is guaranteed to be kept.
+ * Single writer.
+ */
+final class SpaceSaving {
+    
+    record Item(String key, double count, double error) {
+    }
+    
+    private final int capacity;
+    private final Map<String, double[]> counters = new HashMap<>(); // key -> {count, error}
+    
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    void add(String key, double weight) {
+        double[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new double[]{weight, 0.0});
+            return;
+        }
+        
+        String minKey = null;
+        double min = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < min) {
+                min = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new double[]{min + weight, min});
+    }
+    
+    List<Item> top(int k) {
+        return counters.entrySet()
+                .stream()
+                .map(e -> new Item(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .sorted(Comparator.comparingDouble(Item::count).reversed().thenComparing(Item::key))
+                .limit(k)
+                .toList();
+    }
+    
+    Set<String> keys() {
+        return counters.keySet();
+    }
+    
+    void scale(double factor) {
+        counters.values().forEach(counter -> {
+            counter[0] *= factor;
+            counter[1] *= factor;
+        });
+    }
+    
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(counters.size());
+        for (Map.Entry<String, double[]> entry : counters.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue()[0]);
+            out.writeDouble(entry.getValue()[1]);
+        }
+    }
+    
+    void readFrom(DataInputStream in) throws IOException {
+        counters.clear();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            counters.put(in.readUTF(), new double[]{in.readDouble(), in.readDouble()});
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotelbooker.hotel.repository;
+
+/**
+ * Room inventory of one hotel summed over its room types
+ */
+public record HotelInventory(String hotelId, Long totalRooms, Long availableRooms) {
+    
+    /**
+     * Share of rooms currently sold in percent, NaN for hotels without rooms
+     */
+    public double occupancyPercent() {
+        if (totalRooms == null || totalRooms <= 0) {
+            return Double.NaN;
+        }
+        long available = availableRooms != null ? availableRooms : 0;
+        return 100.0 * (totalRooms - available) / totalRooms;
+    }
+}
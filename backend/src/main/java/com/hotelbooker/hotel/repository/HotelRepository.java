@@ -1,16 +1,29 @@
 package com.hotelbooker.hotel.repository;
 
+import com.hotelbooker.common.money.Money;
 import com.hotelbooker.hotel.entity.Hotel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, String> {
     
+    // Attribute filters of hotel search; each is skipped when its parameter is null
+    String SEARCH_FILTER = "(:location IS NULL OR LOWER(h.city) LIKE CONCAT('%', :location, '%') " +
+           "OR LOWER(h.name) LIKE CONCAT('%', :location, '%') OR LOWER(h.country) LIKE CONCAT('%', :location, '%')) " +
+           "AND (:minPrice IS NULL OR h.pricePerNight >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR h.pricePerNight <= :maxPrice) " +
+           "AND (:minStarRating IS NULL OR h.starRating >= :minStarRating) " +
+           "AND (:minGuestRating IS NULL OR h.guestRating >= :minGuestRating)";
+    
+    String SEARCH_ROW = "SELECT new com.hotelbooker.hotel.repository.HotelSearchRow(" +
+           "h.id, h.pricePerNight, h.guestRating, h.starRating, h.totalReviews) FROM Hotel h WHERE ";
+    
     List<Hotel> findByCityContainingIgnoreCaseAndAvailableTrue(String city);
     
     @Query("SELECT h FROM Hotel h WHERE " +
@@ -19,9 +32,46 @@ public interface HotelRepository extends JpaRepository<Hotel, String> {
            "LOWER(h.country) LIKE LOWER(CONCAT('%', :location, '%'))")
     List<Hotel> searchByLocation(@Param("location") String location);
     
+    /**
+     * Hotels matching the search filters; {@code location} must be lower case
+     */
+    @Query("SELECT h FROM Hotel h WHERE " + SEARCH_FILTER)
+    List<Hotel> search(
+            @Param("location") String location,
+            @Param("minPrice") Money minPrice,
+            @Param("maxPrice") Money maxPrice,
+            @Param("minStarRating") Integer minStarRating,
+            @Param("minGuestRating") Double minGuestRating
+    );
+    
+    /**
+     * Sort columns of the hotels matching the search filters, for ranking before any hotel is loaded
+     */
+    @Query(SEARCH_ROW + SEARCH_FILTER)
+    List<HotelSearchRow> searchRows(
+            @Param("location") String location,
+            @Param("minPrice") Money minPrice,
+            @Param("maxPrice") Money maxPrice,
+            @Param("minStarRating") Integer minStarRating,
+            @Param("minGuestRating") Double minGuestRating
+    );
+    
+    /**
+     * Like {@link #searchRows} but limited to the given hotels (the spatial candidates of a map search)
+     */
+    @Query(SEARCH_ROW + "h.id IN :hotelIds AND " + SEARCH_FILTER)
+    List<HotelSearchRow> searchRowsAmong(
+            @Param("hotelIds") Collection<String> hotelIds,
+            @Param("location") String location,
+            @Param("minPrice") Money minPrice,
+            @Param("maxPrice") Money maxPrice,
+            @Param("minStarRating") Integer minStarRating,
+            @Param("minGuestRating") Double minGuestRating
+    );
+    
     @Query("SELECT h FROM Hotel h WHERE h.pricePerNight BETWEEN :minPrice AND :maxPrice " +
            "AND h.available = true")
-    List<Hotel> findByPriceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
+    List<Hotel> findByPriceRange(@Param("minPrice") Money minPrice, @Param("maxPrice") Money maxPrice);
     
     List<Hotel> findByFeaturedTrueAndAvailableTrue();
     
@@ -0,0 +1,17 @@
+package com.hotelbooker.hotel.repository;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+
+/**
+ * The hotel columns search ranks on, selected for every match so that only the
+ * requested page of hotels is loaded in full
+ */
+public record HotelSearchRow(String hotelId, Money pricePerNight, Double guestRating, Integer starRating,
+                             Integer totalReviews) {
+    
+    public static HotelSearchRow of(Hotel hotel) {
+        return new HotelSearchRow(hotel.getId(), hotel.getPricePerNight(), hotel.getGuestRating(),
+                hotel.getStarRating(), hotel.getTotalReviews());
+    }
+}
@@ -0,0 +1,28 @@
+package com.hotelbooker.hotel.repository;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.HotelSearchView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HotelSearchViewRepository extends JpaRepository<HotelSearchView, String> {
+    
+    @Query("SELECT v FROM HotelSearchView v WHERE " +
+           "(:location IS NULL OR v.searchText LIKE CONCAT('%', :location, '%')) " +
+           "AND (:minPrice IS NULL OR v.pricePerNight >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR v.pricePerNight <= :maxPrice) " +
+           "AND (:minStarRating IS NULL OR v.starRating >= :minStarRating) " +
+           "AND (:minGuestRating IS NULL OR v.guestRating >= :minGuestRating)")
+    List<HotelSearchView> search(
+            @Param("location") String location,
+            @Param("minPrice") Money minPrice,
+            @Param("maxPrice") Money maxPrice,
+            @Param("minStarRating") Integer minStarRating,
+            @Param("minGuestRating") Double minGuestRating
+    );
+}
@@ -0,0 +1,9 @@
+package com.hotelbooker.hotel.repository;
+
+import com.hotelbooker.hotel.entity.PopularitySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PopularitySnapshotRepository extends JpaRepository<PopularitySnapshot, String> {
+}
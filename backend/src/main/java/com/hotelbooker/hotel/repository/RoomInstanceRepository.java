@@ -1,11 +1,17 @@
 package com.hotelbooker.hotel.repository;
 
 import com.hotelbooker.hotel.entity.RoomInstance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +20,35 @@ public interface RoomInstanceRepository extends JpaRepository<RoomInstance, Stri
     
     List<RoomInstance> findByRoomTypeId(String roomTypeId);
     
+    @Query("SELECT ri FROM RoomInstance ri WHERE ri.roomType.id IN :roomTypeIds ORDER BY ri.floor, ri.roomNumber")
+    List<RoomInstance> findByRoomTypeIdInOrderByFloorAndRoomNumber(@Param("roomTypeIds") Collection<String> roomTypeIds);
+    
     @Query("SELECT ri FROM RoomInstance ri WHERE ri.roomType.hotel.id = :hotelId ORDER BY ri.floor, ri.roomNumber")
     List<RoomInstance> findByHotelIdOrderByFloorAndRoomNumber(@Param("hotelId") String hotelId);
     
     @Query("SELECT ri FROM RoomInstance ri WHERE ri.roomType.hotel.id = :hotelId AND ri.status = :status")
     List<RoomInstance> findByHotelIdAndStatus(@Param("hotelId") String hotelId, @Param("status") RoomInstance.RoomStatus status);
     
+    @Query("SELECT ri FROM RoomInstance ri JOIN FETCH ri.roomType rt " +
+            "WHERE rt.hotel.id = :hotelId AND ri.changeSeq >= :since ORDER BY ri.changeSeq")
+    List<RoomInstance> findChangedByHotelId(@Param("hotelId") String hotelId, @Param("since") long since, Pageable page);
+    
+    // Row locks on room instances, taken in id order so overlapping batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ri FROM RoomInstance ri WHERE ri.id IN :ids ORDER BY ri.id")
+    List<RoomInstance> lockAllById(@Param("ids") Collection<String> ids);
+    
+    // Bypasses the entity listeners, so the change sequence number and timestamp are passed in
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RoomInstance ri SET ri.status = :status, ri.changeSeq = :changeSeq, ri.updatedAt = :updatedAt " +
+            "WHERE ri.id IN :ids")
+    int updateStatus(
+            @Param("ids") Collection<String> ids,
+            @Param("status") RoomInstance.RoomStatus status,
+            @Param("changeSeq") long changeSeq,
+            @Param("updatedAt") LocalDateTime updatedAt
+    );
+    
     Optional<RoomInstance> findByRoomNumber(String roomNumber);
     
     boolean existsByRoomNumber(String roomNumber);
@@ -0,0 +1,96 @@
+package com.hotelbooker.hotel.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Atomic updates of {@code rooms.available_rooms}, sent as one JDBC batch per call.
+ *
+ * A reservation only decrements a room whose remaining inventory covers it, so two concurrent
+ * bookings can never both take the last room (a read-then-save of the entity could). Rows are
+ * updated in id order so concurrent multi-room reservations lock them in the same order.
+ * Runs in the caller's transaction; the caller rolls back when any room could not be reserved.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RoomInventoryRepository {
+    
+    private static final String RESERVE_SQL =
+            "UPDATE rooms SET available_rooms = available_rooms - ?, updated_at = ? WHERE id = ? AND available_rooms >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE rooms SET available_rooms = available_rooms + ?, updated_at = ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Take {@code count} rooms of each room id.
+     *
+     * @return the room ids that did not have enough rooms left (or do not exist)
+     */
+    public List<String> reserve(Map<String, Integer> countsByRoomId) {
+        if (countsByRoomId.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<String, Integer>> rows = new ArrayList<>(new TreeMap<>(countsByRoomId).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setTimestamp(2, now);
+            ps.setString(3, row.getKey());
+            ps.setInt(4, row.getValue());
+        })[0];
+        
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                failed.add(rows.get(i).getKey());
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * Take rooms for each request separately, in the given order, so that when a room type cannot
+     * cover all of them the earlier ones still get their rooms
+     *
+     * @return for each request whether its rooms were taken
+     */
+    public boolean[] reserveEach(List<Map.Entry<String, Integer>> requests) {
+        boolean[] reserved = new boolean[requests.size()];
+        if (requests.isEmpty()) {
+            return reserved;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, requests, requests.size(), (ps, request) -> {
+            ps.setInt(1, request.getValue());
+            ps.setTimestamp(2, now);
+            ps.setString(3, request.getKey());
+            ps.setInt(4, request.getValue());
+        })[0];
+        for (int i = 0; i < updated.length; i++) {
+            reserved[i] = updated[i] > 0;
+        }
+        return reserved;
+    }
+    
+    /**
+     * Give back {@code count} rooms of each room id (cancellation, check-out)
+     */
+    public void release(Map<String, Integer> countsByRoomId) {
+        List<Map.Entry<String, Integer>> rows = new ArrayList<>(new TreeMap<>(countsByRoomId).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(RELEASE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setTimestamp(2, now);
+            ps.setString(3, row.getKey());
+        });
+    }
+}
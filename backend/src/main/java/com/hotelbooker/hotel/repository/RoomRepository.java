@@ -1,12 +1,32 @@
 package com.hotelbooker.hotel.repository;
 
 import com.hotelbooker.hotel.entity.Room;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, String> {
     List<Room> findByHotelIdAndAvailableRoomsGreaterThan(String hotelId, Integer minAvailable);
+    
+    List<Room> findByHotelId(String hotelId);
+    
+    // Row locks on a hotel's room types, taken in id order like the inventory updates
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId ORDER BY r.id")
+    List<Room> lockByHotelId(@Param("hotelId") String hotelId);
+    
+    @Query("SELECT new com.hotelbooker.hotel.repository.HotelInventory(r.hotel.id, SUM(r.totalRooms), SUM(r.availableRooms)) " +
+           "FROM Room r GROUP BY r.hotel.id")
+    List<HotelInventory> sumInventoryByHotel();
+    
+    @Query("SELECT new com.hotelbooker.hotel.repository.HotelInventory(r.hotel.id, SUM(r.totalRooms), SUM(r.availableRooms)) " +
+           "FROM Room r WHERE r.hotel.id = :hotelId GROUP BY r.hotel.id")
+    Optional<HotelInventory> sumInventory(@Param("hotelId") String hotelId);
 }
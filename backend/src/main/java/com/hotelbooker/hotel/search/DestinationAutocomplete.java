@@ -0,0 +1,248 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.dto.AutocompleteSuggestionDto;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Typo-tolerant autocomplete over cities, countries and hotel names.
+ *
+ * Every word start of a name is indexed, so "penh" finds "Phnom Penh". Cities and
+ * countries are weighted by the popularity of the hotels behind them, hotels by
+ * their own; exact prefix matches rank above fuzzy ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DestinationAutocomplete {
+    
+    public enum Type { CITY, COUNTRY, HOTEL }
+    
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt(Match::distance)
+            .thenComparing(Comparator.comparingDouble((Match m) -> m.entry().weight).reversed())
+            .thenComparing(m -> m.entry().label);
+    
+    private final HotelRepository hotelRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final DestinationTrie<Entry> trie = new DestinationTrie<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    
+    private static final class Entry {
+        private final Type type;
+        private final String key;
+        private final String label;
+        private final String hotelId;
+        private final String city;
+        private final String country;
+        private double weight;
+        private int hotelCount;
+        
+        Entry(Type type, String key, String label, String hotelId, String city, String country) {
+            this.type = type;
+            this.key = key;
+            this.label = label;
+            this.hotelId = hotelId;
+            this.city = city;
+            this.country = country;
+        }
+    }
+    
+    // What one hotel adds to the index, so it can be taken back on change
+    private record Contribution(String hotelKey, String cityKey, String countryKey, double weight) {
+    }
+    
+    private record Match(Entry entry, int distance) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Hotel> hotels = hotelRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            new ArrayList<>(contributions.keySet()).forEach(this::doRemove);
+            hotels.forEach(this::doPut);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Autocomplete indexed {} suggestions", entries.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        hotelRepository.findById(event.hotelId())
+                .ifPresentOrElse(this::put, () -> remove(event.hotelId()));
+    }
+    
+    public void put(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            doPut(hotel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(String hotelId) {
+        lock.writeLock().lock();
+        try {
+            doRemove(hotelId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public List<AutocompleteSuggestionDto> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            // The same entry is reachable through several word starts; keep its best distance
+            Map<Entry, Integer> best = new HashMap<>();
+            trie.fuzzyPrefix(normalized, maxEdits(normalized), (entry, distance) ->
+                    best.merge(entry, distance, Math::min));
+            
+            TopK<Match> topK = new TopK<>(limit, RANKING);
+            best.forEach((entry, distance) -> topK.offer(new Match(entry, distance)));
+            return topK.sorted()
+                    .stream()
+                    .map(match -> toDto(match.entry()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void doPut(Hotel hotel) {
+        doRemove(hotel.getId());
+        if (!hotel.isAvailable() || (hotel.getStatus() != null && hotel.getStatus() != Hotel.HotelStatus.ACTIVE)) {
+            return;
+        }
+        
+        // Hotels with many reviews pull their city and country up the list
+        double weight = 1.0 + Math.log1p(hotel.getTotalReviews() != null ? hotel.getTotalReviews() : 0);
+        
+        String hotelKey = addWeight(Type.HOTEL, hotel.getId(), hotel.getName(), hotel.getId(),
+                hotel.getCity(), hotel.getCountry(), weight);
+        String cityKey = hotel.getCity() != null
+                ? addWeight(Type.CITY, normalize(hotel.getCity()), hotel.getCity().trim(), null, null, hotel.getCountry(), weight)
+                : null;
+        String countryKey = hotel.getCountry() != null
+                ? addWeight(Type.COUNTRY, normalize(hotel.getCountry()), hotel.getCountry().trim(), null, null, null, weight)
+                : null;
+        contributions.put(hotel.getId(), new Contribution(hotelKey, cityKey, countryKey, weight));
+    }
+    
+    private void doRemove(String hotelId) {
+        Contribution contribution = contributions.remove(hotelId);
+        if (contribution == null) {
+            return;
+        }
+        subtractWeight(contribution.hotelKey(), contribution.weight());
+        subtractWeight(contribution.cityKey(), contribution.weight());
+        subtractWeight(contribution.countryKey(), contribution.weight());
+    }
+    
+    private String addWeight(Type type, String id, String label, String hotelId, String city, String country,
+                             double weight) {
+        String entryKey = type + ":" + id;
+        Entry entry = entries.get(entryKey);
+        if (entry == null) {
+            if (label == null || normalize(label).isEmpty()) {
+                return null;
+            }
+            entry = new Entry(type, entryKey, label, hotelId, city, country);
+            entries.put(entryKey, entry);
+            for (String key : wordStarts(label)) {
+                trie.put(key, entry);
+            }
+        }
+        entry.weight += weight;
+        entry.hotelCount++;
+        return entryKey;
+    }
+    
+    private void subtractWeight(String entryKey, double weight) {
+        if (entryKey == null) {
+            return;
+        }
+        Entry entry = entries.get(entryKey);
+        if (entry == null) {
+            return;
+        }
+        entry.weight -= weight;
+        entry.hotelCount--;
+        if (entry.hotelCount <= 0) {
+            entries.remove(entryKey);
+            for (String key : wordStarts(entry.label)) {
+                trie.remove(key, entry);
+            }
+        }
+    }
+    
+    private AutocompleteSuggestionDto toDto(Entry entry) {
+        return AutocompleteSuggestionDto.builder()
+                .text(entry.label)
+                .type(entry.type.name())
+                .hotelId(entry.hotelId)
+                .city(entry.city)
+                .country(entry.country)
+                .hotelCount(entry.type == Type.HOTEL ? null : entry.hotelCount)
+                .build();
+    }
+    
+    // "Grand Hotel Phnom Penh" -> "grand hotel phnom penh", "hotel phnom penh", "phnom penh", "penh"
+    static Set<String> wordStarts(String label) {
+        String normalized = normalize(label);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ' && normalized.charAt(i) != ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+    
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+    
+    // Short prefixes would match almost everything with a typo allowed
+    static int maxEdits(String query) {
+        if (query.length() <= 2) {
+            return 0;
+        }
+        return query.length() <= 5 ? 1 : 2;
+    }
+}
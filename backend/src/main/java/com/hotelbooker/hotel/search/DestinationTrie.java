@@ -0,0 +1,163 @@
+package com.hotelbooker.hotel.search;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Compressed (radix) trie mapping normalized keys to payloads, with fuzzy prefix
+ * lookup. Not thread-safe; callers guard it.
+ *
+ * Fuzzy lookup walks the trie while stepping one row of the Levenshtein matrix
+ * per edge character, which is the same as running the query's Levenshtein
+ * automaton over the trie: branches whose best possible distance already exceeds
+ * the budget are pruned, and once a path prefix is within budget every payload
+ * below it is a completion at that distance.
+ */
+final class DestinationTrie<T> {
+    
+    private final Node<T> root = new Node<>("");
+    
+    private static final class Node<T> {
+        private String label; // Edge label from the parent
+        private final Map<Character, Node<T>> children = new HashMap<>(4);
+        private final Set<T> values = new LinkedHashSet<>(2);
+        
+        Node(String label) {
+            this.label = label;
+        }
+    }
+    
+    void put(String key, T value) {
+        Node<T> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            char c = key.charAt(i);
+            Node<T> child = node.children.get(c);
+            if (child == null) {
+                child = new Node<>(key.substring(i));
+                node.children.put(c, child);
+                node = child;
+                break;
+            }
+            
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge at the divergence point
+                Node<T> middle = new Node<>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(c, middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.values.add(value);
+    }
+    
+    void remove(String key, T value) {
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node<T> child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return;
+            }
+            path.push(node);
+            node = child;
+            i += child.label.length();
+        }
+        node.values.remove(value);
+        
+        // Drop now-empty leaves so the trie does not grow with churn
+        while (node != root && node.values.isEmpty() && node.children.isEmpty() && !path.isEmpty()) {
+            Node<T> parent = path.pop();
+            parent.children.remove(node.label.charAt(0));
+            node = parent;
+        }
+    }
+    
+    /**
+     * Calls {@code consumer} with every value whose key has a prefix within
+     * {@code maxEdits} edits of {@code query}, and the smallest such distance.
+     * A value may be reported more than once.
+     */
+    void fuzzyPrefix(String query, int maxEdits, ObjIntConsumer<T> consumer) {
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        walk(root, query, row, row[query.length()], maxEdits, consumer);
+    }
+    
+    private void walk(Node<T> node, String query, int[] row, int best, int maxEdits, ObjIntConsumer<T> consumer) {
+        if (best <= maxEdits) {
+            for (T value : node.values) {
+                consumer.accept(value, best);
+            }
+        }
+        
+        for (Node<T> child : node.children.values()) {
+            int[] current = row;
+            int childBest = best;
+            boolean viable = true;
+            for (int i = 0; i < child.label.length(); i++) {
+                current = step(current, query, child.label.charAt(i));
+                childBest = Math.min(childBest, current[query.length()]);
+                if (min(current) > maxEdits) {
+                    viable = false;
+                    break;
+                }
+            }
+            
+            if (viable) {
+                walk(child, query, current, childBest, maxEdits, consumer);
+            } else if (childBest <= maxEdits) {
+                // No deeper prefix can improve, but everything below still completes
+                collect(child, childBest, consumer);
+            }
+        }
+    }
+    
+    private void collect(Node<T> node, int distance, ObjIntConsumer<T> consumer) {
+        for (T value : node.values) {
+            consumer.accept(value, distance);
+        }
+        for (Node<T> child : node.children.values()) {
+            collect(child, distance, consumer);
+        }
+    }
+    
+    private static int[] step(int[] previous, String query, char c) {
+        int[] next = new int[previous.length];
+        next[0] = previous[0] + 1;
+        for (int j = 1; j < next.length; j++) {
+            int substitution = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+            next[j] = Math.min(Math.min(next[j - 1] + 1, previous[j] + 1), substitution);
+        }
+        return next;
+    }
+    
+    private static int min(int[] row) {
+        int min = Integer.MAX_VALUE;
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+    
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hotelbooker.hotel.search;
+
+import java.util.Collection;
+
+/**
+ * Facet filters: every amenity in {@code allAmenities} (AND), at least one of
+ * {@code anyAmenities} (OR), and star rating / city in the given sets. Null or
+ * empty collections do not filter.
+ */
+public record FacetQuery(
+        Collection<String> allAmenities,
+        Collection<String> anyAmenities,
+        Collection<Integer> starRatings,
+        Collection<String> cities
+) {
+    
+    public boolean isEmpty() {
+        return isEmpty(allAmenities) && isEmpty(anyAmenities) && isEmpty(starRatings) && isEmpty(cities);
+    }
+    
+    static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
+    }
+}
@@ -0,0 +1,15 @@
+package com.hotelbooker.hotel.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hotels matching a facet query, in candidate order, with facet counts over that result set
+ */
+public record FacetResult(
+        List<String> hotelIds,
+        Map<String, Integer> amenityCounts,
+        Map<Integer, Integer> starRatingCounts,
+        Map<String, Integer> cityCounts
+) {
+}
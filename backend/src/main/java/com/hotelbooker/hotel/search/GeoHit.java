@@ -0,0 +1,7 @@
+package com.hotelbooker.hotel.search;
+
+/**
+ * A hotel returned by a spatial query with its distance from the query point
+ */
+public record GeoHit(String hotelId, double latitude, double longitude, double distanceKm) {
+}
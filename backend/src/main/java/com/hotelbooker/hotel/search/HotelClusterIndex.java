@@ -0,0 +1,233 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.dto.HotelClusterDto;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed per-geohash-prefix aggregates (count, centroid, min price and best
+ * rated hotel) for bookable hotels, one level per geohash precision.
+ *
+ * Hotel writes update every prefix of the hotel's geohash, so a map viewport is
+ * answered by looking up the visible cells at the zoom's precision; the cost is
+ * bounded by the number of cells on screen, not by the number of hotels.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelClusterIndex {
+    
+    static final int MAX_PRECISION = 7;
+    static final int MAX_CELLS = 1024;
+    
+    private static final Comparator<Member> BY_PRICE = Comparator
+            .comparingDouble(Member::price)
+            .thenComparing(Member::hotelId);
+    private static final Comparator<Member> BY_RATING = Comparator
+            .comparingDouble(Member::rating).reversed()
+            .thenComparing(Comparator.comparingInt(Member::reviews).reversed())
+            .thenComparing(Member::hotelId);
+    
+    private final HotelRepository hotelRepository;
+    
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private final List<Map<String, Cell>> levels = createLevels();
+    
+    private record Member(String hotelId, String name, double latitude, double longitude,
+                          double price, double rating, int reviews, String geohash) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        members.clear();
+        levels.forEach(Map::clear);
+        hotelRepository.findAll().forEach(this::put);
+        log.info("Clustered {} hotels into {} top-level geohash cells", members.size(), levels.get(1).size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        hotelRepository.findById(event.hotelId())
+                .ifPresentOrElse(this::put, () -> remove(event.hotelId()));
+    }
+    
+    public void put(Hotel hotel) {
+        remove(hotel.getId());
+        if (!isBookable(hotel) || !HotelGeoIndex.hasCoordinates(hotel.getLatitude(), hotel.getLongitude())) {
+            return;
+        }
+        
+        Member member = new Member(
+                hotel.getId(),
+                hotel.getName(),
+                hotel.getLatitude(),
+                hotel.getLongitude(),
+                hotel.getPricePerNight() != null ? hotel.getPricePerNight().doubleValue() : 0.0,
+                hotel.getGuestRating() != null ? hotel.getGuestRating() : 0.0,
+                hotel.getTotalReviews() != null ? hotel.getTotalReviews() : 0,
+                GeoHash.encode(hotel.getLatitude(), hotel.getLongitude(), MAX_PRECISION)
+        );
+        members.put(member.hotelId(), member);
+        
+        for (int precision = 1; precision <= MAX_PRECISION; precision++) {
+            levels.get(precision).compute(member.geohash().substring(0, precision), (prefix, cell) -> {
+                Cell target = cell != null ? cell : new Cell();
+                target.add(member);
+                return target;
+            });
+        }
+    }
+    
+    public void remove(String hotelId) {
+        Member member = members.remove(hotelId);
+        if (member == null) {
+            return;
+        }
+        
+        for (int precision = 1; precision <= MAX_PRECISION; precision++) {
+            levels.get(precision).computeIfPresent(member.geohash().substring(0, precision), (prefix, cell) -> {
+                cell.remove(member);
+                return cell.isEmpty() ? null : cell;
+            });
+        }
+    }
+    
+    /**
+     * Clusters visible in the viewport at the given map zoom level. A viewport whose
+     * west edge is greater than its east edge crosses the antimeridian.
+     */
+    public List<HotelClusterDto> clusters(double south, double west, double north, double east, int zoom) {
+        if (south > north) {
+            throw new IllegalArgumentException("south must not be greater than north");
+        }
+        
+        double width = west <= east ? east - west : 360 - west + east;
+        int precision = precisionForZoom(zoom);
+        while (precision > 1 && visibleCells(north - south, width, precision) > MAX_CELLS) {
+            precision--;
+        }
+        
+        List<HotelClusterDto> clusters = new ArrayList<>();
+        if (west <= east) {
+            collect(south, west, north, east, precision, clusters);
+        } else {
+            collect(south, west, north, 180.0, precision, clusters);
+            collect(south, -180.0, north, east, precision, clusters);
+        }
+        return clusters;
+    }
+    
+    private void collect(double south, double west, double north, double east, int precision,
+                         List<HotelClusterDto> out) {
+        double height = GeoHash.cellHeight(precision);
+        double width = GeoHash.cellWidth(precision);
+        Map<String, Cell> level = levels.get(precision);
+        
+        // Walk cell centres so each geohash cell overlapping the viewport is visited once
+        double firstLat = Math.floor((Math.max(south, -90.0) + 90.0) / height) * height - 90.0 + height / 2;
+        double firstLon = Math.floor((Math.max(west, -180.0) + 180.0) / width) * width - 180.0 + width / 2;
+        for (double lat = firstLat; lat - height / 2 <= north && lat < 90.0; lat += height) {
+            for (double lon = firstLon; lon - width / 2 <= east && lon < 180.0; lon += width) {
+                String geohash = GeoHash.encode(lat, lon, precision);
+                Cell cell = level.get(geohash);
+                if (cell != null) {
+                    HotelClusterDto cluster = cell.toDto(geohash);
+                    if (cluster != null) {
+                        out.add(cluster);
+                    }
+                }
+            }
+        }
+    }
+    
+    static int precisionForZoom(int zoom) {
+        if (zoom <= 2) return 1;
+        if (zoom <= 4) return 2;
+        if (zoom <= 7) return 3;
+        if (zoom <= 9) return 4;
+        if (zoom <= 12) return 5;
+        if (zoom <= 14) return 6;
+        return MAX_PRECISION;
+    }
+    
+    private static long visibleCells(double height, double width, int precision) {
+        return (long) (Math.ceil(height / GeoHash.cellHeight(precision)) + 1)
+                * (long) (Math.ceil(width / GeoHash.cellWidth(precision)) + 1);
+    }
+    
+    private static boolean isBookable(Hotel hotel) {
+        return hotel.isAvailable()
+                && (hotel.getStatus() == null || hotel.getStatus() == Hotel.HotelStatus.ACTIVE);
+    }
+    
+    private static List<Map<String, Cell>> createLevels() {
+        List<Map<String, Cell>> levels = new ArrayList<>(MAX_PRECISION + 1);
+        for (int precision = 0; precision <= MAX_PRECISION; precision++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+        return levels;
+    }
+    
+    /**
+     * Aggregate of one geohash cell. Sorted member sets keep min price and the
+     * representative hotel O(log n) under removals.
+     */
+    private static final class Cell {
+        private final TreeSet<Member> byPrice = new TreeSet<>(BY_PRICE);
+        private final TreeSet<Member> byRating = new TreeSet<>(BY_RATING);
+        private double latitudeSum;
+        private double longitudeSum;
+        
+        synchronized void add(Member member) {
+            byPrice.add(member);
+            byRating.add(member);
+            latitudeSum += member.latitude();
+            longitudeSum += member.longitude();
+        }
+        
+        synchronized void remove(Member member) {
+            if (byPrice.remove(member)) {
+                byRating.remove(member);
+                latitudeSum -= member.latitude();
+                longitudeSum -= member.longitude();
+            }
+        }
+        
+        synchronized boolean isEmpty() {
+            return byPrice.isEmpty();
+        }
+        
+        synchronized HotelClusterDto toDto(String geohash) {
+            if (byPrice.isEmpty()) {
+                return null;
+            }
+            int count = byPrice.size();
+            Member representative = byRating.first();
+            return HotelClusterDto.builder()
+                    .geohash(geohash)
+                    .latitude(latitudeSum / count)
+                    .longitude(longitudeSum / count)
+                    .count(count)
+                    .minPrice(byPrice.first().price())
+                    .hotelId(representative.hotelId())
+                    .hotelName(representative.name())
+                    .hotelLatitude(representative.latitude())
+                    .hotelLongitude(representative.longitude())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap facet index over amenities, star rating and city.
+ *
+ * Each hotel gets a small integer ordinal (its bit position) and amenity strings
+ * are interned to integer ids, so facet filters become Roaring bitmap AND/OR
+ * operations and facet counts are gathered in one pass over the result set.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelFacetIndex {
+    
+    private final HotelRepository hotelRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Hotel ordinals; freed ordinals are reused so bitmaps stay dense
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<Integer, Facets> facetsByOrdinal = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int nextOrdinal;
+    
+    // Interned amenity dictionary: normalized name -> id, id -> display label
+    private final Map<String, Integer> amenityIds = new HashMap<>();
+    private final List<String> amenityLabels = new ArrayList<>();
+    private final List<RoaringBitmap> amenityBitmaps = new ArrayList<>();
+    
+    private final Map<Integer, RoaringBitmap> starBitmaps = new HashMap<>();
+    private final Map<String, RoaringBitmap> cityBitmaps = new HashMap<>();
+    private final Map<String, String> cityLabels = new HashMap<>();
+    private final RoaringBitmap allHotels = new RoaringBitmap();
+    
+    private record Facets(String hotelId, int[] amenityIds, Integer starRating, String cityKey) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Hotel> hotels = hotelRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            facetsByOrdinal.clear();
+            freeOrdinals.clear();
+            nextOrdinal = 0;
+            amenityIds.clear();
+            amenityLabels.clear();
+            amenityBitmaps.clear();
+            starBitmaps.clear();
+            cityBitmaps.clear();
+            cityLabels.clear();
+            allHotels.clear();
+            hotels.forEach(this::doPut);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index built for {} hotels and {} amenities", ordinals.size(), amenityIds.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        hotelRepository.findById(event.hotelId())
+                .ifPresentOrElse(this::put, () -> remove(event.hotelId()));
+    }
+    
+    public void put(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            doPut(hotel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(String hotelId) {
+        lock.writeLock().lock();
+        try {
+            doRemove(hotelId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Apply the facet filters to the candidate hotels (all indexed hotels when
+     * {@code candidateIds} is null) and count facets over what remains.
+     */
+    public FacetResult search(List<String> candidateIds, FacetQuery query) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = filter(query);
+            
+            List<String> hotelIds = new ArrayList<>();
+            Map<Integer, Integer> amenityHits = new HashMap<>();
+            Map<Integer, Integer> starCounts = new HashMap<>();
+            Map<String, Integer> cityHits = new HashMap<>();
+            
+            if (candidateIds == null) {
+                matches.forEach((int ordinal) -> count(facetsByOrdinal.get(ordinal), hotelIds, amenityHits, starCounts, cityHits));
+            } else {
+                for (String hotelId : candidateIds) {
+                    Integer ordinal = ordinals.get(hotelId);
+                    if (ordinal != null && matches.contains(ordinal)) {
+                        count(facetsByOrdinal.get(ordinal), hotelIds, amenityHits, starCounts, cityHits);
+                    }
+                }
+            }
+            
+            Map<String, Integer> amenityCounts = new LinkedHashMap<>();
+            amenityHits.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                    .forEach(e -> amenityCounts.put(amenityLabels.get(e.getKey()), e.getValue()));
+            Map<String, Integer> cityCounts = new LinkedHashMap<>();
+            cityHits.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(e -> cityCounts.put(cityLabels.get(e.getKey()), e.getValue()));
+            
+            return new FacetResult(hotelIds, amenityCounts, starCounts, cityCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static void count(Facets facets, List<String> hotelIds, Map<Integer, Integer> amenityHits,
+                              Map<Integer, Integer> starCounts, Map<String, Integer> cityHits) {
+        hotelIds.add(facets.hotelId());
+        for (int amenityId : facets.amenityIds()) {
+            amenityHits.merge(amenityId, 1, Integer::sum);
+        }
+        if (facets.starRating() != null) {
+            starCounts.merge(facets.starRating(), 1, Integer::sum);
+        }
+        if (facets.cityKey() != null) {
+            cityHits.merge(facets.cityKey(), 1, Integer::sum);
+        }
+    }
+    
+    private RoaringBitmap filter(FacetQuery query) {
+        RoaringBitmap result = allHotels.clone();
+        if (query == null) {
+            return result;
+        }
+        
+        if (!FacetQuery.isEmpty(query.allAmenities())) {
+            for (String amenity : query.allAmenities()) {
+                Integer id = amenityIds.get(normalize(amenity));
+                if (id == null) {
+                    return new RoaringBitmap();
+                }
+                result.and(amenityBitmaps.get(id));
+            }
+        }
+        if (!FacetQuery.isEmpty(query.anyAmenities())) {
+            RoaringBitmap any = new RoaringBitmap();
+            for (String amenity : query.anyAmenities()) {
+                Integer id = amenityIds.get(normalize(amenity));
+                if (id != null) {
+                    any.or(amenityBitmaps.get(id));
+                }
+            }
+            result.and(any);
+        }
+        if (!FacetQuery.isEmpty(query.starRatings())) {
+            RoaringBitmap stars = new RoaringBitmap();
+            query.starRatings().forEach(star -> {
+                RoaringBitmap bitmap = starBitmaps.get(star);
+                if (bitmap != null) {
+                    stars.or(bitmap);
+                }
+            });
+            result.and(stars);
+        }
+        if (!FacetQuery.isEmpty(query.cities())) {
+            RoaringBitmap cities = new RoaringBitmap();
+            query.cities().forEach(city -> {
+                RoaringBitmap bitmap = cityBitmaps.get(normalize(city));
+                if (bitmap != null) {
+                    cities.or(bitmap);
+                }
+            });
+            result.and(cities);
+        }
+        return result;
+    }
+    
+    private void doPut(Hotel hotel) {
+        doRemove(hotel.getId());
+        
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        Set<Integer> hotelAmenities = new LinkedHashSet<>();
+        if (hotel.getAmenities() != null) {
+            for (String amenity : hotel.getAmenities()) {
+                if (amenity != null && !amenity.isBlank()) {
+                    hotelAmenities.add(internAmenity(amenity));
+                }
+            }
+        }
+        String cityKey = hotel.getCity() != null ? normalize(hotel.getCity()) : null;
+        
+        Facets facets = new Facets(hotel.getId(), hotelAmenities.stream().mapToInt(Integer::intValue).toArray(),
+                hotel.getStarRating(), cityKey);
+        ordinals.put(hotel.getId(), ordinal);
+        facetsByOrdinal.put(ordinal, facets);
+        
+        allHotels.add(ordinal);
+        for (int amenityId : facets.amenityIds()) {
+            amenityBitmaps.get(amenityId).add(ordinal);
+        }
+        if (facets.starRating() != null) {
+            starBitmaps.computeIfAbsent(facets.starRating(), s -> new RoaringBitmap()).add(ordinal);
+        }
+        if (cityKey != null) {
+            cityLabels.putIfAbsent(cityKey, hotel.getCity().trim());
+            cityBitmaps.computeIfAbsent(cityKey, c -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+    
+    private void doRemove(String hotelId) {
+        Integer ordinal = ordinals.remove(hotelId);
+        if (ordinal == null) {
+            return;
+        }
+        
+        Facets facets = facetsByOrdinal.remove(ordinal);
+        allHotels.remove(ordinal);
+        for (int amenityId : facets.amenityIds()) {
+            amenityBitmaps.get(amenityId).remove(ordinal);
+        }
+        if (facets.starRating() != null) {
+            starBitmaps.get(facets.starRating()).remove(ordinal);
+        }
+        if (facets.cityKey() != null) {
+            cityBitmaps.get(facets.cityKey()).remove(ordinal);
+        }
+        freeOrdinals.push(ordinal);
+    }
+    
+    private int internAmenity(String amenity) {
+        return amenityIds.computeIfAbsent(normalize(amenity), key -> {
+            amenityLabels.add(amenity.trim());
+            amenityBitmaps.add(new RoaringBitmap());
+            return amenityLabels.size() - 1;
+        });
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,191 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory grid index over hotel coordinates.
+ *
+ * Hotels are bucketed into fixed-size latitude/longitude cells so radius and
+ * viewport queries only visit the cells overlapping the query area instead of
+ * the whole hotels table. Results are distance-sorted with a bounded heap, so
+ * asking for the K nearest hotels costs O(candidates * log K).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelGeoIndex {
+    
+    static final double CELL_DEGREES = 0.1; // ~11 km at the equator
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final Comparator<GeoHit> BY_DISTANCE = Comparator
+            .comparingDouble(GeoHit::distanceKm)
+            .thenComparing(GeoHit::hotelId);
+    
+    private final HotelRepository hotelRepository;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    
+    private record Entry(String hotelId, double latitude, double longitude, long cell) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        entries.clear();
+        cells.clear();
+        hotelRepository.findAll().forEach(this::put);
+        log.info("Indexed {} hotels in {} geo cells", entries.size(), cells.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        hotelRepository.findById(event.hotelId())
+                .ifPresentOrElse(this::put, () -> remove(event.hotelId()));
+    }
+    
+    public void put(Hotel hotel) {
+        remove(hotel.getId());
+        if (!hasCoordinates(hotel.getLatitude(), hotel.getLongitude())) {
+            return;
+        }
+        
+        long cell = cellOf(hotel.getLatitude(), hotel.getLongitude());
+        entries.put(hotel.getId(), new Entry(hotel.getId(), hotel.getLatitude(), hotel.getLongitude(), cell));
+        cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(hotel.getId());
+    }
+    
+    public void remove(String hotelId) {
+        Entry previous = entries.remove(hotelId);
+        if (previous != null) {
+            cells.computeIfPresent(previous.cell(), (c, ids) -> {
+                ids.remove(hotelId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Hotels within {@code radiusKm} of the point, nearest first, at most {@code limit} of them
+     */
+    public List<GeoHit> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lonDelta = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        
+        TopK<GeoHit> topK = new TopK<>(limit, BY_DISTANCE);
+        scan(latitude - latDelta, longitude - lonDelta, latitude + latDelta, longitude + lonDelta, entry -> {
+            double distance = distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance <= radiusKm) {
+                topK.offer(new GeoHit(entry.hotelId(), entry.latitude(), entry.longitude(), distance));
+            }
+        });
+        return topK.sorted();
+    }
+    
+    /**
+     * Hotels inside the viewport, nearest to the reference point first. A viewport whose
+     * west edge is greater than its east edge crosses the antimeridian.
+     */
+    public List<GeoHit> withinBounds(double south, double west, double north, double east,
+                                     double refLatitude, double refLongitude, int limit) {
+        TopK<GeoHit> topK = new TopK<>(limit, BY_DISTANCE);
+        Consumer<Entry> collect = entry -> topK.offer(new GeoHit(entry.hotelId(), entry.latitude(), entry.longitude(),
+                distanceKm(refLatitude, refLongitude, entry.latitude(), entry.longitude())));
+        
+        if (west <= east) {
+            scan(south, west, north, east, collect);
+        } else {
+            scan(south, west, north, 180.0, collect);
+            scan(south, -180.0, north, east, collect);
+        }
+        return topK.sorted();
+    }
+    
+    private void scan(double south, double west, double north, double east, Consumer<Entry> consumer) {
+        south = Math.max(south, -90.0);
+        north = Math.min(north, 90.0);
+        west = Math.max(west, -180.0);
+        east = Math.min(east, 180.0);
+        
+        int minLatCell = cellIndex(south);
+        int maxLatCell = cellIndex(north);
+        int minLonCell = cellIndex(west);
+        int maxLonCell = cellIndex(east);
+        long cellCount = (long) (maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1);
+        
+        // Very large areas touch more cells than there are hotels; a linear pass is cheaper
+        if (cellCount > entries.size()) {
+            for (Entry entry : entries.values()) {
+                if (inside(entry, south, west, north, east)) {
+                    consumer.accept(entry);
+                }
+            }
+            return;
+        }
+        
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                Set<String> ids = cells.get(cellKey(latCell, lonCell));
+                if (ids == null) {
+                    continue;
+                }
+                for (String id : ids) {
+                    Entry entry = entries.get(id);
+                    if (entry != null && inside(entry, south, west, north, east)) {
+                        consumer.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static boolean inside(Entry entry, double south, double west, double north, double east) {
+        return entry.latitude() >= south && entry.latitude() <= north
+                && entry.longitude() >= west && entry.longitude() <= east;
+    }
+    
+    // Hotels created without coordinates default to (0, 0); they cannot be located
+    static boolean hasCoordinates(Double latitude, Double longitude) {
+        return latitude != null && longitude != null && !(latitude == 0.0 && longitude == 0.0);
+    }
+    
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+    
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+    
+    private static long cellOf(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+    
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
@@ -0,0 +1,387 @@
+package com.hotelbooker.hotel.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.hotelbooker.common.dto.PageResponse;
+import com.hotelbooker.common.metrics.CacheMetrics;
+import com.hotelbooker.hotel.dto.HotelDto;
+import com.hotelbooker.hotel.dto.HotelSearchRequest;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.pricing.event.PricingRulesChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hotel search result cache keyed by the canonical {@link SearchCacheKey}.
+ *
+ * Memory is bounded by weight (hotels referenced per entry) with Caffeine's
+ * frequency-based eviction, and concurrent misses on the same key compute once.
+ * A hotel change invalidates exactly the entries that matched that hotel, plus
+ * those whose filters the hotel could now satisfy. The latter are found through
+ * an index from filter values (geo cell, city, star rating, amenity, location
+ * text) to entries, so a change only checks entries that filter on something
+ * the hotel has.
+ */
+@Component
+@Slf4j
+public class HotelSearchCache {
+    
+    private static final double CELL_DEGREES = 1.0;
+    private static final double KM_PER_DEGREE = 111.32;
+    // Geo searches spanning more cells than this are kept in one bucket checked on every change
+    private static final int MAX_CELLS_PER_KEY = 64;
+    private static final String WIDE_AREA = "cell:wide";
+    private static final String UNFILTERED = "open";
+    
+    private final HotelRepository hotelRepository;
+    private final boolean enabled;
+    private final Cache<SearchCacheKey, SearchResult> cache;
+    private final CacheMetrics metrics;
+    
+    // hotel id -> cached searches whose match set contains it
+    private final Map<String, Set<SearchCacheKey>> keysByHotel = new ConcurrentHashMap<>();
+    
+    // Filter value -> cached searches a hotel with that value could enter; each search is
+    // filed under its most selective filter only, the rest is checked by couldMatch
+    private final Map<String, Set<SearchCacheKey>> keysByFilter = new ConcurrentHashMap<>();
+    
+    // Location text -> cached searches for it; the text matches hotels by substring
+    private final Map<String, Set<SearchCacheKey>> keysByLocation = new ConcurrentHashMap<>();
+    
+    // Bumped on every invalidation so a load racing with a write is not kept
+    private final AtomicLong version = new AtomicLong();
+    
+    public HotelSearchCache(
+            HotelRepository hotelRepository,
+            MeterRegistry meterRegistry,
+            @Value("${search.cache.enabled:true}") boolean enabled,
+            @Value("${search.cache.max-weight:200000}") long maxWeight,
+            @Value("${search.cache.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        this.hotelRepository = hotelRepository;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((SearchCacheKey key, SearchResult result) ->
+                        1 + result.matchedHotelIds().size() + result.page().getItems().size())
+                .expireAfterWrite(expireAfterWrite)
+                .removalListener(this::onRemoval)
+                .build();
+        this.metrics = new CacheMetrics(meterRegistry, "hotel-search", cache::estimatedSize);
+    }
+    
+    public PageResponse<HotelDto> get(HotelSearchRequest request, Supplier<SearchResult> loader) {
+        if (!enabled) {
+            return loader.get().page();
+        }
+        
+        SearchCacheKey key = SearchCacheKey.of(request);
+        long startVersion = version.get();
+        AtomicBoolean loaded = new AtomicBoolean();
+        SearchResult result = cache.get(key, k -> {
+            loaded.set(true);
+            SearchResult computed = loader.get();
+            computed.matchedHotelIds().forEach(id -> add(keysByHotel, id, k));
+            filterValues(k).forEach(value -> add(keysByFilter, value, k));
+            if (isLocationIndexed(k)) {
+                add(keysByLocation, k.location(), k);
+            }
+            return computed;
+        });
+        
+        if (loaded.get()) {
+            metrics.miss();
+            if (version.get() != startVersion) {
+                // A hotel changed while we were computing; serve the result once but don't keep it
+                cache.invalidate(key);
+            }
+        } else {
+            metrics.hit();
+        }
+        return result.page();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        if (enabled && cache.estimatedSize() > 0) {
+            invalidateHotel(event.hotelId(), hotelRepository.findById(event.hotelId()));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingRulesChanged(PricingRulesChangedEvent event) {
+        if (event.hotelId() == null) {
+            invalidateAll();
+        } else if (enabled && cache.estimatedSize() > 0) {
+            // Prices change but matches don't, so only searches that returned the hotel
+            version.incrementAndGet();
+            Set<SearchCacheKey> keys = keysByHotel.remove(event.hotelId());
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+    
+    void invalidateHotel(String hotelId, Optional<Hotel> current) {
+        version.incrementAndGet();
+        
+        // Searches that returned the hotel
+        Set<SearchCacheKey> keys = keysByHotel.remove(hotelId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+        
+        // Searches the hotel may have just entered
+        current.ifPresent(hotel -> {
+            Set<SearchCacheKey> candidates = new HashSet<>();
+            hotelValues(hotel).forEach(value -> candidates.addAll(keysByFilter.getOrDefault(value, Set.of())));
+            keysByLocation.forEach((location, locationKeys) -> {
+                if (matchesLocation(hotel, location)) {
+                    candidates.addAll(locationKeys);
+                }
+            });
+            candidates.removeIf(key -> !couldMatch(key, hotel));
+            cache.invalidateAll(candidates);
+        });
+    }
+    
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+        keysByHotel.clear();
+        keysByFilter.clear();
+        keysByLocation.clear();
+    }
+    
+    public long size() {
+        return cache.estimatedSize();
+    }
+    
+    private void onRemoval(SearchCacheKey key, SearchResult result, RemovalCause cause) {
+        if (cause.wasEvicted()) {
+            metrics.eviction();
+        }
+        // Listeners run after the removal; a reload of the same search may already have registered itself
+        if (cache.asMap().containsKey(key)) {
+            return;
+        }
+        if (result != null) {
+            result.matchedHotelIds().forEach(id -> remove(keysByHotel, id, key));
+        }
+        filterValues(key).forEach(value -> remove(keysByFilter, value, key));
+        if (isLocationIndexed(key)) {
+            remove(keysByLocation, key.location(), key);
+        }
+    }
+    
+    private static <K> void add(Map<K, Set<SearchCacheKey>> index, K value, SearchCacheKey key) {
+        index.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+    
+    private static <K> void remove(Map<K, Set<SearchCacheKey>> index, K value, SearchCacheKey key) {
+        index.computeIfPresent(value, (v, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+    
+    /**
+     * Filter values a search is filed under, from its most selective filter: the geo
+     * cells it covers, else its cities, else (location text, indexed separately), else
+     * its star ratings, else its amenities
+     */
+    static List<String> filterValues(SearchCacheKey key) {
+        if (hasBounds(key) || hasRadius(key)) {
+            return cells(key);
+        }
+        if (key.cities() != null) {
+            return key.cities().stream().map(city -> "city:" + city).toList();
+        }
+        if (key.location() != null) {
+            return List.of();
+        }
+        if (key.starRatings() != null) {
+            return key.starRatings().stream().map(star -> "star:" + star).toList();
+        }
+        if (key.amenities() != null) {
+            // A hotel must have every one of them, so any single one will do
+            return List.of("amenity:" + key.amenities().get(0));
+        }
+        if (key.anyAmenities() != null) {
+            return key.anyAmenities().stream().map(amenity -> "amenity:" + amenity).toList();
+        }
+        return List.of(UNFILTERED);
+    }
+    
+    private static boolean isLocationIndexed(SearchCacheKey key) {
+        return key.location() != null && !hasBounds(key) && !hasRadius(key) && key.cities() == null;
+    }
+    
+    /**
+     * Filter values of a hotel, matching those of {@link #filterValues}
+     */
+    static List<String> hotelValues(Hotel hotel) {
+        List<String> values = new ArrayList<>();
+        values.add(UNFILTERED);
+        values.add(WIDE_AREA);
+        if (HotelGeoIndex.hasCoordinates(hotel.getLatitude(), hotel.getLongitude())) {
+            values.add(cell(cellIndex(hotel.getLatitude()), cellIndex(hotel.getLongitude())));
+        }
+        if (hotel.getCity() != null) {
+            values.add("city:" + normalize(hotel.getCity()));
+        }
+        if (hotel.getStarRating() != null) {
+            values.add("star:" + hotel.getStarRating());
+        }
+        if (hotel.getAmenities() != null) {
+            hotel.getAmenities().stream()
+                    .filter(amenity -> amenity != null && !amenity.isBlank())
+                    .forEach(amenity -> values.add("amenity:" + normalize(amenity)));
+        }
+        return values;
+    }
+    
+    private static List<String> cells(SearchCacheKey key) {
+        double south, north, west, east;
+        if (hasBounds(key)) {
+            south = key.south();
+            north = key.north();
+            west = key.west();
+            east = key.east();
+        } else {
+            double latDelta = key.radiusKm() / KM_PER_DEGREE;
+            double lonDelta = key.radiusKm() / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(key.latitude())), 0.01));
+            south = key.latitude() - latDelta;
+            north = key.latitude() + latDelta;
+            west = key.longitude() - lonDelta;
+            east = key.longitude() + lonDelta;
+            if (west < -180.0 || east > 180.0) {
+                return List.of(WIDE_AREA);
+            }
+        }
+        
+        int minLat = cellIndex(Math.max(south, -90.0));
+        int maxLat = cellIndex(Math.min(north, 90.0));
+        int minLon = cellIndex(west);
+        // A viewport whose west edge is greater than its east edge crosses the antimeridian
+        int maxLon = west <= east ? cellIndex(east) : cellIndex(east + 360.0);
+        if ((long) (maxLat - minLat + 1) * (maxLon - minLon + 1) > MAX_CELLS_PER_KEY) {
+            return List.of(WIDE_AREA);
+        }
+        List<String> cells = new ArrayList<>();
+        for (int lat = minLat; lat <= maxLat; lat++) {
+            for (int lon = minLon; lon <= maxLon; lon++) {
+                cells.add(cell(lat, lon));
+            }
+        }
+        return cells;
+    }
+    
+    private static String cell(int latCell, int lonCell) {
+        return "cell:" + latCell + ":" + (Math.floorMod(lonCell + 180, 360) - 180);
+    }
+    
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+    
+    /**
+     * Whether the hotel passes every filter of the cached search
+     */
+    static boolean couldMatch(SearchCacheKey key, Hotel hotel) {
+        if (key.location() != null && !matchesLocation(hotel, key.location())) {
+            return false;
+        }
+        double price = hotel.getPricePerNight() != null ? hotel.getPricePerNight().doubleValue() : 0.0;
+        if ((key.minPrice() != null && price < key.minPrice()) || (key.maxPrice() != null && price > key.maxPrice())) {
+            return false;
+        }
+        if (key.minStarRating() != null && (hotel.getStarRating() == null || hotel.getStarRating() < key.minStarRating())) {
+            return false;
+        }
+        if (key.minGuestRating() != null
+                && (hotel.getGuestRating() == null || hotel.getGuestRating() < key.minGuestRating())) {
+            return false;
+        }
+        return matchesFacets(key, hotel) && matchesArea(key, hotel);
+    }
+    
+    private static boolean matchesFacets(SearchCacheKey key, Hotel hotel) {
+        if (key.cities() != null && (hotel.getCity() == null || !key.cities().contains(normalize(hotel.getCity())))) {
+            return false;
+        }
+        if (key.starRatings() != null && !key.starRatings().contains(hotel.getStarRating())) {
+            return false;
+        }
+        if (key.amenities() == null && key.anyAmenities() == null) {
+            return true;
+        }
+        Set<String> amenities = new HashSet<>();
+        if (hotel.getAmenities() != null) {
+            hotel.getAmenities().stream()
+                    .filter(amenity -> amenity != null && !amenity.isBlank())
+                    .forEach(amenity -> amenities.add(normalize(amenity)));
+        }
+        return (key.amenities() == null || amenities.containsAll(key.amenities()))
+                && (key.anyAmenities() == null || key.anyAmenities().stream().anyMatch(amenities::contains));
+    }
+    
+    private static boolean matchesArea(SearchCacheKey key, Hotel hotel) {
+        if (!hasBounds(key) && !hasRadius(key)) {
+            return true;
+        }
+        if (!HotelGeoIndex.hasCoordinates(hotel.getLatitude(), hotel.getLongitude())) {
+            return false;
+        }
+        double latitude = hotel.getLatitude();
+        double longitude = hotel.getLongitude();
+        if (hasBounds(key)) {
+            boolean withinLongitude = key.west() <= key.east()
+                    ? longitude >= key.west() && longitude <= key.east()
+                    : longitude >= key.west() || longitude <= key.east();
+            return latitude >= key.south() && latitude <= key.north() && withinLongitude;
+        }
+        return HotelGeoIndex.distanceKm(key.latitude(), key.longitude(), latitude, longitude) <= key.radiusKm();
+    }
+    
+    // Same predicates as HotelSearchRequest.hasBounds and hasRadius; bounds take precedence
+    private static boolean hasBounds(SearchCacheKey key) {
+        return key.north() != null && key.south() != null && key.east() != null && key.west() != null;
+    }
+    
+    private static boolean hasRadius(SearchCacheKey key) {
+        return key.latitude() != null && key.longitude() != null && key.radiusKm() != null;
+    }
+    
+    private static boolean matchesLocation(Hotel hotel, String location) {
+        return contains(hotel.getCity(), location) || contains(hotel.getName(), location)
+                || contains(hotel.getCountry(), location);
+    }
+    
+    private static boolean contains(String value, String term) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(term);
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hotelbooker.hotel.search;
+
+/**
+ * Server-side sort modes for hotel search
+ */
+public enum HotelSort {
+    PRICE,
+    PRICE_DESC,
+    GUEST_RATING,
+    STAR_RATING,
+    DISTANCE,
+    POPULARITY;
+    
+    public static HotelSort from(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return HotelSort.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.dto.HotelSearchRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Canonical form of a {@link HotelSearchRequest}: trimmed lower-case text, sorted
+ * lower-case filter lists and parsed stay dates, so equivalent requests share one
+ * cache entry. Dates are kept exact because nightly prices depend on them.
+ */
+public record SearchCacheKey(
+        String location,
+        LocalDate checkIn,
+        LocalDate checkOut,
+        Integer guests,
+        Integer rooms,
+        Double minPrice,
+        Double maxPrice,
+        Integer minStarRating,
+        Double minGuestRating,
+        Double latitude,
+        Double longitude,
+        Double radiusKm,
+        Double north,
+        Double south,
+        Double east,
+        Double west,
+        List<String> amenities,
+        List<String> anyAmenities,
+        List<Integer> starRatings,
+        List<String> cities,
+        String sort,
+        Integer page,
+        Integer limit,
+        String cursor
+) {
+    
+    public static SearchCacheKey of(HotelSearchRequest request) {
+        return new SearchCacheKey(
+                text(request.getLocation()),
+                request.checkIn(),
+                request.checkOut(),
+                request.getGuests() != null ? request.getGuests() : 2,
+                request.getRooms() != null ? request.getRooms() : 1,
+                request.getMinPrice(),
+                request.getMaxPrice(),
+                request.getMinStarRating(),
+                request.getMinGuestRating(),
+                request.getLatitude(),
+                request.getLongitude(),
+                request.getRadiusKm(),
+                request.getNorth(),
+                request.getSouth(),
+                request.getEast(),
+                request.getWest(),
+                texts(request.getAmenities()),
+                texts(request.getAnyAmenities()),
+                request.getStarRatings() != null ? request.getStarRatings().stream().sorted().distinct().toList() : null,
+                texts(request.getCities()),
+                text(request.getSort()),
+                request.getPage(),
+                request.getLimit(),
+                request.getCursor()
+        );
+    }
+    
+    private static String text(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static List<String> texts(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream()
+                .map(SearchCacheKey::text)
+                .filter(Objects::nonNull)
+                .sorted()
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,37 @@
+package com.hotelbooker.hotel.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last hotel on the previous page.
+ * The next page starts strictly after that position, so it is stable while the
+ * result set changes and costs no offset skipping.
+ *
+ * Popularity scores decay over time, so for that sort the cursor also carries the
+ * epoch second the walk was ranked at ({@code asOf}) and later pages rank as of the
+ * same instant. Interactions recorded since can still move a hotel across a page
+ * boundary; the walk then skips or repeats that hotel rather than restarting.
+ */
+public record SearchCursor(double sortKey, String hotelId, Long asOf) {
+    
+    public String encode() {
+        String raw = sortKey + ":" + (asOf != null ? asOf : "") + ":" + hotelId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length == 2) {
+                // Cursor issued before asOf was added
+                return new SearchCursor(Double.parseDouble(parts[0]), parts[1], null);
+            }
+            Long asOf = parts[1].isEmpty() ? null : Long.parseLong(parts[1]);
+            return new SearchCursor(Double.parseDouble(parts[0]), parts[2], asOf);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.common.dto.PageResponse;
+import com.hotelbooker.hotel.dto.HotelDto;
+
+import java.util.Set;
+
+/**
+ * A search page plus the ids of every hotel that matched, used to invalidate
+ * cached results when any of those hotels changes
+ */
+public record SearchResult(PageResponse<HotelDto> page, Set<String> matchedHotelIds) {
+}
@@ -0,0 +1,42 @@
+package com.hotelbooker.hotel.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded heap keeping the first {@code limit} items of a stream under the given
+ * order, in O(n log k) time and O(k) memory instead of sorting every candidate.
+ */
+public final class TopK<T> {
+    
+    private final int limit;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+    
+    public TopK(int limit, Comparator<? super T> order) {
+        this.limit = limit;
+        this.order = order;
+        // Worst retained item at the head so it can be evicted in O(log k)
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), order.reversed());
+    }
+    
+    public void offer(T item) {
+        if (limit <= 0) {
+            return;
+        }
+        if (heap.size() < limit) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+    
+    public List<T> sorted() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(order);
+        return items;
+    }
+}
@@ -0,0 +1,187 @@
+package com.hotelbooker.hotel.service;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.dto.FacetedSearchResponse;
+import com.hotelbooker.hotel.dto.HotelSearchRequest;
+import com.hotelbooker.hotel.dto.HotelSummaryDto;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.HotelSearchView;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.HotelSearchViewRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.hotel.search.FacetResult;
+import com.hotelbooker.hotel.search.HotelFacetIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the hotel_search_view read model and serves lean search results from it
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotelSearchViewService {
+    
+    private final HotelSearchViewRepository viewRepository;
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final HotelFacetIndex hotelFacetIndex;
+    
+    /**
+     * Refresh the changed hotel once the originating transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        refresh(event.hotelId());
+    }
+    
+    /**
+     * Recompute the read-model row of a single hotel
+     */
+    @Transactional
+    public Optional<HotelSearchView> refresh(String hotelId) {
+        Optional<Hotel> hotel = hotelRepository.findById(hotelId);
+        if (hotel.isEmpty()) {
+            if (viewRepository.existsById(hotelId)) {
+                viewRepository.deleteById(hotelId);
+            }
+            return Optional.empty();
+        }
+        
+        HotelSearchView view = viewRepository.save(toView(hotel.get(), roomRepository.findByHotelId(hotelId)));
+        return Optional.of(view);
+    }
+    
+    /**
+     * Rebuild every row with set-based loads (used on startup and for repairs)
+     */
+    @Transactional
+    public int rebuildAll() {
+        Map<String, List<Room>> roomsByHotel = roomRepository.findAll()
+                .stream()
+                .collect(Collectors.groupingBy(room -> room.getHotel().getId()));
+        
+        List<HotelSearchView> views = new ArrayList<>();
+        for (Hotel hotel : hotelRepository.findAll()) {
+            views.add(toView(hotel, roomsByHotel.getOrDefault(hotel.getId(), List.of())));
+        }
+        
+        viewRepository.deleteAllInBatch();
+        viewRepository.saveAll(views);
+        log.info("Rebuilt hotel search view with {} hotels", views.size());
+        return views.size();
+    }
+    
+    /**
+     * Summary search narrowed by the facet filters, with facet counts for the result
+     */
+    public FacetedSearchResponse searchWithFacets(HotelSearchRequest request) {
+        Map<String, HotelSummaryDto> candidates = new LinkedHashMap<>();
+        search(request).forEach(summary -> candidates.put(summary.getId(), summary));
+        
+        FacetResult facets = hotelFacetIndex.search(new ArrayList<>(candidates.keySet()), request.toFacetQuery());
+        List<HotelSummaryDto> hotels = facets.hotelIds()
+                .stream()
+                .map(candidates::get)
+                .collect(Collectors.toList());
+        
+        return FacetedSearchResponse.builder()
+                .hotels(hotels)
+                .total(hotels.size())
+                .amenities(facets.amenityCounts())
+                .starRatings(facets.starRatingCounts())
+                .cities(facets.cityCounts())
+                .build();
+    }
+    
+    public List<HotelSummaryDto> search(HotelSearchRequest request) {
+        String location = request.getLocation() != null && !request.getLocation().isBlank()
+                ? request.getLocation().trim().toLowerCase()
+                : null;
+        
+        return viewRepository.search(
+                        location,
+                        request.getMinPrice() != null ? Money.of(request.getMinPrice()) : null,
+                        request.getMaxPrice() != null ? Money.of(request.getMaxPrice()) : null,
+                        request.getMinStarRating(),
+                        request.getMinGuestRating()
+                )
+                .stream()
+                .map(this::mapToSummaryDto)
+                .collect(Collectors.toList());
+    }
+    
+    private HotelSearchView toView(Hotel hotel, List<Room> rooms) {
+        Money minRoomPrice = null;
+        int availableRooms = 0;
+        for (Room room : rooms) {
+            if (room.getAvailableRooms() == null || room.getAvailableRooms() <= 0) {
+                continue;
+            }
+            availableRooms += room.getAvailableRooms();
+            if (minRoomPrice == null || room.getPricePerNight().compareTo(minRoomPrice) < 0) {
+                minRoomPrice = room.getPricePerNight();
+            }
+        }
+        
+        List<String> images = hotel.getImages();
+        List<String> amenities = hotel.getAmenities();
+        
+        return HotelSearchView.builder()
+                .hotelId(hotel.getId())
+                .name(hotel.getName())
+                .city(hotel.getCity())
+                .country(hotel.getCountry())
+                .searchText((hotel.getName() + " " + hotel.getCity() + " " + hotel.getCountry()).toLowerCase())
+                .latitude(hotel.getLatitude())
+                .longitude(hotel.getLongitude())
+                .pricePerNight(hotel.getPricePerNight())
+                .minRoomPrice(minRoomPrice)
+                .availableRooms(availableRooms)
+                .guestRating(hotel.getGuestRating())
+                .totalReviews(hotel.getTotalReviews())
+                .starRating(hotel.getStarRating())
+                .thumbnailUrl(images != null && !images.isEmpty() ? images.get(0) : null)
+                .amenities(amenities != null ? amenities.toArray(new String[0]) : new String[0])
+                .featured(hotel.isFeatured())
+                .available(hotel.isAvailable())
+                .status(hotel.getStatus())
+                .refreshedAt(LocalDateTime.now())
+                .build();
+    }
+    
+    private HotelSummaryDto mapToSummaryDto(HotelSearchView view) {
+        return HotelSummaryDto.builder()
+                .id(view.getHotelId())
+                .name(view.getName())
+                .city(view.getCity())
+                .country(view.getCountry())
+                .latitude(view.getLatitude())
+                .longitude(view.getLongitude())
+                .pricePerNight(view.getPricePerNight())
+                .minRoomPrice(view.getMinRoomPrice())
+                .guestRating(view.getGuestRating())
+                .totalReviews(view.getTotalReviews())
+                .starRating(view.getStarRating())
+                .thumbnailUrl(view.getThumbnailUrl())
+                .amenities(view.getAmenities() != null ? Arrays.asList(view.getAmenities()) : List.of())
+                .available(view.isAvailable() && view.getAvailableRooms() > 0)
+                .build();
+    }
+}
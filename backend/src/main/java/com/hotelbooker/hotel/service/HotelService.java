@@ -1,17 +1,50 @@
 package com.hotelbooker.hotel.service;
 
+import com.hotelbooker.common.dto.PageResponse;
 import com.hotelbooker.common.exception.ResourceNotFoundException;
+import com.hotelbooker.common.money.Money;
 import com.hotelbooker.hotel.dto.HotelDto;
 import com.hotelbooker.hotel.dto.HotelSearchRequest;
 import com.hotelbooker.hotel.dto.RoomDto;
 import com.hotelbooker.hotel.entity.Hotel;
 import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.popularity.PopularItem;
+import com.hotelbooker.hotel.popularity.PopularitySignal;
+import com.hotelbooker.hotel.popularity.PopularityTracker;
 import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.HotelSearchRow;
 import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.hotel.search.FacetQuery;
+import com.hotelbooker.hotel.search.GeoHit;
+import com.hotelbooker.hotel.search.HotelFacetIndex;
+import com.hotelbooker.hotel.search.HotelGeoIndex;
+import com.hotelbooker.hotel.search.HotelSearchCache;
+import com.hotelbooker.hotel.search.HotelSort;
+import com.hotelbooker.hotel.search.SearchCursor;
+import com.hotelbooker.hotel.search.SearchResult;
+import com.hotelbooker.hotel.search.TopK;
+import com.hotelbooker.pricing.engine.PriceQuote;
+import com.hotelbooker.pricing.engine.PricingEngine;
+import com.hotelbooker.pricing.engine.StayRequest;
+import com.hotelbooker.pricing.rates.RateCalendarStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,6 +53,22 @@ public class HotelService {
     
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelFacetIndex hotelFacetIndex;
+    private final HotelSearchCache hotelSearchCache;
+    private final PopularityTracker popularityTracker;
+    private final PricingEngine pricingEngine;
+    private final RateCalendarStore rateCalendarStore;
+    
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DEFAULT_GEO_LIMIT = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    // Deepest offset reachable by page number; further results are paged with the cursor
+    private static final long MAX_PAGE_OFFSET = 10_000;
+    private static final double MAX_RADIUS_KM = 500.0;
+    private static final double REVIEW_PRIOR_WEIGHT = 0.5;
     
     public List<HotelDto> getAllHotels() {
         return hotelRepository.findAll()
@@ -29,42 +78,288 @@ public class HotelService {
     }
     
     public List<HotelDto> searchHotels(HotelSearchRequest request) {
-        List<Hotel> hotels;
+        return searchHotelsPage(request).getItems();
+    }
+    
+    /**
+     * Search with server-side sorting and paging. The query filters and returns
+     * only the ranking columns of each match; the requested page is selected
+     * from those (bounded heap) and only its hotels are loaded and mapped to
+     * DTOs. Requests without sort or paging fields keep returning every match.
+     */
+    public PageResponse<HotelDto> searchHotelsPage(HotelSearchRequest request) {
+        if (request.getLocation() != null) {
+            request.setLocation(request.getLocation().trim());
+        }
+        PageResponse<HotelDto> page = hotelSearchCache.get(request, () -> doSearchHotelsPage(request));
         
-        if (request.getLocation() != null && !request.getLocation().isEmpty()) {
-            hotels = hotelRepository.searchByLocation(request.getLocation());
+        // Count a search for each destination it surfaced
+        if ((request.getLocation() != null && !request.getLocation().isEmpty()) || request.hasRadius() || request.hasBounds()) {
+            page.getItems().stream()
+                    .filter(h -> h.getCity() != null)
+                    .collect(Collectors.toMap(h -> h.getCity().toLowerCase(), h -> h, (a, b) -> a))
+                    .values()
+                    .forEach(h -> popularityTracker.record(PopularitySignal.SEARCH, null, h.getCity(), h.getCountry()));
+        }
+        return page;
+    }
+    
+    private SearchResult doSearchHotelsPage(HotelSearchRequest request) {
+        boolean geo = request.hasRadius() || request.hasBounds();
+        HotelSort sort = HotelSort.from(request.getSort());
+        if (sort == null && (geo || request.isPaged())) {
+            sort = geo ? HotelSort.DISTANCE : HotelSort.POPULARITY;
+        }
+        if (sort == HotelSort.DISTANCE && !geo) {
+            throw new IllegalArgumentException("DISTANCE sort requires latitude/longitude/radiusKm or map bounds");
+        }
+        int pageSize = pageSize(request, geo);
+        int page = request.getPage() != null ? Math.max(request.getPage(), 0) : 0;
+        if ((long) page * pageSize > MAX_PAGE_OFFSET) {
+            throw new IllegalArgumentException("Page too deep; follow nextCursor beyond " + MAX_PAGE_OFFSET + " results");
+        }
+        
+        // Filters run in the query, which selects only the columns needed to rank the matches
+        Timer.Sample phase = Timer.start(meterRegistry);
+        String location = request.getLocation() != null && !request.getLocation().isEmpty()
+                ? request.getLocation().toLowerCase()
+                : null;
+        Money minPrice = request.getMinPrice() != null ? Money.of(request.getMinPrice()) : null;
+        Money maxPrice = request.getMaxPrice() != null ? Money.of(request.getMaxPrice()) : null;
+        Map<String, GeoHit> geoHits = null;
+        List<Hotel> hotels = null;
+        List<HotelSearchRow> rows;
+        
+        if (geo) {
+            geoHits = geoSearch(request, sort, pageSize);
+            rows = geoHits.isEmpty() ? List.of() : hotelRepository.searchRowsAmong(geoHits.keySet(), location,
+                    minPrice, maxPrice, request.getMinStarRating(), request.getMinGuestRating());
+        } else if (sort != null) {
+            rows = hotelRepository.searchRows(location, minPrice, maxPrice,
+                    request.getMinStarRating(), request.getMinGuestRating());
         } else {
-            hotels = hotelRepository.findAll();
+            // Unpaged searches return every match, so load the hotels right away
+            hotels = hotelRepository.search(location, minPrice, maxPrice,
+                    request.getMinStarRating(), request.getMinGuestRating());
+            rows = hotels.stream().map(HotelSearchRow::of).collect(Collectors.toList());
         }
+        phase.stop(searchPhaseTimer("query"));
         
-        // Get search parameters for dynamic pricing
-        int numberOfRooms = request.getRooms() != null ? request.getRooms() : 1;
-        int numberOfGuests = request.getGuests() != null ? request.getGuests() : 2;
+        // Stay to price the results for (tonight when no dates are given)
+        StayRequest stay = StayRequest.of(null, request.checkIn(), request.checkOut(),
+                request.getRooms(), request.getGuests(), LocalDate.now());
         
-        // Apply filters and calculate dynamic pricing
-        return hotels.stream()
-                .filter(h -> request.getMinPrice() == null || h.getPricePerNight() >= request.getMinPrice())
-                .filter(h -> request.getMaxPrice() == null || h.getPricePerNight() <= request.getMaxPrice())
-                .filter(h -> request.getMinStarRating() == null || h.getStarRating() >= request.getMinStarRating())
-                .filter(h -> request.getMinGuestRating() == null || h.getGuestRating() >= request.getMinGuestRating())
-                .map(h -> mapToDtoWithDynamicPricing(h, numberOfRooms, numberOfGuests))
+        // Apply the facet filters from the bitmap index
+        phase = Timer.start(meterRegistry);
+        List<HotelSearchRow> matches = rows;
+        FacetQuery facetQuery = request.toFacetQuery();
+        if (!facetQuery.isEmpty()) {
+            Set<String> facetMatches = new HashSet<>(hotelFacetIndex.search(null, facetQuery).hotelIds());
+            matches = rows.stream()
+                    .filter(row -> facetMatches.contains(row.hotelId()))
+                    .collect(Collectors.toList());
+        }
+        phase.stop(searchPhaseTimer("filter"));
+        
+        // Select the requested page
+        phase = Timer.start(meterRegistry);
+        List<HotelSearchRow> pageRows;
+        String nextCursor = null;
+        if (sort == null) {
+            pageRows = matches;
+        } else {
+            SearchCursor cursor = request.getCursor() != null ? SearchCursor.decode(request.getCursor()) : null;
+            // Popularity decays between requests, so every page of a walk ranks as of the first one
+            Long asOf = sort != HotelSort.POPULARITY ? null
+                    : cursor != null && cursor.asOf() != null ? cursor.asOf() : Instant.now().getEpochSecond();
+            Map<String, GeoHit> hits = geoHits;
+            HotelSort order = sort;
+            ToDoubleFunction<HotelSearchRow> sortKey = row -> sortKey(row, order, hits, asOf);
+            Comparator<Ranked> byRank = Comparator.comparingDouble(Ranked::key)
+                    .thenComparing(Ranked::id);
+            
+            Ranked after = cursor != null ? new Ranked(null, cursor.sortKey(), cursor.hotelId()) : null;
+            int offset = cursor == null ? page * pageSize : 0;
+            
+            // One extra item tells whether another page follows
+            TopK<Ranked> topK = new TopK<>(offset + pageSize + 1, byRank);
+            for (HotelSearchRow row : matches) {
+                Ranked ranked = new Ranked(row, sortKey.applyAsDouble(row), row.hotelId());
+                if (after == null || compareAfter(ranked, after) > 0) {
+                    topK.offer(ranked);
+                }
+            }
+            
+            List<Ranked> selected = topK.sorted();
+            List<Ranked> window = selected.subList(Math.min(offset, selected.size()),
+                    Math.min(offset + pageSize, selected.size()));
+            pageRows = window.stream().map(Ranked::row).collect(Collectors.toList());
+            if (selected.size() > offset + pageSize && !window.isEmpty()) {
+                Ranked last = window.get(window.size() - 1);
+                nextCursor = new SearchCursor(last.key(), last.id(), asOf).encode();
+            }
+        }
+        
+        // Load only the hotels on the page
+        Map<String, Hotel> hotelsById = (hotels != null ? hotels : hotelRepository.findAllById(
+                pageRows.stream().map(HotelSearchRow::hotelId).collect(Collectors.toList())))
+                .stream()
+                .collect(Collectors.toMap(Hotel::getId, h -> h));
+        List<Hotel> pageItems = pageRows.stream()
+                .map(row -> hotelsById.get(row.hotelId()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        phase.stop(searchPhaseTimer("select"));
+        
+        // Calculate dynamic pricing
+        phase = Timer.start(meterRegistry);
+        Map<String, GeoHit> hits = geoHits;
+        List<HotelDto> results = pageItems.stream()
+                .map(h -> {
+                    HotelDto dto = mapToDtoWithDynamicPricing(h, stay);
+                    if (hits != null) {
+                        dto.setDistanceKm(Math.round(hits.get(h.getId()).distanceKm() * 100.0) / 100.0);
+                    }
+                    return dto;
+                })
+                .collect(Collectors.toList());
+        phase.stop(searchPhaseTimer("map"));
+        
+        PageResponse<HotelDto> response = PageResponse.<HotelDto>builder()
+                .items(results)
+                .total(matches.size())
+                .page(sort != null && request.getCursor() == null ? page : null)
+                .size(sort != null ? pageSize : results.size())
+                .nextCursor(nextCursor)
+                .build();
+        return new SearchResult(response, matches.stream().map(HotelSearchRow::hotelId).collect(Collectors.toSet()));
+    }
+    
+    private record Ranked(HotelSearchRow row, double key, String id) {
+    }
+    
+    private static int compareAfter(Ranked candidate, Ranked cursor) {
+        int byKey = Double.compare(candidate.key(), cursor.key());
+        return byKey != 0 ? byKey : candidate.id().compareTo(cursor.id());
+    }
+    
+    // Keys are oriented so that smaller is better
+    private double sortKey(HotelSearchRow row, HotelSort sort, Map<String, GeoHit> geoHits, Long asOf) {
+        return switch (sort) {
+            case PRICE -> price(row);
+            case PRICE_DESC -> -price(row);
+            case GUEST_RATING -> -valueOrZero(row.guestRating());
+            case STAR_RATING -> -(row.starRating() != null ? row.starRating() : 0);
+            case DISTANCE -> geoHits.get(row.hotelId()).distanceKm();
+            case POPULARITY -> -popularity(row, asOf);
+        };
+    }
+    
+    // Decayed search/view/booking score at asOf, with review volume as a prior for hotels without traffic
+    private double popularity(HotelSearchRow row, long asOf) {
+        int reviews = row.totalReviews() != null ? row.totalReviews() : 0;
+        return popularityTracker.hotelScore(row.hotelId(), asOf) + REVIEW_PRIOR_WEIGHT * Math.log1p(reviews);
+    }
+    
+    private static double price(HotelSearchRow row) {
+        return row.pricePerNight() != null ? row.pricePerNight().doubleValue() : 0.0;
+    }
+    
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+    
+    private Map<String, GeoHit> geoSearch(HotelSearchRequest request, HotelSort sort, int pageSize) {
+        // Filters and cursors run after the spatial lookup, so only trim to the
+        // first page inside the index when nothing else can drop or skip results
+        boolean attributeFilters = (request.getLocation() != null && !request.getLocation().isEmpty())
+                || request.getMinPrice() != null || request.getMaxPrice() != null
+                || request.getMinStarRating() != null || request.getMinGuestRating() != null
+                || !request.toFacetQuery().isEmpty();
+        boolean firstPage = request.getCursor() == null && (request.getPage() == null || request.getPage() <= 0);
+        int candidates = !attributeFilters && firstPage && sort == HotelSort.DISTANCE
+                ? pageSize + 1
+                : Integer.MAX_VALUE;
+        
+        List<GeoHit> hits;
+        if (request.hasBounds()) {
+            if (request.getSouth() > request.getNorth()) {
+                throw new IllegalArgumentException("south must not be greater than north");
+            }
+            double refLatitude = request.getLatitude() != null
+                    ? request.getLatitude()
+                    : (request.getNorth() + request.getSouth()) / 2;
+            double refLongitude = request.getLongitude() != null
+                    ? request.getLongitude()
+                    : viewportCentreLongitude(request.getWest(), request.getEast());
+            hits = hotelGeoIndex.withinBounds(request.getSouth(), request.getWest(),
+                    request.getNorth(), request.getEast(), refLatitude, refLongitude, candidates);
+        } else {
+            if (request.getRadiusKm() <= 0 || request.getRadiusKm() > MAX_RADIUS_KM) {
+                throw new IllegalArgumentException("radiusKm must be between 0 and " + MAX_RADIUS_KM);
+            }
+            hits = hotelGeoIndex.withinRadius(request.getLatitude(), request.getLongitude(),
+                    request.getRadiusKm(), candidates);
+        }
+        
+        Map<String, GeoHit> byId = new LinkedHashMap<>();
+        hits.forEach(hit -> byId.put(hit.hotelId(), hit));
+        return byId;
+    }
+    
+    private static int pageSize(HotelSearchRequest request, boolean geo) {
+        if (request.getLimit() == null || request.getLimit() <= 0) {
+            return geo ? DEFAULT_GEO_LIMIT : DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(request.getLimit(), MAX_PAGE_SIZE);
+    }
+    
+    private static double viewportCentreLongitude(double west, double east) {
+        double centre = west <= east ? (west + east) / 2 : (west + east + 360) / 2;
+        return centre > 180 ? centre - 360 : centre;
+    }
+    
+    private Timer searchPhaseTimer(String phase) {
+        return Timer.builder("hotel.search.phase")
+                .description("Time spent in each phase of hotel search")
+                .tag("phase", phase)
+                .register(meterRegistry);
     }
     
     public HotelDto getHotelById(String hotelId) {
         Hotel hotel = hotelRepository.findById(hotelId)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
+        popularityTracker.record(PopularitySignal.VIEW, hotel.getId(), hotel.getCity(), hotel.getCountry());
         return mapToDto(hotel);
     }
     
-    public List<RoomDto> getHotelRooms(String hotelId) {
-        if (!hotelRepository.existsById(hotelId)) {
+    /**
+     * Available rooms of a hotel; with stay dates each room also carries the
+     * exact total for the stay from the rate calendar
+     */
+    public List<RoomDto> getHotelRooms(String hotelId, LocalDate checkIn, LocalDate checkOut, Integer guests, Integer rooms) {
+        if (checkIn != null && checkOut != null && !checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("checkOutDate must be after checkInDate");
+        }
+        List<Room> availableRooms = roomRepository.findByHotelIdAndAvailableRoomsGreaterThan(hotelId, 0);
+        
+        // Only pay for the existence check when there is nothing to show
+        if (availableRooms.isEmpty() && !hotelRepository.existsById(hotelId)) {
             throw new ResourceNotFoundException("Hotel not found with id: " + hotelId);
         }
         
-        List<Room> rooms = roomRepository.findByHotelIdAndAvailableRoomsGreaterThan(hotelId, 0);
-        return rooms.stream()
-                .map(this::mapToRoomDto)
+        LocalDate today = LocalDate.now();
+        return availableRooms.stream()
+                .map(room -> {
+                    RoomDto dto = mapToRoomDto(room);
+                    if (checkIn != null && checkOut != null) {
+                        PriceQuote quote = rateCalendarStore.quote(room,
+                                StayRequest.of(room.getRoomType(), checkIn, checkOut, rooms, guests, today));
+                        dto.setTotalPrice(quote.total());
+                        dto.setNights(quote.nights());
+                    }
+                    return dto;
+                })
                 .collect(Collectors.toList());
     }
     
@@ -76,7 +371,14 @@ public class HotelService {
     }
     
     public List<String> getPopularDestinations() {
-        return hotelRepository.findAllCities();
+        List<String> cities = new ArrayList<>(hotelRepository.findAllCities());
+        // Stable sort: equally popular cities stay alphabetical
+        cities.sort(Comparator.comparingDouble(popularityTracker::destinationScore).reversed());
+        return cities;
+    }
+    
+    public List<PopularItem> getTrendingDestinations(String region, int limit) {
+        return popularityTracker.topDestinations(region != null ? region : PopularityTracker.GLOBAL, limit);
     }
     
     public HotelDto createHotel(HotelDto hotelDto) {
@@ -105,6 +407,7 @@ public class HotelService {
                 .build();
         
         Hotel savedHotel = hotelRepository.save(hotel);
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(savedHotel.getId()));
         return mapToDto(savedHotel);
     }
     
@@ -137,6 +440,7 @@ public class HotelService {
         hotel.setCheckOutTime(hotelDto.getCheckOutTime());
         
         Hotel updatedHotel = hotelRepository.save(hotel);
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotelId));
         return mapToDto(updatedHotel);
     }
     
@@ -144,6 +448,7 @@ public class HotelService {
         Hotel hotel = hotelRepository.findById(hotelId)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
         hotelRepository.delete(hotel);
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotelId));
     }
     
     // Room management methods
@@ -168,6 +473,7 @@ public class HotelService {
                 .build();
         
         Room savedRoom = roomRepository.save(room);
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotelId));
         return mapToRoomDto(savedRoom);
     }
     
@@ -196,6 +502,7 @@ public class HotelService {
         room.setFreeCancellation(roomDto.isFreeCancellation());
         
         Room updatedRoom = roomRepository.save(room);
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotelId));
         return mapToRoomDto(updatedRoom);
     }
     
@@ -211,6 +518,7 @@ public class HotelService {
         }
         
         roomRepository.delete(room);
+        eventPublisher.publishEvent(new HotelCatalogChangedEvent(hotelId));
     }
     
     private HotelDto mapToDto(Hotel hotel) {
@@ -240,22 +548,9 @@ public class HotelService {
                 .build();
     }
     
-    private HotelDto mapToDtoWithDynamicPricing(Hotel hotel, int numberOfRooms, int numberOfGuests) {
-        // Calculate dynamic price based on rooms and guests
-        // Base price is per room per night
-        double basePrice = hotel.getPricePerNight();
-        
-        // Apply room multiplier (more rooms = slight discount)
-        double roomMultiplier = numberOfRooms > 1 ? 0.95 : 1.0; // 5% discount for multiple rooms
-        
-        // Apply guest multiplier (more guests may need larger rooms)
-        double guestMultiplier = 1.0;
-        if (numberOfGuests > 2) {
-            guestMultiplier = 1.1; // 10% increase for more than 2 guests
-        }
-        
-        // Calculate final price per night (for all rooms)
-        double dynamicPrice = basePrice * numberOfRooms * roomMultiplier * guestMultiplier;
+    private HotelDto mapToDtoWithDynamicPricing(Hotel hotel, StayRequest stay) {
+        // Average nightly price for all requested rooms after the hotel's pricing rules
+        PriceQuote quote = pricingEngine.quote(hotel.getId(), hotel.getPricePerNight(), stay);
         
         return HotelDto.builder()
                 .id(hotel.getId())
@@ -266,12 +561,13 @@ public class HotelService {
                 .country(hotel.getCountry())
                 .latitude(hotel.getLatitude())
                 .longitude(hotel.getLongitude())
-                .pricePerNight(Math.round(dynamicPrice * 100.0) / 100.0) // Round to 2 decimals
+                .pricePerNight(quote.averageNightly())
                 .guestRating(hotel.getGuestRating())
                 .totalReviews(hotel.getTotalReviews())
                 .starRating(hotel.getStarRating())
-                .images(hotel.getImages())
-                .amenities(hotel.getAmenities())
+                // Copied: search results are cached and serialized after this session is closed
+                .images(new ArrayList<>(hotel.getImages()))
+                .amenities(new ArrayList<>(hotel.getAmenities()))
                 .featured(hotel.isFeatured())
                 .available(hotel.isAvailable())
                 .build();
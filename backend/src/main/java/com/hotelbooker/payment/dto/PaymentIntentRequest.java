@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.Map;
 
 @Data
@@ -15,15 +16,19 @@ import java.util.Map;
 @AllArgsConstructor
 public class PaymentIntentRequest {
     
+    // Decimal amount in the given currency, converted exactly to minor units
     @NotNull(message = "Amount is required")
     @Positive(message = "Amount must be positive")
-    private Double amount;
+    private BigDecimal amount;
     
     @NotNull(message = "Currency is required")
     private String currency;
     
     private String bookingId;
     
+    // Pays for all bookings of a cart at once (instead of bookingId)
+    private String cartId;
+    
     private String description;
     
     private Map<String, String> metadata;
@@ -1,5 +1,6 @@
 package com.hotelbooker.payment.dto;
 
+import com.hotelbooker.common.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,7 +18,7 @@ public class PaymentIntentResponse {
     
     private String publishableKey;
     
-    private Double amount;
+    private Money amount;
     
     private String currency;
     
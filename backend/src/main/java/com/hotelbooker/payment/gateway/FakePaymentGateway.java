@@ -0,0 +1,78 @@
+package com.hotelbooker.payment.gateway;
+
+import com.stripe.Stripe;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for Stripe used by the load-test profile.
+ * Intents are kept in memory and move to "succeeded" once the matching
+ * webhook payload (see {@link #webhookPayload}) is delivered.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "fake")
+@Slf4j
+public class FakePaymentGateway implements PaymentGateway {
+    
+    private final Map<String, GatewayPaymentIntent> intents = new ConcurrentHashMap<>();
+    
+    public FakePaymentGateway() {
+        log.warn("Using FakePaymentGateway - no real payments will be processed");
+    }
+    
+    @Override
+    public String name() {
+        return "fake";
+    }
+    
+    @Override
+    public GatewayPaymentIntent createPaymentIntent(
+            long amountInMinorUnits,
+            String currency,
+            String description,
+            Map<String, String> metadata
+    ) {
+        String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+        GatewayPaymentIntent intent = GatewayPaymentIntent.builder()
+                .id(id)
+                .clientSecret(id + "_secret_fake")
+                .status("requires_payment_method")
+                .amount(amountInMinorUnits)
+                .currency(currency.toLowerCase())
+                .build();
+        intents.put(id, intent);
+        return intent;
+    }
+    
+    @Override
+    public GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId) {
+        GatewayPaymentIntent intent = intents.get(paymentIntentId);
+        if (intent == null) {
+            throw new PaymentGatewayException("No such payment_intent: " + paymentIntentId, null);
+        }
+        return intent;
+    }
+    
+    /**
+     * Mark an intent as settled and return the webhook body Stripe would send for it
+     */
+    public String webhookPayload(String paymentIntentId, String eventType) {
+        GatewayPaymentIntent intent = retrievePaymentIntent(paymentIntentId);
+        intent.setStatus(eventType.substring("payment_intent.".length()));
+        return "{\"id\":\"evt_fake_" + UUID.randomUUID().toString().replace("-", "") + "\","
+                + "\"object\":\"event\","
+                + "\"api_version\":\"" + Stripe.API_VERSION + "\","
+                + "\"type\":\"" + eventType + "\","
+                + "\"data\":{\"object\":{"
+                + "\"id\":\"" + intent.getId() + "\","
+                + "\"object\":\"payment_intent\","
+                + "\"amount\":" + intent.getAmount() + ","
+                + "\"currency\":\"" + intent.getCurrency() + "\","
+                + "\"status\":\"" + intent.getStatus() + "\"}}}";
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotelbooker.payment.gateway;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayPaymentIntent {
+    private String id;
+    private String clientSecret;
+    private String status;  // Stripe status names: succeeded, processing, requires_payment_method, ...
+    private Long amount;
+    private String currency;
+}
@@ -0,0 +1,30 @@
+package com.hotelbooker.payment.gateway;
+
+import java.util.Map;
+
+/**
+ * Abstraction over the external payment provider so the payment flow can run
+ * against Stripe in production and against a local fake in load tests.
+ */
+public interface PaymentGateway {
+    
+    /**
+     * Short provider name used as a metrics tag
+     */
+    String name();
+    
+    /**
+     * Create a payment intent for the given amount in the smallest currency unit
+     */
+    GatewayPaymentIntent createPaymentIntent(
+            long amountInMinorUnits,
+            String currency,
+            String description,
+            Map<String, String> metadata
+    );
+    
+    /**
+     * Retrieve the current state of a payment intent
+     */
+    GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId);
+}
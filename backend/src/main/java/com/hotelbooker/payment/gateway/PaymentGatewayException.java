@@ -0,0 +1,7 @@
+package com.hotelbooker.payment.gateway;
+
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
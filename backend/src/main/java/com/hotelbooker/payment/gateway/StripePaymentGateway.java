@@ -0,0 +1,68 @@
+package com.hotelbooker.payment.gateway;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.param.PaymentIntentCreateParams;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stripe", matchIfMissing = true)
+@Slf4j
+public class StripePaymentGateway implements PaymentGateway {
+    
+    @Override
+    public String name() {
+        return "stripe";
+    }
+    
+    @Override
+    public GatewayPaymentIntent createPaymentIntent(
+            long amountInMinorUnits,
+            String currency,
+            String description,
+            Map<String, String> metadata
+    ) {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amountInMinorUnits)
+                .setCurrency(currency.toLowerCase())
+                .setDescription(description)
+                .putAllMetadata(metadata)
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                .setEnabled(true)
+                                .build()
+                )
+                .build();
+        
+        try {
+            return toGatewayIntent(PaymentIntent.create(params));
+        } catch (StripeException e) {
+            log.error("Stripe rejected payment intent creation: {}", e.getMessage());
+            throw new PaymentGatewayException(e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId) {
+        try {
+            return toGatewayIntent(PaymentIntent.retrieve(paymentIntentId));
+        } catch (StripeException e) {
+            log.error("Stripe failed to retrieve payment intent {}: {}", paymentIntentId, e.getMessage());
+            throw new PaymentGatewayException(e.getMessage(), e);
+        }
+    }
+    
+    private GatewayPaymentIntent toGatewayIntent(PaymentIntent paymentIntent) {
+        return GatewayPaymentIntent.builder()
+                .id(paymentIntent.getId())
+                .clientSecret(paymentIntent.getClientSecret())
+                .status(paymentIntent.getStatus())
+                .amount(paymentIntent.getAmount())
+                .currency(paymentIntent.getCurrency())
+                .build();
+    }
+}
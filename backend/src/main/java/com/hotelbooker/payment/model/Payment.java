@@ -1,5 +1,6 @@
 package com.hotelbooker.payment.model;
 
+import com.hotelbooker.common.money.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,14 +24,17 @@ public class Payment {
     @Column(name = "booking_id", nullable = true)
     private String bookingId;
     
+    @Column(name = "cart_id")
+    private String cartId;
+    
     @Column(name = "user_id", nullable = false)
     private String userId;
     
     @Column(name = "stripe_payment_intent_id", unique = true)
     private String stripePaymentIntentId;
     
-    @Column(name = "amount", nullable = false)
-    private Double amount;
+    @Column(name = "amount", nullable = false, precision = 19, scale = 4)
+    private Money amount;
     
     @Column(name = "currency", nullable = false)
     private String currency;
@@ -51,6 +55,13 @@ public class Payment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * The amount in this payment's own currency (the column holds only the decimal)
+     */
+    public Money getAmount() {
+        return amount != null && currency != null ? amount.withCurrency(currency) : amount;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
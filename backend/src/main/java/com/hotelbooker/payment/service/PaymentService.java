@@ -1,13 +1,18 @@
 package com.hotelbooker.payment.service;
 
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.common.money.Money;
 import com.hotelbooker.payment.config.StripeConfig;
 import com.hotelbooker.payment.dto.PaymentIntentRequest;
 import com.hotelbooker.payment.dto.PaymentIntentResponse;
+import com.hotelbooker.payment.gateway.GatewayPaymentIntent;
+import com.hotelbooker.payment.gateway.PaymentGateway;
+import com.hotelbooker.payment.gateway.PaymentGatewayException;
 import com.hotelbooker.payment.model.Payment;
 import com.hotelbooker.payment.repository.PaymentRepository;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,6 +22,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -24,15 +30,24 @@ import java.util.Optional;
 public class PaymentService {
     
     private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
     private final StripeConfig stripeConfig;
+    private final PaymentGateway paymentGateway;
+    private final MeterRegistry meterRegistry;
     
     @Transactional
     public PaymentIntentResponse createPaymentIntent(PaymentIntentRequest request, String userId) {
         try {
             log.info("Creating payment intent for amount: {} {}", request.getAmount(), request.getCurrency());
             
-            // Convert amount to cents (Stripe uses smallest currency unit)
-            Long amountInCents = (long) (request.getAmount() * 100);
+            // Exact conversion to the smallest currency unit (what Stripe charges in)
+            Money amount = Money.of(request.getAmount(), request.getCurrency());
+            if (request.getBookingId() != null) {
+                requireBookingTotal(request.getBookingId(), userId, amount);
+            }
+            if (request.getCartId() != null) {
+                requireCartTotal(request.getCartId(), userId, amount);
+            }
             
             // Build metadata
             Map<String, String> metadata = new HashMap<>();
@@ -43,29 +58,27 @@ public class PaymentService {
             if (request.getBookingId() != null) {
                 metadata.put("bookingId", request.getBookingId());
             }
+            if (request.getCartId() != null) {
+                metadata.put("cartId", request.getCartId());
+            }
             
-            // Create Stripe PaymentIntent
-            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                    .setAmount(amountInCents)
-                    .setCurrency(request.getCurrency().toLowerCase())
-                    .setDescription(request.getDescription() != null ? 
-                            request.getDescription() : "Hotel Booking Payment")
-                    .putAllMetadata(metadata)
-                    .setAutomaticPaymentMethods(
-                            PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                    .setEnabled(true)
-                                    .build()
-                    )
-                    .build();
-            
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
+            // Create PaymentIntent with the configured gateway
+            GatewayPaymentIntent paymentIntent = timeGatewayCall("create_intent", () ->
+                    paymentGateway.createPaymentIntent(
+                            amount.minorUnits(),
+                            request.getCurrency(),
+                            request.getDescription() != null ?
+                                    request.getDescription() : "Hotel Booking Payment",
+                            metadata
+                    ));
             
             // Save payment record
             Payment payment = Payment.builder()
                     .bookingId(request.getBookingId())
+                    .cartId(request.getCartId())
                     .userId(userId)
                     .stripePaymentIntentId(paymentIntent.getId())
-                    .amount(request.getAmount())
+                    .amount(amount)
                     .currency(request.getCurrency())
                     .status(Payment.PaymentStatus.PENDING)
                     .build();
@@ -78,17 +91,64 @@ public class PaymentService {
                     .paymentIntentId(paymentIntent.getId())
                     .clientSecret(paymentIntent.getClientSecret())
                     .publishableKey(stripeConfig.getPublishableKey())
-                    .amount(request.getAmount())
+                    .amount(amount)
                     .currency(request.getCurrency())
                     .status(paymentIntent.getStatus())
                     .build();
                     
-        } catch (StripeException e) {
+        } catch (PaymentGatewayException e) {
             log.error("Error creating payment intent: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to create payment intent: " + e.getMessage());
         }
     }
     
+    /**
+     * A payment for a booking must be made by its guest and charge exactly the booking's quoted
+     * total, in the booking's currency
+     */
+    private void requireBookingTotal(String bookingId, String userId, Money amount) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
+        requireOwner(booking, userId);
+        Money total = booking.getTotalPrice();
+        if (!total.currency().equals(amount.currency())) {
+            throw new IllegalArgumentException("Currency " + amount.currency() + " does not match booking currency " + total.currency());
+        }
+        if (!total.equals(amount)) {
+            throw new IllegalArgumentException("Amount " + amount + " does not match booking total " + total);
+        }
+    }
+    
+    /**
+     * A payment for a cart must be made by its guest and charge exactly the sum of its bookings' totals,
+     * in their currency
+     */
+    private void requireCartTotal(String cartId, String userId, Money amount) {
+        List<Booking> bookings = bookingRepository.findByCartId(cartId);
+        if (bookings.isEmpty()) {
+            throw new IllegalArgumentException("Cart not found: " + cartId);
+        }
+        Money total = Money.zero(amount.currency());
+        for (Booking booking : bookings) {
+            requireOwner(booking, userId);
+            String currency = booking.getTotalPrice().currency();
+            if (!currency.equals(amount.currency())) {
+                throw new IllegalArgumentException("Currency " + amount.currency() + " does not match cart currency " + currency);
+            }
+            total = total.plus(booking.getTotalPrice());
+        }
+        if (!total.equals(amount)) {
+            throw new IllegalArgumentException("Amount " + amount + " does not match cart total " + total);
+        }
+    }
+    
+    // Payments identify the user by the authenticated name, which is the account's email
+    private static void requireOwner(Booking booking, String userId) {
+        if (booking.getUser() == null || !booking.getUser().getEmail().equals(userId)) {
+            throw new IllegalArgumentException("Unauthorized access to booking " + booking.getId());
+        }
+    }
+    
     @Transactional
     public Payment updatePaymentStatus(String paymentIntentId, Payment.PaymentStatus status, String failureReason) {
         Optional<Payment> paymentOpt = paymentRepository.findByStripePaymentIntentId(paymentIntentId);
@@ -118,10 +178,10 @@ public class PaymentService {
         return paymentRepository.findByUserId(userId);
     }
     
-    public PaymentIntent retrievePaymentIntent(String paymentIntentId) {
+    public GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId) {
         try {
-            return PaymentIntent.retrieve(paymentIntentId);
-        } catch (StripeException e) {
+            return timeGatewayCall("retrieve_intent", () -> paymentGateway.retrievePaymentIntent(paymentIntentId));
+        } catch (PaymentGatewayException e) {
             log.error("Error retrieving payment intent: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to retrieve payment intent: " + e.getMessage());
         }
@@ -130,7 +190,8 @@ public class PaymentService {
     @Transactional
     public Payment confirmPayment(String paymentIntentId) {
         try {
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            GatewayPaymentIntent paymentIntent = timeGatewayCall("retrieve_intent", () ->
+                    paymentGateway.retrievePaymentIntent(paymentIntentId));
             
             Payment.PaymentStatus status;
             switch (paymentIntent.getStatus()) {
@@ -154,10 +215,28 @@ public class PaymentService {
             
             return updatePaymentStatus(paymentIntentId, status, null);
             
-        } catch (StripeException e) {
+        } catch (PaymentGatewayException e) {
             log.error("Error confirming payment: {}", e.getMessage(), e);
             updatePaymentStatus(paymentIntentId, Payment.PaymentStatus.FAILED, e.getMessage());
             throw new RuntimeException("Failed to confirm payment: " + e.getMessage());
         }
     }
+    
+    private <T> T timeGatewayCall(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("payment.gateway.requests")
+                    .description("Latency of calls to the external payment provider")
+                    .tag("gateway", paymentGateway.name())
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.hotelbooker.pricing.controller;
+
+import com.hotelbooker.common.dto.ApiResponse;
+import com.hotelbooker.pricing.dto.PricingRuleDto;
+import com.hotelbooker.pricing.service.PricingRuleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/pricing-rules")
+@RequiredArgsConstructor
+public class PricingRuleController {
+    
+    private final PricingRuleService pricingRuleService;
+    
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<PricingRuleDto>>> getRules(
+            @RequestParam(required = false) String hotelId
+    ) {
+        List<PricingRuleDto> rules = pricingRuleService.getRules(hotelId);
+        return ResponseEntity.ok(ApiResponse.success(rules));
+    }
+    
+    @GetMapping("/{ruleId}")
+    public ResponseEntity<ApiResponse<PricingRuleDto>> getRule(
+            @PathVariable String ruleId
+    ) {
+        PricingRuleDto rule = pricingRuleService.getRule(ruleId);
+        return ResponseEntity.ok(ApiResponse.success(rule));
+    }
+    
+    @PostMapping
+    public ResponseEntity<ApiResponse<PricingRuleDto>> createRule(
+            @RequestBody PricingRuleDto ruleDto
+    ) {
+        PricingRuleDto createdRule = pricingRuleService.createRule(ruleDto);
+        return ResponseEntity.ok(ApiResponse.success(createdRule));
+    }
+    
+    @PutMapping("/{ruleId}")
+    public ResponseEntity<ApiResponse<PricingRuleDto>> updateRule(
+            @PathVariable String ruleId,
+            @RequestBody PricingRuleDto ruleDto
+    ) {
+        PricingRuleDto updatedRule = pricingRuleService.updateRule(ruleId, ruleDto);
+        return ResponseEntity.ok(ApiResponse.success(updatedRule));
+    }
+    
+    @DeleteMapping("/{ruleId}")
+    public ResponseEntity<ApiResponse<Void>> deleteRule(
+            @PathVariable String ruleId
+    ) {
+        pricingRuleService.deleteRule(ruleId);
+        return ResponseEntity.ok(ApiResponse.success(null));
+    }
+}
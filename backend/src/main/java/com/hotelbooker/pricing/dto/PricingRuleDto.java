@@ -0,0 +1,38 @@
+package com.hotelbooker.pricing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingRuleDto {
+    private String id;
+    private String hotelId;  // null for rules shared by all hotels
+    private String name;
+    private String description;
+    private String ruleType;
+    private String adjustmentType;
+    private Double adjustmentValue;
+    private String roomType;
+    private List<DayOfWeek> daysOfWeek;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Double minOccupancy;
+    private Double maxOccupancy;
+    private Integer minNights;
+    private Integer maxNights;
+    private Integer minLeadDays;
+    private Integer maxLeadDays;
+    private Integer minGuests;
+    private Integer minRooms;
+    private Integer priority;
+    private Boolean active;
+}
@@ -0,0 +1,9 @@
+package com.hotelbooker.pricing.engine;
+
+import com.hotelbooker.common.money.Money;
+
+/**
+ * Price of a stay for all booked rooms
+ */
+public record PriceQuote(Money total, Money averageNightly, int nights) {
+}
@@ -0,0 +1,258 @@
+package com.hotelbooker.pricing.engine;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.pricing.entity.PricingRule;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The active pricing rules of one hotel compiled into parallel primitive
+ * columns, ordered by priority. Missing conditions are widened to bounds that
+ * always match, so pricing a night is a branch-only scan over the columns that
+ * allocates nothing.
+ * <p>
+ * Rules run in two phases. Night rules (any day, date or occupancy condition,
+ * or no condition at all) price each night of one room, never below zero. Stay
+ * rules (only length of stay, lead time, guest or room conditions) then adjust
+ * the sum of those nights, so nightly rates can be precomputed per room type and
+ * summed with prefix sums. Percentages compound in priority order and fixed
+ * amounts are per room and night.
+ * <p>
+ * All arithmetic is on minor units: percentages are kept as basis points of
+ * the multiplier and every step rounds half-up to a whole minor unit, so a
+ * quote is bit-exact however it is computed.
+ */
+public final class PricingDecisionTable {
+    
+    public static final PricingDecisionTable EMPTY = compile(List.of(), Double.NaN);
+    
+    private static final int ALL_DAYS = 0x7F;
+    
+    private final int size;
+    private final String[] roomTypes;
+    private final int[] dayMasks;
+    private final long[] fromDays;
+    private final long[] toDays;
+    private final double[] minOccupancy;
+    private final double[] maxOccupancy;
+    private final boolean[] needsOccupancy;
+    private final int[] minNights;
+    private final int[] maxNights;
+    private final int[] minLeadDays;
+    private final int[] maxLeadDays;
+    private final int[] minGuests;
+    private final int[] minRooms;
+    private final boolean[] percentage;
+    // Multiplier in basis points for percentages, minor units for fixed amounts
+    private final long[] adjustments;
+    private final boolean[] stayPhase;
+    
+    // Whether some night rule also has stay conditions, which rules out precomputed nightly rates
+    private final boolean nightRulesUseStay;
+    private final boolean nightRulesUseOccupancy;
+    
+    // Hotel occupancy in percent, NaN when unknown (occupancy rules never match)
+    private final double occupancy;
+    
+    private PricingDecisionTable(int size, double occupancy, boolean nightRulesUseStay, boolean nightRulesUseOccupancy) {
+        this.size = size;
+        this.nightRulesUseStay = nightRulesUseStay;
+        this.nightRulesUseOccupancy = nightRulesUseOccupancy;
+        this.occupancy = occupancy;
+        this.roomTypes = new String[size];
+        this.dayMasks = new int[size];
+        this.fromDays = new long[size];
+        this.toDays = new long[size];
+        this.minOccupancy = new double[size];
+        this.maxOccupancy = new double[size];
+        this.needsOccupancy = new boolean[size];
+        this.minNights = new int[size];
+        this.maxNights = new int[size];
+        this.minLeadDays = new int[size];
+        this.maxLeadDays = new int[size];
+        this.minGuests = new int[size];
+        this.minRooms = new int[size];
+        this.percentage = new boolean[size];
+        this.adjustments = new long[size];
+        this.stayPhase = new boolean[size];
+    }
+    
+    private PricingDecisionTable(PricingDecisionTable rules, double occupancy) {
+        this.size = rules.size;
+        this.nightRulesUseStay = rules.nightRulesUseStay;
+        this.nightRulesUseOccupancy = rules.nightRulesUseOccupancy;
+        this.occupancy = occupancy;
+        this.roomTypes = rules.roomTypes;
+        this.dayMasks = rules.dayMasks;
+        this.fromDays = rules.fromDays;
+        this.toDays = rules.toDays;
+        this.minOccupancy = rules.minOccupancy;
+        this.maxOccupancy = rules.maxOccupancy;
+        this.needsOccupancy = rules.needsOccupancy;
+        this.minNights = rules.minNights;
+        this.maxNights = rules.maxNights;
+        this.minLeadDays = rules.minLeadDays;
+        this.maxLeadDays = rules.maxLeadDays;
+        this.minGuests = rules.minGuests;
+        this.minRooms = rules.minRooms;
+        this.percentage = rules.percentage;
+        this.adjustments = rules.adjustments;
+        this.stayPhase = rules.stayPhase;
+    }
+    
+    public static PricingDecisionTable compile(List<PricingRule> rules, double occupancy) {
+        List<PricingRule> ordered = rules.stream()
+                .filter(PricingRule::isActive)
+                .sorted(Comparator.comparing((PricingRule r) -> r.getPriority() != null ? r.getPriority() : 0)
+                        .thenComparing(r -> r.getId() != null ? r.getId() : ""))
+                .toList();
+        
+        boolean nightRulesUseStay = ordered.stream().anyMatch(r -> hasNightConditions(r) && hasStayConditions(r));
+        boolean nightRulesUseOccupancy = ordered.stream().anyMatch(r -> r.getMinOccupancy() != null || r.getMaxOccupancy() != null);
+        PricingDecisionTable table = new PricingDecisionTable(ordered.size(), occupancy, nightRulesUseStay, nightRulesUseOccupancy);
+        for (int i = 0; i < ordered.size(); i++) {
+            PricingRule rule = ordered.get(i);
+            table.stayPhase[i] = hasStayConditions(rule) && !hasNightConditions(rule);
+            table.roomTypes[i] = rule.getRoomType() != null && !rule.getRoomType().isBlank() ? rule.getRoomType() : null;
+            table.dayMasks[i] = rule.getDaysOfWeek() != null ? rule.getDaysOfWeek() & ALL_DAYS : ALL_DAYS;
+            table.fromDays[i] = rule.getStartDate() != null ? rule.getStartDate().toEpochDay() : Long.MIN_VALUE;
+            table.toDays[i] = rule.getEndDate() != null ? rule.getEndDate().toEpochDay() : Long.MAX_VALUE;
+            table.needsOccupancy[i] = rule.getMinOccupancy() != null || rule.getMaxOccupancy() != null;
+            table.minOccupancy[i] = rule.getMinOccupancy() != null ? rule.getMinOccupancy() : Double.NEGATIVE_INFINITY;
+            table.maxOccupancy[i] = rule.getMaxOccupancy() != null ? rule.getMaxOccupancy() : Double.POSITIVE_INFINITY;
+            table.minNights[i] = rule.getMinNights() != null ? rule.getMinNights() : Integer.MIN_VALUE;
+            table.maxNights[i] = rule.getMaxNights() != null ? rule.getMaxNights() : Integer.MAX_VALUE;
+            table.minLeadDays[i] = rule.getMinLeadDays() != null ? rule.getMinLeadDays() : Integer.MIN_VALUE;
+            table.maxLeadDays[i] = rule.getMaxLeadDays() != null ? rule.getMaxLeadDays() : Integer.MAX_VALUE;
+            table.minGuests[i] = rule.getMinGuests() != null ? rule.getMinGuests() : Integer.MIN_VALUE;
+            table.minRooms[i] = rule.getMinRooms() != null ? rule.getMinRooms() : Integer.MIN_VALUE;
+            table.percentage[i] = rule.getAdjustmentType() == PricingRule.AdjustmentType.PERCENTAGE;
+            table.adjustments[i] = table.percentage[i]
+                    ? 10_000L + Math.round(rule.getAdjustmentValue() * 100.0)
+                    : Money.of(rule.getAdjustmentValue()).minorUnits();
+        }
+        return table;
+    }
+    
+    private static boolean hasNightConditions(PricingRule rule) {
+        return rule.getDaysOfWeek() != null || rule.getStartDate() != null || rule.getEndDate() != null
+                || rule.getMinOccupancy() != null || rule.getMaxOccupancy() != null;
+    }
+    
+    private static boolean hasStayConditions(PricingRule rule) {
+        return rule.getMinNights() != null || rule.getMaxNights() != null
+                || rule.getMinLeadDays() != null || rule.getMaxLeadDays() != null
+                || rule.getMinGuests() != null || rule.getMinRooms() != null;
+    }
+    
+    /**
+     * The same rules evaluated against a new occupancy; the columns are shared
+     */
+    public PricingDecisionTable withOccupancy(double occupancy) {
+        return new PricingDecisionTable(this, occupancy);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public double occupancy() {
+        return occupancy;
+    }
+    
+    /**
+     * Whether nightly rates depend on the stay only through the room type, so
+     * they can be precomputed ahead of any request
+     */
+    public boolean supportsPrecomputedRates() {
+        return !nightRulesUseStay;
+    }
+    
+    /**
+     * Identifies everything the nightly rates depend on: the night rules and,
+     * when one of them looks at it, the occupancy
+     */
+    public long nightRatesFingerprint() {
+        long hash = 17;
+        for (int i = 0; i < size; i++) {
+            if (stayPhase[i]) {
+                continue;
+            }
+            hash = 31 * hash + (roomTypes[i] != null ? roomTypes[i].toLowerCase(Locale.ROOT).hashCode() : 0);
+            hash = 31 * hash + dayMasks[i];
+            hash = 31 * hash + fromDays[i];
+            hash = 31 * hash + toDays[i];
+            hash = 31 * hash + Double.doubleToLongBits(minOccupancy[i]);
+            hash = 31 * hash + Double.doubleToLongBits(maxOccupancy[i]);
+            hash = 31 * hash + (percentage[i] ? 1 : 0);
+            hash = 31 * hash + adjustments[i];
+        }
+        return nightRulesUseOccupancy ? 31 * hash + Double.doubleToLongBits(occupancy) : hash;
+    }
+    
+    public PriceQuote quote(Money basePrice, StayRequest stay) {
+        long firstNight = stay.checkIn().toEpochDay();
+        long perRoom = 0;
+        for (int n = 0; n < stay.nights(); n++) {
+            perRoom += nightlyMinorUnits(basePrice.minorUnits(), stay.roomType(), stay, firstNight + n);
+        }
+        return quoteFromNights(perRoom, basePrice.currency(), stay);
+    }
+    
+    /**
+     * Finish a quote from the summed nightly rates of one room
+     */
+    public PriceQuote quoteFromNights(long perRoomMinorUnits, String currency, StayRequest stay) {
+        long perRoom = perRoomMinorUnits;
+        for (int i = 0; i < size; i++) {
+            if (stayPhase[i] && matchesStay(i, stay) && matchesRoomType(i, stay.roomType())) {
+                perRoom = percentage[i]
+                        ? Money.applyBasisPoints(perRoom, adjustments[i])
+                        : perRoom + adjustments[i] * stay.nights();
+            }
+        }
+        long total = Math.max(perRoom, 0L) * stay.rooms();
+        return new PriceQuote(
+                Money.ofMinor(total, currency),
+                Money.ofMinor(Money.divideHalfUp(total, stay.nights()), currency),
+                stay.nights());
+    }
+    
+    /**
+     * Night-rule price of one room for the night starting on the given epoch day.
+     * Pass a null stay only when {@link #supportsPrecomputedRates()}.
+     */
+    public long nightlyMinorUnits(long basePrice, String roomType, StayRequest stay, long epochDay) {
+        // 1970-01-01 was a Thursday (ordinal 3)
+        int dayBit = 1 << (int) Math.floorMod(epochDay + 3, 7L);
+        long rate = basePrice;
+        for (int i = 0; i < size; i++) {
+            if (stayPhase[i]
+                    || (dayMasks[i] & dayBit) == 0
+                    || epochDay < fromDays[i] || epochDay > toDays[i]
+                    || (stay != null && !matchesStay(i, stay))) {
+                continue;
+            }
+            if (needsOccupancy[i] && !(occupancy >= minOccupancy[i] && occupancy <= maxOccupancy[i])) {
+                continue;
+            }
+            if (!matchesRoomType(i, roomType)) {
+                continue;
+            }
+            rate = percentage[i] ? Money.applyBasisPoints(rate, adjustments[i]) : rate + adjustments[i];
+        }
+        return Math.max(rate, 0L);
+    }
+    
+    private boolean matchesStay(int i, StayRequest stay) {
+        return stay.nights() >= minNights[i] && stay.nights() <= maxNights[i]
+                && stay.leadDays() >= minLeadDays[i] && stay.leadDays() <= maxLeadDays[i]
+                && stay.guests() >= minGuests[i] && stay.rooms() >= minRooms[i];
+    }
+    
+    private boolean matchesRoomType(int i, String roomType) {
+        return roomTypes[i] == null || roomTypes[i].equalsIgnoreCase(roomType);
+    }
+}
@@ -0,0 +1,136 @@
+package com.hotelbooker.pricing.engine;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.HotelInventory;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.pricing.entity.PricingRule;
+import com.hotelbooker.pricing.event.PricingRulesChangedEvent;
+import com.hotelbooker.pricing.repository.PricingRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Prices stays for search results and bookings from per-hotel decision tables.
+ * Tables are compiled on startup and recompiled when a hotel's rules change;
+ * inventory changes only swap in the new occupancy. Hotels without a table of
+ * their own are priced with the shared rules alone.
+ * <p>
+ * Listeners run before other catalog listeners so the search cache is never
+ * refilled with prices from a stale table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PricingEngine {
+    
+    private final PricingRuleRepository ruleRepository;
+    private final RoomRepository roomRepository;
+    
+    private final Map<String, PricingDecisionTable> tables = new ConcurrentHashMap<>();
+    private volatile PricingDecisionTable sharedTable = PricingDecisionTable.EMPTY;
+    
+    public PriceQuote quote(String hotelId, Money basePrice, StayRequest stay) {
+        return table(hotelId).quote(basePrice, stay);
+    }
+    
+    /**
+     * The hotel's current table, or the shared rules for hotels without one
+     */
+    public PricingDecisionTable table(String hotelId) {
+        PricingDecisionTable table = hotelId != null ? tables.get(hotelId) : null;
+        return table != null ? table : sharedTable;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuildAll() {
+        List<PricingRule> rules = ruleRepository.findByActiveTrue();
+        Map<String, Double> occupancy = roomRepository.sumInventoryByHotel()
+                .stream()
+                .collect(Collectors.toMap(HotelInventory::hotelId, HotelInventory::occupancyPercent));
+        
+        List<PricingRule> shared = new ArrayList<>();
+        Map<String, List<PricingRule>> byHotel = new HashMap<>();
+        for (PricingRule rule : rules) {
+            if (rule.getHotel() == null) {
+                shared.add(rule);
+            } else {
+                byHotel.computeIfAbsent(rule.getHotel().getId(), id -> new ArrayList<>()).add(rule);
+            }
+        }
+        
+        PricingDecisionTable sharedRules = PricingDecisionTable.compile(shared, Double.NaN);
+        Set<String> hotelIds = new HashSet<>(occupancy.keySet());
+        hotelIds.addAll(byHotel.keySet());
+        
+        Map<String, PricingDecisionTable> compiled = hotelIds.stream().collect(Collectors.toMap(
+                Function.identity(),
+                id -> {
+                    double hotelOccupancy = occupancy.getOrDefault(id, Double.NaN);
+                    List<PricingRule> own = byHotel.get(id);
+                    if (own == null) {
+                        return sharedRules.withOccupancy(hotelOccupancy);
+                    }
+                    List<PricingRule> all = new ArrayList<>(shared);
+                    all.addAll(own);
+                    return PricingDecisionTable.compile(all, hotelOccupancy);
+                }));
+        
+        sharedTable = sharedRules;
+        tables.keySet().retainAll(compiled.keySet());
+        tables.putAll(compiled);
+        log.info("Compiled pricing tables for {} hotels ({} active rules)", compiled.size(), rules.size());
+    }
+    
+    /**
+     * Recompile one hotel from its rules, the shared rules and its current occupancy
+     */
+    public void recompile(String hotelId) {
+        List<PricingRule> rules = ruleRepository.findActiveForHotel(hotelId);
+        double occupancy = roomRepository.sumInventory(hotelId)
+                .map(HotelInventory::occupancyPercent)
+                .orElse(Double.NaN);
+        tables.put(hotelId, PricingDecisionTable.compile(rules, occupancy));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        Optional<HotelInventory> inventory = roomRepository.sumInventory(event.hotelId());
+        if (inventory.isEmpty()) {
+            // Deleted hotel or no rooms left: shared rules only
+            tables.computeIfPresent(event.hotelId(), (id, table) -> table.withOccupancy(Double.NaN));
+            return;
+        }
+        double occupancy = inventory.get().occupancyPercent();
+        tables.compute(event.hotelId(), (id, table) -> (table != null ? table : sharedTable).withOccupancy(occupancy));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPricingRulesChanged(PricingRulesChangedEvent event) {
+        if (event.hotelId() == null) {
+            rebuildAll();
+        } else {
+            recompile(event.hotelId());
+        }
+    }
+}
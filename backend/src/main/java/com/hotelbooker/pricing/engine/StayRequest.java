@@ -0,0 +1,31 @@
+package com.hotelbooker.pricing.engine;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The stay being priced. Lead time is counted from {@code today}; a missing or
+ * inverted date range is priced as a single night from check-in (or today).
+ */
+public record StayRequest(
+        String roomType,
+        LocalDate checkIn,
+        int nights,
+        int rooms,
+        int guests,
+        int leadDays
+) {
+    
+    public static StayRequest of(String roomType, LocalDate checkIn, LocalDate checkOut,
+                                 Integer rooms, Integer guests, LocalDate today) {
+        LocalDate start = checkIn != null ? checkIn : today;
+        long nights = checkOut != null ? ChronoUnit.DAYS.between(start, checkOut) : 1;
+        return new StayRequest(
+                roomType,
+                start,
+                (int) Math.max(nights, 1),
+                rooms != null ? rooms : 1,
+                guests != null ? guests : 2,
+                (int) Math.max(ChronoUnit.DAYS.between(today, start), 0));
+    }
+}
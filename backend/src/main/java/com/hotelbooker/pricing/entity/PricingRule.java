@@ -0,0 +1,93 @@
+package com.hotelbooker.pricing.entity;
+
+import com.hotelbooker.common.entity.BaseEntity;
+import com.hotelbooker.hotel.entity.Hotel;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * A price adjustment applied to every night of a stay that matches all of the
+ * rule's conditions. Conditions left null always match; rules without a hotel
+ * apply to every hotel.
+ */
+@Entity
+@Table(name = "pricing_rules", indexes = @Index(name = "idx_pricing_rules_hotel", columnList = "hotel_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricingRule extends BaseEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hotel_id")
+    private Hotel hotel;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(length = 1000)
+    private String description;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RuleType ruleType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AdjustmentType adjustmentType;
+    
+    // Percent for PERCENTAGE (-15 = 15% off), amount per room per night for FIXED
+    @Column(nullable = false)
+    private Double adjustmentValue;
+    
+    // Room type the rule is limited to, null for all room types
+    private String roomType;
+    
+    // Bit (1 << DayOfWeek.ordinal()) per night of the week, null for every day
+    private Integer daysOfWeek;
+    
+    // Season or event window, both inclusive
+    private LocalDate startDate;
+    private LocalDate endDate;
+    
+    // Hotel occupancy in percent, both inclusive
+    private Double minOccupancy;
+    private Double maxOccupancy;
+    
+    private Integer minNights;
+    private Integer maxNights;
+    
+    // Days between booking and check-in
+    private Integer minLeadDays;
+    private Integer maxLeadDays;
+    
+    private Integer minGuests;
+    private Integer minRooms;
+    
+    // Lower priorities are applied first
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer priority = 100;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean active = true;
+    
+    public enum RuleType {
+        DAY_OF_WEEK,
+        SEASON,
+        SPECIAL_EVENT,
+        OCCUPANCY,
+        LENGTH_OF_STAY,
+        LEAD_TIME,
+        PARTY_SIZE
+    }
+    
+    public enum AdjustmentType {
+        PERCENTAGE,
+        FIXED
+    }
+}
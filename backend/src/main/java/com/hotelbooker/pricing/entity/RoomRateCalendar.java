@@ -0,0 +1,49 @@
+package com.hotelbooker.pricing.entity;
+
+import com.hotelbooker.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted nightly rates of one room type: one int of minor units per night from
+ * startDate, plus the inputs they were computed from so a restart can reuse
+ * them. See {@link com.hotelbooker.pricing.rates.RateCalendarStore}.
+ */
+@Entity
+@Table(name = "room_rate_calendars", indexes = @Index(name = "idx_room_rate_calendars_hotel", columnList = "hotel_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomRateCalendar {
+    
+    @Id
+    @Column(name = "room_id")
+    private String roomId;
+    
+    @Column(name = "hotel_id", nullable = false)
+    private String hotelId;
+    
+    @Column(nullable = false)
+    private String roomType;
+    
+    @Column(nullable = false)
+    private LocalDate startDate;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money basePrice;
+    
+    // PricingDecisionTable.nightRatesFingerprint() of the rules the rates came from
+    @Column(nullable = false)
+    private Long fingerprint;
+    
+    @Column(nullable = false, length = 8192)
+    private byte[] rates;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
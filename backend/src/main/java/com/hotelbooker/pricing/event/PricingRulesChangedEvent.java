@@ -0,0 +1,8 @@
+package com.hotelbooker.pricing.event;
+
+/**
+ * Published when pricing rules change; a null hotelId means the shared rules
+ * changed and every hotel's prices are affected.
+ */
+public record PricingRulesChangedEvent(String hotelId) {
+}
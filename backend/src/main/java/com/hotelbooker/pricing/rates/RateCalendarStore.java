@@ -0,0 +1,274 @@
+package com.hotelbooker.pricing.rates;
+
+import com.hotelbooker.common.metrics.CacheMetrics;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.event.HotelCatalogChangedEvent;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.pricing.engine.PriceQuote;
+import com.hotelbooker.pricing.engine.PricingDecisionTable;
+import com.hotelbooker.pricing.engine.PricingEngine;
+import com.hotelbooker.pricing.engine.StayRequest;
+import com.hotelbooker.pricing.entity.RoomRateCalendar;
+import com.hotelbooker.pricing.event.PricingRulesChangedEvent;
+import com.hotelbooker.pricing.repository.RoomRateCalendarRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed nightly rates per room type for the next {@code pricing.rate-calendar.days}
+ * nights, so a stay is priced from two prefix sums instead of a rule scan per
+ * night. Calendars are recomputed when a room's base price or its hotel's night
+ * rules change (reusing nights computed from the same inputs), rolled forward
+ * daily and written behind to room_rate_calendars.
+ * <p>
+ * A calendar is only used when it was computed from the hotel's current table and
+ * the room's current base price; anything else is priced by the engine directly.
+ * <p>
+ * Each refresh takes a stamp before it reads rooms and tables, so a later stamp has
+ * seen every change an earlier one saw. Calendars are swapped in per room with
+ * {@code compute}, and a refresh never replaces a calendar from a later one.
+ */
+@Component
+@Slf4j
+public class RateCalendarStore {
+    
+    private final PricingEngine pricingEngine;
+    private final RoomRepository roomRepository;
+    private final RoomRateCalendarRepository calendarRepository;
+    private final int days;
+    private final CacheMetrics metrics;
+    
+    private final Map<String, RoomRates> ratesByRoom = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    
+    // Stamp of the refresh that last wrote each room, kept after removal so a slower
+    // refresh cannot bring a dropped calendar back; only changed inside ratesByRoom.compute
+    private final AtomicLong refreshes = new AtomicLong();
+    private final Map<String, Long> stampByRoom = new ConcurrentHashMap<>();
+    
+    public RateCalendarStore(
+            PricingEngine pricingEngine,
+            RoomRepository roomRepository,
+            RoomRateCalendarRepository calendarRepository,
+            MeterRegistry meterRegistry,
+            @Value("${pricing.rate-calendar.days:365}") int days
+    ) {
+        this.pricingEngine = pricingEngine;
+        this.roomRepository = roomRepository;
+        this.calendarRepository = calendarRepository;
+        this.days = Math.min(Math.max(days, 1), 2048);
+        this.metrics = new CacheMetrics(meterRegistry, "rate-calendar", ratesByRoom::size);
+    }
+    
+    /**
+     * Price a stay in one room type, from the calendar when it is current
+     */
+    public PriceQuote quote(Room room, StayRequest stay) {
+        String hotelId = room.getHotel().getId();
+        PricingDecisionTable table = pricingEngine.table(hotelId);
+        RoomRates rates = ratesByRoom.get(room.getId());
+        Money basePrice = room.getPricePerNight();
+        if (rates != null && table.supportsPrecomputedRates()
+                && rates.matches(table.nightRatesFingerprint(), basePrice.minorUnits(), room.getRoomType())) {
+            long perRoom = rates.sumMinorUnits(stay.checkIn().toEpochDay(), stay.nights());
+            if (perRoom >= 0) {
+                metrics.hit();
+                return table.quoteFromNights(perRoom, basePrice.currency(), stay);
+            }
+        }
+        metrics.miss();
+        return table.quote(basePrice, stay);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void load() {
+        long stamp = refreshes.incrementAndGet();
+        Map<String, RoomRates> persisted = calendarRepository.findAll()
+                .stream()
+                .map(this::fromEntity)
+                .collect(Collectors.toMap(RoomRates::roomId, Function.identity()));
+        
+        List<Room> rooms = roomRepository.findAll();
+        int reused = 0;
+        for (Room room : rooms) {
+            RoomRates previous = persisted.remove(room.getId());
+            RoomRates current = refresh(room, previous, stamp);
+            if (current != null && current == previous) {
+                reused++;
+            }
+        }
+        removed.addAll(persisted.keySet());
+        log.info("Loaded rate calendars for {} room types ({} reused as persisted)", ratesByRoom.size(), reused);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onCatalogChanged(HotelCatalogChangedEvent event) {
+        refreshHotel(event.hotelId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onPricingRulesChanged(PricingRulesChangedEvent event) {
+        if (event.hotelId() == null) {
+            refreshAll();
+        } else {
+            refreshHotel(event.hotelId());
+        }
+    }
+    
+    /**
+     * Move every window to start today; nights already computed are kept
+     */
+    @Scheduled(cron = "${pricing.rate-calendar.roll-cron:0 5 0 * * *}")
+    public void refreshAll() {
+        long stamp = refreshes.incrementAndGet();
+        List<Room> rooms = roomRepository.findAll();
+        Set<String> roomIds = rooms.stream().map(Room::getId).collect(Collectors.toSet());
+        for (Room room : rooms) {
+            refresh(room, ratesByRoom.get(room.getId()), stamp);
+        }
+        drop(new ArrayList<>(ratesByRoom.keySet()), roomIds, stamp);
+    }
+    
+    void refreshHotel(String hotelId) {
+        long stamp = refreshes.incrementAndGet();
+        List<Room> rooms = roomRepository.findByHotelId(hotelId);
+        Set<String> roomIds = rooms.stream().map(Room::getId).collect(Collectors.toSet());
+        for (Room room : rooms) {
+            refresh(room, ratesByRoom.get(room.getId()), stamp);
+        }
+        drop(ratesByRoom.values().stream()
+                .filter(rates -> hotelId.equals(rates.hotelId()))
+                .map(RoomRates::roomId)
+                .toList(), roomIds, stamp);
+    }
+    
+    private RoomRates refresh(Room room, RoomRates previous, long stamp) {
+        String hotelId = room.getHotel().getId();
+        PricingDecisionTable table = pricingEngine.table(hotelId);
+        if (!table.supportsPrecomputedRates()) {
+            install(room.getId(), null, false, stamp);
+            return null;
+        }
+        
+        long today = LocalDate.now().toEpochDay();
+        if (previous != null && previous.startDay() == today && previous.days() == days
+                && previous.matches(table.nightRatesFingerprint(), room.getPricePerNight().minorUnits(), room.getRoomType())) {
+            return install(room.getId(), previous, false, stamp);
+        }
+        RoomRates current = RoomRates.compute(room.getId(), hotelId, room.getRoomType(),
+                room.getPricePerNight().minorUnits(), table, today, days, previous);
+        return install(room.getId(), current, true, stamp);
+    }
+    
+    private void drop(List<String> candidates, Set<String> existing, long stamp) {
+        for (String roomId : candidates) {
+            if (!existing.contains(roomId)) {
+                install(roomId, null, false, stamp);
+            }
+        }
+    }
+    
+    /**
+     * Replace (or with null remove) a room's calendar unless a later refresh already wrote it
+     *
+     * @return the room's calendar afterwards
+     */
+    private RoomRates install(String roomId, RoomRates rates, boolean computed, long stamp) {
+        return ratesByRoom.compute(roomId, (id, existing) -> {
+            if (stampByRoom.getOrDefault(id, 0L) > stamp) {
+                return existing;
+            }
+            stampByRoom.put(id, stamp);
+            if (rates == null) {
+                if (existing != null) {
+                    removed.add(id);
+                }
+            } else {
+                removed.remove(id);
+                if (computed) {
+                    dirty.add(id);
+                }
+            }
+            return rates;
+        });
+    }
+    
+    /**
+     * Write changed calendars behind the request path
+     */
+    @Scheduled(fixedDelayString = "${pricing.rate-calendar.flush-interval-ms:60000}",
+            initialDelayString = "${pricing.rate-calendar.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        List<String> changed = List.copyOf(dirty);
+        List<String> gone = List.copyOf(removed);
+        dirty.removeAll(changed);
+        removed.removeAll(gone);
+        try {
+            List<RoomRateCalendar> calendars = changed.stream()
+                    .map(ratesByRoom::get)
+                    .filter(Objects::nonNull)
+                    .map(this::toEntity)
+                    .toList();
+            if (!calendars.isEmpty()) {
+                calendarRepository.saveAll(calendars);
+            }
+            if (!gone.isEmpty()) {
+                calendarRepository.deleteAllByIdInBatch(gone);
+            }
+        } catch (RuntimeException e) {
+            // Retry on the next flush
+            dirty.addAll(changed);
+            removed.addAll(gone);
+            log.warn("Could not persist rate calendars: {}", e.getMessage());
+        }
+    }
+    
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private RoomRates fromEntity(RoomRateCalendar calendar) {
+        return new RoomRates(calendar.getRoomId(), calendar.getHotelId(), calendar.getRoomType(), calendar.getBasePrice().minorUnits(),
+                calendar.getFingerprint(), calendar.getStartDate().toEpochDay(), RoomRates.decode(calendar.getRates()));
+    }
+    
+    private RoomRateCalendar toEntity(RoomRates rates) {
+        return RoomRateCalendar.builder()
+                .roomId(rates.roomId())
+                .hotelId(rates.hotelId())
+                .roomType(rates.roomType())
+                .startDate(LocalDate.ofEpochDay(rates.startDay()))
+                .basePrice(Money.ofMinor(rates.basePrice()))
+                .fingerprint(rates.fingerprint())
+                .rates(rates.encode())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.hotelbooker.pricing.rates;
+
+import com.hotelbooker.pricing.engine.PricingDecisionTable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Nightly rates of one room type in minor units for a window of days starting at
+ * {@code startDay} (epoch day), with prefix sums so any stay inside the window
+ * totals in O(1). Instances are immutable and replaced as a whole.
+ */
+public final class RoomRates {
+    
+    private final String roomId;
+    private final String hotelId;
+    private final String roomType;
+    private final long basePrice;
+    private final long fingerprint;
+    private final long startDay;
+    private final int[] nightly;
+    private final long[] prefix;
+    
+    RoomRates(String roomId, String hotelId, String roomType, long basePrice, long fingerprint,
+              long startDay, int[] nightly) {
+        this.roomId = roomId;
+        this.hotelId = hotelId;
+        this.roomType = roomType;
+        this.basePrice = basePrice;
+        this.fingerprint = fingerprint;
+        this.startDay = startDay;
+        this.nightly = nightly;
+        this.prefix = new long[nightly.length + 1];
+        for (int i = 0; i < nightly.length; i++) {
+            prefix[i + 1] = prefix[i] + nightly[i];
+        }
+    }
+    
+    /**
+     * Rates for {@code days} nights from {@code startDay}, reusing every night of
+     * {@code previous} that was computed from the same inputs
+     */
+    static RoomRates compute(String roomId, String hotelId, String roomType, long basePrice,
+                             PricingDecisionTable table, long startDay, int days, RoomRates previous) {
+        long fingerprint = table.nightRatesFingerprint();
+        int[] nightly = new int[days];
+        int reusedFrom = 0;
+        int reusedTo = 0;
+        if (previous != null && previous.matches(fingerprint, basePrice, roomType)) {
+            // Overlap of [startDay, startDay + days) with the previous window
+            reusedFrom = (int) Math.max(Math.min(previous.startDay - startDay, days), 0);
+            reusedTo = (int) Math.max(Math.min(previous.startDay + previous.nightly.length - startDay, days), reusedFrom);
+            if (reusedTo > reusedFrom) {
+                int offset = (int) (startDay + reusedFrom - previous.startDay);
+                System.arraycopy(previous.nightly, offset, nightly, reusedFrom, reusedTo - reusedFrom);
+            }
+        }
+        for (int i = 0; i < days; i++) {
+            if (i < reusedFrom || i >= reusedTo) {
+                nightly[i] = Math.toIntExact(table.nightlyMinorUnits(basePrice, roomType, null, startDay + i));
+            }
+        }
+        return new RoomRates(roomId, hotelId, roomType, basePrice, fingerprint, startDay, nightly);
+    }
+    
+    boolean matches(long fingerprint, long basePrice, String roomType) {
+        return this.fingerprint == fingerprint
+                && this.basePrice == basePrice
+                && (this.roomType == null ? roomType == null : this.roomType.equals(roomType));
+    }
+    
+    /**
+     * Sum of the nightly rates of {@code nights} nights from {@code firstDay}, or
+     * -1 when the stay leaves the window
+     */
+    public long sumMinorUnits(long firstDay, int nights) {
+        long from = firstDay - startDay;
+        long to = from + nights;
+        if (from < 0 || to > nightly.length) {
+            return -1;
+        }
+        return prefix[(int) to] - prefix[(int) from];
+    }
+    
+    public int nightlyMinorUnits(long day) {
+        long index = day - startDay;
+        return index >= 0 && index < nightly.length ? nightly[(int) index] : -1;
+    }
+    
+    byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(nightly.length * Integer.BYTES);
+        buffer.asIntBuffer().put(nightly);
+        return buffer.array();
+    }
+    
+    static int[] decode(byte[] data) {
+        int[] nightly = new int[data.length / Integer.BYTES];
+        ByteBuffer.wrap(data).asIntBuffer().get(nightly);
+        return nightly;
+    }
+    
+    public String roomId() {
+        return roomId;
+    }
+    
+    public String hotelId() {
+        return hotelId;
+    }
+    
+    public String roomType() {
+        return roomType;
+    }
+    
+    public long basePrice() {
+        return basePrice;
+    }
+    
+    public long fingerprint() {
+        return fingerprint;
+    }
+    
+    public long startDay() {
+        return startDay;
+    }
+    
+    public int days() {
+        return nightly.length;
+    }
+}
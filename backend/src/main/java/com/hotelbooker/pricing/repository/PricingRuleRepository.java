@@ -0,0 +1,23 @@
+package com.hotelbooker.pricing.repository;
+
+import com.hotelbooker.pricing.entity.PricingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, String> {
+    
+    List<PricingRule> findByHotelIdOrderByPriority(String hotelId);
+    
+    List<PricingRule> findByHotelIsNullOrderByPriority();
+    
+    List<PricingRule> findByActiveTrue();
+    
+    // Active rules of one hotel plus the rules shared by all hotels
+    @Query("SELECT r FROM PricingRule r WHERE r.active = true AND (r.hotel IS NULL OR r.hotel.id = :hotelId)")
+    List<PricingRule> findActiveForHotel(@Param("hotelId") String hotelId);
+}
@@ -0,0 +1,9 @@
+package com.hotelbooker.pricing.repository;
+
+import com.hotelbooker.pricing.entity.RoomRateCalendar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RoomRateCalendarRepository extends JpaRepository<RoomRateCalendar, String> {
+}
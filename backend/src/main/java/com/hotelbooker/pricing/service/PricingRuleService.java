@@ -0,0 +1,196 @@
+package com.hotelbooker.pricing.service;
+
+import com.hotelbooker.common.exception.ResourceNotFoundException;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.pricing.dto.PricingRuleDto;
+import com.hotelbooker.pricing.entity.PricingRule;
+import com.hotelbooker.pricing.event.PricingRulesChangedEvent;
+import com.hotelbooker.pricing.repository.PricingRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class PricingRuleService {
+    
+    private final PricingRuleRepository pricingRuleRepository;
+    private final HotelRepository hotelRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Rules of one hotel, or the rules shared by all hotels when hotelId is null
+     */
+    public List<PricingRuleDto> getRules(String hotelId) {
+        List<PricingRule> rules = hotelId != null
+                ? pricingRuleRepository.findByHotelIdOrderByPriority(hotelId)
+                : pricingRuleRepository.findByHotelIsNullOrderByPriority();
+        return rules.stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+    
+    public PricingRuleDto getRule(String ruleId) {
+        return mapToDto(findRule(ruleId));
+    }
+    
+    @Transactional
+    public PricingRuleDto createRule(PricingRuleDto ruleDto) {
+        PricingRule rule = new PricingRule();
+        if (ruleDto.getHotelId() != null) {
+            rule.setHotel(findHotel(ruleDto.getHotelId()));
+        }
+        apply(rule, ruleDto);
+        
+        PricingRule savedRule = pricingRuleRepository.save(rule);
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(ruleDto.getHotelId()));
+        return mapToDto(savedRule);
+    }
+    
+    @Transactional
+    public PricingRuleDto updateRule(String ruleId, PricingRuleDto ruleDto) {
+        PricingRule rule = findRule(ruleId);
+        apply(rule, ruleDto);
+        
+        PricingRule updatedRule = pricingRuleRepository.save(rule);
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(hotelId(updatedRule)));
+        return mapToDto(updatedRule);
+    }
+    
+    @Transactional
+    public void deleteRule(String ruleId) {
+        PricingRule rule = findRule(ruleId);
+        String hotelId = hotelId(rule);
+        pricingRuleRepository.delete(rule);
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(hotelId));
+    }
+    
+    private void apply(PricingRule rule, PricingRuleDto dto) {
+        if (dto.getName() == null || dto.getName().isBlank()) {
+            throw new IllegalArgumentException("Rule name is required");
+        }
+        if (dto.getAdjustmentValue() == null) {
+            throw new IllegalArgumentException("adjustmentValue is required");
+        }
+        PricingRule.RuleType ruleType = parse(PricingRule.RuleType.class, dto.getRuleType(), "ruleType");
+        PricingRule.AdjustmentType adjustmentType = parse(PricingRule.AdjustmentType.class, dto.getAdjustmentType(), "adjustmentType");
+        if (adjustmentType == PricingRule.AdjustmentType.PERCENTAGE && dto.getAdjustmentValue() <= -100) {
+            throw new IllegalArgumentException("A percentage adjustment must be above -100");
+        }
+        if (dto.getStartDate() != null && dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        requireOrdered(dto.getMinOccupancy(), dto.getMaxOccupancy(), "occupancy");
+        requireOrdered(dto.getMinNights(), dto.getMaxNights(), "nights");
+        requireOrdered(dto.getMinLeadDays(), dto.getMaxLeadDays(), "lead days");
+        
+        rule.setName(dto.getName());
+        rule.setDescription(dto.getDescription());
+        rule.setRuleType(ruleType);
+        rule.setAdjustmentType(adjustmentType);
+        rule.setAdjustmentValue(dto.getAdjustmentValue());
+        rule.setRoomType(dto.getRoomType());
+        rule.setDaysOfWeek(toMask(dto.getDaysOfWeek()));
+        rule.setStartDate(dto.getStartDate());
+        rule.setEndDate(dto.getEndDate());
+        rule.setMinOccupancy(dto.getMinOccupancy());
+        rule.setMaxOccupancy(dto.getMaxOccupancy());
+        rule.setMinNights(dto.getMinNights());
+        rule.setMaxNights(dto.getMaxNights());
+        rule.setMinLeadDays(dto.getMinLeadDays());
+        rule.setMaxLeadDays(dto.getMaxLeadDays());
+        rule.setMinGuests(dto.getMinGuests());
+        rule.setMinRooms(dto.getMinRooms());
+        rule.setPriority(dto.getPriority() != null ? dto.getPriority() : 100);
+        rule.setActive(dto.getActive() == null || dto.getActive());
+    }
+    
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + field + ": " + value);
+        }
+    }
+    
+    private static <T extends Comparable<T>> void requireOrdered(T min, T max, String what) {
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("Minimum " + what + " must not exceed maximum " + what);
+        }
+    }
+    
+    private static Integer toMask(List<DayOfWeek> days) {
+        if (days == null || days.isEmpty()) {
+            return null;
+        }
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << day.ordinal();
+        }
+        return mask;
+    }
+    
+    private static List<DayOfWeek> fromMask(Integer mask) {
+        if (mask == null) {
+            return null;
+        }
+        List<DayOfWeek> days = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & (1 << day.ordinal())) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+    
+    private PricingRule findRule(String ruleId) {
+        return pricingRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Pricing rule not found"));
+    }
+    
+    private Hotel findHotel(String hotelId) {
+        return hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found"));
+    }
+    
+    private static String hotelId(PricingRule rule) {
+        return rule.getHotel() != null ? rule.getHotel().getId() : null;
+    }
+    
+    private PricingRuleDto mapToDto(PricingRule rule) {
+        return PricingRuleDto.builder()
+                .id(rule.getId())
+                .hotelId(hotelId(rule))
+                .name(rule.getName())
+                .description(rule.getDescription())
+                .ruleType(rule.getRuleType().name())
+                .adjustmentType(rule.getAdjustmentType().name())
+                .adjustmentValue(rule.getAdjustmentValue())
+                .roomType(rule.getRoomType())
+                .daysOfWeek(fromMask(rule.getDaysOfWeek()))
+                .startDate(rule.getStartDate())
+                .endDate(rule.getEndDate())
+                .minOccupancy(rule.getMinOccupancy())
+                .maxOccupancy(rule.getMaxOccupancy())
+                .minNights(rule.getMinNights())
+                .maxNights(rule.getMaxNights())
+                .minLeadDays(rule.getMinLeadDays())
+                .maxLeadDays(rule.getMaxLeadDays())
+                .minGuests(rule.getMinGuests())
+                .minRooms(rule.getMinRooms())
+                .priority(rule.getPriority())
+                .active(rule.isActive())
+                .build();
+    }
+}
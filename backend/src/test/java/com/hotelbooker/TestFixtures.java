@@ -0,0 +1,76 @@
+package com.hotelbooker;
+
+import com.hotelbooker.auth.entity.User;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hotels, rooms and guests for integration tests, and cleanup of the bookings made against them
+ */
+public final class TestFixtures {
+    
+    private TestFixtures() {
+    }
+    
+    /**
+     * An active three-star hotel at 100 a night; adjust with the builder before saving
+     */
+    public static Hotel.HotelBuilder hotel(String name, String city) {
+        return Hotel.builder()
+                .name(name)
+                .address("1 Test Street")
+                .city(city)
+                .country("Cambodia")
+                .pricePerNight(Money.of(100.0))
+                .guestRating(4.0)
+                .totalReviews(0)
+                .starRating(3)
+                .images(new ArrayList<>(List.of("a.jpg")))
+                .amenities(new ArrayList<>(List.of("WiFi")))
+                .available(true)
+                .status(Hotel.HotelStatus.ACTIVE);
+    }
+    
+    /**
+     * A room type for two guests with all of its rooms available
+     */
+    public static Room.RoomBuilder room(Hotel hotel, String roomType, double pricePerNight, int totalRooms) {
+        return Room.builder()
+                .hotel(hotel)
+                .roomType(roomType)
+                .pricePerNight(Money.of(pricePerNight))
+                .maxGuests(2)
+                .totalRooms(totalRooms)
+                .availableRooms(totalRooms)
+                .images(new ArrayList<>(List.of("room.jpg")))
+                .amenities(new ArrayList<>(List.of("WiFi")));
+    }
+    
+    /**
+     * The verified guest with this email, created on first use and kept across tests
+     */
+    public static User guest(UserRepository userRepository, String email, String fullName) {
+        return userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                .fullName(fullName)
+                .email(email)
+                .password("{noop}not-a-real-password")
+                .phoneNumber("+85510000888")
+                .role(User.Role.USER)
+                .emailVerified(true)
+                .build()));
+    }
+    
+    /**
+     * Delete the bookings of a test's own hotel, leaving other tests' rows alone
+     */
+    public static void deleteBookings(BookingRepository bookingRepository, Hotel hotel) {
+        bookingRepository.deleteAll(bookingRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.hotelbooker.analytics.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stays far apart stay separate ranges; overlapping or touching ones join
+ */
+class DirtyNightsTest {
+    
+    @Test
+    void onlyOverlappingOrTouchingStaysJoin() {
+        DirtyNights nights = new DirtyNights()
+                .add(100, 103)
+                .add(400, 402)
+                .add(103, 105)
+                .add(200, 200)
+                .add(101, 102);
+        
+        assertThat(nights.ranges()).containsExactly(new long[]{100, 105}, new long[]{400, 402});
+        
+        nights.add(99, 401).add(500, 501);
+        
+        assertThat(nights.ranges()).containsExactly(new long[]{99, 402}, new long[]{500, 501});
+    }
+}
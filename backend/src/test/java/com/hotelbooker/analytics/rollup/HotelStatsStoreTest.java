@@ -0,0 +1,121 @@
+package com.hotelbooker.analytics.rollup;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.analytics.dto.HotelKpiDto;
+import com.hotelbooker.analytics.repository.HotelNightStatsRepository;
+import com.hotelbooker.analytics.service.AnalyticsService;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.event.BookingChangedEvent;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking changes are rolled up per night and answered from prefix sums
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class HotelStatsStoreTest {
+    
+    @Autowired
+    private HotelStatsStore hotelStatsStore;
+    
+    @Autowired
+    private AnalyticsService analyticsService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private HotelNightStatsRepository statsRepository;
+    
+    private final LocalDate firstNight = LocalDate.now().plusDays(10);
+    private Hotel hotel;
+    private Room room;
+    
+    @BeforeEach
+    void seed() {
+        hotel = hotelRepository.save(TestFixtures.hotel("Analytics Hotel", "Kratie").build());
+        room = roomRepository.save(TestFixtures.room(hotel, "Double", 90.0, 4).build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        statsRepository.deleteAll(statsRepository.findByHotelIdAndNightBetween(
+                hotel.getId(), firstNight.minusYears(1), firstNight.plusYears(1)));
+        roomRepository.delete(room);
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void kpisFollowBookingsAndCancellations() {
+        Booking single = bookingRepository.save(booking(firstNight, 2, 1, 200.0));
+        Booking group = bookingRepository.save(booking(firstNight.plusDays(1), 2, 2, 300.0));
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(single, group)));
+        hotelStatsStore.refresh();
+        
+        // 4 rooms over 4 nights; sold 1 + 3 + 2 room nights for 100 + 100 + 150 + 150
+        HotelKpiDto kpis = analyticsService.getHotelKpis(hotel.getId(), firstNight, firstNight.plusDays(4));
+        assertThat(kpis.getRoomNightsAvailable()).isEqualTo(16);
+        assertThat(kpis.getRoomsSold()).isEqualTo(6);
+        assertThat(kpis.getRevenue()).isEqualTo(Money.of(500.0));
+        assertThat(kpis.getArrivals()).isEqualTo(2);
+        assertThat(kpis.getOccupancyPercent()).isEqualTo(37.5);
+        assertThat(kpis.getAdr()).isEqualTo(Money.of(83.33));
+        assertThat(kpis.getRevpar()).isEqualTo(Money.of(31.25));
+        assertThat(analyticsService.getNightlyKpis(hotel.getId(), firstNight, firstNight.plusDays(4)))
+                .extracting(HotelKpiDto::getRoomsSold)
+                .containsExactly(1L, 3L, 2L, 0L);
+        
+        group.setStatus(Booking.BookingStatus.CANCELLED);
+        bookingRepository.save(group);
+        eventPublisher.publishEvent(BookingChangedEvent.of(List.of(group)));
+        hotelStatsStore.refresh();
+        
+        kpis = analyticsService.getHotelKpis(hotel.getId(), firstNight, firstNight.plusDays(4));
+        assertThat(kpis.getRoomsSold()).isEqualTo(2);
+        assertThat(kpis.getRevenue()).isEqualTo(Money.of(200.0));
+        assertThat(kpis.getArrivals()).isEqualTo(1);
+        assertThat(kpis.getCancellations()).isEqualTo(1);
+    }
+    
+    private Booking booking(LocalDate checkIn, int nights, int rooms, double totalPrice) {
+        return Booking.builder()
+                .hotel(hotel)
+                .room(room)
+                .checkInDate(checkIn)
+                .checkOutDate(checkIn.plusDays(nights))
+                .numberOfGuests(2)
+                .numberOfRooms(rooms)
+                .numberOfNights(nights)
+                .totalPrice(Money.of(totalPrice))
+                .status(Booking.BookingStatus.CONFIRMED)
+                .guestName("Analytics")
+                .build();
+    }
+}
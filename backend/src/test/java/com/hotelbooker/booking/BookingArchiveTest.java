@@ -0,0 +1,150 @@
+package com.hotelbooker.booking;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.auth.entity.User;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.repository.ArchivedBookingRepository;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.booking.service.BookingArchiveService;
+import com.hotelbooker.booking.service.BookingService;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.common.sync.SyncTombstone;
+import com.hotelbooker.common.sync.SyncTombstoneRepository;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Old completed and cancelled stays move to the archive and are still found by history reads,
+ * while old bookings that never closed stay in the admin lists
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(username = BookingArchiveTest.EMAIL)
+class BookingArchiveTest {
+    
+    static final String EMAIL = "archive-guest@hotel.test";
+    
+    @Autowired
+    private BookingArchiveService archiveService;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    
+    @Autowired
+    private SyncTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private User guest;
+    private Hotel hotel;
+    private Room room;
+    
+    @BeforeEach
+    void seed() {
+        guest = TestFixtures.guest(userRepository, EMAIL, "Archive Guest");
+        hotel = hotelRepository.save(TestFixtures.hotel("Archive Hotel", "Kampot").pricePerNight(Money.of(60.0)).build());
+        room = roomRepository.save(TestFixtures.room(hotel, "Double", 60.0, 3).build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        tombstoneRepository.deleteAll(tombstoneRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged()));
+        archivedBookingRepository.deleteAll(archivedBookingRepository.findByHotelIdAndCheckInDateBetweenOrderByCheckInDate(
+                hotel.getId(), LocalDate.now().minusYears(10), LocalDate.now()));
+        roomRepository.delete(room);
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void movesOnlyOldFinishedStays() {
+        LocalDate longAgo = archiveService.hotSince().minusDays(30);
+        Booking completed = bookingRepository.save(booking(longAgo, Booking.BookingStatus.COMPLETED));
+        Booking cancelled = bookingRepository.save(booking(longAgo.plusDays(1), Booking.BookingStatus.CANCELLED));
+        Booking neverClosed = bookingRepository.save(booking(longAgo, Booking.BookingStatus.CONFIRMED));
+        Booking recent = bookingRepository.save(booking(LocalDate.now().minusDays(10), Booking.BookingStatus.COMPLETED));
+        Booking recentOpen = bookingRepository.save(booking(LocalDate.now().minusDays(5), Booking.BookingStatus.CONFIRMED));
+        
+        assertThat(archiveService.archive()).isEqualTo(2);
+        
+        assertThat(bookingRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged()))
+                .extracting(Booking::getId)
+                .containsExactlyInAnyOrder(neverClosed.getId(), recent.getId(), recentOpen.getId());
+        assertThat(archivedBookingRepository.findAllById(List.of(completed.getId(), cancelled.getId()))).hasSize(2);
+        assertThat(archiveService.archive()).isZero();
+        
+        BookingDto archived = bookingService.getBookingById(completed.getId());
+        assertThat(archived.getHotelName()).isEqualTo("Archive Hotel");
+        assertThat(archived.getRoomType()).isEqualTo("Double");
+        assertThat(archived.getTotalPrice()).isEqualTo(Money.of(120.0));
+        assertThat(archived.getStatus()).isEqualTo("COMPLETED");
+        
+        assertThat(bookingService.getUserBookings()).extracting(BookingDto::getId)
+                .containsExactlyInAnyOrder(completed.getId(), cancelled.getId(), neverClosed.getId(), recent.getId(),
+                        recentOpen.getId());
+        // Open bookings of any age and recent closed ones, each once, newest first
+        assertThat(bookingService.getBookingsByHotel(hotel.getId()))
+                .extracting(BookingDto::getId)
+                .containsExactly(recentOpen.getId(), recent.getId(), neverClosed.getId());
+        assertThat(bookingService.getBookingsByStatus(Booking.BookingStatus.CONFIRMED))
+                .extracting(BookingDto::getId)
+                .contains(neverClosed.getId(), recentOpen.getId());
+        assertThat(bookingService.getBookingsByStatus(Booking.BookingStatus.COMPLETED))
+                .extracting(BookingDto::getId)
+                .contains(recent.getId())
+                .doesNotContain(completed.getId());
+        // Sync clients are told to drop their copies of the archived stays
+        assertThat(tombstoneRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged()))
+                .extracting(SyncTombstone::getEntityId)
+                .containsExactlyInAnyOrder(completed.getId(), cancelled.getId());
+        assertThat(bookingService.getBookingHistory(hotel.getId(), longAgo, LocalDate.now()))
+                .extracting(BookingDto::getId)
+                .containsExactly(completed.getId(), neverClosed.getId(), cancelled.getId(), recent.getId(), recentOpen.getId());
+    }
+    
+    private Booking booking(LocalDate checkIn, Booking.BookingStatus status) {
+        return Booking.builder()
+                .user(guest)
+                .hotel(hotel)
+                .room(room)
+                .checkInDate(checkIn)
+                .checkOutDate(checkIn.plusDays(2))
+                .numberOfGuests(2)
+                .numberOfRooms(1)
+                .numberOfNights(2)
+                .totalPrice(Money.of(120.0))
+                .status(status)
+                .guestName("Archive Guest")
+                .build();
+    }
+}
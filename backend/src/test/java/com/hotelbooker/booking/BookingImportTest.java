@@ -0,0 +1,117 @@
+package com.hotelbooker.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.BookingImportResult;
+import com.hotelbooker.booking.dto.BookingImportSummary;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.booking.service.BookingImportReader;
+import com.hotelbooker.booking.service.BookingImportService;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each imported row is booked or rejected on its own, in file order
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingImportTest {
+    
+    private static final String EMAIL = "tour-operator@hotel.test";
+    
+    @Autowired
+    private BookingImportService bookingImportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private Hotel hotel;
+    private Room twin;
+    private Room suite;
+    
+    @BeforeEach
+    void seed() {
+        TestFixtures.guest(userRepository, EMAIL, "Tour Operator");
+        hotel = hotelRepository.save(TestFixtures.hotel("Import Hotel", "Kampot").pricePerNight(Money.of(60.0)).build());
+        twin = roomRepository.save(TestFixtures.room(hotel, "Twin", 50.0, 2).build());
+        suite = roomRepository.save(TestFixtures.room(hotel, "Suite", 120.0, 1).build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        roomRepository.deleteAll(List.of(twin, suite));
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void importsCsvRowByRow() {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        String dates = checkIn + "," + checkIn.plusDays(3);
+        String csv = String.join("\n",
+                "roomId,checkInDate,checkOutDate,numberOfGuests,numberOfRooms,guestName,guestEmail,guestPhone",
+                twin.getId() + "," + dates + ",2,1,Guest One,one@tour.test,+855100",
+                twin.getId() + "," + dates + ",2,1,Guest Two,two@tour.test,+855100",
+                twin.getId() + "," + dates + ",2,1,Guest Three,three@tour.test,+855100",
+                suite.getId() + "," + dates + ",2,1,Guest Four,not-an-email,+855100",
+                suite.getId() + ",2031-13-01," + checkIn + ",2,1,Guest Five,five@tour.test,+855100",
+                "",
+                suite.getId() + "," + dates + ",2,1,\"Doe, \"\"Jane\"\"\",jane@tour.test,+855100");
+        
+        List<BookingImportResult> results = new ArrayList<>();
+        BookingImportSummary summary = bookingImportService.importBookings(
+                BookingImportReader.csv(new BufferedReader(new StringReader(csv)), objectMapper), EMAIL, results::addAll);
+        
+        assertThat(results).extracting(BookingImportResult::row).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(results).extracting(BookingImportResult::status).containsExactly(
+                BookingImportResult.Status.CREATED,
+                BookingImportResult.Status.CREATED,
+                BookingImportResult.Status.REJECTED,
+                BookingImportResult.Status.REJECTED,
+                BookingImportResult.Status.REJECTED,
+                BookingImportResult.Status.CREATED);
+        assertThat(results.get(2).error()).isEqualTo("Not enough rooms available");
+        assertThat(results.get(3).error()).isEqualTo("Invalid email format");
+        assertThat(results.get(4).error()).startsWith("Unreadable row");
+        assertThat(results.get(5).totalPrice()).isEqualTo(Money.of(360.0));
+        
+        assertThat(summary.rows()).isEqualTo(6);
+        assertThat(summary.created()).isEqualTo(3);
+        assertThat(roomRepository.findById(twin.getId()).orElseThrow().getAvailableRooms()).isZero();
+        assertThat(roomRepository.findById(suite.getId()).orElseThrow().getAvailableRooms()).isZero();
+        assertThat(bookingRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged()))
+                .extracting(b -> b.getGuestName())
+                .containsExactlyInAnyOrder("Guest One", "Guest Two", "Doe, \"Jane\"");
+    }
+}
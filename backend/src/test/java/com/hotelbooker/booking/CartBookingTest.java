@@ -0,0 +1,114 @@
+package com.hotelbooker.booking;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.CartBookingDto;
+import com.hotelbooker.booking.dto.CreateCartBookingRequest;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.booking.service.BookingService;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A cart books all of its room types in one transaction, or none of them
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(username = CartBookingTest.EMAIL)
+class CartBookingTest {
+    
+    static final String EMAIL = "cart-guest@hotel.test";
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private Hotel hotel;
+    private Room twin;
+    private Room suite;
+    
+    @BeforeEach
+    void seed() {
+        TestFixtures.guest(userRepository, EMAIL, "Cart Guest");
+        hotel = hotelRepository.save(TestFixtures.hotel("Cart Hotel", "Siem Reap").build());
+        twin = roomRepository.save(TestFixtures.room(hotel, "Twin", 80.0, 2).build());
+        suite = roomRepository.save(TestFixtures.room(hotel, "Suite", 150.0, 1).build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        roomRepository.deleteAll(List.of(twin, suite));
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void booksEveryItemUnderOneCart() {
+        CartBookingDto cart = bookingService.createCartBooking(cart(item(twin, 2), item(suite, 1)));
+        
+        assertThat(cart.getBookings()).hasSize(2)
+                .allSatisfy(booking -> assertThat(booking.getCartId()).isEqualTo(cart.getCartId()));
+        // Two nights: 2 twins at 80 less the shared 5% multi-room discount, and one suite at 150
+        assertThat(cart.getTotalPrice()).isEqualTo(Money.of(2 * 2 * 80.0 * 0.95 + 2 * 150.0));
+        assertThat(roomRepository.findById(twin.getId()).orElseThrow().getAvailableRooms()).isZero();
+        assertThat(roomRepository.findById(suite.getId()).orElseThrow().getAvailableRooms()).isZero();
+        assertThat(bookingRepository.findByCartId(cart.getCartId())).hasSize(2);
+    }
+    
+    @Test
+    void shortRoomTypeBooksNothing() {
+        assertThatThrownBy(() -> bookingService.createCartBooking(cart(item(twin, 1), item(suite, 2))))
+                .hasMessage("Not enough rooms available");
+        
+        assertThat(roomRepository.findById(twin.getId()).orElseThrow().getAvailableRooms()).isEqualTo(2);
+        assertThat(roomRepository.findById(suite.getId()).orElseThrow().getAvailableRooms()).isEqualTo(1);
+        assertThat(bookingRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged())).isEmpty();
+    }
+    
+    private static CreateCartBookingRequest cart(CreateCartBookingRequest.Item... items) {
+        CreateCartBookingRequest request = new CreateCartBookingRequest();
+        request.setItems(List.of(items));
+        request.setGuestName("Cart Guest");
+        request.setGuestEmail(EMAIL);
+        request.setGuestPhone("+85510000999");
+        return request;
+    }
+    
+    private static CreateCartBookingRequest.Item item(Room room, int rooms) {
+        CreateCartBookingRequest.Item item = new CreateCartBookingRequest.Item();
+        item.setRoomId(room.getId());
+        item.setCheckInDate(LocalDate.now().plusDays(30));
+        item.setCheckOutDate(LocalDate.now().plusDays(32));
+        item.setNumberOfGuests(2);
+        item.setNumberOfRooms(rooms);
+        return item;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hotelbooker.calendar.assignment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccupancyIndexTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+    
+    @Test
+    void bestFitPicksTheTightestGap() {
+        OccupancyIndex index = new OccupancyIndex(30);
+        index.addInstance("twin", "101");
+        index.addInstance("twin", "102");
+        index.addInstance("twin", "103");
+        index.occupy("101", DAY, DAY.plusDays(2));
+        index.occupy("101", DAY.plusDays(6), DAY.plusDays(8));
+        index.occupy("102", DAY, DAY.plusDays(3));
+        index.occupy("102", DAY.plusDays(5), DAY.plusDays(8));
+        
+        // Fills 102's two-night hole exactly rather than leaving a night either side in 101
+        assertThat(index.place("twin", DAY.plusDays(3), DAY.plusDays(5))).isEqualTo("102");
+        // Adjacent to 101's first stay beats the empty 103
+        assertThat(index.place("twin", DAY.plusDays(2), DAY.plusDays(4))).isEqualTo("101");
+        assertThat(index.place("twin", DAY.plusDays(1), DAY.plusDays(3))).isEqualTo("103");
+        assertThat(index.place("twin", DAY.plusDays(2), DAY.plusDays(3))).isNull();
+    }
+}
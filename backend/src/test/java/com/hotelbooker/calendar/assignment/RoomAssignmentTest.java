@@ -0,0 +1,154 @@
+package com.hotelbooker.calendar.assignment;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.dto.CreateBookingRequest;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.booking.service.BookingService;
+import com.hotelbooker.calendar.dto.RoomAssignmentResult;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.entity.RoomInstance;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bookings are placed on room instances best-fit, and re-optimization packs a fragmented calendar
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(username = RoomAssignmentTest.EMAIL)
+class RoomAssignmentTest {
+    
+    static final String EMAIL = "assignment-guest@hotel.test";
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private RoomAssignmentService roomAssignmentService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private RoomInstanceRepository roomInstanceRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final LocalDate day = LocalDate.now().plusDays(10);
+    private Hotel hotel;
+    private Room twin;
+    private RoomInstance room101;
+    private RoomInstance room102;
+    
+    @BeforeEach
+    void seed() {
+        TestFixtures.guest(userRepository, EMAIL, "Assignment Guest");
+        hotel = hotelRepository.save(TestFixtures.hotel("Assignment Hotel", "Kampot").build());
+        twin = roomRepository.save(TestFixtures.room(hotel, "Twin", 80.0, 2).build());
+        room101 = roomInstanceRepository.save(instance("A101"));
+        room102 = roomInstanceRepository.save(instance("A102"));
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        roomInstanceRepository.deleteAll(List.of(room101, room102));
+        roomRepository.delete(twin);
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void newBookingIsPlacedNextToExistingStay() {
+        bookingRepository.save(booking(room101, day, day.plusDays(2)));
+        
+        BookingDto booking = bookingService.createBooking(request(day.plusDays(2), day.plusDays(4)));
+        
+        assertThat(booking.getRoomInstanceId()).isEqualTo(room101.getId());
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getRoomInstance().getId())
+                .isEqualTo(room101.getId());
+    }
+    
+    @Test
+    void reoptimizePacksFragmentedStays() {
+        bookingRepository.save(booking(room101, day, day.plusDays(2)));
+        Booking middle = bookingRepository.save(booking(room102, day.plusDays(2), day.plusDays(5)));
+        bookingRepository.save(booking(room101, day.plusDays(5), day.plusDays(7)));
+        
+        RoomAssignmentResult result = roomAssignmentService.reoptimize(hotel.getId(), day, day.plusDays(14));
+        
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getBookings()).isEqualTo(3);
+        assertThat(result.getMoved()).isEqualTo(1);
+        assertThat(result.getGapNightsBefore()).isEqualTo(3);
+        assertThat(result.getGapNightsAfter()).isZero();
+        assertThat(bookingRepository.findById(middle.getId()).orElseThrow().getRoomInstance().getId())
+                .isEqualTo(room101.getId());
+        
+        // Already packed, so a second run changes nothing
+        assertThat(roomAssignmentService.reoptimize(hotel.getId(), day, day.plusDays(14)).isApplied()).isFalse();
+    }
+    
+    private RoomInstance instance(String number) {
+        return RoomInstance.builder()
+                .roomType(twin)
+                .roomNumber(number)
+                .floor(1)
+                .status(RoomInstance.RoomStatus.AVAILABLE)
+                .build();
+    }
+    
+    private Booking booking(RoomInstance instance, LocalDate checkIn, LocalDate checkOut) {
+        return Booking.builder()
+                .hotel(hotel)
+                .room(twin)
+                .roomInstance(instance)
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .numberOfGuests(2)
+                .numberOfRooms(1)
+                .numberOfNights((int) (checkOut.toEpochDay() - checkIn.toEpochDay()))
+                .totalPrice(Money.of(160.0))
+                .status(Booking.BookingStatus.CONFIRMED)
+                .guestName("Walk-in Guest")
+                .build();
+    }
+    
+    private CreateBookingRequest request(LocalDate checkIn, LocalDate checkOut) {
+        CreateBookingRequest request = new CreateBookingRequest();
+        request.setHotelId(hotel.getId());
+        request.setRoomId(twin.getId());
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        request.setNumberOfGuests(2);
+        request.setNumberOfRooms(1);
+        request.setGuestName("Assignment Guest");
+        request.setGuestEmail(EMAIL);
+        request.setGuestPhone("+85510000888");
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hotelbooker.calendar.board;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.dto.BulkBookingResult;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.booking.service.BookingService;
+import com.hotelbooker.calendar.dto.FrontDeskBoardDto;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The board is built once, then follows bulk check-ins and check-outs without reloading
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FrontDeskBoardTest {
+    
+    @Autowired
+    private FrontDeskBoard frontDeskBoard;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    private final LocalDate today = LocalDate.now();
+    private Hotel hotel;
+    private Room room;
+    
+    @BeforeEach
+    void seed() {
+        hotel = hotelRepository.save(TestFixtures.hotel("Board Hotel", "Battambang").build());
+        room = roomRepository.save(TestFixtures.room(hotel, "Double", 90.0, 3).availableRooms(0).build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        roomRepository.delete(room);
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void bulkCheckInAndOutUpdateTheBoard() {
+        Booking arriving = bookingRepository.save(booking("Arriving", today, today.plusDays(2), Booking.BookingStatus.CONFIRMED));
+        Booking leaving = bookingRepository.save(booking("Leaving", today.minusDays(2), today, Booking.BookingStatus.CHECKED_IN));
+        Booking tomorrow = bookingRepository.save(booking("Tomorrow", today.plusDays(1), today.plusDays(3), Booking.BookingStatus.CONFIRMED));
+        frontDeskBoard.rebuild();
+        
+        FrontDeskBoardDto board = frontDeskBoard.board(hotel.getId(), today);
+        assertThat(ids(board.getArrivals())).containsExactly(arriving.getId());
+        assertThat(ids(board.getDepartures())).containsExactly(leaving.getId());
+        assertThat(ids(board.getInHouse())).containsExactly(leaving.getId());
+        assertThat(ids(frontDeskBoard.board(hotel.getId(), today.plusDays(1)).getArrivals())).containsExactly(tomorrow.getId());
+        
+        BulkBookingResult checkIn = bookingService.checkInBookings(List.of(arriving.getId(), tomorrow.getId(), "missing"));
+        assertThat(ids(checkIn.getUpdated())).containsExactly(arriving.getId());
+        assertThat(checkIn.getFailed())
+                .containsEntry(tomorrow.getId(), "Check-in date has not arrived yet")
+                .containsEntry("missing", "Booking not found");
+        
+        BulkBookingResult checkOut = bookingService.checkOutBookings(List.of(leaving.getId()));
+        assertThat(ids(checkOut.getUpdated())).containsExactly(leaving.getId());
+        assertThat(roomRepository.findById(room.getId()).orElseThrow().getAvailableRooms()).isEqualTo(1);
+        
+        board = frontDeskBoard.board(hotel.getId(), today);
+        assertThat(board.getArrivals()).singleElement()
+                .satisfies(booking -> assertThat(booking.getStatus()).isEqualTo("CHECKED_IN"));
+        assertThat(board.getDepartures()).singleElement()
+                .satisfies(booking -> assertThat(booking.getStatus()).isEqualTo("COMPLETED"));
+        assertThat(ids(board.getInHouse())).containsExactly(arriving.getId());
+        
+        // Days outside the prebuilt window come from the database
+        assertThat(ids(frontDeskBoard.board(hotel.getId(), today.plusDays(3)).getDepartures()))
+                .containsExactly(tomorrow.getId());
+    }
+    
+    private Booking booking(String guest, LocalDate checkIn, LocalDate checkOut, Booking.BookingStatus status) {
+        return Booking.builder()
+                .hotel(hotel)
+                .room(room)
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .numberOfGuests(2)
+                .numberOfRooms(1)
+                .numberOfNights((int) (checkOut.toEpochDay() - checkIn.toEpochDay()))
+                .totalPrice(Money.of(180.0))
+                .status(status)
+                .guestName(guest)
+                .build();
+    }
+    
+    private static List<String> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+}
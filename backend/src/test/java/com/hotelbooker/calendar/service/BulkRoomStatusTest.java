@@ -0,0 +1,111 @@
+package com.hotelbooker.calendar.service;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.calendar.dto.BulkRoomStatusResult;
+import com.hotelbooker.calendar.dto.RoomInstanceDto;
+import com.hotelbooker.calendar.event.RoomStatusChangedEvent;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.entity.RoomInstance;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Valid changes are written and announced together; invalid ones are reported per room
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class BulkRoomStatusTest {
+    
+    @Autowired
+    private CalendarService calendarService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private RoomInstanceRepository roomInstanceRepository;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    private Hotel hotel;
+    private Room room;
+    private final List<RoomInstance> roomInstances = new ArrayList<>();
+    
+    @BeforeEach
+    void seed() {
+        hotel = hotelRepository.save(TestFixtures.hotel("Housekeeping Hotel", "Kep").build());
+        room = roomRepository.save(TestFixtures.room(hotel, "Double", 90.0, 3).build());
+        roomInstances.add(roomInstance("HK-101", RoomInstance.RoomStatus.AVAILABLE));
+        roomInstances.add(roomInstance("HK-102", RoomInstance.RoomStatus.OCCUPIED));
+        roomInstances.add(roomInstance("HK-103", RoomInstance.RoomStatus.MAINTENANCE));
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        roomInstanceRepository.deleteAll(roomInstances);
+        roomRepository.delete(room);
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void bulkUpdateWritesValidChangesAndReportsTheRest() {
+        RoomInstance available = roomInstances.get(0);
+        RoomInstance occupied = roomInstances.get(1);
+        RoomInstance maintenance = roomInstances.get(2);
+        Map<String, RoomInstance.RoomStatus> statuses = new LinkedHashMap<>();
+        statuses.put(available.getId(), RoomInstance.RoomStatus.MAINTENANCE);
+        statuses.put(occupied.getId(), RoomInstance.RoomStatus.AVAILABLE);
+        statuses.put(maintenance.getId(), RoomInstance.RoomStatus.OCCUPIED);
+        statuses.put("missing", RoomInstance.RoomStatus.AVAILABLE);
+        
+        BulkRoomStatusResult result = calendarService.updateRoomStatuses(statuses);
+        
+        assertThat(result.getUpdated()).extracting(RoomInstanceDto::getId)
+                .containsExactly(available.getId(), occupied.getId());
+        assertThat(result.getFailed())
+                .containsEntry(maintenance.getId(), "Rooms must be made available before they are occupied")
+                .containsEntry("missing", "Room not found");
+        
+        RoomInstance cleaned = roomInstanceRepository.findById(occupied.getId()).orElseThrow();
+        assertThat(cleaned.getStatus()).isEqualTo(RoomInstance.RoomStatus.AVAILABLE);
+        assertThat(cleaned.getChangeSeq()).isGreaterThan(occupied.getChangeSeq());
+        assertThat(roomInstanceRepository.findById(available.getId()).orElseThrow().getStatus())
+                .isEqualTo(RoomInstance.RoomStatus.MAINTENANCE);
+        assertThat(roomInstanceRepository.findById(maintenance.getId()).orElseThrow().getStatus())
+                .isEqualTo(RoomInstance.RoomStatus.MAINTENANCE);
+        
+        assertThat(events.stream(RoomStatusChangedEvent.class)).singleElement()
+                .satisfies(event -> assertThat(event.rooms()).hasSize(2));
+    }
+    
+    private RoomInstance roomInstance(String roomNumber, RoomInstance.RoomStatus status) {
+        return roomInstanceRepository.save(RoomInstance.builder()
+                .roomType(room)
+                .roomNumber(roomNumber)
+                .floor(1)
+                .status(status)
+                .build());
+    }
+}
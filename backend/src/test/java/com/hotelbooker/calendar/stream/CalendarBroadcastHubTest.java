@@ -0,0 +1,130 @@
+package com.hotelbooker.calendar.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Events reach every subscriber of their hotel, and a subscriber that falls behind or stalls a
+ * write is dropped without holding up the others
+ */
+class CalendarBroadcastHubTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CalendarBroadcastHub hub = new CalendarBroadcastHub(
+            new LocalCalendarEventRelay(), meterRegistry, 4, 2, Duration.ofMinutes(1), Duration.ofMillis(50));
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    
+    @AfterEach
+    void shutdown() {
+        unblock.countDown();
+        hub.shutdown();
+    }
+    
+    @Test
+    void slowSubscriberIsDroppedWhileOthersKeepUp() throws InterruptedException {
+        RecordingEmitter fast = new RecordingEmitter(null);
+        RecordingEmitter slow = new RecordingEmitter(unblock);
+        RecordingEmitter otherHotel = new RecordingEmitter(null);
+        hub.subscribe("hotel-1", fast);
+        hub.subscribe("hotel-1", slow);
+        hub.subscribe("hotel-2", otherHotel);
+        
+        for (int i = 0; i < 10; i++) {
+            hub.publish(new CalendarEvent("hotel-1", "bookings", "[{\"id\":\"b" + i + "\"}]"));
+            // Keep pace with the fast subscriber so only the blocked one can fall behind
+            awaitBookingEvents(fast, i + 1);
+        }
+        
+        assertThat(fast.bookingEvents()).hasSize(10);
+        assertThat(fast.events().get(fast.events().size() - 1)).contains("data:[{\"id\":\"b9\"}]");
+        assertThat(hub.subscribers("hotel-1")).isEqualTo(1);
+        assertThat(meterRegistry.get("calendar.stream.dropped").counter().count()).isEqualTo(1.0);
+        assertThat(otherHotel.bookingEvents()).isEmpty();
+    }
+    
+    @Test
+    void stalledWriteIsInterruptedAndFreesItsSender() throws InterruptedException {
+        CalendarBroadcastHub oneSender = new CalendarBroadcastHub(
+                new LocalCalendarEventRelay(), meterRegistry, 4, 1, Duration.ofMinutes(1), Duration.ofMillis(50));
+        try {
+            RecordingEmitter stalled = new RecordingEmitter(unblock);
+            RecordingEmitter otherHotel = new RecordingEmitter(null);
+            oneSender.subscribe("hotel-1", stalled);
+            oneSender.subscribe("hotel-2", otherHotel);
+            
+            // The only sender blocks on the stalled connection, so the other hotel's event waits behind it
+            oneSender.publish(new CalendarEvent("hotel-1", "bookings", "[{\"id\":\"b1\"}]"));
+            oneSender.publish(new CalendarEvent("hotel-2", "bookings", "[{\"id\":\"b2\"}]"));
+            Thread.sleep(100);
+            assertThat(otherHotel.bookingEvents()).isEmpty();
+            
+            oneSender.closeStalled();
+            awaitBookingEvents(otherHotel, 1);
+            
+            assertThat(otherHotel.bookingEvents()).hasSize(1);
+            assertThat(stalled.interrupted).isTrue();
+            assertThat(stalled.events()).isEmpty();
+            assertThat(oneSender.subscribers("hotel-1")).isZero();
+            assertThat(oneSender.subscribers("hotel-2")).isEqualTo(1);
+            assertThat(meterRegistry.get("calendar.stream.dropped").counter().count()).isEqualTo(1.0);
+        } finally {
+            oneSender.shutdown();
+        }
+    }
+    
+    private static void awaitBookingEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (emitter.bookingEvents().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+    
+    /**
+     * Records what would be written to the browser; blocks on the first write when given a latch,
+     * failing the write if interrupted like a servlet connection does
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blockUntil;
+        private volatile boolean interrupted;
+        
+        RecordingEmitter(CountDownLatch blockUntil) {
+            this.blockUntil = blockUntil;
+        }
+        
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    throw new IOException("Write interrupted", e);
+                }
+            }
+            events.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+        
+        List<String> events() {
+            return events;
+        }
+        
+        List<String> bookingEvents() {
+            return events.stream().filter(event -> event.contains("event:bookings")).toList();
+        }
+    }
+}
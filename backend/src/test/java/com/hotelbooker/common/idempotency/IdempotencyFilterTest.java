@@ -0,0 +1,132 @@
+package com.hotelbooker.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+    
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(
+                new LocalIdempotencyStore(Duration.ofHours(1), Duration.ofMinutes(1)),
+                new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "paths", List.of("/bookings"));
+        ReflectionTestUtils.setField(filter, "waitTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(filter, "maxBodySize", DataSize.ofBytes(64));
+    }
+    
+    @Test
+    void retryReplaysTheFirstResponseWithoutExecutingAgain() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"roomId\":\"r1\"}", created());
+        MockHttpServletResponse retry = send("key-1", "{\"roomId\":\"r1\"}", created());
+        
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("booking-1");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+    
+    @Test
+    void concurrentDuplicateWaitsForTheInFlightRequest() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+        
+        CompletableFuture<MockHttpServletResponse> original = CompletableFuture.supplyAsync(() -> sendUnchecked("key-2", slow));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> sendUnchecked("key-2", slow));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        proceed.countDown();
+        
+        assertThat(original.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("booking-1");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("booking-1");
+        assertThat(executions).hasValue(1);
+    }
+    
+    @Test
+    void failedRequestReleasesItsKey() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        send("key-3", "{}", failing);
+        MockHttpServletResponse retry = send("key-3", "{}", created());
+        
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+    
+    @Test
+    void keyReusedForAnotherBodyIsRejected() throws Exception {
+        send("key-4", "{\"roomId\":\"r1\"}", created());
+        MockHttpServletResponse other = send("key-4", "{\"roomId\":\"r2\"}", created());
+        
+        assertThat(executions).hasValue(1);
+        assertThat(other.getStatus()).isEqualTo(422);
+    }
+    
+    @Test
+    void oversizedBodyIsRejectedWithoutExecuting() throws Exception {
+        MockHttpServletResponse response = send("key-5", "{\"note\":\"" + "x".repeat(64) + "\"}", created());
+        
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(0);
+    }
+    
+    private FilterChain created() {
+        return (request, response) -> {
+            request.getInputStream().readAllBytes();
+            ((HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write(("booking-" + executions.incrementAndGet()).getBytes(StandardCharsets.UTF_8));
+        };
+    }
+    
+    private MockHttpServletResponse sendUnchecked(String key, FilterChain chain) {
+        try {
+            return send(key, "{}", chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bookings");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,107 @@
+package com.hotelbooker.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * An owner whose claim expired must leave the claim of the retry that took the key over alone
+ */
+class IdempotencyStoreTest {
+    
+    private static final IdempotencyRecord RESPONSE =
+            new IdempotencyRecord("fp", new StoredResponse(201, "text/plain", new byte[]{1}));
+    
+    @Test
+    void localStoreIgnoresAnExpiredOwner() throws Exception {
+        LocalIdempotencyStore store = new LocalIdempotencyStore(Duration.ofHours(1), Duration.ofMillis(20));
+        assertThat(store.claim("k", "fp", "first")).isEmpty();
+        Thread.sleep(50);
+        assertThat(store.claim("k", "fp", "retry")).isEmpty();
+        
+        store.release("k", "first");
+        store.complete("k", "first", RESPONSE);
+        
+        assertThat(store.claim("k", "fp", "third")).hasValueSatisfying(record -> {
+            assertThat(record.isInFlight()).isTrue();
+            assertThat(record.owner()).isEqualTo("retry");
+        });
+        store.release("k", "retry");
+        assertThat(store.claim("k", "fp", "third")).isEmpty();
+    }
+    
+    @Test
+    void redisStoreIgnoresAnExpiredOwner() {
+        FakeRedis redis = new FakeRedis();
+        RedisIdempotencyStore store = new RedisIdempotencyStore(redis, new ObjectMapper().findAndRegisterModules(),
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        assertThat(store.claim("k", "fp", "first")).isEmpty();
+        // The first owner's claim expires and a retry claims the key
+        redis.values.clear();
+        assertThat(store.claim("k", "fp", "retry")).isEmpty();
+        
+        store.release("k", "first");
+        store.complete("k", "first", RESPONSE);
+        
+        Optional<IdempotencyRecord> current = store.claim("k", "fp", "third");
+        assertThat(current).hasValueSatisfying(record -> {
+            assertThat(record.isInFlight()).isTrue();
+            assertThat(record.owner()).isEqualTo("retry");
+        });
+        store.complete("k", "retry", RESPONSE);
+        assertThat(store.claim("k", "fp", "third")).hasValueSatisfying(record ->
+                assertThat(record.response().status()).isEqualTo(201));
+        store.release("k", "retry");
+        assertThat(redis.values).containsKey("idempotency:k");
+    }
+    
+    /**
+     * String values in a map; scripts are the store's compare-and-set (three arguments) and
+     * compare-and-delete (one argument)
+     */
+    @SuppressWarnings("unchecked")
+    private static final class FakeRedis extends StringRedisTemplate {
+        
+        final Map<String, String> values = new HashMap<>();
+        private final ValueOperations<String, String> operations = mock(ValueOperations.class);
+        
+        FakeRedis() {
+            when(operations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                    .thenAnswer(call -> values.putIfAbsent(call.getArgument(0), call.getArgument(1)) == null);
+            when(operations.get(any())).thenAnswer(call -> values.get(call.<String>getArgument(0)));
+        }
+        
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return operations;
+        }
+        
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            String key = keys.get(0);
+            if (!args[0].equals(values.get(key))) {
+                return (T) Long.valueOf(0);
+            }
+            if (args.length == 1) {
+                values.remove(key);
+            } else {
+                values.put(key, (String) args[1]);
+            }
+            return (T) Long.valueOf(1);
+        }
+    }
+}
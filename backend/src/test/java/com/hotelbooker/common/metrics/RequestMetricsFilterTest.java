@@ -0,0 +1,54 @@
+package com.hotelbooker.common.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestMetricsFilterTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(meterRegistry);
+    
+    @Test
+    void exposesStatementStatsAndRecordsMetrics() throws Exception {
+        configure(5, true, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        filter.doFilter(new MockHttpServletRequest("GET", "/hotels"), response, (req, res) -> {
+            RequestMetricsContext.recordSqlStatement();
+            RequestMetricsContext.recordSqlStatement();
+            RequestMetricsContext.recordEntityLoaded();
+            res.getWriter().write("ok");
+        });
+        
+        assertThat(response.getHeader(RequestMetricsFilter.SQL_STATS_HEADER)).startsWith("statements=2; entities=1;");
+        assertThat(response.getContentAsString()).isEqualTo("ok");
+        assertThat(meterRegistry.get("http.server.requests.sql.statements").summary().totalAmount()).isEqualTo(2);
+        assertThat(RequestMetricsContext.current()).isNull();
+    }
+    
+    @Test
+    void failsRequestsOverBudgetWhenConfigured() {
+        configure(3, false, true);
+        
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/hotels"),
+                new MockHttpServletResponse(), (req, res) -> {
+                    for (int i = 0; i < 4; i++) {
+                        RequestMetricsContext.recordSqlStatement();
+                    }
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("issued 4 statements (budget 3)");
+    }
+    
+    private void configure(int maxStatements, boolean exposeHeader, boolean failOnExceed) {
+        ReflectionTestUtils.setField(filter, "maxStatements", maxStatements);
+        ReflectionTestUtils.setField(filter, "exposeHeader", exposeHeader);
+        ReflectionTestUtils.setField(filter, "failOnExceed", failOnExceed);
+    }
+}
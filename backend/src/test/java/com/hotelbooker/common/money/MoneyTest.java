@@ -0,0 +1,39 @@
+package com.hotelbooker.common.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+    
+    @Test
+    void convertsDecimalsExactlyToMinorUnits() {
+        assertThat(Money.of(19.99).minorUnits()).isEqualTo(1999);
+        assertThat(Money.of(0.29, "usd").minorUnits()).isEqualTo(29);
+        assertThat(Money.of(new BigDecimal("10.005"), "EUR").minorUnits()).isEqualTo(1001);
+        assertThat(Money.of(new BigDecimal("1500"), "JPY").minorUnits()).isEqualTo(1500);
+        assertThat(Money.of(19.99).withCurrency("JPY").minorUnits()).isEqualTo(20);
+        assertThat(Money.of(12.5).toDecimal()).isEqualByComparingTo("12.50");
+    }
+    
+    @Test
+    void arithmeticIsExactAndCurrencySafe() {
+        Money nightly = Money.of(33.33);
+        assertThat(nightly.times(3).plus(Money.of(0.01))).isEqualTo(Money.of(100.0));
+        assertThat(Money.applyBasisPoints(1999, 9_500)).isEqualTo(1899);
+        assertThat(Money.applyBasisPoints(-1999, 9_500)).isEqualTo(-1899);
+        assertThat(Money.divideHalfUp(71_000, 3)).isEqualTo(23_667);
+        assertThatThrownBy(() -> nightly.plus(Money.of(1.0, "EUR"))).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void serializesAsPlainDecimal() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertThat(mapper.writeValueAsString(Money.of(19.9))).isEqualTo("19.90");
+        assertThat(mapper.readValue("19.99", Money.class)).isEqualTo(Money.ofMinor(1999));
+    }
+}
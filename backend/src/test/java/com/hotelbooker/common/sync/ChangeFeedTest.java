@@ -0,0 +1,147 @@
+package com.hotelbooker.common.sync;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.entity.Booking;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.calendar.dto.CalendarChangesDto;
+import com.hotelbooker.calendar.dto.RoomInstanceDto;
+import com.hotelbooker.calendar.service.CalendarService;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.entity.RoomInstance;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A token returns only what changed after it, and pages never split rows sharing a number
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ChangeFeedTest {
+    
+    @Autowired
+    private CalendarService calendarService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private RoomInstanceRepository roomInstanceRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private SyncTombstoneRepository tombstoneRepository;
+    
+    private Hotel hotel;
+    private Room room;
+    private RoomInstance roomInstance;
+    
+    @BeforeEach
+    void seed() {
+        hotel = hotelRepository.save(TestFixtures.hotel("Sync Hotel", "Kampot").build());
+        room = roomRepository.save(TestFixtures.room(hotel, "Double", 90.0, 1).build());
+        roomInstance = roomInstanceRepository.save(RoomInstance.builder()
+                .roomType(room)
+                .roomNumber("SYNC-101")
+                .floor(1)
+                .status(RoomInstance.RoomStatus.AVAILABLE)
+                .build());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        tombstoneRepository.deleteAll(tombstoneRepository.findChangedByHotelId(hotel.getId(), 0, Pageable.unpaged()));
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        roomInstanceRepository.delete(roomInstance);
+        roomRepository.delete(room);
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void calendarChangesFollowTheToken() {
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        Booking booking = bookingRepository.save(Booking.builder()
+                .hotel(hotel)
+                .room(room)
+                .roomInstance(roomInstance)
+                .checkInDate(checkIn)
+                .checkOutDate(checkIn.plusDays(2))
+                .numberOfGuests(2)
+                .numberOfRooms(1)
+                .numberOfNights(2)
+                .totalPrice(Money.of(180.0))
+                .status(Booking.BookingStatus.CONFIRMED)
+                .guestName("Synced")
+                .build());
+        
+        CalendarChangesDto first = calendarService.getChanges(hotel.getId(), 0);
+        assertThat(first.getRooms()).extracting(RoomInstanceDto::getId).containsExactly(roomInstance.getId());
+        assertThat(first.getBookings()).extracting(BookingDto::getId).containsExactly(booking.getId());
+        assertThat(first.isHasMore()).isFalse();
+        assertThat(first.isReset()).isFalse();
+        
+        calendarService.updateRoomStatus(roomInstance.getId(), "MAINTENANCE");
+        tombstoneRepository.save(SyncTombstone.builder()
+                .entityType(SyncTombstone.EntityType.BOOKING)
+                .entityId("removed-booking")
+                .hotelId(hotel.getId())
+                .build());
+        
+        CalendarChangesDto second = calendarService.getChanges(hotel.getId(), first.getToken());
+        assertThat(second.getRooms()).singleElement()
+                .satisfies(changed -> assertThat(changed.getStatus()).isEqualTo("MAINTENANCE"));
+        assertThat(second.getBookings()).isEmpty();
+        assertThat(second.getRemovedBookingIds()).containsExactly("removed-booking");
+        assertThat(second.getToken()).isGreaterThanOrEqualTo(first.getToken());
+        
+        // Older than the kept tombstones: the client starts over
+        CalendarChangesDto stale = calendarService.getChanges(hotel.getId(), 1);
+        assertThat(stale.isReset()).isTrue();
+        assertThat(stale.getBookings()).extracting(BookingDto::getId).containsExactly(booking.getId());
+    }
+    
+    @Test
+    void pagesEndBetweenChangeNumbers() {
+        ChangeFeed feed = new ChangeFeed(tombstoneRepository, Duration.ZERO, Duration.ofDays(30), 2);
+        long base = ChangeSequence.at(Instant.now().minus(Duration.ofHours(1)));
+        List<SyncTombstone> fetched = List.of(tombstone(base + 2), tombstone(base), tombstone(base + 1), tombstone(base + 1));
+        
+        ChangeFeed.Page page = feed.page(base, base, fetched);
+        assertThat(page.changes()).extracting(ChangeTracked::getChangeSeq).containsExactly(base);
+        assertThat(page.token()).isEqualTo(base + 1);
+        assertThat(page.hasMore()).isTrue();
+        
+        // Changes newer than the settle window never move the token past them
+        long future = ChangeSequence.at(Instant.now().plus(Duration.ofMinutes(1)));
+        page = feed.page(base, base, List.of(tombstone(future), tombstone(future + 1), tombstone(future + 2)));
+        assertThat(page.changes()).hasSize(2);
+        assertThat(page.token()).isLessThan(future);
+        assertThat(page.hasMore()).isFalse();
+    }
+    
+    private static SyncTombstone tombstone(long changeSeq) {
+        return SyncTombstone.builder().changeSeq(changeSeq).build();
+    }
+}
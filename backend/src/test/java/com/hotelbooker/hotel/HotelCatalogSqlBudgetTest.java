@@ -0,0 +1,248 @@
+package com.hotelbooker.hotel;
+
+import com.hotelbooker.common.metrics.RequestMetricsFilter;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.hotel.search.HotelFacetIndex;
+import com.hotelbooker.hotel.search.HotelSearchCache;
+import com.hotelbooker.hotel.service.HotelSearchViewService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catalog read endpoints must stay within the test profile's SQL statement
+ * budget; RequestMetricsFilter fails any request that exceeds it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class HotelCatalogSqlBudgetTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private HotelSearchViewService hotelSearchViewService;
+    
+    @Autowired
+    private HotelFacetIndex hotelFacetIndex;
+    
+    @Autowired
+    private HotelSearchCache hotelSearchCache;
+    
+    private Hotel hotel;
+    
+    @BeforeEach
+    void seed() {
+        hotelSearchCache.invalidateAll();
+        roomRepository.deleteAll();
+        hotelRepository.deleteAll();
+        hotel = hotelRepository.save(hotel("Budget Hotel"));
+        for (int r = 0; r < 3; r++) {
+            roomRepository.save(Room.builder()
+                    .hotel(hotel)
+                    .roomType("Type " + r)
+                    .pricePerNight(Money.of(80.0 + r))
+                    .maxGuests(2)
+                    .totalRooms(4)
+                    .availableRooms(4)
+                    .images(new ArrayList<>(List.of("room.jpg")))
+                    .amenities(new ArrayList<>(List.of("WiFi")))
+                    .build());
+        }
+    }
+    
+    @Test
+    void hotelDetailsStayWithinBudget() throws Exception {
+        String stats = mockMvc.perform(get("/hotels/{hotelId}", hotel.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+        
+        assertThat(statements(stats)).isBetween(1, 3);
+    }
+    
+    @Test
+    void hotelRoomsStayWithinBudget() throws Exception {
+        String stats = mockMvc.perform(get("/hotels/{hotelId}/rooms", hotel.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+        
+        // Rooms plus one subselect per element collection
+        assertThat(statements(stats)).isEqualTo(3);
+    }
+    
+    @Test
+    void listingHotelsRunsConstantNumberOfQueries() throws Exception {
+        List<Hotel> hotels = new ArrayList<>();
+        for (int i = 0; i < 999; i++) {
+            hotels.add(hotel("Hotel " + i));
+        }
+        hotelRepository.saveAll(hotels);
+        
+        String listStats = mockMvc.perform(get("/hotels"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+        String searchStats = mockMvc.perform(post("/hotels/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"location\": \"phnom\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+        
+        // Hotels plus one subselect each for images and amenities, independent of N
+        assertThat(statements(listStats)).isEqualTo(3);
+        assertThat(statements(searchStats)).isEqualTo(3);
+    }
+    
+    @Test
+    void summarySearchIsSingleQuery() throws Exception {
+        List<Hotel> hotels = new ArrayList<>();
+        for (int i = 0; i < 999; i++) {
+            hotels.add(hotel("Hotel " + i));
+        }
+        hotelRepository.saveAll(hotels);
+        hotelSearchViewService.rebuildAll();
+        
+        String stats = mockMvc.perform(post("/hotels/search/summary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"location\": \"Budget\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].minRoomPrice").value(80.0))
+                .andExpect(jsonPath("$.data[0].thumbnailUrl").value("a.jpg"))
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+        
+        assertThat(statements(stats)).isEqualTo(1);
+    }
+    
+    @Test
+    void facetSearchIsSingleQuery() throws Exception {
+        Hotel spa = hotel("Spa Hotel");
+        spa.setAmenities(new ArrayList<>(List.of("Spa", "WiFi")));
+        hotelRepository.save(spa);
+        hotelSearchViewService.rebuildAll();
+        hotelFacetIndex.rebuild();
+        
+        String stats = mockMvc.perform(post("/hotels/search/facets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"location\": \"phnom\", \"anyAmenities\": [\"spa\", \"gym\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(1))
+                .andExpect(jsonPath("$.data.hotels[0].name").value("Spa Hotel"))
+                .andExpect(jsonPath("$.data.amenities.WiFi").value(1))
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+        
+        assertThat(statements(stats)).isEqualTo(1);
+    }
+    
+    @Test
+    void pagedSearchWalksSortedPagesWithCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Hotel cheap = hotel("Cheap " + i);
+            cheap.setPricePerNight(Money.of(10.0 + i));
+            hotelRepository.save(cheap);
+        }
+        
+        MockHttpServletResponse first = mockMvc.perform(post("/hotels/search/page")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sort\": \"PRICE\", \"limit\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(6))
+                .andExpect(jsonPath("$.data.items.length()").value(2))
+                .andExpect(jsonPath("$.data.items[0].name").value("Cheap 0"))
+                .andExpect(jsonPath("$.data.items[1].name").value("Cheap 1"))
+                .andReturn().getResponse();
+        // Ranking columns of the matches, then the page's hotels with one subselect each for images and amenities
+        assertThat(statements(first.getHeader(RequestMetricsFilter.SQL_STATS_HEADER))).isEqualTo(4);
+        
+        String cursor = JsonPath.read(first.getContentAsString(), "$.data.nextCursor");
+        mockMvc.perform(post("/hotels/search/page")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sort\": \"PRICE\", \"limit\": 3, \"cursor\": \"" + cursor + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].name").value("Cheap 2"))
+                .andExpect(jsonPath("$.data.items[2].name").value("Cheap 4"))
+                .andExpect(jsonPath("$.data.nextCursor").isNotEmpty());
+        
+        mockMvc.perform(post("/hotels/search/page")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sort\": \"PRICE_DESC\", \"page\": 1, \"limit\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].name").value("Cheap 0"))
+                .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+    }
+    
+    @Test
+    void repeatedSearchIsServedFromCacheUntilHotelChanges() throws Exception {
+        assertThat(statements(search("{\"location\": \"Phnom\", \"guests\": 2}"))).isEqualTo(3);
+        assertThat(statements(search("{\"location\": \" phnom \"}"))).isZero();
+        
+        mockMvc.perform(put("/hotels/{hotelId}", hotel.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Renamed\", \"address\": \"1 Test Street\", \"city\": \"Phnom Penh\", "
+                                + "\"country\": \"Cambodia\", \"pricePerNight\": 90.0, \"starRating\": 4}"))
+                .andExpect(status().isOk());
+        
+        assertThat(statements(search("{\"location\": \"phnom\"}"))).isEqualTo(3);
+    }
+    
+    private String search(String body) throws Exception {
+        return mockMvc.perform(post("/hotels/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(RequestMetricsFilter.SQL_STATS_HEADER);
+    }
+    
+    static int statements(String statsHeader) {
+        assertThat(statsHeader).isNotNull();
+        String count = statsHeader.substring("statements=".length(), statsHeader.indexOf(';'));
+        return Integer.parseInt(count);
+    }
+    
+    static Hotel hotel(String name) {
+        return Hotel.builder()
+                .name(name)
+                .address("1 Test Street")
+                .city("Phnom Penh")
+                .country("Cambodia")
+                .latitude(11.56)
+                .longitude(104.92)
+                .pricePerNight(Money.of(100.0))
+                .guestRating(4.2)
+                .totalReviews(10)
+                .starRating(4)
+                .images(new ArrayList<>(List.of("a.jpg", "b.jpg")))
+                .amenities(new ArrayList<>(List.of("Pool", "WiFi")))
+                .available(true)
+                .status(Hotel.HotelStatus.ACTIVE)
+                .build();
+    }
+}
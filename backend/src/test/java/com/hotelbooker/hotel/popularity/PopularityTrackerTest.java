@@ -0,0 +1,72 @@
+package com.hotelbooker.hotel.popularity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PopularityTrackerTest {
+    
+    private final PopularityTracker tracker =
+            new PopularityTracker(null, new SimpleMeterRegistry(), Duration.ofDays(7), "test");
+    
+    @Test
+    void ranksDestinationsPerRegionAndGlobally() {
+        for (int i = 0; i < 5; i++) {
+            tracker.record(PopularitySignal.SEARCH, null, "Siem Reap", "Cambodia");
+        }
+        tracker.record(PopularitySignal.BOOKING, "h1", "Phnom Penh", "Cambodia");
+        tracker.record(PopularitySignal.VIEW, "h2", "Bangkok", "Thailand");
+        tracker.drain();
+        
+        assertThat(tracker.topDestinations("Cambodia", 10)).extracting(PopularItem::name)
+                .containsExactly("Phnom Penh", "Siem Reap");
+        assertThat(tracker.topDestinations(PopularityTracker.GLOBAL, 2)).extracting(PopularItem::name)
+                .containsExactly("Phnom Penh", "Siem Reap");
+        assertThat(tracker.destinationScore("phnom penh ")).isCloseTo(20.0, within(0.01));
+        assertThat(tracker.hotelScore("h2")).isCloseTo(3.0, within(0.01));
+        assertThat(tracker.hotelScore("unknown")).isZero();
+    }
+    
+    @Test
+    void citySpellingsShareOneEntry() {
+        tracker.record(PopularitySignal.SEARCH, null, "Siem Reap", "Cambodia");
+        tracker.record(PopularitySignal.SEARCH, null, "siem reap ", "cambodia");
+        tracker.record(PopularitySignal.SEARCH, null, "SIEM REAP", "CAMBODIA");
+        tracker.drain();
+        
+        assertThat(tracker.topDestinations("Cambodia", 10)).singleElement().satisfies(item -> {
+            assertThat(item.name()).isEqualTo("Siem Reap");
+            assertThat(item.score()).isCloseTo(tracker.destinationScore("Siem Reap"), within(0.01));
+        });
+    }
+    
+    @Test
+    void countMinSketchNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("key-" + (i % 200), 1.0);
+        }
+        
+        for (int i = 0; i < 200; i++) {
+            assertThat(sketch.estimate("key-" + i)).isGreaterThanOrEqualTo(5.0);
+        }
+    }
+    
+    @Test
+    void spaceSavingKeepsHeavyHittersWithinCapacity() {
+        SpaceSaving heavyHitters = new SpaceSaving(4);
+        for (int i = 0; i < 500; i++) {
+            heavyHitters.add("noise-" + i, 1.0);
+            if (i % 2 == 0) {
+                heavyHitters.add("heavy", 1.0);
+            }
+        }
+        
+        assertThat(heavyHitters.top(4)).hasSize(4);
+        assertThat(heavyHitters.top(1).get(0).key()).isEqualTo("heavy");
+    }
+}
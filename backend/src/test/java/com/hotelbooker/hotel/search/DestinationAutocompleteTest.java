@@ -0,0 +1,72 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.dto.AutocompleteSuggestionDto;
+import com.hotelbooker.hotel.entity.Hotel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DestinationAutocompleteTest {
+    
+    private final DestinationAutocomplete autocomplete = new DestinationAutocomplete(null);
+    
+    @BeforeEach
+    void seed() {
+        autocomplete.put(hotel("1", "Raffles Hotel Le Royal", "Phnom Penh", "Cambodia", 900));
+        autocomplete.put(hotel("2", "Rosewood Phnom Penh", "Phnom Penh", "Cambodia", 400));
+        autocomplete.put(hotel("3", "Park Hyatt", "Siem Reap", "Cambodia", 700));
+        autocomplete.put(hotel("4", "Phuket Beach Resort", "Phuket", "Thailand", 10));
+    }
+    
+    @Test
+    void completesPrefixesWithPopularDestinationsFirst() {
+        List<AutocompleteSuggestionDto> suggestions = autocomplete.suggest("ph", 10);
+        
+        assertThat(suggestions).extracting(AutocompleteSuggestionDto::getText)
+                .startsWith("Phnom Penh")
+                .contains("Rosewood Phnom Penh", "Phuket");
+        assertThat(suggestions.get(0).getType()).isEqualTo("CITY");
+        assertThat(suggestions.get(0).getHotelCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void matchesWordStartsAndToleratesTypos() {
+        assertThat(autocomplete.suggest("penh", 10)).extracting(AutocompleteSuggestionDto::getText)
+                .contains("Phnom Penh", "Rosewood Phnom Penh");
+        assertThat(autocomplete.suggest("seim re", 10)).extracting(AutocompleteSuggestionDto::getText)
+                .contains("Siem Reap");
+        assertThat(autocomplete.suggest("cambodai", 10)).extracting(AutocompleteSuggestionDto::getText)
+                .containsExactly("Cambodia");
+    }
+    
+    @Test
+    void exactPrefixRanksAboveFuzzyMatch() {
+        List<AutocompleteSuggestionDto> suggestions = autocomplete.suggest("phuk", 10);
+        
+        assertThat(suggestions.get(0).getText()).isEqualTo("Phuket");
+    }
+    
+    @Test
+    void removesHotelsIncrementally() {
+        autocomplete.remove("3");
+        
+        assertThat(autocomplete.suggest("siem", 10)).isEmpty();
+        assertThat(autocomplete.suggest("cambodia", 10)).singleElement()
+                .extracting(AutocompleteSuggestionDto::getHotelCount).isEqualTo(2);
+    }
+    
+    private static Hotel hotel(String id, String name, String city, String country, int reviews) {
+        Hotel hotel = Hotel.builder()
+                .name(name)
+                .city(city)
+                .country(country)
+                .totalReviews(reviews)
+                .available(true)
+                .build();
+        hotel.setId(id);
+        return hotel;
+    }
+}
@@ -0,0 +1,75 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.dto.HotelClusterDto;
+import com.hotelbooker.hotel.entity.Hotel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelClusterIndexTest {
+    
+    private final HotelClusterIndex index = new HotelClusterIndex(null);
+    
+    @Test
+    void encodesGeohash() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+    }
+    
+    @Test
+    void aggregatesHotelsPerVisibleCell() {
+        for (int i = 0; i < 100; i++) {
+            index.put(hotel("pp" + i, 11.55 + i * 0.0005, 104.91, 50.0 + i, 4.0));
+        }
+        index.put(hotel("best", 11.56, 104.92, 300.0, 4.9));
+        index.put(hotel("siem-reap", 13.36, 103.86, 40.0, 4.0));
+        Hotel closed = hotel("closed", 11.56, 104.92, 10.0, 5.0);
+        closed.setAvailable(false);
+        index.put(closed);
+        
+        // Country-wide viewport: Phnom Penh and Siem Reap fall into separate cells
+        List<HotelClusterDto> clusters = index.clusters(10.0, 102.0, 14.5, 107.5, 8);
+        
+        assertThat(clusters).hasSize(2);
+        HotelClusterDto phnomPenh = clusters.stream().filter(c -> c.getCount() > 1).findFirst().orElseThrow();
+        assertThat(phnomPenh.getCount()).isEqualTo(101);
+        assertThat(phnomPenh.getMinPrice()).isEqualTo(50.0);
+        assertThat(phnomPenh.getHotelId()).isEqualTo("best");
+        
+        index.remove("pp0");
+        index.remove("best");
+        phnomPenh = index.clusters(10.0, 102.0, 14.5, 107.5, 8).stream()
+                .filter(c -> c.getCount() > 1).findFirst().orElseThrow();
+        assertThat(phnomPenh.getCount()).isEqualTo(99);
+        assertThat(phnomPenh.getMinPrice()).isEqualTo(51.0);
+    }
+    
+    @Test
+    void lowZoomOverWholeWorldStaysBounded() {
+        index.put(hotel("fiji", -17.7, 178.0, 90.0, 4.0));
+        index.put(hotel("samoa", -13.8, -171.8, 80.0, 4.0));
+        
+        assertThat(index.clusters(-85.0, -180.0, 85.0, 180.0, 16)).hasSizeLessThanOrEqualTo(2);
+        assertThat(index.clusters(-25.0, 170.0, -10.0, -165.0, 4))
+                .extracting(HotelClusterDto::getCount)
+                .containsOnly(1)
+                .hasSize(2);
+    }
+    
+    private static Hotel hotel(String id, double latitude, double longitude, double price, double rating) {
+        Hotel hotel = Hotel.builder()
+                .name(id)
+                .latitude(latitude)
+                .longitude(longitude)
+                .pricePerNight(Money.of(price))
+                .guestRating(rating)
+                .totalReviews(10)
+                .available(true)
+                .status(Hotel.HotelStatus.ACTIVE)
+                .build();
+        hotel.setId(id);
+        return hotel;
+    }
+}
@@ -0,0 +1,58 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.entity.Hotel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelFacetIndexTest {
+    
+    private final HotelFacetIndex index = new HotelFacetIndex(null);
+    
+    @Test
+    void filtersWithAndOrAmenitiesAndCountsFacets() {
+        index.put(hotel("a", "Phnom Penh", 5, "Pool", "WiFi", "Spa"));
+        index.put(hotel("b", "Phnom Penh", 4, "pool", "WiFi"));
+        index.put(hotel("c", "Siem Reap", 4, "WiFi", "Gym"));
+        index.put(hotel("d", "Siem Reap", 3, "Spa"));
+        
+        FacetResult all = index.search(null, new FacetQuery(List.of("wifi"), null, null, null));
+        assertThat(all.hotelIds()).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(all.amenityCounts()).containsEntry("Pool", 2).containsEntry("WiFi", 3).containsEntry("Gym", 1);
+        assertThat(all.starRatingCounts()).isEqualTo(Map.of(5, 1, 4, 2));
+        assertThat(all.cityCounts()).isEqualTo(Map.of("Phnom Penh", 2, "Siem Reap", 1));
+        
+        FacetResult any = index.search(List.of("d", "c", "b", "a"),
+                new FacetQuery(null, List.of("Gym", "Spa"), List.of(3, 4), List.of("siem reap")));
+        assertThat(any.hotelIds()).containsExactly("d", "c");
+        
+        assertThat(index.search(null, new FacetQuery(List.of("Sauna"), null, null, null)).hotelIds()).isEmpty();
+    }
+    
+    @Test
+    void updatesReplacePreviousFacets() {
+        index.put(hotel("a", "Phnom Penh", 5, "Pool"));
+        index.put(hotel("a", "Kampot", 3, "Garden"));
+        index.put(hotel("b", "Kampot", 3, "Pool"));
+        index.remove("b");
+        
+        FacetResult result = index.search(null, new FacetQuery(null, null, null, null));
+        assertThat(result.hotelIds()).containsExactly("a");
+        assertThat(result.amenityCounts()).isEqualTo(Map.of("Garden", 1));
+        assertThat(result.cityCounts()).isEqualTo(Map.of("Kampot", 1));
+    }
+    
+    private static Hotel hotel(String id, String city, int stars, String... amenities) {
+        Hotel hotel = Hotel.builder()
+                .name(id)
+                .city(city)
+                .starRating(stars)
+                .amenities(List.of(amenities))
+                .build();
+        hotel.setId(id);
+        return hotel;
+    }
+}
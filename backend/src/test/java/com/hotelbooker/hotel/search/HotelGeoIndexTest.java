@@ -0,0 +1,72 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.hotel.entity.Hotel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelGeoIndexTest {
+    
+    // Phnom Penh riverside
+    private static final double LAT = 11.5700;
+    private static final double LON = 104.9300;
+    
+    private final HotelGeoIndex index = new HotelGeoIndex(null);
+    
+    @Test
+    void radiusSearchReturnsNearestFirstWithinRadius() {
+        index.put(hotel("far", 11.5700, 104.9800));     // ~5.4 km east
+        index.put(hotel("near", 11.5710, 104.9310));    // ~0.15 km
+        index.put(hotel("middle", 11.5900, 104.9300));  // ~2.2 km north
+        index.put(hotel("siem-reap", 13.3600, 103.8600));
+        
+        List<GeoHit> hits = index.withinRadius(LAT, LON, 3.0, 10);
+        
+        assertThat(hits).extracting(GeoHit::hotelId).containsExactly("near", "middle");
+        assertThat(hits.get(1).distanceKm()).isBetween(2.1, 2.3);
+    }
+    
+    @Test
+    void radiusSearchKeepsOnlyTopK() {
+        for (int i = 0; i < 50; i++) {
+            index.put(hotel("h" + i, LAT + i * 0.001, LON));
+        }
+        
+        List<GeoHit> hits = index.withinRadius(LAT, LON, 50.0, 3);
+        
+        assertThat(hits).extracting(GeoHit::hotelId).containsExactly("h0", "h1", "h2");
+    }
+    
+    @Test
+    void viewportSearchHandlesAntimeridian() {
+        index.put(hotel("fiji", -17.7, 178.0));
+        index.put(hotel("samoa", -13.8, -171.8));
+        index.put(hotel("sydney", -33.9, 151.2));
+        
+        List<GeoHit> hits = index.withinBounds(-25.0, 170.0, -10.0, -165.0, -15.0, 179.0, 10);
+        
+        assertThat(hits).extracting(GeoHit::hotelId).containsExactlyInAnyOrder("fiji", "samoa");
+    }
+    
+    @Test
+    void updatesAndRemovalsAreIncremental() {
+        index.put(hotel("moving", LAT, LON));
+        index.put(hotel("moving", 13.36, 103.86));
+        index.put(hotel("unknown", 0.0, 0.0));
+        
+        assertThat(index.withinRadius(LAT, LON, 10.0, 10)).isEmpty();
+        assertThat(index.withinRadius(13.36, 103.86, 1.0, 10)).extracting(GeoHit::hotelId).containsExactly("moving");
+        assertThat(index.size()).isEqualTo(1);
+        
+        index.remove("moving");
+        assertThat(index.size()).isZero();
+    }
+    
+    private static Hotel hotel(String id, double latitude, double longitude) {
+        Hotel hotel = Hotel.builder().name(id).latitude(latitude).longitude(longitude).build();
+        hotel.setId(id);
+        return hotel;
+    }
+}
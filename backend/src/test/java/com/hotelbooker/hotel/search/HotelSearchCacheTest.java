@@ -0,0 +1,181 @@
+package com.hotelbooker.hotel.search;
+
+import com.hotelbooker.common.dto.PageResponse;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.dto.HotelDto;
+import com.hotelbooker.hotel.dto.HotelSearchRequest;
+import com.hotelbooker.hotel.entity.Hotel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelSearchCacheTest {
+    
+    private final HotelSearchCache cache = new HotelSearchCache(null, new SimpleMeterRegistry(), true,
+            10_000, Duration.ofMinutes(10));
+    
+    @Test
+    void resultLoadedWhileAHotelChangesIsServedButNotKept() {
+        HotelSearchRequest request = request(r -> r.setLocation("phnom"));
+        AtomicInteger loads = new AtomicInteger();
+        
+        PageResponse<HotelDto> page = cache.get(request, () -> {
+            loads.incrementAndGet();
+            // A write commits while the search is still running
+            cache.invalidateHotel("other", Optional.of(hotel("Riverside", "Phnom Penh", 11.57, 104.93)));
+            return result("h1");
+        });
+        
+        assertThat(page.getItems()).isEmpty();
+        assertThat(cache.size()).isZero();
+        cache.get(request, () -> {
+            loads.incrementAndGet();
+            return result("h1");
+        });
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+    
+    @Test
+    void hotelChangeDropsOnlySearchesItMatchedOrCouldEnter() {
+        HotelSearchRequest siemReap = request(r -> r.setCities(List.of("Siem Reap")));
+        HotelSearchRequest kampot = request(r -> r.setCities(List.of("Kampot")));
+        HotelSearchRequest nearby = request(r -> {
+            r.setLatitude(13.36);
+            r.setLongitude(103.86);
+            r.setRadiusKm(5.0);
+        });
+        HotelSearchRequest withPool = request(r -> r.setAmenities(List.of("Pool")));
+        cache.get(siemReap, () -> result());
+        cache.get(kampot, () -> result("k1"));
+        cache.get(nearby, () -> result());
+        cache.get(withPool, () -> result());
+        
+        cache.invalidateHotel("new", Optional.of(hotel("Angkor Lodge", "Siem Reap", 13.37, 103.86)));
+        
+        // The hotel entered the Siem Reap and nearby searches; it has no pool and is not in Kampot
+        assertThat(cached(siemReap)).isFalse();
+        assertThat(cached(nearby)).isFalse();
+        assertThat(cached(withPool)).isTrue();
+        assertThat(cached(kampot)).isTrue();
+        
+        cache.invalidateHotel("k1", Optional.empty());
+        
+        assertThat(cached(kampot)).isFalse();
+    }
+    
+    @Test
+    void radiusAndBoundsAreCheckedAgainstCoordinates() {
+        Hotel angkor = hotel("Angkor Lodge", "Siem Reap", 13.37, 103.86);
+        
+        assertThat(HotelSearchCache.couldMatch(key(r -> {
+            r.setLatitude(13.36);
+            r.setLongitude(103.86);
+            r.setRadiusKm(5.0);
+        }), angkor)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> {
+            r.setLatitude(11.57);
+            r.setLongitude(104.93);
+            r.setRadiusKm(50.0);
+        }), angkor)).isFalse();
+        assertThat(HotelSearchCache.couldMatch(key(r -> bounds(r, 13.0, 103.5, 14.0, 104.0)), angkor)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> bounds(r, 11.0, 104.5, 12.0, 105.0)), angkor)).isFalse();
+        
+        // A viewport across the antimeridian, and a hotel without coordinates
+        Hotel fiji = hotel("Coral Coast", "Sigatoka", -17.7, 178.0);
+        assertThat(HotelSearchCache.couldMatch(key(r -> bounds(r, -25.0, 170.0, -10.0, -165.0)), fiji)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> bounds(r, -25.0, 170.0, -10.0, -165.0)),
+                hotel("Unmapped", "Sigatoka", 0.0, 0.0))).isFalse();
+    }
+    
+    @Test
+    void attributeAndFacetFiltersMustAllPass() {
+        Hotel hotel = hotel("Riverside", "Phnom Penh", 11.57, 104.93);
+        
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setLocation("Penh")), hotel)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setLocation("cambodia")), hotel)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setLocation("bangkok")), hotel)).isFalse();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setMaxPrice(80.0)), hotel)).isFalse();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setMinStarRating(4)), hotel)).isFalse();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setStarRatings(List.of(2, 3))), hotel)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setAmenities(List.of("wifi", "spa"))), hotel)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setAmenities(List.of("wifi", "pool"))), hotel)).isFalse();
+        assertThat(HotelSearchCache.couldMatch(key(r -> r.setAnyAmenities(List.of("pool", "Spa"))), hotel)).isTrue();
+        assertThat(HotelSearchCache.couldMatch(key(r -> {
+            r.setCities(List.of("phnom penh"));
+            r.setMinGuestRating(4.5);
+        }), hotel)).isFalse();
+    }
+    
+    @Test
+    void searchesAreFiledUnderTheirMostSelectiveFilter() {
+        assertThat(HotelSearchCache.filterValues(key(r -> {
+            r.setCities(List.of("Kampot"));
+            r.setStarRatings(List.of(4));
+        }))).containsExactly("city:kampot");
+        assertThat(HotelSearchCache.filterValues(key(r -> bounds(r, 11.2, 104.5, 12.8, 105.5))))
+                .containsExactlyInAnyOrder("cell:11:104", "cell:11:105", "cell:12:104", "cell:12:105");
+        assertThat(HotelSearchCache.filterValues(key(r -> bounds(r, -60.0, -170.0, 60.0, 170.0))))
+                .containsExactly("cell:wide");
+        assertThat(HotelSearchCache.filterValues(key(r -> r.setMinPrice(50.0)))).containsExactly("open");
+        assertThat(HotelSearchCache.hotelValues(hotel("Riverside", "Phnom Penh", 11.57, 104.93)))
+                .contains("open", "cell:wide", "cell:11:104", "city:phnom penh", "star:3", "amenity:spa");
+    }
+    
+    private boolean cached(HotelSearchRequest request) {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(request, () -> {
+            loads.incrementAndGet();
+            return result();
+        });
+        return loads.get() == 0;
+    }
+    
+    private static SearchCacheKey key(Consumer<HotelSearchRequest> filters) {
+        return SearchCacheKey.of(request(filters));
+    }
+    
+    private static HotelSearchRequest request(Consumer<HotelSearchRequest> filters) {
+        HotelSearchRequest request = new HotelSearchRequest();
+        filters.accept(request);
+        return request;
+    }
+    
+    private static void bounds(HotelSearchRequest request, double south, double west, double north, double east) {
+        request.setSouth(south);
+        request.setWest(west);
+        request.setNorth(north);
+        request.setEast(east);
+    }
+    
+    private static SearchResult result(String... matchedHotelIds) {
+        PageResponse<HotelDto> page = PageResponse.<HotelDto>builder()
+                .items(List.of())
+                .total(matchedHotelIds.length)
+                .build();
+        return new SearchResult(page, Set.of(matchedHotelIds));
+    }
+    
+    private static Hotel hotel(String name, String city, double latitude, double longitude) {
+        return Hotel.builder()
+                .name(name)
+                .city(city)
+                .country("Cambodia")
+                .latitude(latitude)
+                .longitude(longitude)
+                .pricePerNight(Money.of(100.0))
+                .guestRating(4.2)
+                .starRating(3)
+                .amenities(new ArrayList<>(List.of("WiFi", "Spa")))
+                .build();
+    }
+}
@@ -0,0 +1,341 @@
+package com.hotelbooker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.auth.security.JwtService;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.payment.gateway.FakePaymentGateway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the booking funnel (search -> rooms -> create booking -> payment intent
+ * -> webhook) with concurrent virtual users against local stand-ins and fails
+ * when any SLO from application-loadtest.yml is violated.
+ *
+ * Booking and payment-intent calls carry an Idempotency-Key, and a share of them
+ * ({@code loadtest.retry-rate}) is sent twice at once the way a client retries after a
+ * timeout; both copies must get the same booking or payment intent back.
+ *
+ * Run with: mvn test -Ploadtest
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class BookingFunnelLoadTest {
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private FakePaymentGateway fakePaymentGateway;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private RoomInstanceRepository roomInstanceRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtService jwtService;
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    
+    private final AtomicInteger duplicates = new AtomicInteger();
+    
+    private LoadTestSettings settings;
+    
+    @Test
+    void bookingFunnelMeetsSlos() throws Exception {
+        settings = Binder.get(environment)
+                .bind("loadtest", LoadTestSettings.class)
+                .orElseGet(LoadTestSettings::new);
+        
+        LoadTestDataSeeder seeder = new LoadTestDataSeeder(
+                hotelRepository, roomRepository, roomInstanceRepository, userRepository, jwtService);
+        seeder.seedCatalog(settings);
+        List<String> tokens = seeder.seedUserTokens(settings);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getConcurrency());
+        // Warm up JIT, connection pools and caches before measuring
+        runVirtualUsers(executor, tokens, settings.getWarmupIterations());
+        recorder.reset();
+        duplicates.set(0);
+        
+        long start = System.nanoTime();
+        runVirtualUsers(executor, tokens, settings.getIterationsPerUser());
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        executor.shutdown();
+        
+        int oversell = countOversoldRooms();
+        List<LatencyRecorder.EndpointStats> stats = recorder.snapshot();
+        long totalRequests = stats.stream().mapToLong(LatencyRecorder.EndpointStats::getCount).sum();
+        long totalErrors = stats.stream().mapToLong(LatencyRecorder.EndpointStats::getErrors).sum();
+        double throughput = totalRequests / elapsedSeconds;
+        
+        printReport(stats, elapsedSeconds, throughput, oversell);
+        System.out.printf("Retried requests that executed twice: %d%n", duplicates.get());
+        
+        LoadTestSettings.Slo slo = settings.getSlo();
+        List<String> violations = new ArrayList<>();
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            LoadTestSettings.EndpointSlo endpointSlo = slo.getEndpoints().get(endpoint.getEndpoint());
+            if (endpointSlo == null) {
+                continue;
+            }
+            if (endpoint.percentileMillis(50) > endpointSlo.getP50Ms()) {
+                violations.add(endpoint.getEndpoint() + " p50 " + format(endpoint.percentileMillis(50))
+                        + "ms > " + endpointSlo.getP50Ms() + "ms");
+            }
+            if (endpoint.percentileMillis(99) > endpointSlo.getP99Ms()) {
+                violations.add(endpoint.getEndpoint() + " p99 " + format(endpoint.percentileMillis(99))
+                        + "ms > " + endpointSlo.getP99Ms() + "ms");
+            }
+        }
+        if (totalRequests > 0 && (double) totalErrors / totalRequests > slo.getMaxErrorRate()) {
+            violations.add("error rate " + totalErrors + "/" + totalRequests + " > " + slo.getMaxErrorRate());
+        }
+        if (throughput < slo.getMinThroughputRps()) {
+            violations.add("throughput " + format(throughput) + " rps < " + slo.getMinThroughputRps() + " rps");
+        }
+        if (oversell > slo.getMaxOversell()) {
+            violations.add("oversold rooms " + oversell + " > " + slo.getMaxOversell());
+        }
+        if (duplicates.get() > slo.getMaxDuplicates()) {
+            violations.add("retries executed twice " + duplicates.get() + " > " + slo.getMaxDuplicates());
+        }
+        
+        assertThat(violations).as("SLO violations").isEmpty();
+    }
+    
+    private void runVirtualUsers(ExecutorService executor, List<String> tokens, int iterations) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (String token : tokens) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    runFunnel(token);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+    
+    private void runFunnel(String token) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String city = LoadTestDataSeeder.CITIES.get(random.nextInt(LoadTestDataSeeder.CITIES.size()));
+        
+        JsonNode hotels = call("search", "POST", "/hotels/search", null,
+                Map.of("location", city, "guests", 2, "rooms", 1));
+        if (hotels == null || hotels.isEmpty()) {
+            return;
+        }
+        String hotelId = hotels.get(random.nextInt(hotels.size())).get("id").asText();
+        
+        JsonNode rooms = call("rooms", "GET", "/hotels/" + hotelId + "/rooms", null, null);
+        if (rooms == null || rooms.isEmpty()) {
+            return;
+        }
+        String roomId = rooms.get(random.nextInt(rooms.size())).get("id").asText();
+        
+        LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(60));
+        JsonNode booking = callWithRetry("create-booking", "/bookings", token, "id", Map.of(
+                "hotelId", hotelId,
+                "roomId", roomId,
+                "checkInDate", checkIn.toString(),
+                "checkOutDate", checkIn.plusDays(1 + random.nextInt(4)).toString(),
+                "numberOfGuests", 2,
+                "numberOfRooms", 1,
+                "guestName", "Load Test Guest",
+                "guestEmail", "guest@hotel.test",
+                "guestPhone", "+85510000000"
+        ));
+        if (booking == null) {
+            return;
+        }
+        
+        JsonNode intent = callWithRetry("create-payment-intent", "/payments/create-intent", token, "paymentIntentId", Map.of(
+                "amount", booking.get("totalPrice").asDouble(),
+                "currency", "usd",
+                "bookingId", booking.get("id").asText()
+        ));
+        if (intent == null) {
+            return;
+        }
+        
+        String payload = fakePaymentGateway.webhookPayload(
+                intent.get("paymentIntentId").asText(), "payment_intent.succeeded");
+        send("webhook", HttpRequest.newBuilder(uri("/webhooks/stripe"))
+                .header("Content-Type", "application/json")
+                .header("Stripe-Signature", "t=0,v1=fake")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build());
+    }
+    
+    /**
+     * POST with a fresh Idempotency-Key, sending a concurrent copy for {@code loadtest.retry-rate}
+     * of the calls; counts a duplicate when the two copies created different {@code idField}s
+     */
+    private JsonNode callWithRetry(String endpoint, String path, String token, String idField, Object body) throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        if (ThreadLocalRandom.current().nextDouble() >= settings.getRetryRate()) {
+            return call(endpoint, "POST", path, token, body, idempotencyKey);
+        }
+        CompletableFuture<JsonNode> retry = CompletableFuture.supplyAsync(() -> {
+            try {
+                return call(endpoint, "POST", path, token, body, idempotencyKey);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        JsonNode first = call(endpoint, "POST", path, token, body, idempotencyKey);
+        JsonNode second = retry.join();
+        if (first != null && second != null && !first.get(idField).asText().equals(second.get(idField).asText())) {
+            duplicates.incrementAndGet();
+        }
+        return first != null ? first : second;
+    }
+    
+    private JsonNode call(String endpoint, String method, String path, String token, Object body) throws Exception {
+        return call(endpoint, method, path, token, body, null);
+    }
+    
+    /**
+     * Issue an ApiResponse-wrapped call and return its data node, or null when it did not succeed
+     */
+    private JsonNode call(String endpoint, String method, String path, String token, Object body,
+                          String idempotencyKey) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        builder.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        
+        HttpResponse<String> response = send(endpoint, builder.build());
+        if (response == null || response.statusCode() / 100 != 2) {
+            return null;
+        }
+        return objectMapper.readTree(response.body()).get("data");
+    }
+    
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - start, classify(response));
+            return response;
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - start, LatencyRecorder.Outcome.ERROR);
+            return null;
+        }
+    }
+    
+    private LatencyRecorder.Outcome classify(HttpResponse<String> response) {
+        if (response.statusCode() / 100 == 2) {
+            return LatencyRecorder.Outcome.OK;
+        }
+        // Sold-out inventory is an expected business rejection, not a failure
+        if (response.body() != null && response.body().contains("Not enough rooms available")) {
+            return LatencyRecorder.Outcome.REJECTED;
+        }
+        return LatencyRecorder.Outcome.ERROR;
+    }
+    
+    /**
+     * Rooms whose non-cancelled bookings exceed their physical inventory
+     */
+    private int countOversoldRooms() {
+        Integer oversold = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (" +
+                "  SELECT r.id FROM rooms r " +
+                "  LEFT JOIN bookings b ON b.room_id = r.id AND b.status <> 'CANCELLED' " +
+                "  GROUP BY r.id, r.total_rooms, r.available_rooms " +
+                "  HAVING COALESCE(SUM(b.number_of_rooms), 0) > r.total_rooms OR r.available_rooms < 0" +
+                ") oversold",
+                Integer.class
+        );
+        return oversold != null ? oversold : 0;
+    }
+    
+    private void printReport(List<LatencyRecorder.EndpointStats> stats, double elapsedSeconds,
+                             double throughput, int oversell) {
+        StringBuilder report = new StringBuilder("\n=== Booking funnel load test ===\n");
+        report.append(String.format("%-24s %8s %8s %8s %8s %10s %10s%n",
+                "endpoint", "count", "rejected", "errors", "rps", "p50(ms)", "p99(ms)"));
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            report.append(String.format("%-24s %8d %8d %8d %8.1f %10.1f %10.1f%n",
+                    endpoint.getEndpoint(), endpoint.getCount(), endpoint.getRejected(), endpoint.getErrors(),
+                    endpoint.getCount() / elapsedSeconds,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(99)));
+        }
+        report.append(String.format("total throughput: %.1f rps over %.1fs, oversold rooms: %d%n",
+                throughput, elapsedSeconds, oversell));
+        System.out.println(report);
+    }
+    
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1" + path);
+    }
+    
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hotelbooker.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects per-endpoint latencies and outcomes from concurrent virtual users.
+ */
+public class LatencyRecorder {
+    
+    public enum Outcome { OK, REJECTED, ERROR }
+    
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    
+    public void record(String endpoint, long elapsedNanos, Outcome outcome) {
+        endpoints.computeIfAbsent(endpoint, EndpointStats::new).record(elapsedNanos, outcome);
+    }
+    
+    public void reset() {
+        endpoints.clear();
+    }
+    
+    public List<EndpointStats> snapshot() {
+        List<EndpointStats> stats = new ArrayList<>(endpoints.values());
+        stats.sort((a, b) -> a.getEndpoint().compareTo(b.getEndpoint()));
+        return stats;
+    }
+    
+    public static class EndpointStats {
+        private final String endpoint;
+        private final ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+        private final AtomicLong ok = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+        
+        void record(long elapsedNanos, Outcome outcome) {
+            samples.add(elapsedNanos);
+            switch (outcome) {
+                case OK -> ok.incrementAndGet();
+                case REJECTED -> rejected.incrementAndGet();
+                case ERROR -> errors.incrementAndGet();
+            }
+        }
+        
+        public String getEndpoint() {
+            return endpoint;
+        }
+        
+        public long getCount() {
+            return ok.get() + rejected.get() + errors.get();
+        }
+        
+        public long getRejected() {
+            return rejected.get();
+        }
+        
+        public long getErrors() {
+            return errors.get();
+        }
+        
+        public double percentileMillis(double percentile) {
+            long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+            if (sorted.length == 0) {
+                return 0;
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
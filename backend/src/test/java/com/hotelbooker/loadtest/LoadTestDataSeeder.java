@@ -0,0 +1,125 @@
+package com.hotelbooker.loadtest;
+
+import com.hotelbooker.auth.entity.User;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.auth.security.JwtService;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.entity.RoomInstance;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomInstanceRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a realistic catalog (hotels, room types, physical rooms) and a pool of
+ * users with ready-made JWTs for the load-test virtual users.
+ */
+@RequiredArgsConstructor
+public class LoadTestDataSeeder {
+    
+    static final List<String> CITIES = List.of(
+            "Phnom Penh", "Siem Reap", "Sihanoukville", "Kampot", "Battambang", "Kep"
+    );
+    
+    private static final List<String> ROOM_TYPES = List.of("Standard", "Deluxe", "Suite", "Family");
+    private static final List<String> AMENITIES = List.of(
+            "WiFi", "Pool", "Spa", "Gym", "Parking", "Restaurant", "Bar", "Airport Shuttle"
+    );
+    
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final RoomInstanceRepository roomInstanceRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    
+    public List<Hotel> seedCatalog(LoadTestSettings settings) {
+        Random random = new Random(42);
+        List<Hotel> hotels = new ArrayList<>();
+        
+        for (int h = 0; h < settings.getHotels(); h++) {
+            String city = CITIES.get(h % CITIES.size());
+            Hotel hotel = Hotel.builder()
+                    .name("Load Test Hotel " + h)
+                    .description("Seeded for the booking funnel load test")
+                    .address(h + " Riverside Road")
+                    .city(city)
+                    .country("Cambodia")
+                    .latitude(10.5 + random.nextDouble() * 3)
+                    .longitude(103.0 + random.nextDouble() * 3)
+                    .pricePerNight(Money.of(40.0 + random.nextInt(200)))
+                    .guestRating(3.0 + random.nextInt(20) / 10.0)
+                    .totalReviews(random.nextInt(2000))
+                    .starRating(2 + random.nextInt(4))
+                    .images(new ArrayList<>(List.of(
+                            "https://images.example.com/hotels/" + h + "/1.jpg",
+                            "https://images.example.com/hotels/" + h + "/2.jpg")))
+                    .amenities(new ArrayList<>(pickAmenities(random)))
+                    .featured(h % 5 == 0)
+                    .available(true)
+                    .status(Hotel.HotelStatus.ACTIVE)
+                    .build();
+            hotel = hotelRepository.save(hotel);
+            
+            for (int r = 0; r < settings.getRoomsPerHotel(); r++) {
+                Room room = Room.builder()
+                        .hotel(hotel)
+                        .roomType(ROOM_TYPES.get(r % ROOM_TYPES.size()))
+                        .description("Seeded room type")
+                        .pricePerNight(hotel.getPricePerNight().plus(Money.of(r * 25.0)))
+                        .maxGuests(2 + r)
+                        .totalRooms(settings.getRoomsPerType())
+                        .availableRooms(settings.getRoomsPerType())
+                        .size(20.0 + r * 10)
+                        .images(new ArrayList<>(List.of("https://images.example.com/rooms/" + h + "-" + r + ".jpg")))
+                        .amenities(new ArrayList<>(List.of("WiFi", "Air Conditioning")))
+                        .bedType(r == 0 ? "Queen" : "King")
+                        .build();
+                room = roomRepository.save(room);
+                
+                for (int i = 0; i < settings.getRoomsPerType(); i++) {
+                    roomInstanceRepository.save(RoomInstance.builder()
+                            .roomType(room)
+                            .roomNumber("LT" + h + "-" + (r + 1) + String.format("%02d", i + 1))
+                            .floor(r + 1)
+                            .status(RoomInstance.RoomStatus.AVAILABLE)
+                            .build());
+                }
+            }
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+    
+    public List<String> seedUserTokens(LoadTestSettings settings) {
+        List<String> tokens = new ArrayList<>();
+        for (int u = 0; u < settings.getUsers(); u++) {
+            User user = userRepository.save(User.builder()
+                    .fullName("Load Test User " + u)
+                    .email("loadtest-user-" + u + "@hotel.test")
+                    // Never used to log in: virtual users authenticate with the token below
+                    .password("{noop}not-a-real-password")
+                    .phoneNumber("+85510000" + String.format("%03d", u))
+                    .role(User.Role.USER)
+                    .emailVerified(true)
+                    .build());
+            tokens.add(jwtService.generateToken(user));
+        }
+        return tokens;
+    }
+    
+    private List<String> pickAmenities(Random random) {
+        List<String> picked = new ArrayList<>();
+        for (String amenity : AMENITIES) {
+            if (random.nextBoolean()) {
+                picked.add(amenity);
+            }
+        }
+        return picked;
+    }
+}
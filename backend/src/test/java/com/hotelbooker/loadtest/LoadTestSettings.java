@@ -0,0 +1,39 @@
+package com.hotelbooker.loadtest;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Workload shape and SLOs for the booking funnel load test, bound from the
+ * {@code loadtest.*} keys in application-loadtest.yml.
+ */
+@Data
+public class LoadTestSettings {
+    private int hotels = 20;
+    private int roomsPerHotel = 3;
+    private int roomsPerType = 5;
+    private int users = 20;
+    private int concurrency = 16;
+    private int iterationsPerUser = 10;
+    private int warmupIterations = 2;
+    // Share of booking and payment-intent calls sent twice with the same Idempotency-Key
+    private double retryRate = 0;
+    private Slo slo = new Slo();
+    
+    @Data
+    public static class Slo {
+        private int maxOversell = 0;
+        private int maxDuplicates = 0;
+        private double maxErrorRate = 0.01;
+        private double minThroughputRps = 0;
+        private Map<String, EndpointSlo> endpoints = new HashMap<>();
+    }
+    
+    @Data
+    public static class EndpointSlo {
+        private long p50Ms = Long.MAX_VALUE;
+        private long p99Ms = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,189 @@
+package com.hotelbooker.payment;
+
+import com.hotelbooker.TestFixtures;
+import com.hotelbooker.auth.repository.UserRepository;
+import com.hotelbooker.booking.dto.BookingDto;
+import com.hotelbooker.booking.dto.CartBookingDto;
+import com.hotelbooker.booking.dto.CreateCartBookingRequest;
+import com.hotelbooker.booking.repository.BookingRepository;
+import com.hotelbooker.booking.service.BookingService;
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.hotel.entity.Hotel;
+import com.hotelbooker.hotel.entity.Room;
+import com.hotelbooker.hotel.repository.HotelRepository;
+import com.hotelbooker.hotel.repository.RoomRepository;
+import com.hotelbooker.payment.dto.PaymentIntentRequest;
+import com.hotelbooker.payment.dto.PaymentIntentResponse;
+import com.hotelbooker.payment.repository.PaymentRepository;
+import com.hotelbooker.payment.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A payment intent is only created for the paying guest's own booking or cart, for
+ * exactly its total and in its currency
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(username = PaymentServiceTest.EMAIL)
+class PaymentServiceTest {
+    
+    static final String EMAIL = "payment-guest@hotel.test";
+    private static final String OTHER_EMAIL = "payment-other@hotel.test";
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomRepository roomRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private Hotel hotel;
+    private Room twin;
+    private Room suite;
+    private CartBookingDto cart;
+    
+    @BeforeEach
+    void seed() {
+        TestFixtures.guest(userRepository, EMAIL, "Payment Guest");
+        TestFixtures.guest(userRepository, OTHER_EMAIL, "Other Guest");
+        hotel = hotelRepository.save(TestFixtures.hotel("Payment Hotel", "Kampot").build());
+        twin = roomRepository.save(TestFixtures.room(hotel, "Twin", 80.0, 2).build());
+        suite = roomRepository.save(TestFixtures.room(hotel, "Suite", 150.0, 1).build());
+        cart = bookingService.createCartBooking(cart(item(twin), item(suite)));
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAll(paymentRepository.findByUserId(EMAIL));
+        TestFixtures.deleteBookings(bookingRepository, hotel);
+        roomRepository.deleteAll(List.of(twin, suite));
+        hotelRepository.delete(hotel);
+    }
+    
+    @Test
+    void chargesExactlyTheBookingOrCartTotal() {
+        BookingDto booking = cart.getBookings().get(0);
+        
+        PaymentIntentResponse forBooking = paymentService.createPaymentIntent(
+                bookingRequest(booking.getId(), booking.getTotalPrice()), EMAIL);
+        PaymentIntentResponse forCart = paymentService.createPaymentIntent(
+                cartRequest(cart.getCartId(), cart.getTotalPrice()), EMAIL);
+        
+        assertThat(forBooking.getAmount()).isEqualTo(booking.getTotalPrice());
+        assertThat(forCart.getAmount()).isEqualTo(cart.getTotalPrice());
+        assertThat(paymentRepository.findByUserId(EMAIL)).hasSize(2);
+    }
+    
+    @Test
+    void rejectsUnknownBookingOrCart() {
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(bookingRequest("no-such-booking", Money.of(10.0)), EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Booking not found: no-such-booking");
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(cartRequest("no-such-cart", Money.of(10.0)), EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cart not found: no-such-cart");
+    }
+    
+    @Test
+    void rejectsAnotherGuestsBookingOrCart() {
+        BookingDto booking = cart.getBookings().get(0);
+        
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(
+                bookingRequest(booking.getId(), booking.getTotalPrice()), OTHER_EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unauthorized access to booking " + booking.getId());
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(
+                cartRequest(cart.getCartId(), cart.getTotalPrice()), OTHER_EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unauthorized access to booking ");
+    }
+    
+    @Test
+    void rejectsAnotherCurrency() {
+        BookingDto booking = cart.getBookings().get(0);
+        Money inEuros = Money.ofMinor(booking.getTotalPrice().minorUnits(), "EUR");
+        
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(bookingRequest(booking.getId(), inEuros), EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Currency EUR does not match booking currency USD");
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(
+                cartRequest(cart.getCartId(), Money.ofMinor(cart.getTotalPrice().minorUnits(), "EUR")), EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Currency EUR does not match cart currency USD");
+    }
+    
+    @Test
+    void rejectsAnyOtherAmount() {
+        BookingDto booking = cart.getBookings().get(0);
+        Money oneCentLess = booking.getTotalPrice().minus(Money.ofMinor(1));
+        
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(bookingRequest(booking.getId(), oneCentLess), EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount " + oneCentLess + " does not match booking total " + booking.getTotalPrice());
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(cartRequest(cart.getCartId(), booking.getTotalPrice()), EMAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount " + booking.getTotalPrice() + " does not match cart total " + cart.getTotalPrice());
+        assertThat(paymentRepository.findByUserId(EMAIL)).isEmpty();
+    }
+    
+    private static PaymentIntentRequest bookingRequest(String bookingId, Money amount) {
+        return PaymentIntentRequest.builder()
+                .bookingId(bookingId)
+                .amount(amount.toDecimal())
+                .currency(amount.currency())
+                .build();
+    }
+    
+    private static PaymentIntentRequest cartRequest(String cartId, Money amount) {
+        return PaymentIntentRequest.builder()
+                .cartId(cartId)
+                .amount(amount.toDecimal())
+                .currency(amount.currency())
+                .build();
+    }
+    
+    private static CreateCartBookingRequest cart(CreateCartBookingRequest.Item... items) {
+        CreateCartBookingRequest request = new CreateCartBookingRequest();
+        request.setItems(List.of(items));
+        request.setGuestName("Payment Guest");
+        request.setGuestEmail(EMAIL);
+        request.setGuestPhone("+85510000777");
+        return request;
+    }
+    
+    private static CreateCartBookingRequest.Item item(Room room) {
+        CreateCartBookingRequest.Item item = new CreateCartBookingRequest.Item();
+        item.setRoomId(room.getId());
+        item.setCheckInDate(LocalDate.now().plusDays(40));
+        item.setCheckOutDate(LocalDate.now().plusDays(42));
+        item.setNumberOfGuests(2);
+        item.setNumberOfRooms(1);
+        return item;
+    }
+}
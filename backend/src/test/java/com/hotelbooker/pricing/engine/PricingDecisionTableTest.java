@@ -0,0 +1,89 @@
+package com.hotelbooker.pricing.engine;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.pricing.entity.PricingRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PricingDecisionTableTest {
+    
+    // Friday 2025-06-06 to Monday 2025-06-09: Friday, Saturday and Sunday nights
+    private static final LocalDate FRIDAY = LocalDate.of(2025, 6, 6);
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 1);
+    
+    @Test
+    void appliesDayOfWeekSeasonAndStayRulesPerNight() {
+        PricingRule weekend = rule(PricingRule.AdjustmentType.PERCENTAGE, 20.0, 10);
+        weekend.setDaysOfWeek((1 << DayOfWeek.FRIDAY.ordinal()) | (1 << DayOfWeek.SATURDAY.ordinal()));
+        PricingRule season = rule(PricingRule.AdjustmentType.FIXED, 15.0, 20);
+        season.setStartDate(LocalDate.of(2025, 6, 8));
+        season.setEndDate(LocalDate.of(2025, 8, 31));
+        PricingRule longStay = rule(PricingRule.AdjustmentType.PERCENTAGE, -50.0, 30);
+        longStay.setMinNights(7);
+        
+        PricingDecisionTable table = PricingDecisionTable.compile(List.of(season, longStay, weekend), Double.NaN);
+        StayRequest stay = StayRequest.of(null, FRIDAY, FRIDAY.plusDays(3), 2, 2, TODAY);
+        
+        // 120 + 120 + 115 per room, two rooms
+        PriceQuote quote = table.quote(Money.of(100.0), stay);
+        assertThat(quote.nights()).isEqualTo(3);
+        assertThat(quote.total()).isEqualTo(Money.of(710.0));
+        assertThat(quote.averageNightly()).isEqualTo(Money.of(236.67));
+    }
+    
+    @Test
+    void occupancyLeadTimeAndPartyConditionsMustAllMatch() {
+        PricingRule busy = rule(PricingRule.AdjustmentType.PERCENTAGE, 10.0, 10);
+        busy.setMinOccupancy(85.0);
+        PricingRule lastMinute = rule(PricingRule.AdjustmentType.PERCENTAGE, -20.0, 20);
+        lastMinute.setMaxLeadDays(2);
+        PricingRule largeParty = rule(PricingRule.AdjustmentType.FIXED, 30.0, 30);
+        largeParty.setMinGuests(3);
+        largeParty.setRoomType("Suite");
+        
+        List<PricingRule> rules = List.of(busy, lastMinute, largeParty);
+        StayRequest farOut = StayRequest.of("suite", FRIDAY, FRIDAY.plusDays(1), 1, 4, TODAY);
+        StayRequest tomorrow = StayRequest.of("Deluxe", FRIDAY, FRIDAY.plusDays(1), 1, 2, FRIDAY.minusDays(1));
+        
+        PricingDecisionTable quiet = PricingDecisionTable.compile(rules, 40.0);
+        assertThat(quiet.quote(Money.of(100.0), farOut).total()).isEqualTo(Money.of(130.0));
+        assertThat(quiet.quote(Money.of(100.0), tomorrow).total()).isEqualTo(Money.of(80.0));
+        
+        PricingDecisionTable full = quiet.withOccupancy(90.0);
+        assertThat(full.quote(Money.of(100.0), farOut).total()).isEqualTo(Money.of(140.0));
+        assertThat(full.quote(Money.of(100.0), tomorrow).total()).isEqualTo(Money.of(88.0));
+        
+        // Unknown occupancy never matches an occupancy rule
+        assertThat(quiet.withOccupancy(Double.NaN).quote(Money.of(100.0), tomorrow).total()).isEqualTo(Money.of(80.0));
+    }
+    
+    @Test
+    void inactiveRulesAreSkippedAndPricesNeverGoNegative() {
+        PricingRule inactive = rule(PricingRule.AdjustmentType.PERCENTAGE, 500.0, 10);
+        inactive.setActive(false);
+        PricingRule discount = rule(PricingRule.AdjustmentType.FIXED, -150.0, 20);
+        
+        PricingDecisionTable table = PricingDecisionTable.compile(List.of(inactive, discount), Double.NaN);
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.quote(Money.of(100.0), StayRequest.of(null, null, null, null, null, TODAY)).total()).isEqualTo(Money.of(0.0));
+        assertThat(PricingDecisionTable.EMPTY.quote(Money.of(99.99), StayRequest.of(null, null, null, 3, 2, TODAY)).total())
+                .isEqualTo(Money.of(299.97));
+    }
+    
+    private static PricingRule rule(PricingRule.AdjustmentType type, double value, int priority) {
+        PricingRule rule = PricingRule.builder()
+                .name("rule-" + priority)
+                .ruleType(PricingRule.RuleType.SEASON)
+                .adjustmentType(type)
+                .adjustmentValue(value)
+                .priority(priority)
+                .build();
+        rule.setId("rule-" + priority);
+        return rule;
+    }
+}
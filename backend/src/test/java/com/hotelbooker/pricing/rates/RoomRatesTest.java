@@ -0,0 +1,69 @@
+package com.hotelbooker.pricing.rates;
+
+import com.hotelbooker.common.money.Money;
+import com.hotelbooker.pricing.engine.PricingDecisionTable;
+import com.hotelbooker.pricing.engine.StayRequest;
+import com.hotelbooker.pricing.entity.PricingRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomRatesTest {
+    
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+    
+    private final PricingDecisionTable table = PricingDecisionTable.compile(List.of(
+            rule("weekend", r -> r.setDaysOfWeek((1 << DayOfWeek.FRIDAY.ordinal()) | (1 << DayOfWeek.SATURDAY.ordinal())), 25.0),
+            rule("weekly", r -> r.setMinNights(7), -10.0)), Double.NaN);
+    
+    @Test
+    void prefixSumsMatchNightByNightPricing() {
+        RoomRates rates = RoomRates.compute("r1", "h1", "Deluxe", 8_000, table, MONDAY.toEpochDay(), 60, null);
+        
+        for (int start = 0; start < 50; start += 3) {
+            for (int nights = 1; nights <= 10; nights++) {
+                LocalDate checkIn = MONDAY.plusDays(start);
+                StayRequest stay = StayRequest.of("Deluxe", checkIn, checkIn.plusDays(nights), 2, 2, MONDAY);
+                long sum = rates.sumMinorUnits(checkIn.toEpochDay(), nights);
+                assertThat(table.quoteFromNights(sum, "USD", stay)).isEqualTo(table.quote(Money.of(80.0), stay));
+            }
+        }
+        
+        // Mon-Sun: five weekday nights at 80, Friday and Saturday at 100
+        assertThat(rates.sumMinorUnits(MONDAY.toEpochDay(), 7)).isEqualTo(60_000);
+        assertThat(rates.sumMinorUnits(MONDAY.toEpochDay() + 55, 7)).isEqualTo(-1);
+        assertThat(rates.sumMinorUnits(MONDAY.toEpochDay() - 1, 2)).isEqualTo(-1);
+    }
+    
+    @Test
+    void rollingForwardReusesOverlappingNights() {
+        RoomRates rates = RoomRates.compute("r1", "h1", "Deluxe", 8_000, table, MONDAY.toEpochDay(), 30, null);
+        RoomRates rolled = RoomRates.compute("r1", "h1", "Deluxe", 8_000, table, MONDAY.toEpochDay() + 1, 30, rates);
+        
+        assertThat(rolled.startDay()).isEqualTo(MONDAY.toEpochDay() + 1);
+        assertThat(rolled.sumMinorUnits(MONDAY.toEpochDay() + 1, 29))
+                .isEqualTo(rates.sumMinorUnits(MONDAY.toEpochDay() + 1, 29));
+        assertThat(rolled.nightlyMinorUnits(MONDAY.toEpochDay() + 30)).isEqualTo(8_000);
+        
+        RoomRates repriced = RoomRates.compute("r1", "h1", "Deluxe", 9_000, table, MONDAY.toEpochDay(), 30, rates);
+        assertThat(repriced.nightlyMinorUnits(MONDAY.toEpochDay())).isEqualTo(9_000);
+        assertThat(RoomRates.decode(repriced.encode())).hasSize(30).startsWith(9_000, 9_000, 9_000, 9_000, 11_250);
+    }
+    
+    private static PricingRule rule(String id, Consumer<PricingRule> condition, double percent) {
+        PricingRule rule = PricingRule.builder()
+                .name(id)
+                .ruleType(PricingRule.RuleType.DAY_OF_WEEK)
+                .adjustmentType(PricingRule.AdjustmentType.PERCENTAGE)
+                .adjustmentValue(percent)
+                .build();
+        rule.setId(id);
+        condition.accept(rule);
+        return rule;
+    }
+}